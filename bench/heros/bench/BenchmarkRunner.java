@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks of this package with the {@link GCProfiler}, which reports the allocation rate
+ * ({@code gc.alloc.rate}), and the {@link PeakHeapProfiler}. Accepts all command line options of JMH,
+ * e.g. a regular expression selecting the benchmarks or {@code -p methods=1000} to change parameters.
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+		OptionsBuilder builder = new OptionsBuilder();
+		builder.parent(commandLineOptions);
+		if(commandLineOptions.getIncludes().isEmpty())
+			builder.include(BenchmarkRunner.class.getPackage().getName()+".*");
+		Options options = builder
+				.addProfiler(GCProfiler.class)
+				.addProfiler(PeakHeapProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+}
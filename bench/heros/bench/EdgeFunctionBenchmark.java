@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.bench;
+
+import heros.JoinLattice;
+import heros.ide.edgefunc.EdgeFunction;
+import heros.ide.edgefunc.fieldsens.AccessPathBundle;
+import heros.ide.edgefunc.fieldsens.Factory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures composition and join of the field-sensitive edge functions of {@link heros.ide.edgefunc.fieldsens},
+ * which dominate the run time of the {@link heros.ide.EagerEvaluationIDESolver}. Each operation composes
+ * {@code chains} randomly generated sequences of {@code chainLength} prepend, read and overwrite functions,
+ * or joins the results of such compositions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EdgeFunctionBenchmark {
+
+	@Param({"4", "16"})
+	public int chainLength;
+
+	@Param({"64"})
+	public int chains;
+
+	@Param({"3"})
+	public int fields;
+
+	private List<List<EdgeFunction<AccessPathBundle<String>>>> sequences;
+	private List<EdgeFunction<AccessPathBundle<String>>> composed;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Factory<String> factory = new Factory<String>(new JoinLattice<AccessPathBundle<String>>() {
+			@Override
+			public AccessPathBundle<String> topElement() {
+				return null;
+			}
+
+			@Override
+			public AccessPathBundle<String> bottomElement() {
+				return new AccessPathBundle<String>();
+			}
+
+			@Override
+			public AccessPathBundle<String> join(AccessPathBundle<String> left, AccessPathBundle<String> right) {
+				if(left == null)
+					return right;
+				if(right == null)
+					return left;
+				return left.join(right);
+			}
+		});
+		Random random = new Random(42);
+		sequences = new ArrayList<List<EdgeFunction<AccessPathBundle<String>>>>(chains);
+		for(int i=0; i<chains; i++) {
+			List<EdgeFunction<AccessPathBundle<String>>> sequence = new ArrayList<EdgeFunction<AccessPathBundle<String>>>(chainLength);
+			for(int j=0; j<chainLength; j++) {
+				String field = "f"+random.nextInt(fields);
+				switch(random.nextInt(3)) {
+				case 0:
+					sequence.add(factory.prepend(field));
+					break;
+				case 1:
+					sequence.add(factory.read(field));
+					break;
+				default:
+					sequence.add(factory.overwrite(field));
+				}
+			}
+			sequences.add(sequence);
+		}
+		composed = compose();
+	}
+
+	@Benchmark
+	public List<EdgeFunction<AccessPathBundle<String>>> compose() {
+		List<EdgeFunction<AccessPathBundle<String>>> result = new ArrayList<EdgeFunction<AccessPathBundle<String>>>(sequences.size());
+		for(List<EdgeFunction<AccessPathBundle<String>>> sequence : sequences) {
+			EdgeFunction<AccessPathBundle<String>> function = sequence.get(0);
+			for(int i=1; i<sequence.size(); i++)
+				function = function.composeWith(sequence.get(i));
+			result.add(function);
+		}
+		return result;
+	}
+
+	@Benchmark
+	public EdgeFunction<AccessPathBundle<String>> join() {
+		EdgeFunction<AccessPathBundle<String>> result = composed.get(0);
+		for(int i=1; i<composed.size(); i++)
+			result = result.joinWith(composed.get(i));
+		return result;
+	}
+}
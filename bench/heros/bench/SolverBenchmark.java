@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.bench;
+
+import heros.IFDSTabulationProblem;
+import heros.bench.SyntheticICFG.Method;
+import heros.bench.SyntheticICFG.Node;
+import heros.fieldsens.FactMergeHandler;
+import heros.fieldsens.FieldSensitiveIFDSSolver;
+import heros.fieldsens.ParallelScheduler;
+import heros.fieldsens.PerAccessPathMethodAnalyzer;
+import heros.fieldsens.Scheduler;
+import heros.fieldsens.structs.WrappedFactAtStatement;
+import heros.ide.EagerEvaluationIDESolver;
+import heros.ide.IDETabulationProblem;
+import heros.ide.edgefunc.fieldsens.AccessPathBundle;
+import heros.solver.BiDiIFDSSolver;
+import heros.solver.BitVectorIFDSSolver;
+import heros.solver.IFDSSolver;
+import heros.solver.InterningIFDSSolver;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how many times per second each solver solves a problem over a {@link SyntheticICFG}.
+ * The number of path edges propagated per second is reported as the auxiliary counter {@code pathEdges}:
+ * for the {@link IFDSSolver} and {@link BiDiIFDSSolver} these are the scheduled path edges, for the
+ * field-sensitive and eager solvers the edges to new facts at statements.
+ *
+ * Run with the profilers of {@link BenchmarkRunner} to also obtain allocation rates and peak heap usage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverBenchmark {
+
+	@Param({"200"})
+	public int methods;
+
+	@Param({"20"})
+	public int stmtsPerMethod;
+
+	@Param({"5"})
+	public int callDepth;
+
+	@Param({"3"})
+	public int fanOut;
+
+	@Param({"0", "3"})
+	public int sccSize;
+
+	@Param({"16"})
+	public int domainSize;
+
+	@Param({"4"})
+	public int fields;
+
+	@Param({"1"})
+	public int threads;
+
+	private SyntheticProblems problems;
+	private IFDSTabulationProblem<Node, SyntheticFact, Method, SyntheticICFG> forwardProblem;
+	private IFDSTabulationProblem<Node, SyntheticFact, Method, SyntheticICFG> backwardProblem;
+	private heros.fieldsens.IFDSTabulationProblem<Node, String, SyntheticFact, Method, SyntheticICFG> fieldSensitiveProblem;
+	private IDETabulationProblem<Node, SyntheticFact, Method, AccessPathBundle<String>, SyntheticICFG> eagerIdeProblem;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		SyntheticICFG icfg = new SyntheticICFG(methods, stmtsPerMethod, callDepth, fanOut, sccSize, 42);
+		problems = new SyntheticProblems(icfg, domainSize, fields);
+		forwardProblem = problems.ifds(false, threads);
+		backwardProblem = problems.ifds(true, threads);
+		fieldSensitiveProblem = problems.fieldSensitive();
+		eagerIdeProblem = problems.eagerIde();
+	}
+
+	/**
+	 * Counts the path edges propagated during one iteration, JMH reports them per second.
+	 */
+	@AuxCounters
+	@State(Scope.Thread)
+	public static class PathEdges {
+
+		public long pathEdges;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			pathEdges = 0;
+		}
+	}
+
+	@Benchmark
+	public Object ifds(PathEdges counter) {
+		IFDSSolver<Node, SyntheticFact, Method, SyntheticICFG> solver = new IFDSSolver<Node, SyntheticFact, Method, SyntheticICFG>(forwardProblem);
+		solver.solve();
+		counter.pathEdges += solver.propagationCount;
+		return solver;
+	}
+
+	@Benchmark
+	public Object interningIfds(PathEdges counter) {
+		InterningIFDSSolver<Node, SyntheticFact, Method, SyntheticICFG> solver = new InterningIFDSSolver<Node, SyntheticFact, Method, SyntheticICFG>(forwardProblem);
+		solver.solve();
+		counter.pathEdges += solver.propagationCount;
+		return solver;
+	}
+
+	@Benchmark
+	public Object bitVectorIfds(PathEdges counter) {
+		BitVectorIFDSSolver<Node, SyntheticFact, Method, SyntheticICFG> solver = new BitVectorIFDSSolver<Node, SyntheticFact, Method, SyntheticICFG>(forwardProblem);
+		solver.solve();
+		counter.pathEdges += solver.propagationCount;
+		return solver;
+	}
+
+	@Benchmark
+	public Object biDiIfds(PathEdges counter) {
+		CountingBiDiIFDSSolver solver = new CountingBiDiIFDSSolver(forwardProblem, backwardProblem);
+		solver.solve();
+		counter.pathEdges += solver.propagationCount();
+		return solver;
+	}
+
+	@Benchmark
+	public Object fieldSensitive(PathEdges counter) {
+		Scheduler scheduler = createScheduler();
+		CountingFieldSensitiveDebugger debugger = new CountingFieldSensitiveDebugger();
+		FieldSensitiveIFDSSolver<String, SyntheticFact, Node, Method, SyntheticICFG> solver = new FieldSensitiveIFDSSolver<String, SyntheticFact, Node, Method, SyntheticICFG>(
+				fieldSensitiveProblem, new NoOpFactMergeHandler(), debugger, scheduler);
+		scheduler.runAndAwaitCompletion();
+		counter.pathEdges += debugger.edges.get();
+		return solver;
+	}
+
+	@Benchmark
+	public Object eagerIde(PathEdges counter) {
+		Scheduler scheduler = createScheduler();
+		CountingIDEDebugger debugger = new CountingIDEDebugger();
+		EagerEvaluationIDESolver<SyntheticFact, Node, Method, AccessPathBundle<String>, SyntheticICFG> solver = new EagerEvaluationIDESolver<SyntheticFact, Node, Method, AccessPathBundle<String>, SyntheticICFG>(
+				eagerIdeProblem, new NoOpFactMergeHandler(), debugger, scheduler);
+		scheduler.runAndAwaitCompletion();
+		counter.pathEdges += debugger.edges.get();
+		return solver;
+	}
+
+	private Scheduler createScheduler() {
+		return threads > 1 ? new ParallelScheduler(threads) : new Scheduler();
+	}
+
+	private static class CountingBiDiIFDSSolver extends BiDiIFDSSolver<Node, SyntheticFact, Method, SyntheticICFG> {
+
+		public CountingBiDiIFDSSolver(IFDSTabulationProblem<Node, SyntheticFact, Method, SyntheticICFG> forwardProblem,
+				IFDSTabulationProblem<Node, SyntheticFact, Method, SyntheticICFG> backwardProblem) {
+			super(forwardProblem, backwardProblem);
+		}
+
+		long propagationCount() {
+			return fwSolver.propagationCount + bwSolver.propagationCount;
+		}
+	}
+
+	private static class CountingFieldSensitiveDebugger extends heros.fieldsens.Debugger.NullDebugger<String, SyntheticFact, Node, Method> {
+
+		private final AtomicLong edges = new AtomicLong();
+
+		@Override
+		public void edgeTo(PerAccessPathMethodAnalyzer<String, SyntheticFact, Node, Method> analyzer,
+				WrappedFactAtStatement<String, SyntheticFact, Node, Method> factAtStmt) {
+			edges.incrementAndGet();
+		}
+	}
+
+	private static class CountingIDEDebugger extends heros.ide.Debugger.NullDebugger<SyntheticFact, Node, Method, AccessPathBundle<String>> {
+
+		private final AtomicLong edges = new AtomicLong();
+
+		@Override
+		public void edgeTo(heros.ide.PerAccessPathMethodAnalyzer<SyntheticFact, Node, Method, AccessPathBundle<String>> analyzer,
+				heros.ide.structs.WrappedFactAtStatement<SyntheticFact, Node, Method, AccessPathBundle<String>> factAtStmt) {
+			edges.incrementAndGet();
+		}
+	}
+
+	private static class NoOpFactMergeHandler implements FactMergeHandler<SyntheticFact> {
+
+		@Override
+		public void merge(SyntheticFact previousFact, SyntheticFact currentFact) {
+		}
+
+		@Override
+		public void restoreCallingContext(SyntheticFact factAtReturnSite, SyntheticFact factAtCallSite) {
+		}
+	}
+}
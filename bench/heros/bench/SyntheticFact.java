@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.bench;
+
+import heros.solver.JoinHandlingNode;
+
+/**
+ * A data-flow fact of the synthetic problems. Facts are identified by a number; the fact with number 0 is the zero value.
+ * Facts never handle joins themselves, so they can be used with the {@link heros.solver.BiDiIFDSSolver} as well.
+ */
+public class SyntheticFact implements JoinHandlingNode<SyntheticFact> {
+
+	private final int id;
+
+	public SyntheticFact(int id) {
+		this.id = id;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public boolean isZero() {
+		return id == 0;
+	}
+
+	/**
+	 * Creates the facts 0 to {@code domainSize}, the first of which is the zero value.
+	 */
+	public static SyntheticFact[] createDomain(int domainSize) {
+		SyntheticFact[] domain = new SyntheticFact[domainSize+1];
+		for(int i=0; i<domain.length; i++)
+			domain[i] = new SyntheticFact(i);
+		return domain;
+	}
+
+	@Override
+	public boolean handleJoin(SyntheticFact joiningNode) {
+		return false;
+	}
+
+	@Override
+	public JoinKey createJoinKey() {
+		return new JoinKey(this);
+	}
+
+	@Override
+	public void setCallingContext(SyntheticFact callingContext) {
+	}
+
+	@Override
+	public int hashCode() {
+		return id;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof SyntheticFact))
+			return false;
+		return id == ((SyntheticFact) obj).id;
+	}
+
+	@Override
+	public String toString() {
+		return isZero() ? "0" : "f"+id;
+	}
+}
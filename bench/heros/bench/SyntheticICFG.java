@@ -0,0 +1,285 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.bench;
+
+import heros.InterproceduralCFG;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * A randomly generated, but reproducible, {@link InterproceduralCFG} used to benchmark the solvers.
+ *
+ * Methods are arranged in {@code callDepth} levels. Methods of the first level are entry points; every
+ * method of a level calls {@code fanOut} randomly chosen methods of the next level. If {@code sccSize}
+ * is positive, the methods of each level are additionally grouped into strongly connected components
+ * of that size, in which each method calls the next one, i.e., {@code sccSize == 1} creates
+ * self-recursive methods. Each method consists of a chain of {@code stmtsPerMethod} statements with
+ * one loop, the call sites are spread evenly over the chain.
+ *
+ * Use {@link #reversed()} to obtain the backwards view of the same graph, e.g. for bidirectional solvers.
+ */
+public class SyntheticICFG implements InterproceduralCFG<SyntheticICFG.Node, SyntheticICFG.Method> {
+
+	private final List<Method> methods;
+	private final List<Method> entryMethods;
+	private final boolean backwards;
+	private SyntheticICFG reversed;
+
+	/**
+	 * Generates a new graph.
+	 * @param numMethods the total number of methods
+	 * @param stmtsPerMethod the number of statements of methods without calls, call sites come on top
+	 * @param callDepth the number of levels of the call graph
+	 * @param fanOut the number of call sites of each method (except for those of the last level) to methods of the next level
+	 * @param sccSize the size of recursive cycles within a level, or 0 for a call graph without recursion
+	 * @param seed the seed of the random generator, the same parameters and seed always yield the same graph
+	 */
+	public SyntheticICFG(int numMethods, int stmtsPerMethod, int callDepth, int fanOut, int sccSize, long seed) {
+		if(numMethods < 1 || stmtsPerMethod < 3 || callDepth < 1 || fanOut < 0 || sccSize < 0)
+			throw new IllegalArgumentException("Invalid shape of synthetic ICFG");
+		this.backwards = false;
+		this.methods = new ArrayList<Method>(numMethods);
+		Random random = new Random(seed);
+
+		List<List<Method>> levels = new ArrayList<List<Method>>();
+		int depth = Math.min(callDepth, numMethods);
+		for(int level=0; level<depth; level++)
+			levels.add(new ArrayList<Method>());
+		for(int i=0; i<numMethods; i++) {
+			Method m = new Method(i);
+			methods.add(m);
+			levels.get(i * depth / numMethods).add(m);
+		}
+		this.entryMethods = Collections.unmodifiableList(levels.get(0));
+
+		int nextNodeId = 0;
+		for(int level=0; level<depth; level++) {
+			List<Method> current = levels.get(level);
+			for(int i=0; i<current.size(); i++) {
+				List<Method> callees = new ArrayList<Method>();
+				if(level+1 < depth) {
+					List<Method> next = levels.get(level+1);
+					for(int j=0; j<fanOut; j++)
+						callees.add(next.get(random.nextInt(next.size())));
+				}
+				if(sccSize > 0) {
+					int sccStart = i - i % sccSize;
+					int sccEnd = Math.min(sccStart + sccSize, current.size());
+					callees.add(current.get(i+1 < sccEnd ? i+1 : sccStart));
+				}
+				nextNodeId = current.get(i).build(nextNodeId, stmtsPerMethod, callees);
+			}
+		}
+	}
+
+	private SyntheticICFG(SyntheticICFG forwards) {
+		this.backwards = true;
+		this.methods = forwards.methods;
+		this.entryMethods = forwards.entryMethods;
+		this.reversed = forwards;
+	}
+
+	/**
+	 * Returns the backwards view of this graph: predecessors and successors are swapped, exit statements become
+	 * start points and vice versa.
+	 */
+	public SyntheticICFG reversed() {
+		if(reversed == null)
+			reversed = new SyntheticICFG(this);
+		return reversed;
+	}
+
+	public List<Method> getMethods() {
+		return Collections.unmodifiableList(methods);
+	}
+
+	/**
+	 * Returns the start points of all methods of the first level of the call graph, these are suitable as initial seeds.
+	 */
+	public Set<Node> getEntryPoints() {
+		Set<Node> result = new LinkedHashSet<Node>();
+		for(Method m : entryMethods)
+			result.addAll(getStartPointsOf(m));
+		return result;
+	}
+
+	@Override
+	public Method getMethodOf(Node n) {
+		return n.method;
+	}
+
+	@Override
+	public List<Node> getPredsOf(Node u) {
+		return backwards ? u.succs : u.preds;
+	}
+
+	@Override
+	public List<Node> getSuccsOf(Node n) {
+		return backwards ? n.preds : n.succs;
+	}
+
+	@Override
+	public Collection<Method> getCalleesOfCallAt(Node n) {
+		return n.callee == null ? Collections.<Method>emptyList() : Collections.singletonList(n.callee);
+	}
+
+	@Override
+	public Collection<Node> getCallersOf(Method m) {
+		return m.callers;
+	}
+
+	@Override
+	public Set<Node> getCallsFromWithin(Method m) {
+		return m.callSites;
+	}
+
+	@Override
+	public Collection<Node> getStartPointsOf(Method m) {
+		return Collections.singletonList(backwards ? m.last() : m.first());
+	}
+
+	@Override
+	public Collection<Node> getReturnSitesOfCallAt(Node n) {
+		return getSuccsOf(n);
+	}
+
+	@Override
+	public boolean isCallStmt(Node stmt) {
+		return stmt.callee != null;
+	}
+
+	@Override
+	public boolean isExitStmt(Node stmt) {
+		return stmt == (backwards ? stmt.method.first() : stmt.method.last());
+	}
+
+	@Override
+	public boolean isStartPoint(Node stmt) {
+		return stmt == (backwards ? stmt.method.last() : stmt.method.first());
+	}
+
+	@Override
+	public Set<Node> allNonCallStartNodes() {
+		Set<Node> result = new LinkedHashSet<Node>();
+		for(Method m : methods) {
+			for(Node n : m.nodes) {
+				if(!isCallStmt(n) && !isStartPoint(n))
+					result.add(n);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public boolean isFallThroughSuccessor(Node stmt, Node succ) {
+		List<Node> succs = getSuccsOf(stmt);
+		return !succs.isEmpty() && succs.get(0) == succ;
+	}
+
+	@Override
+	public boolean isBranchTarget(Node stmt, Node succ) {
+		List<Node> succs = getSuccsOf(stmt);
+		return succs.size() > 1 && succs.get(0) != succ && succs.contains(succ);
+	}
+
+	public static class Method {
+
+		private final int id;
+		private final List<Node> nodes = new ArrayList<Node>();
+		private final Set<Node> callSites = new LinkedHashSet<Node>();
+		private final List<Node> callers = new ArrayList<Node>();
+
+		private Method(int id) {
+			this.id = id;
+		}
+
+		private int build(int firstNodeId, int numStmts, List<Method> callees) {
+			int total = numStmts + callees.size();
+			//positions 0 and total-1 are reserved for start point and exit statement
+			int nextCallee = 0;
+			for(int i=0; i<total; i++) {
+				Node node = new Node(firstNodeId + i, this);
+				if(i > 0 && i < total-1 && nextCallee < callees.size() && (i * callees.size()) / (total-1) >= nextCallee) {
+					node.callee = callees.get(nextCallee++);
+					node.callee.callers.add(node);
+					callSites.add(node);
+				}
+				nodes.add(node);
+			}
+			for(int i=1; i<total; i++) {
+				nodes.get(i-1).succs.add(nodes.get(i));
+				nodes.get(i).preds.add(nodes.get(i-1));
+			}
+			//a single loop from the second last statement back to the statement after the start point
+			Node loopEnd = nodes.get(total-2);
+			Node loopHead = nodes.get(1);
+			if(loopEnd != loopHead) {
+				loopEnd.succs.add(loopHead);
+				loopHead.preds.add(loopEnd);
+			}
+			return firstNodeId + total;
+		}
+
+		private Node first() {
+			return nodes.get(0);
+		}
+
+		private Node last() {
+			return nodes.get(nodes.size()-1);
+		}
+
+		public List<Node> getNodes() {
+			return Collections.unmodifiableList(nodes);
+		}
+
+		@Override
+		public String toString() {
+			return "m"+id;
+		}
+	}
+
+	public static class Node {
+
+		private final int id;
+		private final Method method;
+		private final List<Node> succs = new ArrayList<Node>(2);
+		private final List<Node> preds = new ArrayList<Node>(2);
+		private Method callee;
+
+		private Node(int id, Method method) {
+			this.id = id;
+			this.method = method;
+		}
+
+		/**
+		 * Returns the unique number of this statement, flow functions use it to derive their behavior.
+		 */
+		public int getId() {
+			return id;
+		}
+
+		@Override
+		public int hashCode() {
+			return id;
+		}
+
+		@Override
+		public String toString() {
+			return method+":s"+id;
+		}
+	}
+}
@@ -0,0 +1,449 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.bench;
+
+import heros.FlowFunction;
+import heros.FlowFunctions;
+import heros.IFDSTabulationProblem;
+import heros.JoinLattice;
+import heros.bench.SyntheticICFG.Method;
+import heros.bench.SyntheticICFG.Node;
+import heros.fieldsens.AccessPath;
+import heros.fieldsens.AccessPathHandler;
+import heros.fieldsens.FlowFunction.ConstrainedFact;
+import heros.fieldsens.ZeroHandler;
+import heros.flowfunc.Gen;
+import heros.flowfunc.Identity;
+import heros.flowfunc.Kill;
+import heros.flowfunc.Transfer;
+import heros.ide.IDETabulationProblem;
+import heros.ide.edgefunc.EdgeFunction;
+import heros.ide.edgefunc.fieldsens.AccessPathBundle;
+import heros.ide.edgefunc.fieldsens.Factory;
+import heros.solver.Pair;
+import heros.template.DefaultIFDSTabulationProblem;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Maps;
+
+/**
+ * Creates tabulation problems for all solvers over a {@link SyntheticICFG}. All problems share the same
+ * behavior, derived from the number of the statement a flow function is created for: normal statements
+ * either generate a fact from the zero value, transfer one fact to another, or kill a fact. The
+ * field-sensitive problems model the transfers as field stores and loads and kill facts by overwriting
+ * a field. Call, return and call-to-return flow functions are identities.
+ */
+public class SyntheticProblems {
+
+	private static final int GEN = 0;
+	private static final int TRANSFER = 1;
+	private static final int LOAD = 2;
+	private static final int KILL = 3;
+	private static final int NOP = 4;
+
+	private final SyntheticICFG icfg;
+	private final SyntheticFact[] domain;
+	private final String[] fields;
+
+	/**
+	 * @param icfg the graph to analyze
+	 * @param domainSize the number of facts, excluding the zero value
+	 * @param numFields the number of distinct fields accessed by the field-sensitive problems
+	 */
+	public SyntheticProblems(SyntheticICFG icfg, int domainSize, int numFields) {
+		if(domainSize < 1 || numFields < 1)
+			throw new IllegalArgumentException("Domain and fields must not be empty");
+		this.icfg = icfg;
+		this.domain = SyntheticFact.createDomain(domainSize);
+		this.fields = new String[numFields];
+		for(int i=0; i<numFields; i++)
+			fields[i] = "f"+i;
+	}
+
+	private SyntheticFact zero() {
+		return domain[0];
+	}
+
+	private int kind(Node n) {
+		int kind = n.getId() % 4;
+		//an assignment of a fact to itself would be a cyclic store as well
+		if((kind == TRANSFER || kind == LOAD) && from(n).equals(to(n)))
+			return NOP;
+		return kind;
+	}
+
+	//assignments strongly update their target fact
+	private boolean isAssignment(Node n) {
+		return kind(n) == TRANSFER || kind(n) == LOAD;
+	}
+
+	//the facts a statement reads from and writes to, never the zero value; facts only flow to facts with
+	//higher numbers, otherwise cyclic stores and loads would let the access paths grow without bounds
+	private SyntheticFact from(Node n) {
+		return domain[1 + Math.min(hash(n, 13), hash(n, 7))];
+	}
+
+	private SyntheticFact to(Node n) {
+		return domain[1 + Math.max(hash(n, 13), hash(n, 7))];
+	}
+
+	private int hash(Node n, int factor) {
+		return (n.getId() * factor) % (domain.length-1);
+	}
+
+	private String field(Node n) {
+		return fields[n.getId() % fields.length];
+	}
+
+	private Map<Node, Set<SyntheticFact>> seeds(SyntheticICFG graph) {
+		Map<Node, Set<SyntheticFact>> seeds = Maps.newHashMap();
+		for(Node entry : graph.getEntryPoints())
+			seeds.put(entry, Collections.singleton(zero()));
+		return seeds;
+	}
+
+	//seeds all facts but the zero value, so that no fact is derived from the zero value
+	private Map<Node, Set<SyntheticFact>> nonZeroSeeds(SyntheticICFG graph) {
+		Set<SyntheticFact> facts = new LinkedHashSet<SyntheticFact>(Arrays.asList(domain).subList(1, domain.length));
+		Map<Node, Set<SyntheticFact>> seeds = Maps.newHashMap();
+		for(Node entry : graph.getEntryPoints())
+			seeds.put(entry, facts);
+		return seeds;
+	}
+
+	/**
+	 * Creates a problem for the {@link heros.solver.IFDSSolver}, or, if {@code backwards} is set, the backward problem
+	 * for the {@link heros.solver.BiDiIFDSSolver}.
+	 */
+	public IFDSTabulationProblem<Node, SyntheticFact, Method, SyntheticICFG> ifds(final boolean backwards, final int numThreads) {
+		final SyntheticICFG graph = backwards ? icfg.reversed() : icfg;
+		return new DefaultIFDSTabulationProblem<Node, SyntheticFact, Method, SyntheticICFG>(graph) {
+
+			@Override
+			protected FlowFunctions<Node, SyntheticFact, Method> createFlowFunctionsFactory() {
+				return new FlowFunctions<Node, SyntheticFact, Method>() {
+
+					@Override
+					public FlowFunction<SyntheticFact> getNormalFlowFunction(Node curr, Node succ) {
+						switch(kind(curr)) {
+						case GEN:
+							return new Gen<SyntheticFact>(to(curr), zero());
+						case TRANSFER:
+						case LOAD:
+							return new Transfer<SyntheticFact>(to(curr), from(curr));
+						case KILL:
+							return new Kill<SyntheticFact>(from(curr));
+						default:
+							return Identity.v();
+						}
+					}
+
+					@Override
+					public FlowFunction<SyntheticFact> getCallFlowFunction(Node callStmt, Method destinationMethod) {
+						return Identity.v();
+					}
+
+					@Override
+					public FlowFunction<SyntheticFact> getReturnFlowFunction(Node callSite, Method calleeMethod, Node exitStmt, Node returnSite) {
+						return Identity.v();
+					}
+
+					@Override
+					public FlowFunction<SyntheticFact> getCallToReturnFlowFunction(Node callSite, Node returnSite) {
+						return Identity.v();
+					}
+				};
+			}
+
+			@Override
+			protected SyntheticFact createZeroValue() {
+				return zero();
+			}
+
+			@Override
+			public Map<Node, Set<SyntheticFact>> initialSeeds() {
+				return seeds(graph);
+			}
+
+			@Override
+			public boolean followReturnsPastSeeds() {
+				//required by the bidirectional solver
+				return true;
+			}
+
+			@Override
+			public int numThreads() {
+				return numThreads;
+			}
+		};
+	}
+
+	/**
+	 * Creates a problem for the {@link heros.fieldsens.FieldSensitiveIFDSSolver}.
+	 */
+	public heros.fieldsens.IFDSTabulationProblem<Node, String, SyntheticFact, Method, SyntheticICFG> fieldSensitive() {
+		final heros.fieldsens.FlowFunctions<Node, String, SyntheticFact, Method> flowFunctions = new heros.fieldsens.FlowFunctions<Node, String, SyntheticFact, Method>() {
+
+			@Override
+			public heros.fieldsens.FlowFunction<String, SyntheticFact, Node, Method> getNormalFlowFunction(final Node curr) {
+				return new heros.fieldsens.FlowFunction<String, SyntheticFact, Node, Method>() {
+					@Override
+					public Set<ConstrainedFact<String, SyntheticFact, Node, Method>> computeTargets(SyntheticFact source,
+							AccessPathHandler<String, SyntheticFact, Node, Method> accPathHandler) {
+						Set<ConstrainedFact<String, SyntheticFact, Node, Method>> result = new LinkedHashSet<ConstrainedFact<String, SyntheticFact, Node, Method>>();
+						String field = field(curr);
+						if(source.isZero()) {
+							result.add(accPathHandler.generate(source));
+							if(kind(curr) == GEN)
+								result.add(accPathHandler.generate(to(curr)));
+						}
+						else if(kind(curr) == TRANSFER && source.equals(from(curr))) {
+							//to.field = from
+							result.add(accPathHandler.generate(source));
+							result.add(accPathHandler.prepend(field).generate(to(curr)));
+						}
+						else if(kind(curr) == LOAD && source.equals(from(curr))) {
+							//to = from.field
+							result.add(accPathHandler.generate(source));
+							if(accPathHandler.mayCanRead(field))
+								result.add(accPathHandler.read(field).generate(to(curr)));
+						}
+						else if(kind(curr) == KILL && source.equals(from(curr))) {
+							//from.field = null
+							if(accPathHandler.mayBeEmpty())
+								result.add(accPathHandler.overwrite(field).generate(source));
+							else if(!accPathHandler.canRead(field))
+								result.add(accPathHandler.generate(source));
+						}
+						else if(!isAssignment(curr) || !source.equals(to(curr)))
+							result.add(accPathHandler.generate(source));
+						return result;
+					}
+				};
+			}
+
+			@Override
+			public heros.fieldsens.FlowFunction<String, SyntheticFact, Node, Method> getCallFlowFunction(Node callStmt, Method destinationMethod) {
+				return fieldSensitiveIdentity();
+			}
+
+			@Override
+			public heros.fieldsens.FlowFunction<String, SyntheticFact, Node, Method> getReturnFlowFunction(Node callSite, Method calleeMethod, Node exitStmt, Node returnSite) {
+				return fieldSensitiveIdentity();
+			}
+
+			@Override
+			public heros.fieldsens.FlowFunction<String, SyntheticFact, Node, Method> getCallToReturnFlowFunction(Node callSite, Node returnSite) {
+				return fieldSensitiveIdentity();
+			}
+		};
+
+		return new heros.fieldsens.IFDSTabulationProblem<Node, String, SyntheticFact, Method, SyntheticICFG>() {
+
+			@Override
+			public heros.fieldsens.FlowFunctions<Node, String, SyntheticFact, Method> flowFunctions() {
+				return flowFunctions;
+			}
+
+			@Override
+			public SyntheticICFG interproceduralCFG() {
+				return icfg;
+			}
+
+			@Override
+			public Map<Node, Set<SyntheticFact>> initialSeeds() {
+				return seeds(icfg);
+			}
+
+			@Override
+			public SyntheticFact zeroValue() {
+				return zero();
+			}
+
+			@Override
+			public ZeroHandler<String> zeroHandler() {
+				return new ZeroHandler<String>() {
+					@Override
+					public Optional<AccessPath<String>> shouldGenerateAccessPath(AccessPath<String> accPath) {
+						return Optional.of(accPath);
+					}
+				};
+			}
+
+			@Override
+			public boolean followReturnsPastSeeds() {
+				return false;
+			}
+
+			@Override
+			public boolean autoAddZero() {
+				return false;
+			}
+
+			@Override
+			public int numThreads() {
+				return 1;
+			}
+
+			@Override
+			public boolean computeValues() {
+				return false;
+			}
+		};
+	}
+
+	private heros.fieldsens.FlowFunction<String, SyntheticFact, Node, Method> fieldSensitiveIdentity() {
+		return new heros.fieldsens.FlowFunction<String, SyntheticFact, Node, Method>() {
+			@Override
+			public Set<ConstrainedFact<String, SyntheticFact, Node, Method>> computeTargets(SyntheticFact source,
+					AccessPathHandler<String, SyntheticFact, Node, Method> accPathHandler) {
+				return Collections.singleton(accPathHandler.generate(source));
+			}
+		};
+	}
+
+	/**
+	 * Creates a problem for the {@link heros.ide.EagerEvaluationIDESolver}, using the field-sensitive edge functions
+	 * of {@link heros.ide.edgefunc.fieldsens}.
+	 */
+	public IDETabulationProblem<Node, SyntheticFact, Method, AccessPathBundle<String>, SyntheticICFG> eagerIde() {
+		final JoinLattice<AccessPathBundle<String>> lattice = new JoinLattice<AccessPathBundle<String>>() {
+			@Override
+			public AccessPathBundle<String> topElement() {
+				return null;
+			}
+
+			@Override
+			public AccessPathBundle<String> bottomElement() {
+				return new AccessPathBundle<String>();
+			}
+
+			@Override
+			public AccessPathBundle<String> join(AccessPathBundle<String> left, AccessPathBundle<String> right) {
+				if(left == null)
+					return right;
+				if(right == null)
+					return left;
+				return left.join(right);
+			}
+		};
+		final Factory<String> factory = new Factory<String>(lattice);
+		final heros.ide.FlowFunctions<Node, SyntheticFact, Method, AccessPathBundle<String>> flowFunctions = new heros.ide.FlowFunctions<Node, SyntheticFact, Method, AccessPathBundle<String>>() {
+
+			@Override
+			public heros.ide.FlowFunction<SyntheticFact, AccessPathBundle<String>> getNormalFlowFunction(final Node curr, Node succ) {
+				return new heros.ide.FlowFunction<SyntheticFact, AccessPathBundle<String>>() {
+					@Override
+					public Set<Pair<SyntheticFact, EdgeFunction<AccessPathBundle<String>>>> computeTargets(SyntheticFact source) {
+						Set<Pair<SyntheticFact, EdgeFunction<AccessPathBundle<String>>>> result = new LinkedHashSet<Pair<SyntheticFact, EdgeFunction<AccessPathBundle<String>>>>();
+						String field = field(curr);
+						if(source.isZero()) {
+							result.add(pair(source, factory.id()));
+							if(kind(curr) == GEN)
+								result.add(pair(to(curr), factory.id()));
+						}
+						else if(kind(curr) == TRANSFER && source.equals(from(curr))) {
+							result.add(pair(source, factory.id()));
+							result.add(pair(to(curr), factory.prepend(field)));
+						}
+						else if(kind(curr) == LOAD && source.equals(from(curr))) {
+							result.add(pair(source, factory.id()));
+							result.add(pair(to(curr), factory.read(field)));
+						}
+						else if(kind(curr) == KILL && source.equals(from(curr))) {
+							result.add(pair(source, factory.overwrite(field)));
+						}
+						else if(!isAssignment(curr) || !source.equals(to(curr)))
+							result.add(pair(source, factory.id()));
+						return result;
+					}
+				};
+			}
+
+			@Override
+			public heros.ide.FlowFunction<SyntheticFact, AccessPathBundle<String>> getCallFlowFunction(Node callStmt, Method destinationMethod) {
+				return ideIdentity(factory);
+			}
+
+			@Override
+			public heros.ide.FlowFunction<SyntheticFact, AccessPathBundle<String>> getReturnFlowFunction(Node callSite, Method calleeMethod, Node exitStmt, Node returnSite) {
+				return ideIdentity(factory);
+			}
+
+			@Override
+			public heros.ide.FlowFunction<SyntheticFact, AccessPathBundle<String>> getCallToReturnFlowFunction(Node callSite, Node returnSite) {
+				return ideIdentity(factory);
+			}
+		};
+
+		return new IDETabulationProblem<Node, SyntheticFact, Method, AccessPathBundle<String>, SyntheticICFG>() {
+
+			@Override
+			public JoinLattice<AccessPathBundle<String>> joinLattice() {
+				return lattice;
+			}
+
+			@Override
+			public EdgeFunction<AccessPathBundle<String>> allTopFunction() {
+				return factory.allTop();
+			}
+
+			@Override
+			public EdgeFunction<AccessPathBundle<String>> initialSeedEdgeFunction(Node seed, SyntheticFact val) {
+				return factory.initialSeed().composeWith(factory.anyFields());
+			}
+
+			@Override
+			public heros.ide.FlowFunctions<Node, SyntheticFact, Method, AccessPathBundle<String>> flowFunctions() {
+				return flowFunctions;
+			}
+
+			@Override
+			public SyntheticICFG interproceduralCFG() {
+				return icfg;
+			}
+
+			@Override
+			public Map<Node, Set<SyntheticFact>> initialSeeds() {
+				return nonZeroSeeds(icfg);
+			}
+
+			@Override
+			public SyntheticFact zeroValue() {
+				return zero();
+			}
+
+			@Override
+			public boolean followReturnsPastSeeds() {
+				return false;
+			}
+		};
+	}
+
+	private heros.ide.FlowFunction<SyntheticFact, AccessPathBundle<String>> ideIdentity(final Factory<String> factory) {
+		return new heros.ide.FlowFunction<SyntheticFact, AccessPathBundle<String>>() {
+			@Override
+			public Set<Pair<SyntheticFact, EdgeFunction<AccessPathBundle<String>>>> computeTargets(SyntheticFact source) {
+				return Collections.singleton(pair(source, factory.id()));
+			}
+		};
+	}
+
+	private static Pair<SyntheticFact, EdgeFunction<AccessPathBundle<String>>> pair(SyntheticFact fact, EdgeFunction<AccessPathBundle<String>> function) {
+		return new Pair<SyntheticFact, EdgeFunction<AccessPathBundle<String>>>(fact, function);
+	}
+}
@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros;
+
+import java.util.List;
+
+/**
+ * An edge function that can be applied to many source values at once. When computing the
+ * final values, the solver applies each jump function to all source values it maps to a node
+ * in one call to {@link #computeTargets(List)}, which allows implementations to vectorize
+ * {@link #computeTarget(Object)} or to share work between the sources.
+ *
+ * @param <V> The type of values to be computed along flow edges.
+ */
+public interface BatchEdgeFunction<V> extends EdgeFunction<V> {
+
+	/**
+	 * Computes the values resulting from applying this function to each of the sources.
+	 * The returned list must hold the target of the i-th source at index i.
+	 * It must not be the list of sources, which the caller may reuse.
+	 */
+	List<V> computeTargets(List<V> sources);
+
+}
@@ -12,6 +12,7 @@ package heros;
 
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,31 +31,41 @@ public class EdgeFunctionCache<N, D, M, V> implements EdgeFunctions<N, D, M, V>
 
     Logger logger = LoggerFactory.getLogger(getClass());
 
-	@SuppressWarnings("unchecked")
 	public EdgeFunctionCache(final EdgeFunctions<N, D, M, V> delegate, @SuppressWarnings("rawtypes") CacheBuilder builder) {
+		this(delegate, builder, null);
+	}
+
+	/**
+	 * Creates a cache whose edge functions memoize their compositions and joins in the given
+	 * memo cache, or do not memoize them if it is <code>null</code>.
+	 */
+	@SuppressWarnings("unchecked")
+	public EdgeFunctionCache(EdgeFunctions<N, D, M, V> delegate, @SuppressWarnings("rawtypes") CacheBuilder builder, EdgeFunctionMemoCache<V> memoCache) {
 		this.delegate = delegate;
+		//the cached functions are wrapped once, when they are loaded
+		final EdgeFunctions<N, D, M, V> functions = memoCache==null ? delegate : memoCache.memoize(delegate);
 		
 		normalCache = builder.build(new CacheLoader<NDNDKey, EdgeFunction<V>>() {
 			public EdgeFunction<V> load(NDNDKey key) throws Exception {
-				return delegate.getNormalEdgeFunction(key.getN1(), key.getD1(), key.getN2(), key.getD2());
+				return functions.getNormalEdgeFunction(key.getN1(), key.getD1(), key.getN2(), key.getD2());
 			}
 		});
 		
 		callCache = builder.build(new CacheLoader<CallKey, EdgeFunction<V>>() {
 			public EdgeFunction<V> load(CallKey key) throws Exception {
-				return delegate.getCallEdgeFunction(key.getCallSite(), key.getD1(), key.getCalleeMethod(), key.getD2());
+				return functions.getCallEdgeFunction(key.getCallSite(), key.getD1(), key.getCalleeMethod(), key.getD2());
 			}
 		});
 		
 		returnCache = builder.build(new CacheLoader<ReturnKey, EdgeFunction<V>>() {
 			public EdgeFunction<V> load(ReturnKey key) throws Exception {
-				return delegate.getReturnEdgeFunction(key.getCallSite(), key.getCalleeMethod(), key.getExitStmt(), key.getD1(), key.getReturnSite(), key.getD2());
+				return functions.getReturnEdgeFunction(key.getCallSite(), key.getCalleeMethod(), key.getExitStmt(), key.getD1(), key.getReturnSite(), key.getD2());
 			}
 		});
 		
 		callToReturnCache = builder.build(new CacheLoader<NDNDKey, EdgeFunction<V>>() {
 			public EdgeFunction<V> load(NDNDKey key) throws Exception {
-				return delegate.getCallToReturnEdgeFunction(key.getN1(), key.getD1(), key.getN2(), key.getD2());
+				return functions.getCallToReturnEdgeFunction(key.getN1(), key.getD1(), key.getN2(), key.getD2());
 			}
 		});
 	}
@@ -268,6 +279,24 @@ public class EdgeFunctionCache<N, D, M, V> implements EdgeFunctions<N, D, M, V>
 	}
 
 
+	/**
+	 * Discards all cached edge functions, e.g., after the statements they were computed for have changed.
+	 */
+	public void invalidateAll() {
+		normalCache.invalidateAll();
+		callCache.invalidateAll();
+		returnCache.invalidateAll();
+		callToReturnCache.invalidateAll();
+	}
+
+	/**
+	 * Returns the statistics of all four caches together. They are only recorded if the
+	 * {@link CacheBuilder} of this cache was set to record statistics.
+	 */
+	public CacheStats stats() {
+		return normalCache.stats().plus(callCache.stats()).plus(returnCache.stats()).plus(callToReturnCache.stats());
+	}
+
 	public void printStats() {
         logger.debug("Stats for edge-function cache:\n" +
                      "Normal:         {}\n"+
@@ -0,0 +1,219 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros;
+
+import heros.edgefunc.AllBottom;
+import heros.edgefunc.AllTop;
+import heros.edgefunc.EdgeIdentity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * Memoizes the compositions and joins of edge functions. Functions that are passed through
+ * {@link #memoize(EdgeFunction)} are wrapped such that {@link EdgeFunction#composeWith(EdgeFunction)}
+ * and {@link EdgeFunction#joinWith(EdgeFunction)} first look up their result in this cache, and
+ * only ask the wrapped function if the result is unknown. Results are wrapped as well, such that
+ * all functions derived from memoized functions are memoized.
+ *
+ * Wrapped functions are equal if the functions they wrap are equal, and they unwrap all functions they
+ * pass to the functions they wrap, so the functions of the analysis never see a wrapper.
+ * The cache is keyed by equality of the wrapped functions, which therefore must implement
+ * {@link Object#equals(Object)} and {@link Object#hashCode()} consistently with {@link EdgeFunction#equalTo(EdgeFunction)},
+ * or use the default identity.
+ *
+ * @param <V> The type of values to be computed along flow edges.
+ * @see heros.solver.IDESolver#IDESolver(IDETabulationProblem, CacheBuilder, CacheBuilder, CacheBuilder)
+ */
+public class EdgeFunctionMemoCache<V> {
+
+	protected final Cache<FunctionPair, EdgeFunction<V>> compositions;
+
+	protected final Cache<FunctionPair, EdgeFunction<V>> joins;
+
+    Logger logger = LoggerFactory.getLogger(getClass());
+
+	/**
+	 * Creates a memo cache with the given {@link CacheBuilder}, which typically bounds the number of entries
+	 * through {@link CacheBuilder#maximumSize(long)}. Statistics are always recorded.
+	 */
+	@SuppressWarnings("unchecked")
+	public EdgeFunctionMemoCache(@SuppressWarnings("rawtypes") CacheBuilder builder) {
+		builder = builder.recordStats();
+		compositions = builder.build();
+		joins = builder.build();
+	}
+
+	/**
+	 * Returns a function that behaves like the given one, but memoizes its compositions and joins.
+	 * The identity, all-top and all-bottom functions of the {@link heros.edgefunc} package are returned
+	 * as they are, since their compositions and joins are trivial.
+	 */
+	public EdgeFunction<V> memoize(EdgeFunction<V> function) {
+		if(function instanceof EdgeFunctionMemoCache.MemoizingEdgeFunction || function instanceof EdgeIdentity
+				|| function instanceof AllTop || function instanceof AllBottom)
+			return function;
+		return new MemoizingEdgeFunction(function);
+	}
+
+	/**
+	 * Returns an {@link EdgeFunctions} factory that memoizes all functions created by the given one.
+	 */
+	public <N,D,M> EdgeFunctions<N,D,M,V> memoize(final EdgeFunctions<N,D,M,V> edgeFunctions) {
+		return new EdgeFunctions<N,D,M,V>() {
+			public EdgeFunction<V> getNormalEdgeFunction(N curr, D currNode, N succ, D succNode) {
+				return memoize(edgeFunctions.getNormalEdgeFunction(curr, currNode, succ, succNode));
+			}
+
+			public EdgeFunction<V> getCallEdgeFunction(N callStmt, D srcNode, M destinationMethod, D destNode) {
+				return memoize(edgeFunctions.getCallEdgeFunction(callStmt, srcNode, destinationMethod, destNode));
+			}
+
+			public EdgeFunction<V> getReturnEdgeFunction(N callSite, M calleeMethod, N exitStmt, D exitNode, N returnSite, D retNode) {
+				return memoize(edgeFunctions.getReturnEdgeFunction(callSite, calleeMethod, exitStmt, exitNode, returnSite, retNode));
+			}
+
+			public EdgeFunction<V> getCallToReturnEdgeFunction(N callSite, D callNode, N returnSite, D returnSideNode) {
+				return memoize(edgeFunctions.getCallToReturnEdgeFunction(callSite, callNode, returnSite, returnSideNode));
+			}
+		};
+	}
+
+	/**
+	 * Returns the function wrapped by the given one if it was returned by {@link #memoize(EdgeFunction)}
+	 * of any memo cache, or the given function otherwise.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <V> EdgeFunction<V> unwrap(EdgeFunction<V> function) {
+		if(function instanceof EdgeFunctionMemoCache.MemoizingEdgeFunction)
+			return ((EdgeFunctionMemoCache<V>.MemoizingEdgeFunction) function).delegate;
+		return function;
+	}
+
+	/**
+	 * Returns the hit and miss counts of the composition cache.
+	 */
+	public CacheStats compositionStats() {
+		return compositions.stats();
+	}
+
+	/**
+	 * Returns the hit and miss counts of the join cache.
+	 */
+	public CacheStats joinStats() {
+		return joins.stats();
+	}
+
+	/**
+	 * Discards all memoized compositions and joins.
+	 */
+	public void invalidateAll() {
+		compositions.invalidateAll();
+		joins.invalidateAll();
+	}
+
+	public void printStats() {
+        logger.debug("Stats for edge-function memo cache:\n" +
+                     "Compositions:   {} (hit rate {})\n"+
+                     "Joins:          {} (hit rate {})\n",
+                compositions.stats(), compositions.stats().hitRate(), joins.stats(), joins.stats().hitRate());
+	}
+
+
+	private class MemoizingEdgeFunction implements EdgeFunction<V> {
+
+		private final EdgeFunction<V> delegate;
+
+		public MemoizingEdgeFunction(EdgeFunction<V> delegate) {
+			this.delegate = delegate;
+		}
+
+		public V computeTarget(V source) {
+			return delegate.computeTarget(source);
+		}
+
+		public EdgeFunction<V> composeWith(EdgeFunction<V> secondFunction) {
+			FunctionPair key = new FunctionPair(delegate, unwrap(secondFunction));
+			EdgeFunction<V> result = compositions.getIfPresent(key);
+			if(result==null) {
+				//benign race: concurrent misses compute equal functions
+				result = memoize(delegate.composeWith(key.second));
+				compositions.put(key, result);
+			}
+			return result;
+		}
+
+		public EdgeFunction<V> joinWith(EdgeFunction<V> otherFunction) {
+			FunctionPair key = new FunctionPair(delegate, unwrap(otherFunction));
+			EdgeFunction<V> result = joins.getIfPresent(key);
+			if(result==null) {
+				result = memoize(delegate.joinWith(key.second));
+				joins.put(key, result);
+			}
+			return result;
+		}
+
+		public boolean equalTo(EdgeFunction<V> other) {
+			return delegate.equalTo(unwrap(other));
+		}
+
+		public int hashCode() {
+			return delegate.hashCode();
+		}
+
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof EdgeFunctionMemoCache.MemoizingEdgeFunction))
+				return false;
+			return delegate.equals(((EdgeFunctionMemoCache<?>.MemoizingEdgeFunction) obj).delegate);
+		}
+
+		public String toString() {
+			return delegate.toString();
+		}
+	}
+
+
+	private class FunctionPair {
+		private final EdgeFunction<V> first, second;
+
+		public FunctionPair(EdgeFunction<V> first, EdgeFunction<V> second) {
+			this.first = first;
+			this.second = second;
+		}
+
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + first.hashCode();
+			result = prime * result + second.hashCode();
+			return result;
+		}
+
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			@SuppressWarnings("unchecked")
+			FunctionPair other = (FunctionPair) obj;
+			return first.equals(other.first) && second.equals(other.second);
+		}
+	}
+
+}
@@ -0,0 +1,33 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros;
+
+/**
+ * Declares for each data-flow fact the statements that may read or write it. A solver propagating sparsely
+ * does not visit the other statements with the fact, but assumes their normal flow function maps the fact
+ * to itself only, with the identity edge function.
+ *
+ * <b>NOTE:</b> The relevance may be queried simultaneously by different threads.
+ *
+ * @param <N> The type of nodes in the interprocedural control-flow graph.
+ * @param <D> The type of data-flow facts to be computed by the tabulation problem.
+ * @see heros.solver.IDESolver#setFactRelevance(FactRelevance)
+ */
+public interface FactRelevance<N,D> {
+
+	/**
+	 * Returns <code>true</code> if the normal flow function of the given statement does not map the fact to exactly
+	 * itself, or if its edge function for the fact is not the identity. This includes the statements at which
+	 * the zero value generates facts.
+	 */
+	boolean isRelevant(N stmt, D fact);
+
+}
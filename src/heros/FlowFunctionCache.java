@@ -12,6 +12,7 @@ package heros;
 
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -221,6 +222,24 @@ public class FlowFunctionCache<N, D, M> implements FlowFunctions<N, D, M> {
 		}
 	}
 	
+	/**
+	 * Discards all cached flow functions, e.g., after the statements they were computed for have changed.
+	 */
+	public void invalidateAll() {
+		normalCache.invalidateAll();
+		callCache.invalidateAll();
+		returnCache.invalidateAll();
+		callToReturnCache.invalidateAll();
+	}
+
+	/**
+	 * Returns the statistics of all four caches together. They are only recorded if the
+	 * {@link CacheBuilder} of this cache was set to record statistics.
+	 */
+	public CacheStats stats() {
+		return normalCache.stats().plus(callCache.stats()).plus(returnCache.stats()).plus(callToReturnCache.stats());
+	}
+
 	public void printStats() {
         logger.debug("Stats for flow-function cache:\n" +
                 "Normal:         {}\n"+
@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * A change to an {@link InterproceduralCFG} that replaced the bodies of some methods.
+ *
+ * @param <N> Nodes in the CFG, typically {@link Unit} or {@link Block}
+ * @param <M> Method representation
+ * @see heros.solver.IDESolver#update(InterproceduralCFGDelta)
+ */
+public interface InterproceduralCFGDelta<N,M> {
+
+	/**
+	 * Returns the methods whose bodies have changed. Methods whose callees have changed,
+	 * e.g., because of a changed type hierarchy, must be included as well.
+	 */
+	public Set<M> getChangedMethods();
+
+	/**
+	 * Returns the nodes the given changed method contained before the change.
+	 */
+	public Collection<N> getPreviousNodesOf(M m);
+
+}
@@ -10,48 +10,57 @@
  ******************************************************************************/
 package heros;
 
+import heros.metrics.SolverMetrics;
+import heros.metrics.SolverMetrics.FlowFunctionKind;
+
 /**
- * A wrapper that can be used to profile flow functions.
+ * A wrapper that can be used to profile flow functions. It records the time taken to construct
+ * each flow function, in nanoseconds, in the {@link SolverMetrics} of the wrapper.
  */
 public class ProfiledFlowFunctions<N, D, M> implements FlowFunctions<N, D, M> {
 
 	protected final FlowFunctions<N, D, M> delegate;
 	
-	public long durationNormal, durationCall, durationReturn, durationCallReturn;
+	protected final SolverMetrics metrics;
 
 	public ProfiledFlowFunctions(FlowFunctions<N, D, M> delegate) {
+		this(delegate, new SolverMetrics());
+	}
+
+	public ProfiledFlowFunctions(FlowFunctions<N, D, M> delegate, SolverMetrics metrics) {
 		this.delegate = delegate;
+		this.metrics = metrics;
+	}
+	
+	public SolverMetrics getMetrics() {
+		return metrics;
 	}
 
 	public FlowFunction<D> getNormalFlowFunction(N curr, N succ) {
-		long before = System.currentTimeMillis();
+		long before = System.nanoTime();
 		FlowFunction<D> ret = delegate.getNormalFlowFunction(curr, succ);
-		long duration = System.currentTimeMillis() - before;
-		durationNormal += duration;
+		metrics.flowFunctionConstructed(FlowFunctionKind.NORMAL, System.nanoTime() - before);
 		return ret;
 	}
 
 	public FlowFunction<D> getCallFlowFunction(N callStmt, M destinationMethod) {
-		long before = System.currentTimeMillis();
+		long before = System.nanoTime();
 		FlowFunction<D> res = delegate.getCallFlowFunction(callStmt, destinationMethod);
-		long duration = System.currentTimeMillis() - before;
-		durationCall += duration;
+		metrics.flowFunctionConstructed(FlowFunctionKind.CALL, System.nanoTime() - before);
 		return res;
 	}
 
 	public FlowFunction<D> getReturnFlowFunction(N callSite, M calleeMethod, N exitStmt, N returnSite) {
-		long before = System.currentTimeMillis();
+		long before = System.nanoTime();
 		FlowFunction<D> res = delegate.getReturnFlowFunction(callSite, calleeMethod, exitStmt, returnSite);
-		long duration = System.currentTimeMillis() - before;
-		durationReturn += duration;
+		metrics.flowFunctionConstructed(FlowFunctionKind.RETURN, System.nanoTime() - before);
 		return res;
 	}
 
 	public FlowFunction<D> getCallToReturnFlowFunction(N callSite, N returnSite) {
-		long before = System.currentTimeMillis();
+		long before = System.nanoTime();
 		FlowFunction<D> res = delegate.getCallToReturnFlowFunction(callSite, returnSite);
-		long duration = System.currentTimeMillis() - before;
-		durationCallReturn += duration;
+		metrics.flowFunctionConstructed(FlowFunctionKind.CALL_TO_RETURN, System.nanoTime() - before);
 		return res;
 	}
 	
@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros;
+
+/**
+ * Is notified by a solver as soon as a data-flow fact reaches one of the sink statements the
+ * listener was registered for, while the solver is still running. This allows clients to report
+ * results early, or to terminate the solver once they have obtained all results they need.
+ *
+ * <b>NOTE:</b> The listener may be called simultaneously by different threads.
+ *
+ * @param <N> The type of nodes in the interprocedural control-flow graph.
+ * @param <D> The type of data-flow facts to be computed by the tabulation problem.
+ * @see heros.solver.IDESolver#addSinkListener(java.util.Collection, SinkListener)
+ * @see heros.fieldsens.FieldSensitiveIFDSSolver#addSinkListener(java.util.Collection, SinkListener)
+ */
+public interface SinkListener<N,D> {
+
+	/**
+	 * Called once for each fact that reaches the given sink. The zero value is never reported.
+	 */
+	void reachedSink(N sink, D fact);
+
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Limits the resources a solver may spend: the wall-clock time, the number of propagated path edges,
+ * and the amount of used heap memory. Once any of these limits is exceeded, the solver stops
+ * processing edges and returns with the results computed so far, which are flagged as incomplete.
+ * A limit of zero or less means that the resource is unlimited.
+ *
+ * @see heros.solver.IDESolver#setBudget(SolverBudget)
+ * @see heros.solver.BiDiIDESolver#setBudget(SolverBudget)
+ * @see heros.fieldsens.FieldSensitiveIFDSSolver#setBudget(SolverBudget)
+ */
+public class SolverBudget {
+
+	/**
+	 * The resources limited by a budget.
+	 */
+	public static enum Resource { TIME, PATH_EDGES, HEAP }
+
+	//time and heap are only checked every this many path edges, as they are more expensive to query
+	private static final int CHECK_INTERVAL = 1024;
+
+	private final long maxMillis;
+	private final long maxPathEdges;
+	private final long maxUsedHeapBytes;
+
+	/**
+	 * @param maxMillis The maximum wall-clock time in milliseconds.
+	 * @param maxPathEdges The maximum number of path edges to be propagated.
+	 * @param maxUsedHeapBytes The maximum number of bytes in use on the heap, including garbage not yet collected.
+	 */
+	public SolverBudget(long maxMillis, long maxPathEdges, long maxUsedHeapBytes) {
+		this.maxMillis = maxMillis;
+		this.maxPathEdges = maxPathEdges;
+		this.maxUsedHeapBytes = maxUsedHeapBytes;
+	}
+
+	public long getMaxMillis() {
+		return maxMillis;
+	}
+
+	public long getMaxPathEdges() {
+		return maxPathEdges;
+	}
+
+	public long getMaxUsedHeapBytes() {
+		return maxUsedHeapBytes;
+	}
+
+	/**
+	 * Returns a new meter that charges against this budget, starting its clock now.
+	 */
+	public Meter startMeter() {
+		return new Meter();
+	}
+
+	@Override
+	public String toString() {
+		return "SolverBudget[maxMillis=" + maxMillis + ", maxPathEdges=" + maxPathEdges + ", maxUsedHeapBytes=" + maxUsedHeapBytes + "]";
+	}
+
+	/**
+	 * Tracks the resources spent by one run of a solver. May be shared by the solvers of a bidirectional
+	 * analysis, which then share the budget.
+	 */
+	@ThreadSafe
+	public class Meter {
+
+		private final long deadline;
+		private final AtomicLong pathEdges = new AtomicLong();
+		private final AtomicReference<Resource> exhausted = new AtomicReference<Resource>();
+
+		private Meter() {
+			this.deadline = maxMillis > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxMillis) : 0;
+		}
+
+		/**
+		 * Charges one path edge to the budget.
+		 * @return <code>false</code> if the budget is exhausted, in which case the edge must not be propagated
+		 */
+		public boolean chargePathEdge() {
+			if(exhausted.get() != null)
+				return false;
+			long count = pathEdges.incrementAndGet();
+			if(maxPathEdges > 0 && count > maxPathEdges)
+				exhaust(Resource.PATH_EDGES);
+			else if(count % CHECK_INTERVAL == 0)
+				checkTimeAndHeap();
+			return exhausted.get() == null;
+		}
+
+		/**
+		 * Checks whether the time or heap budget is exceeded.
+		 * @return <code>false</code> if the budget is exhausted
+		 */
+		public boolean checkTimeAndHeap() {
+			if(!checkTime())
+				return false;
+			if(maxUsedHeapBytes > 0) {
+				Runtime runtime = Runtime.getRuntime();
+				if(runtime.totalMemory() - runtime.freeMemory() > maxUsedHeapBytes)
+					exhaust(Resource.HEAP);
+			}
+			return exhausted.get() == null;
+		}
+
+		/**
+		 * Checks whether the time budget is exceeded.
+		 * @return <code>false</code> if the budget is exhausted
+		 */
+		public boolean checkTime() {
+			if(maxMillis > 0 && System.nanoTime() - deadline > 0)
+				exhaust(Resource.TIME);
+			return exhausted.get() == null;
+		}
+
+		private void exhaust(Resource resource) {
+			exhausted.compareAndSet(null, resource);
+		}
+
+		/**
+		 * Returns the number of milliseconds left until the time budget is exceeded, which is zero if it
+		 * already is, or {@link Long#MAX_VALUE} if time is unlimited.
+		 */
+		public long remainingMillis() {
+			if(maxMillis <= 0)
+				return Long.MAX_VALUE;
+			return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+		}
+
+		public boolean isExhausted() {
+			return exhausted.get() != null;
+		}
+
+		/**
+		 * Returns the resource that was exhausted first, or <code>null</code> if the budget was not exceeded.
+		 */
+		public Resource getExhausted() {
+			return exhausted.get();
+		}
+
+		public long getPathEdges() {
+			return pathEdges.get();
+		}
+	}
+}
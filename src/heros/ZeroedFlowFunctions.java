@@ -10,6 +10,11 @@
  ******************************************************************************/
 package heros;
 
+import heros.flowfunc.BitVectorFlowFunction;
+import heros.flowfunc.BitVectorFlowFunctions;
+import heros.flowfunc.FactInterner;
+
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Set;
@@ -40,7 +45,7 @@ public class ZeroedFlowFunctions<N, D, M> implements FlowFunctions<N, D, M> {
 		return new ZeroedFlowFunction(delegate.getCallToReturnFlowFunction(callSite, returnSite));
 	}
 	
-	protected class ZeroedFlowFunction implements FlowFunction<D> {
+	protected class ZeroedFlowFunction implements BitVectorFlowFunction<D> {
 
 		protected FlowFunction<D> del;
 
@@ -58,6 +63,14 @@ public class ZeroedFlowFunctions<N, D, M> implements FlowFunctions<N, D, M> {
 				return del.computeTargets(source);
 			}
 		}
+
+		@Override
+		public void computeTargets(BitSet sources, BitSet targets, FactInterner<D> facts) {
+			BitVectorFlowFunctions.computeTargets(del, sources, targets, facts);
+			int zero = facts.intern(zeroValue);
+			if(sources.get(zero))
+				targets.set(zero);
+		}
 		
 	}
 	
@@ -12,69 +12,80 @@ package heros.fieldsens;
 
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 
-import com.google.common.base.Function;
 import com.google.common.base.Joiner;
-import com.google.common.collect.Lists;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.Sets;
 
+/**
+ * An immutable sequence of field accesses followed by a set of excluded fields.
+ *
+ * The field accesses are stored as a node of a trie shared by all access paths, so access paths with a
+ * common prefix share the nodes of that prefix, and equal sequences are represented by the same node.
+ * Sets of exclusions are shared as well. All access paths returned by methods of this class are canonical,
+ * i.e., there is only one such instance per path as long as it is in use.
+ */
 @SuppressWarnings("unchecked")
 public class AccessPath<T> {
 	
+	private static final Interner<Prefix> prefixes = Interners.newWeakInterner();
+	private static final Interner<Set<Object>> exclusionSets = Interners.newWeakInterner();
+	private static final Interner<AccessPath<?>> accessPaths = Interners.newWeakInterner();
+
+	private static final Prefix ROOT = new Prefix();
+	private static final Set<Object> NO_EXCLUSIONS = exclusionSets.intern(ImmutableSet.of());
+	private static final AccessPath<?> EMPTY = accessPaths.intern(new AccessPath<Object>());
+
 	public static <T> AccessPath<T> empty() {
-		return new AccessPath<T>();
+		return (AccessPath<T>) EMPTY;
 	}
 	
-	private final T[] accesses;
+	private final Prefix accesses;
 	private final Set<T> exclusions;
+	private final int hashCode;
 	
+	/**
+	 * Creates an empty access path. Use {@link #empty()} to obtain the canonical instance instead.
+	 */
 	public AccessPath() {
-		accesses = (T[]) new Object[0];
-		exclusions = Sets.newHashSet();
+		this(ROOT, (Set<T>) NO_EXCLUSIONS);
 	}
 	
-	AccessPath(T[] accesses, Set<T> exclusions) {
+	private AccessPath(Prefix accesses, Set<T> exclusions) {
 		this.accesses = accesses;
 		this.exclusions = exclusions;
-//		assert accesses.length <= 4;
-//		if(accesses.length >= 2 && accesses[0].equals(accesses[1]))
-//			System.err.println(this);
-		if(accesses.length >= 3 && accesses[0].equals(accesses[1]) && accesses[1].equals(accesses[2]))
-			System.err.println(this);
-		if(accesses.length > 4)
-			System.out.println(this);
+		this.hashCode = 31 * accesses.hashCode + exclusions.hashCode();
+	}
 		
-		int times = 0;
-		T current = null;
-		for(int i=0; i<accesses.length; i++) {
-			if(current == accesses[i]) {
-				times++;
-				if(times >= 3) {
-					System.out.println(this);
-				}
-			}
-			else {
-				times = 1;
-				current = accesses[i];
-			}
-			if(accesses[i].toString().equals("ZERO-FIELD") && (i+1<accesses.length || !exclusions.isEmpty())) {
-				System.out.println(this);
-			}
-		}
-		if(exclusions.size() > 1) {
-			System.out.println(this);
-		}
+	private static <T> AccessPath<T> create(Prefix accesses, Set<T> exclusions) {
+		return (AccessPath<T>) accessPaths.intern(new AccessPath<T>(accesses, exclusions));
+	}
+
+	private static <T> Set<T> exclusions(Collection<T> fieldReferences) {
+		if(fieldReferences.isEmpty())
+			return (Set<T>) NO_EXCLUSIONS;
+		return (Set<T>) exclusionSets.intern((Set<Object>) ImmutableSet.copyOf(fieldReferences));
+	}
+
+	private static <T> Set<T> union(Set<T> first, Set<T> second) {
+		if(first == second || first.containsAll(second))
+			return first;
+		if(second.containsAll(first))
+			return second;
+		return exclusions(Sets.union(first, second));
 	}
 	
 	public boolean hasSuffix(Delta<T> suffix) {
 		if(accesses.length < suffix.accesses.length)
 			return false;
-		for(int i=0; i<suffix.accesses.length; i++) {
-			if(!accesses[accesses.length-suffix.accesses.length+i].equals(suffix.accesses[i]))
+		Prefix node = accesses;
+		for(int i=suffix.accesses.length-1; i>=0; i--) {
+			if(!node.field.equals(suffix.accesses[i]))
 				return false;
+			node = node.parent;
 		}
 		return true;
 	}
@@ -84,11 +95,11 @@ public class AccessPath<T> {
 	}
 	
 	public boolean hasAllExclusionsOf(AccessPath<T> accPath) {
-		return exclusions.containsAll(accPath.exclusions);
+		return exclusions == accPath.exclusions || exclusions.containsAll(accPath.exclusions);
 	}
 	
 	public AccessPath<T> append(AccessPath<T> accPath) {
-		return append(accPath.accesses).appendExcludedFieldReference(accPath.exclusions);
+		return append((T[]) accPath.accesses.toArray()).appendExcludedFieldReference(accPath.exclusions);
 	}
 	
 	public AccessPath<T> append(T... fieldReferences) {
@@ -98,34 +109,33 @@ public class AccessPath<T> {
 		if(isAccessInExclusions(fieldReferences[0]))
 			throw new IllegalArgumentException("FieldRef "+Arrays.toString(fieldReferences)+" cannot be added to "+toString());
 
-		T[] newAccesses = Arrays.copyOf(accesses, accesses.length+fieldReferences.length);
-		System.arraycopy(fieldReferences, 0, newAccesses, accesses.length, fieldReferences.length);
-		return new AccessPath<T>(newAccesses, Sets.<T>newHashSet());
+		Prefix node = accesses;
+		for(T fieldReference : fieldReferences)
+			node = node.child(fieldReference);
+		return create(node, (Set<T>) NO_EXCLUSIONS);
 	}
 
 	public AccessPath<T> prepend(T fieldRef) {
-		T[] newAccesses = (T[]) new Object[accesses.length+1];
-		newAccesses[0] = fieldRef;
-		System.arraycopy(accesses, 0, newAccesses, 1, accesses.length);
-		return new AccessPath<T>(newAccesses, exclusions);
+		Prefix node = ROOT.child(fieldRef);
+		for(Object field : accesses.toArray())
+			node = node.child(field);
+		return create(node, exclusions);
 	}
 
 	public AccessPath<T> removeFirst() {
-		T[] newAccesses = (T[]) new Object[accesses.length-1];
-		System.arraycopy(accesses, 1, newAccesses, 0, accesses.length-1);
-		return new AccessPath<T>(newAccesses, exclusions);
+		Object[] fields = accesses.toArray();
+		Prefix node = ROOT;
+		for(int i=1; i<fields.length; i++)
+			node = node.child(fields[i]);
+		return create(node, exclusions);
 	}
 	
 	public AccessPath<T> appendExcludedFieldReference(Collection<T> fieldReferences) {
-		HashSet<T> newExclusions = Sets.newHashSet(fieldReferences);
-		newExclusions.addAll(exclusions);
-		return new AccessPath<T>(accesses, newExclusions);
+		return create(accesses, union(exclusions, exclusions(fieldReferences)));
 	}
 	
 	public AccessPath<T> appendExcludedFieldReference(T... fieldReferences) {
-		HashSet<T> newExclusions = Sets.newHashSet(fieldReferences);
-		newExclusions.addAll(exclusions);
-		return new AccessPath<T>(accesses, newExclusions);
+		return appendExcludedFieldReference(Arrays.asList(fieldReferences));
 	}
 
 	public static enum PrefixTestResult {
@@ -146,19 +156,24 @@ public class AccessPath<T> {
 		if(accesses.length > accessPath.accesses.length)
 			return PrefixTestResult.NO_PREFIX;
 				
-		for(int i=0; i<accesses.length; i++) {
-			if(!accesses[i].equals(accessPath.accesses[i]))
-				return PrefixTestResult.NO_PREFIX;
+		//walk up to the node of the same length, remembering the first access following it
+		Prefix next = null;
+		Prefix node = accessPath.accesses;
+		while(node.length > accesses.length) {
+			next = node;
+			node = node.parent;
 		}
+		if(node != accesses)
+			return PrefixTestResult.NO_PREFIX;
 		
-		if(accesses.length < accessPath.accesses.length) {
-			if(exclusions.contains(accessPath.accesses[accesses.length]))
+		if(next != null) {
+			if(exclusions.contains(next.field))
 				return PrefixTestResult.NO_PREFIX;
 			else
 				return PrefixTestResult.GUARANTEED_PREFIX;
 		}
 		
-		if(exclusions.isEmpty())
+		if(exclusions.isEmpty() || exclusions == accessPath.exclusions)
 			return PrefixTestResult.GUARANTEED_PREFIX;
 		if(accessPath.exclusions.isEmpty())
 			return PrefixTestResult.NO_PREFIX;
@@ -178,10 +193,7 @@ public class AccessPath<T> {
 
 	public Delta<T> getDeltaTo(AccessPath<T> accPath) {
 		assert isPrefixOf(accPath).atLeast(PrefixTestResult.POTENTIAL_PREFIX);
-		HashSet<T> mergedExclusions = Sets.newHashSet(accPath.exclusions);
-		if(accesses.length == accPath.accesses.length)
-			mergedExclusions.addAll(exclusions);
-		Delta<T> delta = new Delta<T>(Arrays.copyOfRange(accPath.accesses, accesses.length, accPath.accesses.length), mergedExclusions);
+		Delta<T> delta = new Delta<T>(accPath.accesses.<T>suffix(accPath.accesses.length - accesses.length), deltaExclusionsTo(accPath));
 		assert (isPrefixOf(accPath).atLeast(PrefixTestResult.POTENTIAL_PREFIX) && accPath.isPrefixOf(delta.applyTo(this)) == PrefixTestResult.GUARANTEED_PREFIX) 
 				|| (isPrefixOf(accPath) == PrefixTestResult.GUARANTEED_PREFIX && accPath.equals(delta.applyTo(this)));
 		return delta;
@@ -189,11 +201,16 @@ public class AccessPath<T> {
 	
 	public AccessPath<T> getDeltaToAsAccessPath(AccessPath<T> accPath) {
 		assert isPrefixOf(accPath).atLeast(PrefixTestResult.POTENTIAL_PREFIX);
-		HashSet<T> mergedExclusions = Sets.newHashSet(accPath.exclusions);
+		Prefix node = ROOT;
+		for(Object field : accPath.accesses.suffix(accPath.accesses.length - accesses.length))
+			node = node.child(field);
+		return create(node, deltaExclusionsTo(accPath));
+	}
+
+	private Set<T> deltaExclusionsTo(AccessPath<T> accPath) {
 		if(accesses.length == accPath.accesses.length)
-			mergedExclusions.addAll(exclusions);
-		AccessPath<T> delta = new AccessPath<T>(Arrays.copyOfRange(accPath.accesses, accesses.length, accPath.accesses.length), mergedExclusions);
-		return delta;
+			return union(accPath.exclusions, exclusions);
+		return accPath.exclusions;
 	}
 	
 	public static class Delta<T> {
@@ -255,18 +272,16 @@ public class AccessPath<T> {
 		}
 
 		public static <T> Delta<T> empty() {
-			return new Delta<T>((T[]) new Object[0], Sets.<T>newHashSet());
+			return new Delta<T>((T[]) new Object[0], (Set<T>) NO_EXCLUSIONS);
 		}
 	}
 	
 	public AccessPath<T> mergeExcludedFieldReferences(AccessPath<T> accPath) {
-		HashSet<T> newExclusions = Sets.newHashSet(exclusions);
-		newExclusions.addAll(accPath.exclusions);
-		return new AccessPath<T>(accesses, newExclusions);
+		return create(accesses, union(exclusions, accPath.exclusions));
 	}
 	
 	public boolean canRead(T field) {
-		return accesses.length > 0 && accesses[0].equals(field);
+		return accesses.length > 0 && accesses.first.equals(field);
 	}
 	
 	public boolean isEmpty() {
@@ -275,11 +290,7 @@ public class AccessPath<T> {
 	
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		result = prime * result + Arrays.hashCode(accesses);
-		result = prime * result + ((exclusions == null) ? 0 : exclusions.hashCode());
-		return result;
+		return hashCode;
 	}
 
 	@Override
@@ -291,19 +302,13 @@ public class AccessPath<T> {
 		if (getClass() != obj.getClass())
 			return false;
 		AccessPath other = (AccessPath) obj;
-		if (!Arrays.equals(accesses, other.accesses))
-			return false;
-		if (exclusions == null) {
-			if (other.exclusions != null)
-				return false;
-		} else if (!exclusions.equals(other.exclusions))
-			return false;
-		return true;
+		//prefixes and exclusion sets are canonical
+		return hashCode == other.hashCode && accesses == other.accesses && exclusions == other.exclusions;
 	}
 
 	@Override
 	public String toString() {
-		String result = accesses.length > 0 ? "."+Joiner.on(".").join(accesses) : "";
+		String result = accesses.length > 0 ? "."+Joiner.on(".").join(accesses.toArray()) : "";
 		if(!exclusions.isEmpty())
 			result += "^" + Joiner.on(",").join(exclusions);
 		if(result.isEmpty())
@@ -313,17 +318,32 @@ public class AccessPath<T> {
 	
 	public AccessPath<T> removeAnyAccess() {
 		if(accesses.length > 0)
-			return new AccessPath<T>((T[]) new Object[0], exclusions);
+			return create(ROOT, exclusions);
 		else
 			return this;
 	}
 
+	/**
+	 * Returns the path of the first <code>length</code> accesses of this path without any exclusions,
+	 * or this path if it does not have more accesses.
+	 */
+	public AccessPath<T> truncate(int length) {
+		if(accesses.length <= length)
+			return this;
+		Prefix node = accesses;
+		while(node.length > length)
+			node = node.parent;
+		return create(node, (Set<T>) NO_EXCLUSIONS);
+	}
+
 	public boolean hasEmptyAccessPath() {
 		return accesses.length == 0;
 	}
 
 	public T getFirstAccess() {
-		return accesses[0];
+		if(accesses.length == 0)
+			throw new ArrayIndexOutOfBoundsException(0);
+		return (T) accesses.first;
 	}
 
 	Set<T> getExclusions() {
@@ -333,4 +353,69 @@ public class AccessPath<T> {
 	public int length() {
 		return accesses.length;
 	}
+
+	/**
+	 * A node of the trie of field accesses, representing the sequence of fields on the path from the root to it.
+	 * Nodes are canonical, so two sequences are equal if and only if they are represented by the same node.
+	 */
+	private static final class Prefix {
+		private final Prefix parent;
+		private final Object field;
+		private final Object first;
+		private final int length;
+		private final int hashCode;
+
+		private Prefix() {
+			this.parent = null;
+			this.field = null;
+			this.first = null;
+			this.length = 0;
+			this.hashCode = 1;
+		}
+
+		private Prefix(Prefix parent, Object field) {
+			this.parent = parent;
+			this.field = field;
+			this.first = parent.length == 0 ? field : parent.first;
+			this.length = parent.length + 1;
+			this.hashCode = 31 * parent.hashCode + field.hashCode();
+		}
+
+		Prefix child(Object field) {
+			return prefixes.intern(new Prefix(this, field));
+		}
+
+		/**
+		 * Returns the last <code>count</code> fields of this sequence.
+		 */
+		<T> T[] suffix(int count) {
+			T[] result = (T[]) new Object[count];
+			Prefix node = this;
+			for(int i=count-1; i>=0; i--) {
+				result[i] = (T) node.field;
+				node = node.parent;
+			}
+			return result;
+		}
+
+		Object[] toArray() {
+			return suffix(length);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Prefix))
+				return false;
+			Prefix other = (Prefix) obj;
+			//parents are canonical
+			return hashCode == other.hashCode && parent == other.parent && field.equals(other.field);
+		}
+	}
 }
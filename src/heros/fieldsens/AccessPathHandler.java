@@ -52,8 +52,16 @@ public class AccessPathHandler<Field, Fact, Stmt, Method> {
 		return new ResultBuilder<Field, Fact, Stmt, Method>() {
 			@Override
 			public ConstrainedFact<Field, Fact, Stmt, Method> generate(Fact fact) {
+				AccessPath<Field> accessPath = accPathResolver.accessPath.prepend(field);
+				AccessPathLimiter<Field> limiter = accPathResolver.getAnalyzer().getContext().accessPathLimiter;
+				if(limiter.exceeds(accessPath)) {
+					//fields beyond the limit are summarized, such that any field can be read from there on
+					SummarizingCallEdgeResolver<Field, Fact, Stmt, Method> summarizer = accPathResolver.getAnalyzer().getSummarizingResolver();
+					return new ConstrainedFact<Field, Fact, Stmt, Method>(new WrappedFact<Field, Fact, Stmt, Method>(fact, 
+							new AccessPathAndResolver<Field, Fact, Stmt, Method>(summarizer.getAnalyzer(), limiter.truncate(accessPath), summarizer)));
+				}
 				return new ConstrainedFact<Field, Fact, Stmt, Method>(new WrappedFact<Field, Fact, Stmt, Method>(fact, 
-						accPathResolver.withAccessPath(accPathResolver.accessPath.prepend(field))));
+						accPathResolver.withAccessPath(accessPath)));
 			}
 		};
 	}
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Johannes Lerch.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Johannes Lerch - initial API and implementation
+ ******************************************************************************/
+package heros.fieldsens;
+
+import heros.ThreadSafe;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Optional;
+
+/**
+ * Bounds the length of access paths to the limit k given to the {@link FieldSensitiveIFDSSolver}.
+ *
+ * Facts whose access path would exceed k fields are cut down to their first k fields. Their remaining fields
+ * are summarized by a {@link SummarizingCallEdgeResolver}, which allows reading any field from there on,
+ * so the truncated fact over-approximates all facts it stands for. Likewise, resolvers do not nest
+ * deeper than k fields, but resolve any further field by the summarizing resolver.
+ * This bounds the number of analyzers and resolvers per method and source fact at the cost of precision.
+ */
+@ThreadSafe
+public class AccessPathLimiter<Field> {
+
+	private static final Logger logger = LoggerFactory.getLogger(AccessPathLimiter.class);
+
+	private final int limit;
+	private final AtomicLong truncatedAccessPaths = new AtomicLong();
+	private final AtomicLong summarizedResolutions = new AtomicLong();
+
+	final ZeroHandler<Field> summarizingHandler = new ZeroHandler<Field>() {
+		@Override
+		public Optional<AccessPath<Field>> shouldGenerateAccessPath(AccessPath<Field> accPath) {
+			return Optional.of(accPath);
+		}
+	};
+
+	/**
+	 * @param limit The maximum number of fields of an access path; zero or less if access paths are unbounded.
+	 */
+	public AccessPathLimiter(int limit) {
+		this.limit = limit;
+	}
+
+	public boolean isEnabled() {
+		return limit > 0;
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+	boolean exceeds(AccessPath<Field> accPath) {
+		return limit > 0 && accPath.length() > limit;
+	}
+
+	AccessPath<Field> truncate(AccessPath<Field> accPath) {
+		truncatedAccessPaths.incrementAndGet();
+		return accPath.truncate(limit);
+	}
+
+	void summarizedResolution() {
+		summarizedResolutions.incrementAndGet();
+	}
+
+	/**
+	 * Returns how many access paths were truncated to the limit.
+	 */
+	public long getTruncatedAccessPaths() {
+		return truncatedAccessPaths.get();
+	}
+
+	/**
+	 * Returns how many resolutions beyond the limit were answered by a summarizing resolver
+	 * instead of a nested resolver.
+	 */
+	public long getSummarizedResolutions() {
+		return summarizedResolutions.get();
+	}
+
+	public void printStats() {
+		if(logger.isDebugEnabled())
+			logger.debug("Access paths limited to {} fields: {} truncated, {} resolutions summarized",
+					limit, truncatedAccessPaths.get(), summarizedResolutions.get());
+	}
+}
@@ -13,18 +13,28 @@ package heros.fieldsens;
 
 import heros.InterproceduralCFG;
 import heros.fieldsens.SourceStmtAnnotatedMethodAnalyzer.Synchronizer;
+import heros.solver.BiDiExecutors;
 
+import java.util.Collections;
 import java.util.Set;
-
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Sets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 
+/**
+ * Runs a forward and a backward {@link FieldSensitiveIFDSSolver}, where unbalanced returns of either direction
+ * are paused until the other direction leaks from the same source statement.
+ * Both directions may share one {@link Scheduler}, or run on separate {@link ParallelScheduler}s, each with its own
+ * worker pool, see {@link #runAndAwaitCompletion()}. In the latter case, both directions run concurrently and the
+ * flow functions, the {@link FactMergeHandler} and the {@link Debugger} must be thread-safe.
+ */
 public class BiDiFieldSensitiveIFDSSolver<Field, Fact, Stmt, Method, I extends InterproceduralCFG<Stmt, Method>> {
 
 	private FieldSensitiveIFDSSolver<Field, Fact, Stmt, Method, I> forwardSolver;
 	private FieldSensitiveIFDSSolver<Field, Fact, Stmt, Method, I> backwardSolver;
-	private Scheduler scheduler;
+	private Scheduler forwardScheduler;
+	private Scheduler backwardScheduler;
 	private SynchronizerImpl<Stmt> forwardSynchronizer;
 	private SynchronizerImpl<Stmt> backwardSynchronizer;
 
@@ -33,20 +43,38 @@ public class BiDiFieldSensitiveIFDSSolver<Field, Fact, Stmt, Method, I extends I
 			FactMergeHandler<Fact> factHandler, 
 			Debugger<Field, Fact, Stmt, Method> debugger,
 			Scheduler scheduler) {
+		this(forwardProblem, backwardProblem, factHandler, debugger, scheduler, scheduler);
+	}
+
+	/**
+	 * Creates a solver whose directions run on the given schedulers. If these are different, both must be
+	 * {@link ParallelScheduler}s and the solver must be run by {@link #runAndAwaitCompletion()}.
+	 */
+	public BiDiFieldSensitiveIFDSSolver(IFDSTabulationProblem<Stmt, Field, Fact, Method, I> forwardProblem,
+			IFDSTabulationProblem<Stmt, Field, Fact, Method, I> backwardProblem, 
+			FactMergeHandler<Fact> factHandler, 
+			Debugger<Field, Fact, Stmt, Method> debugger,
+			Scheduler forwardScheduler,
+			Scheduler backwardScheduler) {
+		if(forwardScheduler != backwardScheduler && 
+				!(forwardScheduler instanceof ParallelScheduler && backwardScheduler instanceof ParallelScheduler))
+			throw new IllegalArgumentException("Separate schedulers for both directions must be instances of ParallelScheduler.");
 		
-		this.scheduler = scheduler;
+		this.forwardScheduler = forwardScheduler;
+		this.backwardScheduler = backwardScheduler;
 		
-		forwardSynchronizer = new SynchronizerImpl<Stmt>();
-		backwardSynchronizer = new SynchronizerImpl<Stmt>();
+		forwardSynchronizer = new SynchronizerImpl<Stmt>(forwardScheduler);
+		backwardSynchronizer = new SynchronizerImpl<Stmt>(backwardScheduler);
 		forwardSynchronizer.otherSynchronizer = backwardSynchronizer;
 		backwardSynchronizer.otherSynchronizer = forwardSynchronizer;
 		
-		forwardSolver = createSolver(forwardProblem, factHandler, debugger, forwardSynchronizer);
-		backwardSolver = createSolver(backwardProblem, factHandler, debugger, backwardSynchronizer);
+		forwardSolver = createSolver(forwardProblem, factHandler, debugger, forwardScheduler, forwardSynchronizer);
+		backwardSolver = createSolver(backwardProblem, factHandler, debugger, backwardScheduler, backwardSynchronizer);
 	}
 
 	private FieldSensitiveIFDSSolver<Field, Fact, Stmt, Method, I> createSolver(IFDSTabulationProblem<Stmt, Field, Fact, Method, I> problem, 
-			FactMergeHandler<Fact> factHandler, Debugger<Field, Fact, Stmt, Method> debugger, final SynchronizerImpl<Stmt> synchronizer) {
+			FactMergeHandler<Fact> factHandler, Debugger<Field, Fact, Stmt, Method> debugger, Scheduler scheduler,
+			final SynchronizerImpl<Stmt> synchronizer) {
 		return new FieldSensitiveIFDSSolver<Field, Fact, Stmt, Method, I>(problem, factHandler, debugger, scheduler) {
 			@Override
 			protected MethodAnalyzer<Field, Fact, Stmt, Method> createMethodAnalyzer(Method method) {
@@ -55,26 +83,99 @@ public class BiDiFieldSensitiveIFDSSolver<Field, Fact, Stmt, Method, I extends I
 		};
 	}
 
+	/**
+	 * Runs both directions and awaits their completion. With separate schedulers, each direction runs on a worker pool
+	 * of the size of its {@link ParallelScheduler}. The pools share one completion count, as jobs of either direction
+	 * may unpause jobs of the other.
+	 */
+	public void runAndAwaitCompletion() {
+		if(forwardScheduler == backwardScheduler) {
+			forwardScheduler.runAndAwaitCompletion();
+			return;
+		}
+		ParallelScheduler forward = (ParallelScheduler) forwardScheduler;
+		ParallelScheduler backward = (ParallelScheduler) backwardScheduler;
+		BiDiExecutors executors = new BiDiExecutors(forward.getNumThreads(), backward.getNumThreads());
+		//both executors must be set before any job runs, otherwise jobs sent to the other direction would be run by the sender
+		forward.setExecutor(executors.getForward());
+		backward.setExecutor(executors.getBackward());
+		try {
+			forward.submitScheduledJobs();
+			backward.submitScheduledJobs();
+			forward.awaitCompletion();
+		} finally {
+			forward.setExecutor(null);
+			backward.setExecutor(null);
+			executors.shutdown();
+		}
+	}
+
 	
+	/**
+	 * Pauses jobs of one direction until the other direction leaks from the same statement. May be called by
+	 * both directions concurrently and never blocks: a job paused concurrently to the leak of the other direction
+	 * is unpaused by whichever of both threads observes the other's update.
+	 */
 	private static class SynchronizerImpl<Stmt> implements Synchronizer<Stmt> {
 		
+		private final Scheduler scheduler;
 		private SynchronizerImpl<Stmt> otherSynchronizer;
-		private Set<Stmt> leakedSources = Sets.newHashSet();
-		private HashMultimap<Stmt, Runnable> pausedJobs = HashMultimap.create();
+		private final Set<Stmt> leakedSources = Collections.newSetFromMap(new ConcurrentHashMap<Stmt, Boolean>());
+		private final ConcurrentMap<Stmt, AtomicReference<PausedJob>> pausedJobs = new ConcurrentHashMap<Stmt, AtomicReference<PausedJob>>();
+
+		private SynchronizerImpl(Scheduler scheduler) {
+			this.scheduler = scheduler;
+		}
 
 		@Override
 		public void synchronizeOnStmt(Stmt stmt, Runnable job) {
 			leakedSources.add(stmt);
 			if(otherSynchronizer.leakedSources.contains(stmt)) {
 				job.run();
-				for(Runnable runnable : otherSynchronizer.pausedJobs.get(stmt)) {
-					runnable.run();
-				}
-				otherSynchronizer.pausedJobs.removeAll(stmt);
+				otherSynchronizer.unpause(stmt);
 			}
 			else {
-				pausedJobs.put(stmt, job);
+				pause(stmt, job);
+				//the other direction may have leaked in the meantime without seeing the job paused above
+				if(otherSynchronizer.leakedSources.contains(stmt))
+					unpause(stmt);
+			}
+		}
+
+		private void pause(Stmt stmt, Runnable job) {
+			AtomicReference<PausedJob> head = pausedJobs.get(stmt);
+			if(head == null) {
+				head = new AtomicReference<PausedJob>();
+				AtomicReference<PausedJob> existing = pausedJobs.putIfAbsent(stmt, head);
+				if(existing != null)
+					head = existing;
 			}
+			PausedJob paused = new PausedJob(scheduler.currentPartition(), job);
+			do {
+				paused.next = head.get();
+			} while(!head.compareAndSet(paused.next, paused));
+		}
+
+		/**
+		 * Sends all jobs paused at the given statement to the partitions they were paused in.
+		 */
+		private void unpause(Stmt stmt) {
+			AtomicReference<PausedJob> head = pausedJobs.get(stmt);
+			if(head == null)
+				return;
+			for(PausedJob paused = head.getAndSet(null); paused != null; paused = paused.next)
+				scheduler.send(paused.partition, paused.job);
+		}
+	}
+
+	private static class PausedJob {
+		private final Object partition;
+		private final Runnable job;
+		private PausedJob next;
+
+		private PausedJob(Object partition, Runnable job) {
+			this.partition = partition;
+			this.job = job;
 		}
 	}
 }
@@ -108,7 +108,7 @@ public class CallEdge<Field, Fact, Stmt, Method> {
 			@Override
 			public void canBeResolvedEmpty(PerAccessPathMethodAnalyzer<Field, Fact, Stmt, Method> analyzer) {
 				if(analyzer.equals(callerAnalyzer))
-					callerAnalyzer.getCallEdgeResolver().resolve(new DeltaConstraint<Field>(delta), this);
+					callerAnalyzer.sendResolve(callerAnalyzer.getCallEdgeResolver(), new DeltaConstraint<Field>(delta), this);
 			}
 		});
 	}
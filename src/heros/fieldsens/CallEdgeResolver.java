@@ -10,6 +10,7 @@
  ******************************************************************************/
 package heros.fieldsens;
 
+import heros.fieldsens.FlowFunction.Constraint;
 import heros.fieldsens.structs.AccessPathAndResolver;
 import heros.fieldsens.structs.WrappedFactAtStatement;
 
@@ -59,6 +60,19 @@ public class CallEdgeResolver<Field, Fact, Stmt, Method> extends ResolverTemplat
 			super.interestByIncoming(inc);
 	}
 	
+	@Override
+	public void resolve(Constraint<Field> constraint, InterestCallback<Field, Fact, Stmt, Method> callback) {
+		AccessPathLimiter<Field> limiter = analyzer.getContext().accessPathLimiter;
+		if(!isLocked() && constraint.canBeAppliedTo(resolvedAccessPath) && limiter.exceeds(constraint.applyToAccessPath(resolvedAccessPath))) {
+			//do not nest resolvers beyond the limit, but assume the field to be present
+			log("Summarize: "+constraint);
+			limiter.summarizedResolution();
+			analyzer.getSummarizingResolver().resolve(constraint, callback);
+		}
+		else
+			super.resolve(constraint, callback);
+	}
+	
 	@Override
 	protected Resolver<Field, Fact, Stmt, Method> getResolver(CallEdge<Field, Fact, Stmt, Method> inc) {
 		return inc.getCalleeSourceFact().getAccessPathAndResolver().resolver;
@@ -96,16 +110,52 @@ public class CallEdgeResolver<Field, Fact, Stmt, Method> extends ResolverTemplat
 	}
 	
 	@Override
-	public void registerTransitiveResolverCallback(TransitiveResolverCallback<Field, Fact, Stmt, Method> callback) {
+	public void registerTransitiveResolverCallback(final TransitiveResolverCallback<Field, Fact, Stmt, Method> callback) {
 		if(resolvedAccessPath.isEmpty())
 			callback.resolvedByIncomingAccessPath();
 		else {
-			for(Resolver<Field, Fact, Stmt, Method> transRes : Lists.newLinkedList(incomingEdges.keySet())) {
-				if(transRes == null)
-					callback.resolvedByIncomingAccessPath();
-				else
-					callback.resolvedBy(transRes);
+			final Scheduler scheduler = analyzer.getContext().scheduler;
+			if(scheduler.isLocal(analyzer.getMethod())) {
+				notifyTransitiveResolvers(callback);
+				return;
 			}
+			//incoming edges are owned by the partition of this resolver's method, callbacks run in the partition of the caller
+			final Object origin = scheduler.currentPartition();
+			analyzer.send(new Runnable() {
+				@Override
+				public void run() {
+					notifyTransitiveResolvers(new TransitiveResolverCallback<Field, Fact, Stmt, Method>() {
+						@Override
+						public void resolvedByIncomingAccessPath() {
+							scheduler.send(origin, new Runnable() {
+								@Override
+								public void run() {
+									callback.resolvedByIncomingAccessPath();
+								}
+							});
+						}
+
+						@Override
+						public void resolvedBy(final Resolver<Field, Fact, Stmt, Method> resolver) {
+							scheduler.send(origin, new Runnable() {
+								@Override
+								public void run() {
+									callback.resolvedBy(resolver);
+								}
+							});
+						}
+					});
+				}
+			});
+		}
+	}
+
+	private void notifyTransitiveResolvers(TransitiveResolverCallback<Field, Fact, Stmt, Method> callback) {
+		for(Resolver<Field, Fact, Stmt, Method> transRes : Lists.newLinkedList(incomingEdges.keySet())) {
+			if(transRes == null)
+				callback.resolvedByIncomingAccessPath();
+			else
+				callback.resolvedBy(transRes);
 		}
 	}
 	
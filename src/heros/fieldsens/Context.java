@@ -21,9 +21,11 @@ public abstract class Context<Field, Fact, Stmt, Method> {
 	public final FactMergeHandler<Fact> factHandler;
 	public final ZeroHandler<Field> zeroHandler;
 	public final FlowFunctions<Stmt, Field, Fact, Method> flowFunctions;
+	public final AccessPathLimiter<Field> accessPathLimiter;
+	public final SolverListeners<Field, Fact, Stmt> listeners;
 	
 	Context(IFDSTabulationProblem<Stmt, Field, Fact, Method, ? extends InterproceduralCFG<Stmt, Method>> tabulationProblem, 
-			Scheduler scheduler, FactMergeHandler<Fact> factHandler) {
+			Scheduler scheduler, FactMergeHandler<Fact> factHandler, int accessPathLengthLimit) {
 		this.icfg = tabulationProblem.interproceduralCFG();
 		this.flowFunctions = tabulationProblem.flowFunctions();
 		this.scheduler = scheduler;
@@ -31,6 +33,8 @@ public abstract class Context<Field, Fact, Stmt, Method> {
 		this.followReturnsPastSeeds = tabulationProblem.followReturnsPastSeeds();
 		this.factHandler = factHandler;
 		this.zeroHandler = tabulationProblem.zeroHandler();
+		this.accessPathLimiter = new AccessPathLimiter<Field>(accessPathLengthLimit);
+		this.listeners = new SolverListeners<Field, Fact, Stmt>(zeroValue);
 	}
 	
 	public abstract MethodAnalyzer<Field, Fact, Stmt, Method> getAnalyzer(Method method);
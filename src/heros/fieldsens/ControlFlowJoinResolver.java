@@ -32,7 +32,7 @@ public class ControlFlowJoinResolver<Field, Fact, Stmt, Method> extends Resolver
 
 	public ControlFlowJoinResolver(FactMergeHandler<Fact> factMergeHandler, Stmt joinStmt, Fact sourceFact, Debugger<Field, Fact, Stmt, Method> debugger, ContextLogger<Method> logger,
 			 Fact sourceFactOfAnalayzer, Method method) {
-		this(factMergeHandler, joinStmt, sourceFact, new AccessPath<Field>(), debugger, null, sourceFactOfAnalayzer, method);
+		this(factMergeHandler, joinStmt, sourceFact, AccessPath.<Field>empty(), debugger, null, sourceFactOfAnalayzer, method);
 		this.factMergeHandler = factMergeHandler;
 		this.logger = logger;
 	}
@@ -85,7 +85,7 @@ public class ControlFlowJoinResolver<Field, Fact, Stmt, Method> extends Resolver
 		else {
 			analyzer.processFlowFromJoinStmt(new WrappedFactAtStatement<Field, Fact, Stmt, Method>(
 					joinStmt, new WrappedFact<Field, Fact, Stmt, Method>(
-					fact.getFact(), new AccessPathAndResolver<Field, Fact, Stmt, Method>(analyzer, new AccessPath<Field>(), this))));
+					fact.getFact(), new AccessPathAndResolver<Field, Fact, Stmt, Method>(analyzer, AccessPath.<Field>empty(), this))));
 		}
 	};
 	
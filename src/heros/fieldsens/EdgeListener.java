@@ -0,0 +1,25 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Johannes Lerch.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ * 
+ * Contributors:
+ *     Johannes Lerch - initial API and implementation
+ ******************************************************************************/
+package heros.fieldsens;
+
+/**
+ * Is notified by a {@link FieldSensitiveIFDSSolver} whenever a new edge of the exploded super graph is found,
+ * while the solver is still running. The listener may be called simultaneously by different threads.
+ * 
+ * @see FieldSensitiveIFDSSolver#addEdgeListener(EdgeListener)
+ */
+public interface EdgeListener<Field, Fact, Stmt> {
+
+	/**
+	 * Called when fact with the given access path reaches stmt, starting from sourceFact at the start point of the method.
+	 */
+	void edgeTo(Fact sourceFact, Stmt stmt, Fact fact, AccessPath<Field> accessPath);
+}
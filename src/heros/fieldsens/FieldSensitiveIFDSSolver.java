@@ -12,8 +12,11 @@
 package heros.fieldsens;
 
 import heros.InterproceduralCFG;
+import heros.SinkListener;
+import heros.SolverBudget;
 import heros.utilities.DefaultValueMap;
 
+import java.util.Collection;
 import java.util.Map.Entry;
 import java.util.Set;
 
@@ -37,25 +40,96 @@ public class FieldSensitiveIFDSSolver<FieldRef, D, N, M, I extends Interprocedur
 	private Scheduler scheduler;
 
 	public FieldSensitiveIFDSSolver(IFDSTabulationProblem<N,FieldRef,D,M,I> tabulationProblem, FactMergeHandler<D> factHandler, Debugger<FieldRef, D, N, M> debugger, Scheduler scheduler) {
+		this(tabulationProblem, factHandler, debugger, scheduler, 0);
+	}
+
+	/**
+	 * Creates a solver that bounds the length of access paths.
+	 * @param accessPathLengthLimit The maximum number of fields of the access paths the solver keeps track of,
+	 * or zero if access paths are unbounded. Fields beyond this limit are over-approximated, see {@link AccessPathLimiter}.
+	 */
+	public FieldSensitiveIFDSSolver(IFDSTabulationProblem<N,FieldRef,D,M,I> tabulationProblem, FactMergeHandler<D> factHandler, Debugger<FieldRef, D, N, M> debugger, Scheduler scheduler,
+			int accessPathLengthLimit) {
 		this.tabulationProblem = tabulationProblem;
 		this.scheduler = scheduler;
 		this.debugger = debugger == null ? new Debugger.NullDebugger<FieldRef, D, N, M>() : debugger;
 		this.debugger.setICFG(tabulationProblem.interproceduralCFG());
-		context = initContext(tabulationProblem, factHandler);
+		context = initContext(tabulationProblem, factHandler, accessPathLengthLimit);
 		submitInitialSeeds();
 	}
 
-	private Context<FieldRef, D, N, M> initContext(IFDSTabulationProblem<N, FieldRef, D, M, I> tabulationProblem, FactMergeHandler<D> factHandler) {
-		 return new Context<FieldRef, D, N, M>(tabulationProblem, scheduler, factHandler) {
+	private Context<FieldRef, D, N, M> initContext(IFDSTabulationProblem<N, FieldRef, D, M, I> tabulationProblem, FactMergeHandler<D> factHandler, int accessPathLengthLimit) {
+		 return new Context<FieldRef, D, N, M>(tabulationProblem, scheduler, factHandler, accessPathLengthLimit) {
 			@Override
 			public MethodAnalyzer<FieldRef, D, N, M> getAnalyzer(M method) {
 				if(method == null)
 					throw new IllegalArgumentException("Method must be not null");
-				return methodAnalyzers.getOrCreate(method);
+				//analyzers are requested by jobs of all partitions of the scheduler
+				synchronized (methodAnalyzers) {
+					return methodAnalyzers.getOrCreate(method);
+				}
 			}
 		};
 	}
 	
+	/**
+	 * Returns the limiter of access-path lengths, which counts how often access paths were truncated.
+	 * @see #FieldSensitiveIFDSSolver(IFDSTabulationProblem, FactMergeHandler, Debugger, Scheduler, int)
+	 */
+	public AccessPathLimiter<FieldRef> getAccessPathLimiter() {
+		return context.accessPathLimiter;
+	}
+	
+	/**
+	 * Registers a listener that is notified as soon as a fact reaches one of the given sinks.
+	 * Must be called before the scheduler is run.
+	 */
+	public void addSinkListener(Collection<N> sinks, SinkListener<N, D> listener) {
+		context.listeners.addSinkListener(sinks, listener);
+	}
+	
+	/**
+	 * Registers a listener that is notified whenever a new edge of the exploded super graph is found.
+	 * Must be called before the scheduler is run. Edges at the initial seeds are found when the solver
+	 * is created and are thus not reported.
+	 */
+	public void addEdgeListener(EdgeListener<FieldRef, D, N> listener) {
+		context.listeners.addEdgeListener(listener);
+	}
+	
+	/**
+	 * Stops the solver as soon as possible, e.g. once a listener has obtained all results it needs.
+	 * May be called by any thread, including listeners. Pending jobs are discarded, so the results are incomplete.
+	 */
+	public void terminate() {
+		context.listeners.terminate();
+	}
+	
+	/**
+	 * Limits the resources spent by this solver, starting now. Once the budget is exhausted, the solver
+	 * discards its pending jobs, so the scheduler completes and the results found so far are incomplete.
+	 * Must be called before the scheduler is run.
+	 * @see #isComplete()
+	 */
+	public void setBudget(SolverBudget budget) {
+		context.listeners.setBudgetMeter(budget.startMeter());
+	}
+	
+	/**
+	 * Returns the resource whose budget was exhausted, or <code>null</code> if none was.
+	 */
+	public SolverBudget.Resource getExhaustedBudget() {
+		SolverBudget.Meter meter = context.listeners.getBudgetMeter();
+		return meter == null ? null : meter.getExhausted();
+	}
+	
+	/**
+	 * Returns <code>true</code> if this solver was neither terminated nor ran out of its budget.
+	 */
+	public boolean isComplete() {
+		return !context.listeners.isTerminated();
+	}
+	
 	protected MethodAnalyzer<FieldRef, D, N, M> createMethodAnalyzer(M method) {
 		return new MethodAnalyzerImpl<FieldRef, D, N, M>(method, context, debugger);
 	}
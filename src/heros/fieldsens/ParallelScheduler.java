@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Johannes Lerch.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Johannes Lerch - initial API and implementation
+ ******************************************************************************/
+package heros.fieldsens;
+
+import heros.solver.AwaitableExecutor;
+import heros.solver.CountingThreadPoolExecutor;
+
+import java.util.LinkedList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+
+/**
+ * A {@link Scheduler} running jobs on multiple threads. Jobs are partitioned by the method whose analyzers
+ * and resolvers they access. Each partition has its own worklist, and at most one job of a partition runs at
+ * any time. Therefore, analyzer-local state is accessed without locks, while different methods are analyzed
+ * in parallel. Interactions with the analyzers or resolvers of another method are {@link #send(Object, Runnable) sent}
+ * as messages to the partition of that method. A partition runs its messages first-in first-out and before
+ * its own jobs, so that a method observes the messages of another method in the order they were sent.
+ *
+ * Flow functions, the {@link FactMergeHandler}, the {@link ZeroHandler} and the {@link Debugger} are invoked
+ * concurrently and must be thread-safe.
+ */
+public class ParallelScheduler extends Scheduler {
+
+	//number of jobs a partition processes before it yields its thread to other partitions
+	private static final int MAX_JOBS_PER_RUN = 64;
+
+	//partition of jobs scheduled without partition by threads not running jobs themselves
+	private static final Object UNPARTITIONED = new Object();
+
+	private final int numThreads;
+	private final ConcurrentMap<Object, Partition> partitions = new ConcurrentHashMap<Object, Partition>();
+	private final ThreadLocal<Partition> currentPartition = new ThreadLocal<Partition>();
+
+	//null unless runAndAwaitCompletion() is active
+	private volatile AwaitableExecutor executor;
+
+	public ParallelScheduler(int numThreads) {
+		this.numThreads = Math.max(1, numThreads);
+	}
+
+	@Override
+	public void schedule(Runnable job) {
+		schedule(currentPartition(), job);
+	}
+
+	@Override
+	public void schedule(Object partition, Runnable job) {
+		getOrCreatePartition(partition == null ? UNPARTITIONED : partition).add(job);
+	}
+
+	/**
+	 * Runs the message immediately if the calling thread runs a job of the given partition. Otherwise, the message
+	 * is enqueued and runs with the {@link Scheduler#getGuards() guards} of the sender, as it would if run immediately.
+	 */
+	@Override
+	public void send(Object partition, final Runnable message) {
+		if(isLocal(partition)) {
+			message.run();
+			return;
+		}
+		final Set<Object> guards = getGuards();
+		Partition target = getOrCreatePartition(partition == null ? UNPARTITIONED : partition);
+		if(guards.isEmpty()) {
+			target.addMessage(message);
+			return;
+		}
+		target.addMessage(new Runnable() {
+			@Override
+			public void run() {
+				Set<Object> outer = getGuards();
+				setGuards(guards);
+				try {
+					message.run();
+				} finally {
+					setGuards(outer);
+				}
+			}
+		});
+	}
+
+	@Override
+	public boolean isLocal(Object partition) {
+		if(executor == null)
+			return true;
+		Partition current = currentPartition.get();
+		return current != null && current.key.equals(partition == null ? UNPARTITIONED : partition);
+	}
+
+	@Override
+	public Object currentPartition() {
+		Partition partition = currentPartition.get();
+		return partition == null ? null : partition.key;
+	}
+
+	/**
+	 * Runs all scheduled jobs and awaits their completion, i.e., until the worklists of all partitions are
+	 * empty and no job is running any more.
+	 */
+	@Override
+	public void runAndAwaitCompletion() {
+		AwaitableExecutor executor = getExecutor();
+		setExecutor(executor);
+		try {
+			submitScheduledJobs();
+			awaitCompletion();
+		} finally {
+			setExecutor(null);
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Sets the executor the partitions are run on, or <code>null</code> to no longer run them. The executor may
+	 * be shared with other schedulers, see {@link BiDiFieldSensitiveIFDSSolver#runAndAwaitCompletion()}.
+	 */
+	void setExecutor(AwaitableExecutor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Submits all partitions with a non-empty worklist to the executor.
+	 */
+	void submitScheduledJobs() {
+		for(Partition partition : partitions.values())
+			partition.submitIfNecessary();
+	}
+
+	/**
+	 * Awaits the completion of all jobs submitted to the executor and rethrows the exception of a failed job (if any).
+	 */
+	void awaitCompletion() {
+		AwaitableExecutor executor = this.executor;
+		try {
+			executor.awaitCompletion();
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+		}
+		Throwable exception = executor.getException();
+		if(exception!=null) {
+			throw new RuntimeException("There were exceptions during the analysis. Exiting.", exception);
+		}
+	}
+
+	int getNumThreads() {
+		return numThreads;
+	}
+
+	protected AwaitableExecutor getExecutor() {
+		return new CountingThreadPoolExecutor(numThreads, numThreads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+	}
+
+	private Partition getOrCreatePartition(Object key) {
+		Partition partition = partitions.get(key);
+		if(partition == null) {
+			partition = new Partition(key);
+			Partition existing = partitions.putIfAbsent(key, partition);
+			if(existing != null)
+				partition = existing;
+		}
+		return partition;
+	}
+
+	private class Partition implements Runnable {
+
+		private final Object key;
+
+		//guarded by this
+		private final LinkedList<Runnable> worklist = Lists.newLinkedList();
+
+		//messages sent by other partitions, run first-in first-out before the jobs of the worklist; guarded by this
+		private final LinkedList<Runnable> messages = Lists.newLinkedList();
+
+		//true while this partition is submitted to or running on the executor; guarded by this
+		private boolean submitted = false;
+
+		private Partition(Object key) {
+			this.key = key;
+		}
+
+		void add(Runnable job) {
+			synchronized (this) {
+				worklist.add(job);
+			}
+			submitIfNecessary();
+		}
+
+		void addMessage(Runnable message) {
+			synchronized (this) {
+				messages.add(message);
+			}
+			submitIfNecessary();
+		}
+
+		void submitIfNecessary() {
+			AwaitableExecutor executor = ParallelScheduler.this.executor;
+			if(executor == null)
+				return;
+			synchronized (this) {
+				if(submitted || (worklist.isEmpty() && messages.isEmpty()))
+					return;
+				submitted = true;
+			}
+			executor.execute(this);
+		}
+
+		@Override
+		public void run() {
+			currentPartition.set(this);
+			try {
+				for(int i=0; i<MAX_JOBS_PER_RUN; i++) {
+					Runnable job;
+					synchronized (this) {
+						if(!messages.isEmpty())
+							job = messages.removeFirst();
+						else if(!worklist.isEmpty())
+							job = worklist.removeLast();
+						else {
+							submitted = false;
+							return;
+						}
+					}
+					job.run();
+				}
+				//resubmitting before this run completes keeps the executor from becoming idle
+				executor.execute(this);
+			} finally {
+				currentPartition.remove();
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "Partition: "+key;
+		}
+	}
+}
@@ -13,6 +13,7 @@ package heros.fieldsens;
 import heros.fieldsens.AccessPath.Delta;
 import heros.fieldsens.AccessPath.PrefixTestResult;
 import heros.fieldsens.FlowFunction.ConstrainedFact;
+import heros.fieldsens.FlowFunction.Constraint;
 import heros.fieldsens.structs.AccessPathAndResolver;
 import heros.fieldsens.structs.FactAtStatement;
 import heros.fieldsens.structs.WrappedFact;
@@ -68,6 +69,7 @@ public class PerAccessPathMethodAnalyzer<Field, Fact, Stmt, Method> {
 	private Debugger<Field, Fact, Stmt, Method> debugger;
 	private Delta<Field> repeatedDelta;
 	private PerAccessPathMethodAnalyzer<Field, Fact, Stmt, Method> zeroVersion;
+	private SummarizingCallEdgeResolver<Field, Fact, Stmt, Method> summarizingResolver;
 
 	public PerAccessPathMethodAnalyzer(Method method, Fact sourceFact, Context<Field, Fact, Stmt, Method> context, Debugger<Field, Fact, Stmt, Method> debugger) {
 		this(method, sourceFact, context, debugger, new AccessPath<Field>(), null, null);
@@ -101,7 +103,8 @@ public class PerAccessPathMethodAnalyzer<Field, Fact, Stmt, Method> {
 		return parent;
 	}
 	
-	public PerAccessPathMethodAnalyzer<Field, Fact, Stmt, Method> createWithZeroCallEdgeResolver() {
+	//may be called by jobs of other methods, e.g. when appending nested resolvers
+	public synchronized PerAccessPathMethodAnalyzer<Field, Fact, Stmt, Method> createWithZeroCallEdgeResolver() {
 		if(callEdgeResolver instanceof ZeroCallEdgeResolver)
 			return this;
 		
@@ -118,6 +121,17 @@ public class PerAccessPathMethodAnalyzer<Field, Fact, Stmt, Method> {
 		return zeroVersion;
 	}
 	
+	//one summarizing resolver per method and source fact, owned by the root analyzer
+	SummarizingCallEdgeResolver<Field, Fact, Stmt, Method> getSummarizingResolver() {
+		if(parent != null)
+			return parent.getSummarizingResolver();
+		synchronized (this) {
+			if(summarizingResolver == null)
+				summarizingResolver = new SummarizingCallEdgeResolver<Field, Fact, Stmt, Method>(this, context.accessPathLimiter, debugger);
+			return summarizingResolver;
+		}
+	}
+	
 	PerAccessPathMethodAnalyzer<Field, Fact, Stmt, Method> createWithAccessPath(AccessPath<Field> accPath) {
 		assert !(callEdgeResolver instanceof ZeroCallEdgeResolver);
 		
@@ -174,10 +188,13 @@ public class PerAccessPathMethodAnalyzer<Field, Fact, Stmt, Method> {
 		if (reachableStatements.containsKey(factAtStmt)) {
 			log("Merging "+factAtStmt);
 			context.factHandler.merge(reachableStatements.get(factAtStmt).getWrappedFact().getFact(), factAtStmt.getWrappedFact().getFact());
-		} else {
+		} else if(!context.listeners.isTerminated()) {
 			log("Edge to "+factAtStmt);
 			reachableStatements.put(factAtStmt, factAtStmt);
-			context.scheduler.schedule(new Job(factAtStmt));
+			//listeners are notified first, so that they can terminate the solver before the edge is processed
+			context.listeners.edgeTo(sourceFact, factAtStmt.getStatement(), factAtStmt.getWrappedFact().getFact(), factAtStmt.getAccessPathAndResolver().accessPath);
+			if(!context.listeners.isTerminated() && context.listeners.chargeEdge())
+				context.scheduler.schedule(method, new Job(factAtStmt));
 			debugger.edgeTo(this, factAtStmt);
 		}
 	}
@@ -213,9 +230,15 @@ public class PerAccessPathMethodAnalyzer<Field, Fact, Stmt, Method> {
 					new AccessPathHandler<Field, Fact, Stmt, Method>(factAtStmt.getAccessPathAndResolver(), debugger));
 			for (ConstrainedFact<Field, Fact, Stmt, Method> targetFact : targetFacts) {
 				//TODO handle constraint
-				MethodAnalyzer<Field, Fact, Stmt, Method> analyzer = context.getAnalyzer(calledMethod);
-				analyzer.addIncomingEdge(new CallEdge<Field, Fact, Stmt, Method>(this,
-						factAtStmt, targetFact.getFact()));
+				final MethodAnalyzer<Field, Fact, Stmt, Method> analyzer = context.getAnalyzer(calledMethod);
+				final CallEdge<Field, Fact, Stmt, Method> callEdge = new CallEdge<Field, Fact, Stmt, Method>(this,
+						factAtStmt, targetFact.getFact());
+				context.scheduler.send(calledMethod, new Runnable() {
+					@Override
+					public void run() {
+						analyzer.addIncomingEdge(callEdge);
+					}
+				});
 			}
 		}
 	}
@@ -229,7 +252,7 @@ public class PerAccessPathMethodAnalyzer<Field, Fact, Stmt, Method> {
 
 		if(context.followReturnsPastSeeds && isZeroSource()) {
 			Collection<Stmt> callSites = context.icfg.getCallersOf(method);
-			for(Stmt callSite : callSites) {
+			for(final Stmt callSite : callSites) {
 				Collection<Stmt> returnSites = context.icfg.getReturnSitesOfCallAt(callSite);
 				for(Stmt returnSite : returnSites) {
 					FlowFunction<Field, Fact, Stmt, Method> flowFunction = context.flowFunctions.getReturnFlowFunction(callSite, method, factAtStmt.getStatement(), returnSite);
@@ -237,7 +260,15 @@ public class PerAccessPathMethodAnalyzer<Field, Fact, Stmt, Method> {
 							new AccessPathHandler<Field, Fact, Stmt, Method>(factAtStmt.getAccessPathAndResolver(), debugger));
 					for (ConstrainedFact<Field, Fact, Stmt, Method> targetFact : targetFacts) {
 						//TODO handle constraint
-						context.getAnalyzer(context.icfg.getMethodOf(callSite)).addUnbalancedReturnFlow(new WrappedFactAtStatement<Field, Fact, Stmt, Method>(returnSite, targetFact.getFact()), callSite);
+						Method caller = context.icfg.getMethodOf(callSite);
+						final MethodAnalyzer<Field, Fact, Stmt, Method> analyzer = context.getAnalyzer(caller);
+						final WrappedFactAtStatement<Field, Fact, Stmt, Method> target = new WrappedFactAtStatement<Field, Fact, Stmt, Method>(returnSite, targetFact.getFact());
+						context.scheduler.send(caller, new Runnable() {
+							@Override
+							public void run() {
+								analyzer.addUnbalancedReturnFlow(target, callSite);
+							}
+						});
 					}
 				}
 			}
@@ -366,11 +397,65 @@ public class PerAccessPathMethodAnalyzer<Field, Fact, Stmt, Method> {
 				new AccessPathAndResolver<Field, Fact, Stmt, Method>(this, AccessPath.<Field>empty(), callEdgeResolver), null);
 	}
 	
-	private void scheduleReturnEdge(CallEdge<Field, Fact, Stmt, Method> callEdge, WrappedFact<Field, Fact, Stmt, Method> fact, Stmt returnSite) {
-		AccessPath<Field> remainingAccPath = accessPath.getDeltaToAsAccessPath(callEdge.getCalleeSourceFact().getAccessPathAndResolver().accessPath);
-		ReturnSiteHandling<Field, Fact, Stmt, Method> resolver = callEdge.getCallerAnalyzer().returnSiteResolvers.getOrCreate(new FactAtStatement<Fact, Stmt>(fact.getFact(), returnSite));
-		resolver.addIncomingEdge(fact.getAccessPathAndResolver(), 
-				callEdge.getCalleeSourceFact().getAccessPathAndResolver().withAccessPath(remainingAccPath), null);
+	private void scheduleReturnEdge(final CallEdge<Field, Fact, Stmt, Method> callEdge, final WrappedFact<Field, Fact, Stmt, Method> fact, final Stmt returnSite) {
+		final AccessPath<Field> remainingAccPath = accessPath.getDeltaToAsAccessPath(callEdge.getCalleeSourceFact().getAccessPathAndResolver().accessPath);
+		callEdge.getCallerAnalyzer().send(new Runnable() {
+			@Override
+			public void run() {
+				ReturnSiteHandling<Field, Fact, Stmt, Method> resolver = callEdge.getCallerAnalyzer().returnSiteResolvers.getOrCreate(new FactAtStatement<Fact, Stmt>(fact.getFact(), returnSite));
+				resolver.addIncomingEdge(fact.getAccessPathAndResolver(), 
+						callEdge.getCalleeSourceFact().getAccessPathAndResolver().withAccessPath(remainingAccPath), null);
+			}
+		});
+	}
+
+	/**
+	 * Runs the given message in the scheduler partition of this analyzer's method.
+	 */
+	void send(Runnable message) {
+		context.scheduler.send(method, message);
+	}
+
+	/**
+	 * Asks the given resolver, which must belong to the method of this analyzer, to resolve the constraint.
+	 * If the calling thread may not access the state of this method, the request is sent to the partition
+	 * of this method and the callback is invoked in the partition of the caller.
+	 */
+	public void sendResolve(final Resolver<Field, Fact, Stmt, Method> resolver, final Constraint<Field> constraint,
+			final InterestCallback<Field, Fact, Stmt, Method> callback) {
+		final Scheduler scheduler = context.scheduler;
+		if(scheduler.isLocal(method)) {
+			resolver.resolve(constraint, callback);
+			return;
+		}
+		final Object origin = scheduler.currentPartition();
+		send(new Runnable() {
+			@Override
+			public void run() {
+				resolver.resolve(constraint, new InterestCallback<Field, Fact, Stmt, Method>() {
+					@Override
+					public void interest(final PerAccessPathMethodAnalyzer<Field, Fact, Stmt, Method> analyzer,
+							final AccessPathAndResolver<Field, Fact, Stmt, Method> accPathResolver) {
+						scheduler.send(origin, new Runnable() {
+							@Override
+							public void run() {
+								callback.interest(analyzer, accPathResolver);
+							}
+						});
+					}
+
+					@Override
+					public void canBeResolvedEmpty(final PerAccessPathMethodAnalyzer<Field, Fact, Stmt, Method> analyzer) {
+						scheduler.send(origin, new Runnable() {
+							@Override
+							public void run() {
+								callback.canBeResolvedEmpty(analyzer);
+							}
+						});
+					}
+				});
+			}
+		});
 	}
 
 	void applySummaries(CallEdge<Field, Fact, Stmt, Method> incEdge) {
@@ -394,6 +479,8 @@ public class PerAccessPathMethodAnalyzer<Field, Fact, Stmt, Method> {
 
 		@Override
 		public void run() {
+			if(context.listeners.isTerminated())
+				return;
 			debugger.jobStarted(PerAccessPathMethodAnalyzer.this, factAtStmt);
 			if (context.icfg.isCallStmt(factAtStmt.getStatement())) {
 				processCall(factAtStmt);
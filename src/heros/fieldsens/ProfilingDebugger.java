@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Johannes Lerch.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ * 
+ * Contributors:
+ *     Johannes Lerch - initial API and implementation
+ ******************************************************************************/
+package heros.fieldsens;
+
+import heros.InterproceduralCFG;
+import heros.fieldsens.structs.WrappedFactAtStatement;
+import heros.utilities.HotspotProfile;
+
+/**
+ * A {@link Debugger} that measures the time of each job and aggregates it, along with the number of jobs,
+ * per method, per call site and per source fact of the analyzer running the job.
+ * Jobs may run on multiple threads, see {@link ParallelScheduler}.
+ */
+public class ProfilingDebugger<Field, Fact, Stmt, Method> extends Debugger.NullDebugger<Field, Fact, Stmt, Method> {
+
+	private final HotspotProfile profile = new HotspotProfile();
+	private final ThreadLocal<long[]> jobStart = new ThreadLocal<long[]>() {
+		@Override
+		protected long[] initialValue() {
+			return new long[1];
+		}
+	};
+	private InterproceduralCFG<Stmt, Method> icfg;
+
+	@Override
+	public void setICFG(InterproceduralCFG<Stmt, Method> icfg) {
+		this.icfg = icfg;
+	}
+
+	@Override
+	public void jobStarted(PerAccessPathMethodAnalyzer<Field, Fact, Stmt, Method> analyzer, WrappedFactAtStatement<Field, Fact, Stmt, Method> factAtStmt) {
+		jobStart.get()[0] = System.nanoTime();
+	}
+
+	@Override
+	public void jobFinished(PerAccessPathMethodAnalyzer<Field, Fact, Stmt, Method> analyzer, WrappedFactAtStatement<Field, Fact, Stmt, Method> factAtStmt) {
+		long nanos = System.nanoTime() - jobStart.get()[0];
+		profile.record(HotspotProfile.METHODS, analyzer.getMethod(), nanos);
+		profile.record(HotspotProfile.SOURCE_FACTS, analyzer.getSourceFact(), nanos);
+		if(icfg.isCallStmt(factAtStmt.getStatement()))
+			profile.record(HotspotProfile.CALL_SITES, factAtStmt.getStatement(), nanos);
+	}
+
+	public HotspotProfile getProfile() {
+		return profile;
+	}
+}
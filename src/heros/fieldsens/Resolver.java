@@ -80,7 +80,8 @@ public abstract class Resolver<Field, Fact, Stmt, Method> {
 		
 //		interestLock = true;
 		for(InterestCallback<Field, Fact, Stmt, Method> callback : Lists.newLinkedList(interestCallbacks)) {
-			callback.interest(accPathResolver.getAnalyzer(), accPathResolver);
+			if(!Scheduler.isGuarded(callback))
+				callback.interest(accPathResolver.getAnalyzer(), accPathResolver);
 		}
 //		interestLock = false;
 	}
@@ -99,10 +100,20 @@ public abstract class Resolver<Field, Fact, Stmt, Method> {
 		return !interest.isEmpty();
 	}
 
+	/**
+	 * Registers the callback and passes it the interest given so far. Interest given in consequence of this replay
+	 * is not passed to the callback, also if it is given by a message the scheduler enqueues instead of running it
+	 * immediately (see {@link Scheduler#getGuards()}).
+	 */
 	protected void registerCallback(InterestCallback<Field, Fact, Stmt, Method> callback) {
 		if(!interest.isEmpty()) {
-			for(AccessPathAndResolver<Field, Fact, Stmt, Method> entry : Lists.newLinkedList(interest))
-				callback.interest(entry.getAnalyzer(), entry);
+			Set<Object> outer = Scheduler.addGuard(callback);
+			try {
+				for(AccessPathAndResolver<Field, Fact, Stmt, Method> entry : Lists.newLinkedList(interest))
+					callback.interest(entry.getAnalyzer(), entry);
+			} finally {
+				Scheduler.setGuards(outer);
+			}
 		}
 		interestCallbacks.add(callback);
 
@@ -10,17 +10,104 @@
  ******************************************************************************/
 package heros.fieldsens;
 
+import java.util.Collections;
 import java.util.LinkedList;
+import java.util.Set;
+
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 
 public class Scheduler {
 
+	//objects guarding the messages run by the calling thread against re-entrant processing, see getGuards()
+	private static final ThreadLocal<Set<Object>> guards = new ThreadLocal<Set<Object>>() {
+		@Override
+		protected Set<Object> initialValue() {
+			return Collections.emptySet();
+		}
+	};
+
 	private LinkedList<Runnable> worklist = Lists.newLinkedList();
 	
 	public void schedule(Runnable job) {
 		worklist.add(job);
 	}
 
+	/**
+	 * Schedules a job that only accesses the state of the given partition, e.g. the analyzers of a single method.
+	 * This scheduler runs all jobs on a single thread and thus ignores the partition.
+	 */
+	public void schedule(Object partition, Runnable job) {
+		schedule(job);
+	}
+
+	/**
+	 * Delivers a message to the given partition. The message is run immediately if the calling thread
+	 * may access the state of the partition, otherwise it is scheduled as job of that partition.
+	 */
+	public void send(Object partition, Runnable message) {
+		if(isLocal(partition))
+			message.run();
+		else
+			schedule(partition, message);
+	}
+
+	/**
+	 * Returns <code>true</code> if the calling thread may access the state of the given partition.
+	 * This is always the case for this single-threaded scheduler.
+	 */
+	public boolean isLocal(Object partition) {
+		return true;
+	}
+
+	/**
+	 * Returns the partition of the job executed by the calling thread, or <code>null</code> if the scheduler does not partition jobs.
+	 */
+	public Object currentPartition() {
+		return null;
+	}
+
+	/**
+	 * Returns the objects guarding the calling thread against re-entrant processing, e.g. interest callbacks replaying
+	 * the interest given before their registration or resolvers locked against recursion. The guards also hold for
+	 * the messages sent by the calling thread: a scheduler that enqueues a message instead of running it immediately
+	 * captures the guards when the message is sent and restores them while it runs.
+	 */
+	public static Set<Object> getGuards() {
+		return guards.get();
+	}
+
+	public static void setGuards(Set<Object> guards) {
+		Scheduler.guards.set(guards);
+	}
+
+	/**
+	 * Adds the guard to the guards of the calling thread and returns the previous guards. The set returned by
+	 * {@link #getGuards()} is never modified, so it can be captured by enqueued messages.
+	 */
+	public static Set<Object> addGuard(Object guard) {
+		Set<Object> previous = guards.get();
+		Set<Object> updated = Sets.newIdentityHashSet();
+		updated.addAll(previous);
+		updated.add(guard);
+		guards.set(updated);
+		return previous;
+	}
+
+	public static void removeGuard(Object guard) {
+		Set<Object> previous = guards.get();
+		if(!previous.contains(guard))
+			return;
+		Set<Object> updated = Sets.newIdentityHashSet();
+		updated.addAll(previous);
+		updated.remove(guard);
+		guards.set(updated);
+	}
+
+	public static boolean isGuarded(Object object) {
+		return guards.get().contains(object);
+	}
+
 	public void runAndAwaitCompletion() {
 		while(!worklist.isEmpty()) {
 			worklist.removeLast().run();
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Johannes Lerch.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ * 
+ * Contributors:
+ *     Johannes Lerch - initial API and implementation
+ ******************************************************************************/
+package heros.fieldsens;
+
+import heros.SinkListener;
+import heros.SolverBudget;
+import heros.ThreadSafe;
+import heros.fieldsens.structs.FactAtStatement;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Holds the listeners registered at a {@link FieldSensitiveIFDSSolver} and whether the solver was terminated,
+ * either explicitly or because it ran out of its budget.
+ */
+@ThreadSafe
+public class SolverListeners<Field, Fact, Stmt> {
+
+	private final Fact zeroValue;
+	private final List<EdgeListener<Field, Fact, Stmt>> edgeListeners = new CopyOnWriteArrayList<EdgeListener<Field, Fact, Stmt>>();
+	private final Map<Stmt, List<SinkListener<Stmt, Fact>>> sinkListeners = new ConcurrentHashMap<Stmt, List<SinkListener<Stmt, Fact>>>();
+	private final Set<FactAtStatement<Fact, Stmt>> reachedSinks = Collections.newSetFromMap(new ConcurrentHashMap<FactAtStatement<Fact, Stmt>, Boolean>());
+	private volatile boolean terminated;
+	private volatile SolverBudget.Meter budgetMeter;
+
+	SolverListeners(Fact zeroValue) {
+		this.zeroValue = zeroValue;
+	}
+
+	void addEdgeListener(EdgeListener<Field, Fact, Stmt> listener) {
+		edgeListeners.add(listener);
+	}
+
+	synchronized void addSinkListener(Collection<Stmt> sinks, SinkListener<Stmt, Fact> listener) {
+		for(Stmt sink : sinks) {
+			List<SinkListener<Stmt, Fact>> listeners = sinkListeners.get(sink);
+			if(listeners == null) {
+				listeners = new CopyOnWriteArrayList<SinkListener<Stmt, Fact>>();
+				sinkListeners.put(sink, listeners);
+			}
+			listeners.add(listener);
+		}
+	}
+
+	void terminate() {
+		terminated = true;
+	}
+
+	void setBudgetMeter(SolverBudget.Meter budgetMeter) {
+		this.budgetMeter = budgetMeter;
+	}
+
+	SolverBudget.Meter getBudgetMeter() {
+		return budgetMeter;
+	}
+
+	public boolean isTerminated() {
+		SolverBudget.Meter meter = budgetMeter;
+		return terminated || (meter != null && meter.isExhausted());
+	}
+
+	/**
+	 * Charges a new edge to the budget, if any.
+	 * @return <code>false</code> if the budget is exhausted, in which case the edge must not be processed
+	 */
+	boolean chargeEdge() {
+		SolverBudget.Meter meter = budgetMeter;
+		return meter == null || meter.chargePathEdge();
+	}
+
+	void edgeTo(Fact sourceFact, Stmt stmt, Fact fact, AccessPath<Field> accessPath) {
+		for(EdgeListener<Field, Fact, Stmt> listener : edgeListeners)
+			listener.edgeTo(sourceFact, stmt, fact, accessPath);
+		if(fact == zeroValue)
+			return;
+		List<SinkListener<Stmt, Fact>> listeners = sinkListeners.get(stmt);
+		if(listeners != null && reachedSinks.add(new FactAtStatement<Fact, Stmt>(fact, stmt))) {
+			for(SinkListener<Stmt, Fact> listener : listeners)
+				listener.reachedSink(stmt, fact);
+		}
+	}
+}
@@ -0,0 +1,27 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Johannes Lerch.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Johannes Lerch - initial API and implementation
+ ******************************************************************************/
+package heros.fieldsens;
+
+/**
+ * Resolves all fields beyond the limit of an {@link AccessPathLimiter}, i.e., it assumes any field to be present.
+ * There is one such resolver per method and source fact, owned by the analyzer with the empty access path.
+ */
+public class SummarizingCallEdgeResolver<Field, Fact, Stmt, Method> extends ZeroCallEdgeResolver<Field, Fact, Stmt, Method> {
+
+	public SummarizingCallEdgeResolver(PerAccessPathMethodAnalyzer<Field, Fact, Stmt, Method> analyzer, AccessPathLimiter<Field> limiter, Debugger<Field, Fact, Stmt, Method> debugger) {
+		super(analyzer, limiter.summarizingHandler, debugger);
+	}
+
+	@Override
+	public String toString() {
+		return "[k-Resolver"+analyzer.getAccessPath()+":CER-"+analyzer.getMethod()+"]";
+	}
+}
@@ -70,7 +70,7 @@ public class AccessPathAndResolver<Field, Fact, Stmt, Method> {
 		if (isNullOrCallEdgeResolver(resolver)) {
 			resolveViaNesting(constraint, callback);
 		} else {
-			resolver.resolve(constraint, new InterestCallback<Field, Fact, Stmt, Method>() {
+			analyzer.sendResolve(resolver, constraint, new InterestCallback<Field, Fact, Stmt, Method>() {
 				@Override
 				public void interest(PerAccessPathMethodAnalyzer<Field, Fact, Stmt, Method> analyzer,
 						AccessPathAndResolver<Field, Fact, Stmt, Method> accPathResolver) {
@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.flowfunc;
+
+import heros.FlowFunction;
+
+import java.util.BitSet;
+
+/**
+ * A flow function that can be applied to a whole set of facts at once, which are represented
+ * by their interned ids. Used by the {@link heros.solver.BitVectorIFDSSolver}.
+ *
+ * @param <D> The type of data-flow facts to be computed by the tabulation problem.
+ */
+public interface BitVectorFlowFunction<D> extends FlowFunction<D> {
+
+	/**
+	 * Adds the ids of the targets of all given sources to <code>targets</code>. The result must be
+	 * the same as the union of {@link #computeTargets(Object)} over all sources.
+	 * @param sources The ids of the source facts.
+	 * @param targets The set the ids of the target facts are added to.
+	 * @param facts Maps facts to ids and back.
+	 */
+	void computeTargets(BitSet sources, BitSet targets, FactInterner<D> facts);
+
+}
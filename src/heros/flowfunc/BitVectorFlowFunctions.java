@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.flowfunc;
+
+import heros.FlowFunction;
+
+import java.util.BitSet;
+
+/**
+ * Helper to apply arbitrary flow functions to sets of interned facts.
+ */
+public class BitVectorFlowFunctions {
+
+	private BitVectorFlowFunctions() {}
+
+	/**
+	 * Adds the ids of the targets of all given sources to <code>targets</code>. Uses
+	 * {@link BitVectorFlowFunction#computeTargets(BitSet, BitSet, FactInterner)} if supported
+	 * by the given function, and applies the function to each source individually otherwise.
+	 */
+	public static <D> void computeTargets(FlowFunction<D> function, BitSet sources, BitSet targets, FactInterner<D> facts) {
+		if(function instanceof BitVectorFlowFunction) {
+			((BitVectorFlowFunction<D>) function).computeTargets(sources, targets, facts);
+		} else {
+			for(int source = sources.nextSetBit(0); source >= 0; source = sources.nextSetBit(source+1)) {
+				for(D target: function.computeTargets(facts.get(source)))
+					targets.set(facts.intern(target));
+			}
+		}
+	}
+
+}
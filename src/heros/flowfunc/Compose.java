@@ -13,6 +13,7 @@ package heros.flowfunc;
 import heros.FlowFunction;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Set;
 
@@ -22,7 +23,7 @@ import com.google.common.collect.Sets;
 /**
  * Represents the ordered composition of a set of flow functions.
  */
-public class Compose<D> implements FlowFunction<D> {
+public class Compose<D> implements BitVectorFlowFunction<D> {
 	
 	private final FlowFunction<D>[] funcs;
 
@@ -42,6 +43,16 @@ public class Compose<D> implements FlowFunction<D> {
 		return curr;
 	}
 
+	public void computeTargets(BitSet sources, BitSet targets, FactInterner<D> facts) {
+		BitSet curr = sources;
+		for (FlowFunction<D> func : funcs) {
+			BitSet next = new BitSet();
+			BitVectorFlowFunctions.computeTargets(func, curr, next, facts);
+			curr = next;
+		}
+		targets.or(curr);
+	}
+
 	@SuppressWarnings({ "rawtypes", "unchecked" })
 	public static <D> FlowFunction<D> compose(FlowFunction<D>... funcs) {
 		List<FlowFunction<D>> list = new ArrayList<FlowFunction<D>>();
@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.flowfunc;
+
+/**
+ * Maps data-flow facts to dense <code>int</code> ids and back, such that sets of facts can be represented
+ * as {@link java.util.BitSet}s. Used by {@link BitVectorFlowFunction}s.
+ *
+ * @param <D> The type of data-flow facts to be computed by the tabulation problem.
+ */
+public interface FactInterner<D> {
+
+	/**
+	 * Returns the id of the given fact, assigning a new id if the fact has not been interned before.
+	 */
+	int intern(D fact);
+
+	/**
+	 * Returns the fact with the given id.
+	 */
+	D get(int id);
+
+}
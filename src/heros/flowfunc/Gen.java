@@ -12,8 +12,8 @@ package heros.flowfunc;
 
 import static heros.TwoElementSet.twoElementSet;
 import static java.util.Collections.singleton;
-import heros.FlowFunction;
 
+import java.util.BitSet;
 import java.util.Set;
 
 
@@ -24,7 +24,7 @@ import java.util.Set;
  *
  * @param <D> The type of data-flow facts to be computed by the tabulation problem.
  */
-public class Gen<D> implements FlowFunction<D> {
+public class Gen<D> implements BitVectorFlowFunction<D> {
 	
 	private final D genValue;
 	private final D zeroValue;
@@ -40,5 +40,11 @@ public class Gen<D> implements FlowFunction<D> {
 		} else
 			return singleton(source);
 	}
+
+	public void computeTargets(BitSet sources, BitSet targets, FactInterner<D> facts) {
+		targets.or(sources);
+		if(sources.get(facts.intern(zeroValue)))
+			targets.set(facts.intern(genValue));
+	}
 	
 }
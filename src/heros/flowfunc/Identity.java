@@ -13,11 +13,12 @@ package heros.flowfunc;
 import static java.util.Collections.singleton;
 import heros.FlowFunction;
 
+import java.util.BitSet;
 import java.util.Set;
 
 
 
-public class Identity<D> implements FlowFunction<D> {
+public class Identity<D> implements BitVectorFlowFunction<D> {
 	
 	@SuppressWarnings("rawtypes")
 	private final static Identity instance = new Identity();
@@ -28,6 +29,10 @@ public class Identity<D> implements FlowFunction<D> {
 		return singleton(source);
 	}
 
+	public void computeTargets(BitSet sources, BitSet targets, FactInterner<D> facts) {
+		targets.or(sources);
+	}
+
 	@SuppressWarnings("unchecked")
 	public static <D> Identity<D> v() {
 		return instance;
@@ -12,8 +12,8 @@ package heros.flowfunc;
 
 import static java.util.Collections.emptySet;
 import static java.util.Collections.singleton;
-import heros.FlowFunction;
 
+import java.util.BitSet;
 import java.util.Set;
 
 
@@ -24,7 +24,7 @@ import java.util.Set;
  *
  * @param <D> The type of data-flow facts to be computed by the tabulation problem.
  */
-public class Kill<D> implements FlowFunction<D> {
+public class Kill<D> implements BitVectorFlowFunction<D> {
 	
 	private final D killValue;
 	
@@ -38,5 +38,13 @@ public class Kill<D> implements FlowFunction<D> {
 		} else
 			return singleton(source);
 	}
+
+	public void computeTargets(BitSet sources, BitSet targets, FactInterner<D> facts) {
+		int killed = facts.intern(killValue);
+		boolean targetBefore = targets.get(killed);
+		targets.or(sources);
+		if(!targetBefore)
+			targets.clear(killed);
+	}
 	
 }
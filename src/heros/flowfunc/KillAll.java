@@ -11,8 +11,8 @@
 package heros.flowfunc;
 
 import static java.util.Collections.emptySet;
-import heros.FlowFunction;
 
+import java.util.BitSet;
 import java.util.Set;
 
 
@@ -23,7 +23,7 @@ import java.util.Set;
  *  
  * @param <D> The type of data-flow facts to be computed by the tabulation problem.
  */
-public class KillAll<D> implements FlowFunction<D> {
+public class KillAll<D> implements BitVectorFlowFunction<D> {
 	
 	@SuppressWarnings("rawtypes")
 	private final static KillAll instance = new KillAll();
@@ -33,6 +33,9 @@ public class KillAll<D> implements FlowFunction<D> {
 	public Set<D> computeTargets(D source) {
 		return emptySet();
 	}
+
+	public void computeTargets(BitSet sources, BitSet targets, FactInterner<D> facts) {
+	}
 	
 	@SuppressWarnings("unchecked")
 	public static <D> KillAll<D> v() {
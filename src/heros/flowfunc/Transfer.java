@@ -11,14 +11,14 @@
 package heros.flowfunc;
 
 import static heros.TwoElementSet.twoElementSet;
-import heros.FlowFunction;
 
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Set;
 
 
 
-public class Transfer<D> implements FlowFunction<D> {
+public class Transfer<D> implements BitVectorFlowFunction<D> {
 	
 	private final D toValue;
 	private final D fromValue;
@@ -37,5 +37,18 @@ public class Transfer<D> implements FlowFunction<D> {
 			return Collections.singleton(source);
 		}
 	}
+
+	public void computeTargets(BitSet sources, BitSet targets, FactInterner<D> facts) {
+		int to = facts.intern(toValue);
+		int from = facts.intern(fromValue);
+		boolean targetBefore = targets.get(to);
+		targets.or(sources);
+		if(!targetBefore)
+			targets.clear(to);
+		if(sources.get(from)) {
+			targets.set(from);
+			targets.set(to);
+		}
+	}
 	
 }
@@ -14,6 +14,7 @@ import static com.google.common.collect.Sets.newHashSet;
 import heros.FlowFunction;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Set;
 
@@ -21,7 +22,7 @@ import java.util.Set;
 /**
  * Represents the union of a set of flow functions.
  */
-public class Union<D> implements FlowFunction<D> {
+public class Union<D> implements BitVectorFlowFunction<D> {
 	
 	private final FlowFunction<D>[] funcs;
 
@@ -37,6 +38,12 @@ public class Union<D> implements FlowFunction<D> {
 		return res;
 	}
 
+	public void computeTargets(BitSet sources, BitSet targets, FactInterner<D> facts) {
+		for (FlowFunction<D> func : funcs) {
+			BitVectorFlowFunctions.computeTargets(func, sources, targets, facts);
+		}
+	}
+
 	@SuppressWarnings({ "rawtypes", "unchecked" })
 	public static <D> FlowFunction<D> union(FlowFunction<D>... funcs) {
 		List<FlowFunction<D>> list = new ArrayList<FlowFunction<D>>();
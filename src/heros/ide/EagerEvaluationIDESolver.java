@@ -53,7 +53,10 @@ public class EagerEvaluationIDESolver<D, N, M, V, I extends InterproceduralCFG<N
 			public MethodAnalyzer<D, N, M, V> getAnalyzer(M method) {
 				if(method == null)
 					throw new IllegalArgumentException("Method must be not null");
-				return methodAnalyzers.getOrCreate(method);
+				//analyzers are requested by jobs of all partitions of the scheduler
+				synchronized (methodAnalyzers) {
+					return methodAnalyzers.getOrCreate(method);
+				}
 			}
 		};
 	}
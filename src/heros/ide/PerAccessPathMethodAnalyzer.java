@@ -10,6 +10,7 @@
  ******************************************************************************/
 package heros.ide;
 
+import heros.fieldsens.Scheduler;
 import heros.ide.edgefunc.ChainableEdgeFunction;
 import heros.ide.edgefunc.EdgeFunction;
 import heros.ide.edgefunc.EdgeIdentity;
@@ -31,7 +32,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
-class PerAccessPathMethodAnalyzer<Fact, Stmt, Method, Value> {
+public class PerAccessPathMethodAnalyzer<Fact, Stmt, Method, Value> {
 
 	private static final Logger logger = LoggerFactory.getLogger(PerAccessPathMethodAnalyzer.class);
 	private Fact sourceFact;
@@ -120,12 +121,12 @@ class PerAccessPathMethodAnalyzer<Fact, Stmt, Method, Value> {
 				log("Updated EdgeFunction at "+prevFact+": "+joinedFunction);
 				FactEdgeFnResolverStatementTuple<Fact, Stmt, Method, Value> newFact = prevFact.copyWithEdgeFunction(joinedFunction);
 				reachableStatements.put(withoutEdgeFunction, newFact);
-				context.scheduler.schedule(new Job(newFact));
+				context.scheduler.schedule(method, new Job(newFact));
 			}
 		} else {
 			log("Edge to "+factAtStmt);
 			reachableStatements.put(withoutEdgeFunction, factAtStmt);
-			context.scheduler.schedule(new Job(factAtStmt));
+			context.scheduler.schedule(method, new Job(factAtStmt));
 		}
 	}
 
@@ -145,8 +146,15 @@ class PerAccessPathMethodAnalyzer<Fact, Stmt, Method, Value> {
 				@Override
 				protected void propagate(PerAccessPathMethodAnalyzer<Fact, Stmt, Method, Value> analyzer,
 						Resolver<Fact, Stmt, Method, Value> resolver, Fact targetFact, EdgeFunction<Value> edgeFunction) {
-					context.getAnalyzer(calledMethod).addIncomingEdge(new CallEdge<Fact, Stmt, Method, Value>(analyzer, factAtStmt.getFact(), 
-							targetFact, edgeFunction, resolver, factAtStmt.getStatement()));
+					final MethodAnalyzer<Fact, Stmt, Method, Value> calleeAnalyzer = context.getAnalyzer(calledMethod);
+					final CallEdge<Fact, Stmt, Method, Value> callEdge = new CallEdge<Fact, Stmt, Method, Value>(analyzer, factAtStmt.getFact(), 
+							targetFact, edgeFunction, resolver, factAtStmt.getStatement());
+					context.scheduler.send(calledMethod, new Runnable() {
+						@Override
+						public void run() {
+							calleeAnalyzer.addIncomingEdge(callEdge);
+						}
+					});
 				}
 
 				@Override
@@ -173,8 +181,16 @@ class PerAccessPathMethodAnalyzer<Fact, Stmt, Method, Value> {
 						@Override
 						protected void propagate(PerAccessPathMethodAnalyzer<Fact, Stmt, Method, Value> analyzer,
 								Resolver<Fact, Stmt, Method, Value> resolver, Fact targetFact, EdgeFunction<Value> edgeFunction) {
-							context.getAnalyzer(context.icfg.getMethodOf(callSite)).addUnbalancedReturnFlow(
-									new FactEdgeFnResolverStatementTuple<Fact, Stmt, Method, Value>(targetFact, edgeFunction, resolver, returnSite), callSite);
+							Method caller = context.icfg.getMethodOf(callSite);
+							final MethodAnalyzer<Fact, Stmt, Method, Value> callerAnalyzer = context.getAnalyzer(caller);
+							final FactEdgeFnResolverStatementTuple<Fact, Stmt, Method, Value> target = 
+									new FactEdgeFnResolverStatementTuple<Fact, Stmt, Method, Value>(targetFact, edgeFunction, resolver, returnSite);
+							context.scheduler.send(caller, new Runnable() {
+								@Override
+								public void run() {
+									callerAnalyzer.addUnbalancedReturnFlow(target, callSite);
+								}
+							});
 						}
 
 						@Override
@@ -304,10 +320,67 @@ class PerAccessPathMethodAnalyzer<Fact, Stmt, Method, Value> {
 		resolver.addIncomingWithoutCheck(target.withoutStatement(), null, EdgeIdentity.<Value>v());
 	}
 	
-	private void scheduleReturnEdge(CallEdge<Fact, Stmt, Method, Value> incEdge, FactEdgeFnResolverStatementTuple<Fact, Stmt, Method, Value> factAtStmt) {
-		ReturnSiteResolver<Fact, Stmt, Method, Value> returnSiteResolver = incEdge.getCallerAnalyzer().returnSiteResolvers.getOrCreate(
-				new FactAtStatement<Fact, Stmt>(factAtStmt.getFact(), factAtStmt.getStatement()));
-		returnSiteResolver.addIncomingWithoutCheck(factAtStmt.withoutStatement(), incEdge.getResolverIntoCallee(), incEdge.getEdgeFunctionAtCallee());
+	private void scheduleReturnEdge(final CallEdge<Fact, Stmt, Method, Value> incEdge, final FactEdgeFnResolverStatementTuple<Fact, Stmt, Method, Value> factAtStmt) {
+		incEdge.getCallerAnalyzer().send(new Runnable() {
+			@Override
+			public void run() {
+				ReturnSiteResolver<Fact, Stmt, Method, Value> returnSiteResolver = incEdge.getCallerAnalyzer().returnSiteResolvers.getOrCreate(
+						new FactAtStatement<Fact, Stmt>(factAtStmt.getFact(), factAtStmt.getStatement()));
+				returnSiteResolver.addIncomingWithoutCheck(factAtStmt.withoutStatement(), incEdge.getResolverIntoCallee(), incEdge.getEdgeFunctionAtCallee());
+			}
+		});
+	}
+
+	/**
+	 * Runs the given message in the scheduler partition of this analyzer's method.
+	 */
+	void send(Runnable message) {
+		context.scheduler.send(method, message);
+	}
+
+	/**
+	 * Returns <code>true</code> if the calling thread runs a job of another scheduler partition
+	 * and thus may not access the state of this analyzer's method.
+	 */
+	boolean isAccessedFromOtherPartition() {
+		return !context.scheduler.isLocal(method);
+	}
+
+	/**
+	 * Sends a request to resolve the constraint to the given resolver, which must belong to the method of this analyzer.
+	 * The request is processed in the partition of this method, the callback is invoked in the partition of the caller.
+	 */
+	void sendResolve(final Resolver<Fact, Stmt, Method, Value> resolver, final EdgeFunction<Value> constraint,
+			final InterestCallback<Fact, Stmt, Method, Value> callback) {
+		final Scheduler scheduler = context.scheduler;
+		final Object origin = scheduler.currentPartition();
+		send(new Runnable() {
+			@Override
+			public void run() {
+				resolver.resolve(constraint, new InterestCallback<Fact, Stmt, Method, Value>() {
+					@Override
+					public void interest(final PerAccessPathMethodAnalyzer<Fact, Stmt, Method, Value> analyzer,
+							final Resolver<Fact, Stmt, Method, Value> resolver, final EdgeFunction<Value> edgeFunction) {
+						scheduler.send(origin, new Runnable() {
+							@Override
+							public void run() {
+								callback.interest(analyzer, resolver, edgeFunction);
+							}
+						});
+					}
+
+					@Override
+					public void continueBalancedTraversal(final EdgeFunction<Value> edgeFunction) {
+						scheduler.send(origin, new Runnable() {
+							@Override
+							public void run() {
+								callback.continueBalancedTraversal(edgeFunction);
+							}
+						});
+					}
+				});
+			}
+		});
 	}
 
 	void applySummaries(CallEdge<Fact, Stmt, Method, Value> incEdge) {
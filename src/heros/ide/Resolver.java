@@ -10,6 +10,7 @@
  ******************************************************************************/
 package heros.ide;
 
+import heros.fieldsens.Scheduler;
 import heros.ide.edgefunc.EdgeFunction;
 import heros.solver.Pair;
 
@@ -26,7 +27,6 @@ import com.google.common.collect.Sets;
 
 public abstract class Resolver<Fact, Stmt, Method, Value> {
 
-	private boolean recursionLock = false;
 	private Resolver<Fact, Stmt, Method, Value> parent;
 	private Map<Resolver<Fact, Stmt, Method, Value>, EdgeFunction<Value>> resolvedUnbalanced = Maps.newHashMap();
 	private List<InterestCallback<Fact, Stmt, Method, Value>> interestCallbacks = Lists.newLinkedList();
@@ -42,8 +42,12 @@ public abstract class Resolver<Fact, Stmt, Method, Value> {
 
 	public abstract EdgeFunction<Value> getResolvedFunction();
 	
+	/**
+	 * Returns <code>true</code> if this resolver or one of its parents is locked by the calling thread. The lock also
+	 * holds for the messages sent while it is held, see {@link Scheduler#getGuards()}.
+	 */
 	protected boolean isLocked() {
-		if(recursionLock)
+		if(Scheduler.isGuarded(this))
 			return true;
 		if(parent == null)
 			return false;
@@ -51,13 +55,13 @@ public abstract class Resolver<Fact, Stmt, Method, Value> {
 	}
 
 	protected void lock() {
-		recursionLock = true;
+		Scheduler.addGuard(this);
 		if(parent != null)
 			parent.lock();
 	}
 	
 	protected void unlock() {
-		recursionLock = false;
+		Scheduler.removeGuard(this);
 		if(parent != null)
 			parent.unlock();
 	}
@@ -86,7 +90,8 @@ public abstract class Resolver<Fact, Stmt, Method, Value> {
 		
 		log("Interest given by EdgeFunction: "+edgeFunction);
 		for(InterestCallback<Fact, Stmt, Method, Value> callback : Lists.newLinkedList(interestCallbacks)) {
-			callback.interest(analyzer, resolver, edgeFunction);
+			if(!Scheduler.isGuarded(callback))
+				callback.interest(analyzer, resolver, edgeFunction);
 		}
 	}
 	
@@ -104,9 +109,19 @@ public abstract class Resolver<Fact, Stmt, Method, Value> {
 		}
 	}
 
+	/**
+	 * Registers the callback and passes it the interest given so far. Interest given in consequence of this replay
+	 * is not passed to the callback, also if it is given by a message that is enqueued by the scheduler
+	 * (see {@link Scheduler#getGuards()}).
+	 */
 	protected void registerCallback(InterestCallback<Fact, Stmt, Method, Value> callback) {
-		for(Entry<Resolver<Fact, Stmt, Method, Value>, EdgeFunction<Value>> resolved : Lists.newLinkedList(resolvedUnbalanced.entrySet())) {
-			callback.interest(analyzer, resolved.getKey(), resolved.getValue());
+		Set<Object> outer = Scheduler.addGuard(callback);
+		try {
+			for(Entry<Resolver<Fact, Stmt, Method, Value>, EdgeFunction<Value>> resolved : Lists.newLinkedList(resolvedUnbalanced.entrySet())) {
+				callback.interest(analyzer, resolved.getKey(), resolved.getValue());
+			}
+		} finally {
+			Scheduler.setGuards(outer);
 		}
 		log("Callback registered");
 		interestCallbacks.add(callback);
@@ -82,6 +82,10 @@ public abstract class ResolverTemplate<Fact, Stmt, Method, Value, Incoming>  ext
 	
 	@Override
 	public void resolve(EdgeFunction<Value> constraint, InterestCallback<Fact, Stmt, Method, Value> callback) {
+		if(analyzer.isAccessedFromOtherPartition()) {
+			analyzer.sendResolve(this, constraint, callback);
+			return;
+		}
 		if(!isLocked()) {
 			//do not include already resolvedPath, it was propagated to the next edge and therefore will be included in the given constraint.
 //			EdgeFunction<Value> composedFunction = getResolvedFunction().composeWith(constraint);
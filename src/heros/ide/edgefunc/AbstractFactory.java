@@ -12,8 +12,29 @@ package heros.ide.edgefunc;
 
 import heros.JoinLattice;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * Creates edge functions and hash-conses them: all {@link ChainableEdgeFunction}s and {@link CompositeFunction}s
+ * returned by factory methods and by compositions and joins are canonical, i.e., equal functions are the same
+ * instance as long as they are in use. Compositions and joins of canonical functions are memoized.
+ */
 public abstract class AbstractFactory<T> {
 
+	//upper bound on the number of memoized compositions, and of memoized joins
+	private static final int MEMOIZED_RESULTS = 100000;
+
+	private final Interner<EdgeFunction<T>> canonicalFunctions = Interners.newWeakInterner();
+
+	private final Cache<FunctionPair<T>, EdgeFunction<T>> compositions = CacheBuilder.newBuilder()
+			.concurrencyLevel(Runtime.getRuntime().availableProcessors()).maximumSize(MEMOIZED_RESULTS).build();
+
+	private final Cache<FunctionPair<T>, EdgeFunction<T>> joins = CacheBuilder.newBuilder()
+			.concurrencyLevel(Runtime.getRuntime().availableProcessors()).maximumSize(MEMOIZED_RESULTS).build();
+
 	public EdgeFunction<T> id() {
 		return EdgeIdentity.<T>v();
 	}
@@ -22,4 +43,89 @@ public abstract class AbstractFactory<T> {
 
 	public abstract JoinLattice<T> getLattice();
 
+	/**
+	 * Returns the canonical instance of all functions equal to the given one. Functions other than
+	 * {@link ChainableEdgeFunction}s and {@link CompositeFunction}s are returned as they are.
+	 */
+	@SuppressWarnings("unchecked")
+	public <F extends EdgeFunction<T>> F canonicalize(F function) {
+		if(!(function instanceof HashConsedEdgeFunction) || ((HashConsedEdgeFunction<T>) function).canonical)
+			return function;
+		//equal functions are of the same class
+		HashConsedEdgeFunction<T> canonical = (HashConsedEdgeFunction<T>) canonicalFunctions.intern(function);
+		canonical.canonical = true;
+		return (F) canonical;
+	}
+
+	/**
+	 * Returns the memoized composition of the given functions, or <code>null</code> if there is none.
+	 */
+	EdgeFunction<T> memoizedComposition(EdgeFunction<T> first, EdgeFunction<T> second) {
+		return lookup(compositions, first, second);
+	}
+
+	/**
+	 * Canonicalizes and, if both functions are canonical, memoizes the composition of the given functions.
+	 */
+	EdgeFunction<T> memoizeComposition(EdgeFunction<T> first, EdgeFunction<T> second, EdgeFunction<T> composition) {
+		return memoize(compositions, first, second, composition);
+	}
+
+	/**
+	 * Returns the memoized join of the given functions, or <code>null</code> if there is none.
+	 */
+	EdgeFunction<T> memoizedJoin(EdgeFunction<T> first, EdgeFunction<T> second) {
+		return lookup(joins, first, second);
+	}
+
+	/**
+	 * Canonicalizes and, if both functions are canonical, memoizes the join of the given functions.
+	 */
+	EdgeFunction<T> memoizeJoin(EdgeFunction<T> first, EdgeFunction<T> second, EdgeFunction<T> join) {
+		return memoize(joins, first, second, join);
+	}
+
+	private EdgeFunction<T> lookup(Cache<FunctionPair<T>, EdgeFunction<T>> cache, EdgeFunction<T> first, EdgeFunction<T> second) {
+		if(!isCanonical(first) || !isCanonical(second))
+			return null;
+		return cache.getIfPresent(new FunctionPair<T>(first, second));
+	}
+
+	private EdgeFunction<T> memoize(Cache<FunctionPair<T>, EdgeFunction<T>> cache, EdgeFunction<T> first, EdgeFunction<T> second, EdgeFunction<T> result) {
+		result = canonicalize(result);
+		if(isCanonical(first) && isCanonical(second))
+			cache.put(new FunctionPair<T>(first, second), result);
+		return result;
+	}
+
+	private boolean isCanonical(EdgeFunction<T> function) {
+		return function instanceof HashConsedEdgeFunction && ((HashConsedEdgeFunction<T>) function).canonical;
+	}
+
+	/**
+	 * A pair of canonical functions, which are compared by reference.
+	 */
+	private static class FunctionPair<T> {
+
+		private final EdgeFunction<T> first;
+		private final EdgeFunction<T> second;
+
+		FunctionPair(EdgeFunction<T> first, EdgeFunction<T> second) {
+			this.first = first;
+			this.second = second;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(first) + System.identityHashCode(second);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof FunctionPair))
+				return false;
+			FunctionPair<?> other = (FunctionPair<?>) obj;
+			return first == other.first && second == other.second;
+		}
+	}
 }
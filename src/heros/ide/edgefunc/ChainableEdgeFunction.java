@@ -8,7 +8,7 @@ import java.util.Set;
 
 import com.google.common.base.Function;
 
-public abstract class ChainableEdgeFunction<T extends Joinable<T>> implements EdgeFunction<T> {
+public abstract class ChainableEdgeFunction<T extends Joinable<T>> extends HashConsedEdgeFunction<T> {
 
 	protected final ChainableEdgeFunction<T> chainedFunction;
 	protected final AbstractFactory<T> factory;
@@ -16,7 +16,7 @@ public abstract class ChainableEdgeFunction<T extends Joinable<T>> implements Ed
 
 	public ChainableEdgeFunction(AbstractFactory<T> factory, ChainableEdgeFunction<T> chainedFunction) {
 		this.factory = factory;
-		this.chainedFunction = chainedFunction;
+		this.chainedFunction = chainedFunction == null ? null : factory.canonicalize(chainedFunction);
 	}
 
 	public abstract EdgeFunction<T> chain(ChainableEdgeFunction<T> f);
@@ -45,10 +45,14 @@ public abstract class ChainableEdgeFunction<T extends Joinable<T>> implements Ed
 	@Override
 	public EdgeFunction<T> composeWith(EdgeFunction<T> secondFunction) {
 		if (secondFunction instanceof EdgeIdentity)
-			return this;
+			return factory.canonicalize(this);
 		if (secondFunction instanceof AllTop)
 			return secondFunction;
 
+		EdgeFunction<T> memoized = factory.memoizedComposition(this, secondFunction);
+		if (memoized != null)
+			return memoized;
+
 		Set<EdgeFunction<T>> result = CompositeFunction.foreach(secondFunction,
 				new Function<EdgeFunction<T>, EdgeFunction<T>>() {
 					@Override
@@ -65,12 +69,14 @@ public abstract class ChainableEdgeFunction<T extends Joinable<T>> implements Ed
 					}
 				});
 
+		EdgeFunction<T> composition;
 		if (result.isEmpty())
-			return factory.allTop();
+			composition = factory.allTop();
 		else if (result.size() == 1)
-			return result.iterator().next();
+			composition = result.iterator().next();
 		else
-			return new CompositeFunction<T>(factory, result);
+			composition = new CompositeFunction<T>(factory, result);
+		return factory.memoizeComposition(this, secondFunction, composition);
 	}
 	
 	protected abstract boolean mayThisReturnTop();
@@ -94,16 +100,19 @@ public abstract class ChainableEdgeFunction<T extends Joinable<T>> implements Ed
 	@Override
 	public EdgeFunction<T> joinWith(EdgeFunction<T> otherFunction) {
 		if (equals(otherFunction))
-			return this;
+			return factory.canonicalize(this);
 
 		if (otherFunction instanceof AllTop)
-			return this;
+			return factory.canonicalize(this);
 
-		return new CompositeFunction<T>(factory, this, otherFunction);
+		EdgeFunction<T> memoized = factory.memoizedJoin(this, otherFunction);
+		if (memoized != null)
+			return memoized;
+		return factory.memoizeJoin(this, otherFunction, new CompositeFunction<T>(factory, this, otherFunction));
 	}
 
 	@Override
-	public int hashCode() {
+	protected int computeHashCode() {
 		final int prime = 31;
 		int result = 1;
 		result = prime * result + ((chainedFunction == null) ? 0 : chainedFunction.hashCode());
@@ -118,14 +127,12 @@ public abstract class ChainableEdgeFunction<T extends Joinable<T>> implements Ed
 			return false;
 		if (getClass() != obj.getClass())
 			return false;
+		if (isDistinctCanonical(obj))
+			return false;
 		@SuppressWarnings("unchecked")
 		ChainableEdgeFunction<T> other = (ChainableEdgeFunction<T>) obj;
-		if (chainedFunction == null) {
-			if (other.chainedFunction != null)
-				return false;
-		} else if (!chainedFunction.equals(other.chainedFunction))
-			return false;
-		return true;
+		//chained functions are canonical
+		return chainedFunction == other.chainedFunction;
 	}
 
 	@Override
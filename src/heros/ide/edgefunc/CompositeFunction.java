@@ -1,8 +1,8 @@
 package heros.ide.edgefunc;
 
-import heros.edgefunc.EdgeIdentity;
 import heros.ide.edgefunc.AllTop;
 import heros.ide.edgefunc.EdgeFunction;
+import heros.ide.edgefunc.EdgeIdentity;
 
 import java.util.Set;
 
@@ -10,7 +10,7 @@ import com.google.common.base.Function;
 import com.google.common.base.Joiner;
 import com.google.common.collect.Sets;
 
-public class CompositeFunction<T extends Joinable<T>> implements EdgeFunction<T> {
+public class CompositeFunction<T extends Joinable<T>> extends HashConsedEdgeFunction<T> {
 
 	private final Set<EdgeFunction<T>> functions;
 	private final AbstractFactory<T> factory;
@@ -25,13 +25,15 @@ public class CompositeFunction<T extends Joinable<T>> implements EdgeFunction<T>
 					this.functions.add(compFun);
 				}
 			} else
-				this.functions.add(function);
+				this.functions.add(factory.canonicalize(function));
 		}
 	}
 
 	public CompositeFunction(AbstractFactory<T> factory, Set<EdgeFunction<T>> functions) {
 		this.factory = factory;
-		this.functions = functions;
+		this.functions = Sets.newHashSetWithExpectedSize(functions.size());
+		for (EdgeFunction<T> function : functions)
+			this.functions.add(factory.canonicalize(function));
 	}
 
 	@Override
@@ -49,21 +51,29 @@ public class CompositeFunction<T extends Joinable<T>> implements EdgeFunction<T>
 
 	@Override
 	public EdgeFunction<T> joinWith(EdgeFunction<T> otherFunction) {
+		EdgeFunction<T> memoized = factory.memoizedJoin(this, otherFunction);
+		if (memoized != null)
+			return memoized;
+
 		Set<EdgeFunction<T>> set = Sets.newHashSet(functions);
 		if (otherFunction instanceof CompositeFunction) {
 			set.addAll(((CompositeFunction<T>) otherFunction).functions);
 		} else
 			set.add(otherFunction);
-		return new CompositeFunction<T>(factory, set);
+		return factory.memoizeJoin(this, otherFunction, new CompositeFunction<T>(factory, set));
 	}
 
 	@Override
 	public EdgeFunction<T> composeWith(EdgeFunction<T> secondFunction) {
 		if (secondFunction instanceof EdgeIdentity)
-			return this;
+			return factory.canonicalize(this);
 		if (secondFunction instanceof AllTop)
 			return secondFunction;
 
+		EdgeFunction<T> memoized = factory.memoizedComposition(this, secondFunction);
+		if (memoized != null)
+			return memoized;
+
 		Set<EdgeFunction<T>> resultSet = Sets.newHashSet();
 
 		for (EdgeFunction<T> function : functions) {
@@ -77,12 +87,14 @@ public class CompositeFunction<T extends Joinable<T>> implements EdgeFunction<T>
 				}
 			}
 		}
+		EdgeFunction<T> composition;
 		if (resultSet.isEmpty())
-			return factory.allTop();
+			composition = factory.allTop();
 		else if (resultSet.size() == 1)
-			return resultSet.iterator().next();
+			composition = resultSet.iterator().next();
 		else
-			return new CompositeFunction<T>(factory, resultSet);
+			composition = new CompositeFunction<T>(factory, resultSet);
+		return factory.memoizeComposition(this, secondFunction, composition);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -94,10 +106,10 @@ public class CompositeFunction<T extends Joinable<T>> implements EdgeFunction<T>
 	}
 
 	@Override
-	public int hashCode() {
+	protected int computeHashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + ((functions == null) ? 0 : functions.hashCode());
+		result = prime * result + functions.hashCode();
 		return result;
 	}
 
@@ -109,13 +121,14 @@ public class CompositeFunction<T extends Joinable<T>> implements EdgeFunction<T>
 			return false;
 		if (getClass() != obj.getClass())
 			return false;
-		CompositeFunction other = (CompositeFunction) obj;
-		if (functions == null) {
-			if (other.functions != null)
-				return false;
-		} else if (!functions.equals(other.functions))
+		if (isDistinctCanonical(obj))
+			return false;
+		@SuppressWarnings("unchecked")
+		CompositeFunction<T> other = (CompositeFunction<T>) obj;
+		if (functions.size() != other.functions.size())
 			return false;
-		return true;
+		//members are canonical, so the lookups only compare them by reference
+		return functions.containsAll(other.functions);
 	}
 
 	public static <T extends Joinable<T>> Set<EdgeFunction<T>> foreach(EdgeFunction<T> edgeFunction,
@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Johannes Lerch.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ * 
+ * Contributors:
+ *     Johannes Lerch - initial API and implementation
+ ******************************************************************************/
+package heros.ide.edgefunc;
+
+/**
+ * An edge function that can be canonicalized by {@link AbstractFactory#canonicalize(EdgeFunction)}.
+ * Implementations must be immutable. They canonicalize the functions they consist of when they are
+ * constructed, so equality only compares these by reference and the hash code is computed only once.
+ */
+abstract class HashConsedEdgeFunction<T> implements EdgeFunction<T> {
+
+	//true iff this is the canonical instance of all functions equal to it
+	volatile boolean canonical;
+
+	//zero until computed; computing it twice in a race is harmless as the result is the same
+	private int hashCode;
+
+	@Override
+	public final int hashCode() {
+		int result = hashCode;
+		if(result == 0) {
+			result = computeHashCode();
+			hashCode = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Computes the hash code of this function from the hash codes of the (canonical) functions it consists of.
+	 */
+	protected abstract int computeHashCode();
+
+	/**
+	 * Returns <code>true</code> if both functions are canonical, but not the same instance, and thus are not equal.
+	 */
+	protected boolean isDistinctCanonical(Object obj) {
+		return canonical && obj instanceof HashConsedEdgeFunction && ((HashConsedEdgeFunction<?>) obj).canonical && obj != this;
+	}
+}
@@ -42,26 +42,26 @@ public class Factory<Field> extends AbstractFactory<AccessPathBundle<Field>> {
 	}
 	
 	public PrependFunction<Field> prepend(Field field) {
-		return new PrependFunction<Field>(this, field);
+		return canonicalize(new PrependFunction<Field>(this, field));
 	}
 	
 	public ReadFunction<Field> read(Field field) {
-		return new ReadFunction<Field>(this, field);
+		return canonicalize(new ReadFunction<Field>(this, field));
 	}
 	
 	public OverwriteFunction<Field> overwrite(Field field) {
-		return new OverwriteFunction<Field>(this, field);
+		return canonicalize(new OverwriteFunction<Field>(this, field));
 	}
 
 	public EdgeFunction<AccessPathBundle<Field>> anyFields() {
-		return new AnyFieldsFunction<Field>(this);
+		return canonicalize(new AnyFieldsFunction<Field>(this));
 	}
 
 	public EdgeFunction<AccessPathBundle<Field>> ensureEmpty() {
-		return new EnsureEmptyFunction<Field>(this);
+		return canonicalize(new EnsureEmptyFunction<Field>(this));
 	}
 
 	public EdgeFunction<AccessPathBundle<Field>> initialSeed() {
-		return new InitialSeedFunction<Field>(this);
+		return canonicalize(new InitialSeedFunction<Field>(this));
 	}
 }
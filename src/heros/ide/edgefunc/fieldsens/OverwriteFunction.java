@@ -66,9 +66,9 @@ public class OverwriteFunction<Field> extends ChainableEdgeFunction<AccessPathBu
 	}
 
 	@Override
-	public int hashCode() {
+	protected int computeHashCode() {
 		final int prime = 31;
-		int result = super.hashCode();
+		int result = super.computeHashCode();
 		result = prime * result + ((fields == null) ? 0 : fields.hashCode());
 		return result;
 	}
@@ -54,9 +54,9 @@ public class PrependFunction<Field> extends ChainableEdgeFunction<AccessPathBund
 	}
 
 	@Override
-	public int hashCode() {
+	protected int computeHashCode() {
 		final int prime = 31;
-		int result = super.hashCode();
+		int result = super.computeHashCode();
 		result = prime * result + ((field == null) ? 0 : field.hashCode());
 		return result;
 	}
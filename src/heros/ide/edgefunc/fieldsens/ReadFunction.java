@@ -40,9 +40,9 @@ public class ReadFunction<Field> extends ChainableEdgeFunction<AccessPathBundle<
 	}
 
 	@Override
-	public int hashCode() {
+	protected int computeHashCode() {
 		final int prime = 31;
-		int result = super.hashCode();
+		int result = super.computeHashCode();
 		result = prime * result + ((field == null) ? 0 : field.hashCode());
 		return result;
 	}
@@ -70,9 +70,9 @@ public class AnyOrBoundFunction<T extends Type<T>> extends ChainableEdgeFunction
 	}
 
 	@Override
-	public int hashCode() {
+	protected int computeHashCode() {
 		final int prime = 31;
-		int result = super.hashCode();
+		int result = super.computeHashCode();
 		result = prime * result + ((typeBoundary == null) ? 0 : typeBoundary.hashCode());
 		return result;
 	}
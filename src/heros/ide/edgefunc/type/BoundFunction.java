@@ -82,9 +82,9 @@ public class BoundFunction<T extends Type<T>> extends ChainableEdgeFunction<Type
 	}
 
 	@Override
-	public int hashCode() {
+	protected int computeHashCode() {
 		final int prime = 31;
-		int result = super.hashCode();
+		int result = super.computeHashCode();
 		result = prime * result + ((typeBoundary == null) ? 0 : typeBoundary.hashCode());
 		return result;
 	}
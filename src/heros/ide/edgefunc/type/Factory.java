@@ -47,42 +47,42 @@ public class Factory<T extends Type<T>> extends AbstractFactory<TypeBoundary<T>>
 	}
 	
 	public EdgeFunction<TypeBoundary<T>> any() {
-		return new AnyFunction<T>(this, null);
+		return canonicalize(new AnyFunction<T>(this, null));
 	}
 	
 	public EdgeFunction<TypeBoundary<T>> init() {
-		return new InitialSeedFunction<T>(this, null);
+		return canonicalize(new InitialSeedFunction<T>(this, null));
 	}
 	
 	public EdgeFunction<TypeBoundary<T>> pop() {
-		return new PopFunction<T>(this, null);
+		return canonicalize(new PopFunction<T>(this, null));
 	}
 	
 	public EdgeFunction<TypeBoundary<T>> push() {
-		return new PushFunction<T>(this, null);
+		return canonicalize(new PushFunction<T>(this, null));
 	}
 	
 	public EdgeFunction<TypeBoundary<T>> empty() {
-		return new EnsureEmptyFunction<T>(this, null);
+		return canonicalize(new EnsureEmptyFunction<T>(this, null));
 	}
 
 	public EdgeFunction<TypeBoundary<T>> bound(TypeBoundary<T> type) {
-		return new BoundFunction<T>(type, this, null);
+		return canonicalize(new BoundFunction<T>(type, this, null));
 	}
 
 	public EdgeFunction<TypeBoundary<T>> bound(T lowerBound, T upperBound) {
-		return new BoundFunction<T>(new TypeBoundary<T>(lowerBound, upperBound), this, null);
+		return canonicalize(new BoundFunction<T>(new TypeBoundary<T>(lowerBound, upperBound), this, null));
 	}
 	
 	public EdgeFunction<TypeBoundary<T>> lowerBound(T lowerBound) {
-		return new BoundFunction<T>(new TypeBoundary<T>(lowerBound, topElement), this, null);
+		return canonicalize(new BoundFunction<T>(new TypeBoundary<T>(lowerBound, topElement), this, null));
 	}
 	
 	public EdgeFunction<TypeBoundary<T>> upperBound(T upperBound) {
-		return new BoundFunction<T>(new TypeBoundary<T>(bottomElement, upperBound), this, null);
+		return canonicalize(new BoundFunction<T>(new TypeBoundary<T>(bottomElement, upperBound), this, null));
 	}
 
 	public EdgeFunction<TypeBoundary<T>> anyOrUpperBound(TypeBoundary<T> type) {
-		return new AnyOrBoundFunction<T>(type, this, null);
+		return canonicalize(new AnyOrBoundFunction<T>(type, this, null));
 	}
 }
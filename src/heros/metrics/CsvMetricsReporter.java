@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+import com.google.common.base.Joiner;
+
+/**
+ * Appends one line of comma-separated values per report to the given writer, preceded by a header line
+ * with the names of the metrics, and the time of the report in milliseconds in the first column.
+ */
+public class CsvMetricsReporter implements MetricsReporter {
+
+	private final Writer writer;
+	private boolean headerWritten;
+
+	public CsvMetricsReporter(Writer writer) {
+		this.writer = writer;
+	}
+
+	@Override
+	public synchronized void report(SolverMetrics metrics) {
+		Map<String, Number> snapshot = metrics.snapshot();
+		try {
+			if(!headerWritten) {
+				writer.write("timeMillis," + Joiner.on(',').join(snapshot.keySet()) + "\n");
+				headerWritten = true;
+			}
+			writer.write(System.currentTimeMillis() + "," + Joiner.on(',').join(snapshot.values()) + "\n");
+			writer.flush();
+		} catch (IOException e) {
+			throw new RuntimeException("Cannot write metrics", e);
+		}
+	}
+}
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+
+/**
+ * Exposes the metrics as read-only attributes of an MBean on the platform MBean server. The attributes
+ * hold the values of the last report, so that reading them through JMX does not compute a snapshot each time.
+ * Before the first report, they are read from the metrics directly.
+ */
+public class JmxMetricsReporter implements MetricsReporter, DynamicMBean {
+
+	private final SolverMetrics metrics;
+	private final ObjectName name;
+	private volatile Map<String, Number> lastSnapshot;
+
+	/**
+	 * Registers the MBean of the given metrics under the given name, e.g. <code>heros:type=SolverMetrics</code>.
+	 */
+	public JmxMetricsReporter(SolverMetrics metrics, String name) {
+		this.metrics = metrics;
+		try {
+			this.name = new ObjectName(name);
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, this.name);
+		} catch (JMException e) {
+			throw new IllegalArgumentException("Cannot register metrics as " + name, e);
+		}
+	}
+
+	@Override
+	public void report(SolverMetrics metrics) {
+		lastSnapshot = metrics.snapshot();
+	}
+
+	/**
+	 * Removes the MBean from the platform MBean server.
+	 */
+	public void unregister() {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			if(server.isRegistered(name))
+				server.unregisterMBean(name);
+		} catch (JMException e) {
+			throw new IllegalStateException("Cannot unregister metrics " + name, e);
+		}
+	}
+
+	private Map<String, Number> snapshot() {
+		Map<String, Number> snapshot = lastSnapshot;
+		return snapshot == null ? metrics.snapshot() : snapshot;
+	}
+
+	@Override
+	public Object getAttribute(String attribute) throws AttributeNotFoundException {
+		Number value = snapshot().get(attribute);
+		if(value == null)
+			throw new AttributeNotFoundException(attribute);
+		return value;
+	}
+
+	@Override
+	public AttributeList getAttributes(String[] attributes) {
+		Map<String, Number> snapshot = snapshot();
+		AttributeList result = new AttributeList();
+		for(String attribute : attributes) {
+			Number value = snapshot.get(attribute);
+			if(value != null)
+				result.add(new Attribute(attribute, value));
+		}
+		return result;
+	}
+
+	@Override
+	public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+		throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+	}
+
+	@Override
+	public AttributeList setAttributes(AttributeList attributes) {
+		return new AttributeList();
+	}
+
+	@Override
+	public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+		throw new ReflectionException(new NoSuchMethodException(actionName), "Metrics have no operations: " + actionName);
+	}
+
+	@Override
+	public MBeanInfo getMBeanInfo() {
+		List<MBeanAttributeInfo> attributes = new ArrayList<MBeanAttributeInfo>();
+		for(Entry<String, Number> entry : snapshot().entrySet())
+			attributes.add(new MBeanAttributeInfo(entry.getKey(), entry.getValue().getClass().getName(), entry.getKey(), true, false, false));
+		return new MBeanInfo(getClass().getName(), "Metrics of a solver", attributes.toArray(new MBeanAttributeInfo[attributes.size()]), null, null, null);
+	}
+}
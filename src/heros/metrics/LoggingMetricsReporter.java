@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.metrics;
+
+import java.util.Map.Entry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Logs the metrics at level INFO, including the methods with most propagated path edges
+ * if the metrics count them.
+ */
+public class LoggingMetricsReporter implements MetricsReporter {
+
+	private static final Logger logger = LoggerFactory.getLogger(LoggingMetricsReporter.class);
+
+	private final int topMethods;
+
+	/**
+	 * @param topMethods The number of methods with most propagated path edges to be logged.
+	 */
+	public LoggingMetricsReporter(int topMethods) {
+		this.topMethods = topMethods;
+	}
+
+	public LoggingMetricsReporter() {
+		this(10);
+	}
+
+	@Override
+	public void report(SolverMetrics metrics) {
+		if(!logger.isInfoEnabled())
+			return;
+		logger.info("Solver metrics: {}", metrics.snapshot());
+		if(metrics.countsPerMethod()) {
+			for(Entry<Object, Long> method : metrics.getTopMethods(topMethods))
+				logger.info("{} path edges in {}", method.getValue(), method.getKey());
+		}
+	}
+}
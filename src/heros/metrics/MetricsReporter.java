@@ -0,0 +1,25 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.metrics;
+
+/**
+ * Exports the {@link SolverMetrics} of a solver, e.g. to a log, a file or a monitoring system.
+ * 
+ * @see PeriodicReporter
+ */
+public interface MetricsReporter {
+
+	/**
+	 * Reports the current state of the given metrics. Called periodically by a single thread.
+	 */
+	void report(SolverMetrics metrics);
+
+}
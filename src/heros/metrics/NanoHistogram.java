@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.metrics;
+
+import heros.ThreadSafe;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of durations in nanoseconds, with one bucket per power of two. Recording a duration
+ * takes two uncontended atomic increments, as each thread records into its own stripe of buckets
+ * (see {@link StripedCounter}). Percentiles are thus only accurate up to a factor of two.
+ */
+@ThreadSafe
+public class NanoHistogram {
+
+	private static final int BUCKETS = 64;
+
+	//bucket i counts durations d with 2^(i-1) <= d < 2^i, bucket 0 counts zero durations
+	private final AtomicLongArray buckets = new AtomicLongArray(StripedCounter.STRIPES * BUCKETS);
+	private final StripedCounter totalNanos = new StripedCounter();
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	public void record(long nanos) {
+		if(nanos < 0)
+			nanos = 0;
+		int bucket = BUCKETS - Long.numberOfLeadingZeros(nanos);
+		buckets.getAndIncrement(StripedCounter.stripe() * BUCKETS + Math.min(bucket, BUCKETS - 1));
+		totalNanos.add(nanos);
+		long max = maxNanos.get();
+		while(nanos > max && !maxNanos.compareAndSet(max, nanos))
+			max = maxNanos.get();
+	}
+
+	private long[] bucketCounts() {
+		long[] counts = new long[BUCKETS];
+		for(int stripe = 0; stripe < StripedCounter.STRIPES; stripe++)
+			for(int i = 0; i < BUCKETS; i++)
+				counts[i] += buckets.get(stripe * BUCKETS + i);
+		return counts;
+	}
+
+	public long count() {
+		long count = 0;
+		for(long bucketCount : bucketCounts())
+			count += bucketCount;
+		return count;
+	}
+
+	public long totalNanos() {
+		return totalNanos.sum();
+	}
+
+	public long maxNanos() {
+		return maxNanos.get();
+	}
+
+	public long meanNanos() {
+		long count = count();
+		return count == 0 ? 0 : totalNanos() / count;
+	}
+
+	/**
+	 * Returns an upper bound of the given percentile of all recorded durations, which is at most twice
+	 * the actual percentile, or zero if no duration was recorded.
+	 * @param percentile A number between 0 and 100.
+	 */
+	public long percentileNanos(double percentile) {
+		long[] counts = bucketCounts();
+		long count = 0;
+		for(long bucketCount : counts)
+			count += bucketCount;
+		if(count == 0)
+			return 0;
+		long rank = (long) Math.ceil(count * percentile / 100.0);
+		long seen = 0;
+		for(int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if(seen >= Math.max(1, rank))
+				return Math.min(i == 0 ? 0 : (1L << i) - 1, maxNanos());
+		}
+		return maxNanos();
+	}
+}
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.metrics;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reports the metrics to the given reporters at a fixed rate on a daemon thread, and once more when stopped.
+ */
+public class PeriodicReporter {
+
+	private static final Logger logger = LoggerFactory.getLogger(PeriodicReporter.class);
+
+	private final SolverMetrics metrics;
+	private final List<MetricsReporter> reporters;
+	private ScheduledExecutorService executor;
+
+	public PeriodicReporter(SolverMetrics metrics, MetricsReporter... reporters) {
+		this.metrics = metrics;
+		this.reporters = Arrays.asList(reporters);
+	}
+
+	/**
+	 * Starts reporting with the given period.
+	 */
+	public synchronized void start(long period, TimeUnit unit) {
+		if(executor != null)
+			throw new IllegalStateException("Already started");
+		executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "heros-metrics-reporter");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		executor.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				report();
+			}
+		}, period, period, unit);
+	}
+
+	/**
+	 * Stops reporting periodically and reports the final state of the metrics.
+	 */
+	public synchronized void stop() {
+		if(executor != null) {
+			executor.shutdown();
+			try {
+				executor.awaitTermination(1, TimeUnit.MINUTES);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			executor = null;
+		}
+		report();
+	}
+
+	private void report() {
+		for(MetricsReporter reporter : reporters) {
+			try {
+				reporter.report(metrics);
+			} catch (RuntimeException e) {
+				//a failing reporter must neither stop the others nor the periodic reports
+				logger.warn("Reporting metrics failed", e);
+			}
+		}
+	}
+}
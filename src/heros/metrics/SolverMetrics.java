@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.metrics;
+
+import heros.ThreadSafe;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.base.Supplier;
+import com.google.common.cache.CacheStats;
+
+/**
+ * Collects metrics of a running solver: the number and duration of flow-function constructions and
+ * applications per kind of flow function, the number of scheduled and processed path edges and thus
+ * the depth of the work queue, the time spent waiting for locks, the hit rates of caches and, optionally,
+ * the number of path edges propagated per method.
+ * 
+ * All updates are cheap enough to leave enabled in production: counters and histograms are striped
+ * across threads, and durations are measured with {@link System#nanoTime()}. Reading the metrics through
+ * {@link #snapshot()} is more expensive and meant to be done periodically, see {@link PeriodicReporter}.
+ * 
+ * @see heros.solver.IDESolver#setMetrics(SolverMetrics)
+ */
+@ThreadSafe
+public class SolverMetrics {
+
+	public static enum FlowFunctionKind { NORMAL, CALL, RETURN, CALL_TO_RETURN }
+
+	private final NanoHistogram[] constructions = new NanoHistogram[FlowFunctionKind.values().length];
+	private final NanoHistogram[] applications = new NanoHistogram[FlowFunctionKind.values().length];
+	private final StripedCounter scheduledEdges = new StripedCounter();
+	private final StripedCounter processedEdges = new StripedCounter();
+	private final NanoHistogram lockWaits = new NanoHistogram();
+	private final boolean countPerMethod;
+	private final ConcurrentHashMap<Object, AtomicLong> propagationsPerMethod = new ConcurrentHashMap<Object, AtomicLong>();
+	private final List<Entry<String, Supplier<CacheStats>>> caches = new CopyOnWriteArrayList<Entry<String, Supplier<CacheStats>>>();
+
+	/**
+	 * @param countPerMethod If true, counts the path edges propagated per method, which takes a lookup in
+	 * a concurrent hash map per path edge.
+	 */
+	public SolverMetrics(boolean countPerMethod) {
+		this.countPerMethod = countPerMethod;
+		for(int i = 0; i < constructions.length; i++) {
+			constructions[i] = new NanoHistogram();
+			applications[i] = new NanoHistogram();
+		}
+	}
+
+	public SolverMetrics() {
+		this(false);
+	}
+
+	public void flowFunctionConstructed(FlowFunctionKind kind, long nanos) {
+		constructions[kind.ordinal()].record(nanos);
+	}
+
+	public void flowFunctionApplied(FlowFunctionKind kind, long nanos) {
+		applications[kind.ordinal()].record(nanos);
+	}
+
+	public void pathEdgeScheduled() {
+		scheduledEdges.increment();
+	}
+
+	public void pathEdgeProcessed() {
+		processedEdges.increment();
+	}
+
+	public void lockAcquired(long waitNanos) {
+		lockWaits.record(waitNanos);
+	}
+
+	public boolean countsPerMethod() {
+		return countPerMethod;
+	}
+
+	public void propagatedIn(Object method) {
+		AtomicLong count = propagationsPerMethod.get(method);
+		if(count == null) {
+			AtomicLong newCount = new AtomicLong();
+			count = propagationsPerMethod.putIfAbsent(method, newCount);
+			if(count == null)
+				count = newCount;
+		}
+		count.incrementAndGet();
+	}
+
+	/**
+	 * Registers a cache whose statistics are to be included in the snapshots under the given name.
+	 */
+	public void addCache(String name, Supplier<CacheStats> stats) {
+		caches.add(new SimpleImmutableEntry<String, Supplier<CacheStats>>(name, stats));
+	}
+
+	public NanoHistogram getConstructions(FlowFunctionKind kind) {
+		return constructions[kind.ordinal()];
+	}
+
+	public NanoHistogram getApplications(FlowFunctionKind kind) {
+		return applications[kind.ordinal()];
+	}
+
+	public NanoHistogram getLockWaits() {
+		return lockWaits;
+	}
+
+	public long getScheduledPathEdges() {
+		return scheduledEdges.sum();
+	}
+
+	public long getProcessedPathEdges() {
+		return processedEdges.sum();
+	}
+
+	/**
+	 * Returns the number of path edges that were scheduled but not processed yet.
+	 */
+	public long getQueueDepth() {
+		//read processed edges first, so that the depth is never negative
+		long processed = processedEdges.sum();
+		return Math.max(0, scheduledEdges.sum() - processed);
+	}
+
+	/**
+	 * Returns the given number of methods with most propagated path edges, in descending order.
+	 */
+	public List<Entry<Object, Long>> getTopMethods(int limit) {
+		List<Entry<Object, Long>> methods = new ArrayList<Entry<Object, Long>>();
+		for(Entry<Object, AtomicLong> entry : propagationsPerMethod.entrySet())
+			methods.add(new SimpleImmutableEntry<Object, Long>(entry.getKey(), entry.getValue().get()));
+		Collections.sort(methods, new Comparator<Entry<Object, Long>>() {
+			@Override
+			public int compare(Entry<Object, Long> o1, Entry<Object, Long> o2) {
+				return o2.getValue().compareTo(o1.getValue());
+			}
+		});
+		return methods.subList(0, Math.min(limit, methods.size()));
+	}
+
+	/**
+	 * Returns the current values of all metrics by name, in a fixed order. The per-method counts are not included.
+	 */
+	public Map<String, Number> snapshot() {
+		Map<String, Number> snapshot = new LinkedHashMap<String, Number>();
+		snapshot.put("pathEdges.scheduled", getScheduledPathEdges());
+		snapshot.put("pathEdges.processed", getProcessedPathEdges());
+		snapshot.put("pathEdges.queueDepth", getQueueDepth());
+		for(FlowFunctionKind kind : FlowFunctionKind.values()) {
+			String prefix = "flowFunctions." + kind.name().toLowerCase();
+			put(snapshot, prefix + ".construction", constructions[kind.ordinal()]);
+			put(snapshot, prefix + ".application", applications[kind.ordinal()]);
+		}
+		put(snapshot, "lockWait", lockWaits);
+		for(Entry<String, Supplier<CacheStats>> cache : caches) {
+			CacheStats stats = cache.getValue().get();
+			snapshot.put(cache.getKey() + ".requests", stats.requestCount());
+			snapshot.put(cache.getKey() + ".hitRate", stats.hitRate());
+		}
+		return snapshot;
+	}
+
+	private static void put(Map<String, Number> snapshot, String prefix, NanoHistogram histogram) {
+		snapshot.put(prefix + ".count", histogram.count());
+		snapshot.put(prefix + ".totalNanos", histogram.totalNanos());
+		snapshot.put(prefix + ".p50Nanos", histogram.percentileNanos(50));
+		snapshot.put(prefix + ".p99Nanos", histogram.percentileNanos(99));
+		snapshot.put(prefix + ".maxNanos", histogram.maxNanos());
+	}
+}
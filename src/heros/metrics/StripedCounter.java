@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.metrics;
+
+import heros.ThreadSafe;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter that many threads can update without contending for a single memory location.
+ * Each thread adds to one of several stripes, chosen by its id, which lie on separate cache lines.
+ * Reading the sum is comparatively expensive and not atomic with respect to concurrent updates.
+ */
+@ThreadSafe
+public class StripedCounter {
+
+	//longs per cache line, so that stripes do not share cache lines
+	static final int PADDING = 8;
+
+	static final int STRIPES = stripes();
+
+	private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PADDING);
+
+	private static int stripes() {
+		int processors = Runtime.getRuntime().availableProcessors();
+		return Math.min(64, Integer.highestOneBit(Math.max(1, processors * 2 - 1)));
+	}
+
+	/**
+	 * Returns the stripe of the calling thread.
+	 */
+	static int stripe() {
+		long id = Thread.currentThread().getId();
+		return (int) (id ^ (id >>> 16)) & (STRIPES - 1);
+	}
+
+	public void increment() {
+		cells.getAndIncrement(stripe() * PADDING);
+	}
+
+	public void add(long delta) {
+		cells.getAndAdd(stripe() * PADDING, delta);
+	}
+
+	public long sum() {
+		long sum = 0;
+		for(int i = 0; i < STRIPES; i++)
+			sum += cells.get(i * PADDING);
+		return sum;
+	}
+
+	@Override
+	public String toString() {
+		return Long.toString(sum());
+	}
+}
@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ * 
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link Executor} used by the solvers to process their tasks. In addition to executing
+ * tasks, it allows clients to await the completion of all spawned tasks, including those
+ * spawned by other tasks.
+ * 
+ * @see CountingThreadPoolExecutor
+ * @see WorkStealingExecutor
+ */
+public interface AwaitableExecutor extends Executor {
+
+	/**
+	 * Awaits the completion of all spawned tasks.
+	 */
+	public void awaitCompletion() throws InterruptedException;
+	
+	/**
+	 * Awaits the completion of all spawned tasks.
+	 */
+	public void awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException;
+	
+	/**
+	 * Returns the exception thrown during task execution (if any).
+	 */
+	public Throwable getException();
+	
+	/**
+	 * Returns <code>true</code> if this executor is shutting down, e.g. because a task failed.
+	 * New tasks will be rejected in this case.
+	 */
+	public boolean isTerminating();
+	
+	/**
+	 * Initiates an orderly shutdown in which previously submitted tasks are executed,
+	 * but no new tasks will be accepted.
+	 */
+	public void shutdown();
+	
+}
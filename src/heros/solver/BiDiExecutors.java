@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import heros.util.SootThreadGroup;
+
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The executors of the two directions of a pipelined {@link BiDiIDESolver}, see {@link BiDiIDESolver#setPipelined(int, int)},
+ * or of a concurrent {@link heros.fieldsens.BiDiFieldSensitiveIFDSSolver}.
+ * Each direction has its own thread pool, sized independently. Both pools count their tasks in one latch, since a task of one
+ * direction may unpause edges of the other: awaiting the completion of either executor awaits the completion of both.
+ * Queued tasks are run by descending {@link PrioritizedTask#priority()}, and in the order of submission for equal priorities.
+ */
+public class BiDiExecutors {
+
+    protected static final Logger logger = LoggerFactory.getLogger(BiDiExecutors.class);
+
+	private final CountLatch numRunningTasks = new CountLatch(0);
+
+	//breaks ties between tasks of equal priority
+	private final AtomicLong sequence = new AtomicLong();
+
+	private volatile Throwable exception = null;
+
+	final DirectionExecutor forward;
+	final DirectionExecutor backward;
+
+	public BiDiExecutors(int forwardThreads, int backwardThreads) {
+		this.forward = new DirectionExecutor(Math.max(1, forwardThreads));
+		this.backward = new DirectionExecutor(Math.max(1, backwardThreads));
+	}
+
+	public AwaitableExecutor getForward() {
+		return forward;
+	}
+
+	public AwaitableExecutor getBackward() {
+		return backward;
+	}
+
+	public void shutdown() {
+		forward.shutdown();
+		backward.shutdown();
+	}
+
+	private void failed(Throwable t) {
+		exception = t;
+		logger.error("Worker thread execution failed: " + t.getMessage(), t);
+		forward.shutdownNow();
+		backward.shutdownNow();
+		numRunningTasks.resetAndInterrupt();
+	}
+
+	class DirectionExecutor extends ThreadPoolExecutor implements AwaitableExecutor {
+
+		private DirectionExecutor(int numThreads) {
+			super(numThreads, numThreads, 30, TimeUnit.SECONDS, new PriorityBlockingQueue<Runnable>(), new ThreadFactory() {
+
+				@Override
+				public Thread newThread(Runnable r) {
+					return new Thread(new SootThreadGroup(), r);
+				}
+			});
+			allowCoreThreadTimeOut(true);
+		}
+
+		@Override
+		public void execute(Runnable command) {
+			int priority = command instanceof PrioritizedTask ? ((PrioritizedTask) command).priority() : 0;
+			try {
+				numRunningTasks.increment();
+				super.execute(new QueuedTask(command, priority, sequence.getAndIncrement()));
+			}
+			catch (RejectedExecutionException ex) {
+				// If we were unable to submit the task, we may not count it!
+				numRunningTasks.decrement();
+				throw ex;
+			}
+		}
+
+		@Override
+		protected void afterExecute(Runnable r, Throwable t) {
+			if(t!=null)
+				failed(t);
+			else
+				numRunningTasks.decrement();
+			super.afterExecute(r, t);
+		}
+
+		/**
+		 * Awaits the completion of all spawned tasks of both directions.
+		 */
+		public void awaitCompletion() throws InterruptedException {
+			numRunningTasks.awaitZero();
+		}
+
+		/**
+		 * Awaits the completion of all spawned tasks of both directions.
+		 */
+		public void awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException {
+			numRunningTasks.awaitZero(timeout, unit);
+		}
+
+		/**
+		 * Returns the exception thrown during task execution in either direction (if any).
+		 */
+		public Throwable getException() {
+			return exception;
+		}
+	}
+
+	private static class QueuedTask implements Runnable, Comparable<QueuedTask> {
+		private final Runnable task;
+		private final int priority;
+		private final long sequence;
+
+		QueuedTask(Runnable task, int priority, long sequence) {
+			this.task = task;
+			this.priority = priority;
+			this.sequence = sequence;
+		}
+
+		@Override
+		public void run() {
+			task.run();
+		}
+
+		@Override
+		public int compareTo(QueuedTask other) {
+			if(priority != other.priority)
+				return priority > other.priority ? -1 : 1;
+			return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+		}
+	}
+}
@@ -18,6 +18,9 @@ import heros.IDETabulationProblem;
 import heros.IFDSTabulationProblem;
 import heros.InterproceduralCFG;
 import heros.JoinLattice;
+import heros.SolverBudget;
+import heros.metrics.NanoHistogram;
+import heros.metrics.StripedCounter;
 import heros.solver.IFDSSolver.BinaryDomain;
 
 import java.util.Collections;
@@ -29,7 +32,9 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
+import com.google.common.collect.ConcurrentHashMultiset;
 import com.google.common.collect.Maps;
 
 /**
@@ -45,6 +50,10 @@ import com.google.common.collect.Maps;
  * 
  * This solver requires data-flow abstractions that implement the {@link LinkedNode} interface such that data-flow values can be linked to form
  * reportable paths.  
+ * 
+ * By default, both analyses share one executor sized by the forward problem's {@link IFDSTabulationProblem#numThreads()}.
+ * In pipelined mode, see {@link #setPipelined(int, int)}, each analysis runs on its own thread pool, and edges that may
+ * unpause edges of the other analysis are processed first.
  *
  * @param <N> see {@link IFDSSolver}
  * @param <D> A data-flow abstraction that must implement the {@link LinkedNode} interface such that data-flow values can be linked to form
@@ -56,9 +65,19 @@ public class BiDiIDESolver<N, D, M, V, I extends InterproceduralCFG<N, M>> {
 
 	private final IDETabulationProblem<N, AbstractionWithSourceStmt, M,V, I> forwardProblem;
 	private final IDETabulationProblem<N, AbstractionWithSourceStmt, M,V, I> backwardProblem;
-	private final CountingThreadPoolExecutor sharedExecutor;
+	private AwaitableExecutor sharedExecutor;
 	protected SingleDirectionSolver fwSolver;
 	protected SingleDirectionSolver bwSolver;
+	private SolverBudget budget;
+	private int forwardThreads;
+	private int backwardThreads;
+	private BiDiExecutors pipelinedExecutors;
+	private long elapsedNanos;
+
+	/**
+	 * The directions of a bidirectional analysis.
+	 */
+	public static enum Direction { FORWARD, BACKWARD }
 
 	/**
 	 * Instantiates a {@link BiDiIDESolver} with the associated forward and backward problem.
@@ -77,14 +96,88 @@ public class BiDiIDESolver<N, D, M, V, I extends InterproceduralCFG<N, M>> {
 		bwSolver = createSingleDirectionSolver(backwardProblem, "BW");
 		fwSolver.otherSolver = bwSolver;
 		bwSolver.otherSolver = fwSolver;
+		if(forwardThreads > 0) {
+			pipelinedExecutors = new BiDiExecutors(forwardThreads, backwardThreads);
+			fwSolver.executor = pipelinedExecutors.forward;
+			bwSolver.executor = pipelinedExecutors.backward;
+		}
+		if(budget!=null) {
+			//both directions charge the same budget
+			SolverBudget.Meter meter = budget.startMeter();
+			fwSolver.budgetMeter = meter;
+			bwSolver.budgetMeter = meter;
+		}
 		
+		long before = System.nanoTime();
 		//start the bw solver
 		bwSolver.submitInitialSeeds();
 		
 		//start the fw solver and block until both solvers have completed
-		//(note that they both share the same executor, see below)
+		//(note that they both share the same executor, see below, or the same task count if pipelined)
 		//note to self: the order of the two should not matter
-		fwSolver.solve();
+		try {
+			fwSolver.solve();
+		} finally {
+			elapsedNanos = System.nanoTime() - before;
+			if(pipelinedExecutors!=null)
+				pipelinedExecutors.shutdown();
+		}
+	}
+	
+	/**
+	 * Runs each direction on its own thread pool with the given number of threads in each subsequent call to {@link #solve()},
+	 * instead of sharing one executor. Queued edges whose facts originate from a statement at which the other direction has
+	 * paused edges are processed first, as they may be about to reach the same unbalanced return and unpause these edges.
+	 */
+	public void setPipelined(int forwardThreads, int backwardThreads) {
+		if(forwardThreads < 1 || backwardThreads < 1)
+			throw new IllegalArgumentException("Each direction needs at least one thread");
+		this.forwardThreads = forwardThreads;
+		this.backwardThreads = backwardThreads;
+	}
+	
+	/**
+	 * If true, both directions share a {@link WorkStealingExecutor} instead of a single shared work queue.
+	 * Must be called before {@link #solve()}. Has no effect in pipelined mode.
+	 * @see IDESolver#setWorkStealingExecutor(boolean)
+	 */
+	public void setWorkStealingExecutor(boolean workStealing) {
+		int numThreads = Math.max(1,forwardProblem.numThreads());
+		sharedExecutor.shutdown();
+		if(workStealing)
+			sharedExecutor = new WorkStealingExecutor(numThreads);
+		else
+			sharedExecutor = new CountingThreadPoolExecutor(1, numThreads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+	}
+	
+	/**
+	 * Returns the statistics of the given direction in the last call to {@link #solve()}.
+	 */
+	public DirectionStatistics getStatistics(Direction direction) {
+		SingleDirectionSolver solver = direction == Direction.FORWARD ? fwSolver : bwSolver;
+		return new DirectionStatistics(solver.scheduledEdges.sum(), elapsedNanos, solver.pausedEdges.sum(), solver.pauseDurations);
+	}
+	
+	/**
+	 * Limits the resources spent by both directions together in each subsequent call to {@link #solve()}.
+	 * @see IDESolver#setBudget(SolverBudget)
+	 */
+	public void setBudget(SolverBudget budget) {
+		this.budget = budget;
+	}
+	
+	/**
+	 * Returns the resource whose budget was exhausted by the last call to {@link #solve()}, or <code>null</code> if none was.
+	 */
+	public SolverBudget.Resource getExhaustedBudget() {
+		return fwSolver.getExhaustedBudget();
+	}
+	
+	/**
+	 * Returns <code>true</code> if the last call to {@link #solve()} did not run out of its budget.
+	 */
+	public boolean isComplete() {
+		return fwSolver.isComplete() && bwSolver.isComplete();
 	}
 	
 	/**
@@ -94,11 +187,69 @@ public class BiDiIDESolver<N, D, M, V, I extends InterproceduralCFG<N, M>> {
 		return new SingleDirectionSolver(problem, debugName);
 	}
 	
+	/**
+	 * The throughput of one direction and the time its edges stayed paused.
+	 */
+	public static class DirectionStatistics {
+		private final long scheduledEdges;
+		private final long elapsedNanos;
+		private final long pausedEdges;
+		private final NanoHistogram pauseDurations;
+		
+		private DirectionStatistics(long scheduledEdges, long elapsedNanos, long pausedEdges, NanoHistogram pauseDurations) {
+			this.scheduledEdges = scheduledEdges;
+			this.elapsedNanos = elapsedNanos;
+			this.pausedEdges = pausedEdges;
+			this.pauseDurations = pauseDurations;
+		}
+		
+		/**
+		 * Returns the number of path edges this direction scheduled for processing.
+		 */
+		public long getScheduledEdges() {
+			return scheduledEdges;
+		}
+		
+		public double getEdgesPerSecond() {
+			return elapsedNanos == 0 ? 0 : scheduledEdges * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+		}
+		
+		/**
+		 * Returns the number of edges that were paused, including those never unpaused.
+		 */
+		public long getPausedEdges() {
+			return pausedEdges;
+		}
+		
+		/**
+		 * Returns the number of edges that were paused but never unpaused, as the other direction did not reach the same unbalanced return.
+		 */
+		public long getStillPausedEdges() {
+			return pausedEdges - pauseDurations.count();
+		}
+		
+		/**
+		 * Returns how long the unpaused edges stayed paused.
+		 */
+		public NanoHistogram getPauseDurations() {
+			return pauseDurations;
+		}
+		
+		@Override
+		public String toString() {
+			return String.format("%d edges (%.0f/s), %d paused, %d still paused, mean pause %dns, max pause %dns", scheduledEdges, getEdgesPerSecond(),
+					pausedEdges, getStillPausedEdges(), pauseDurations.meanNanos(), pauseDurations.maxNanos());
+		}
+	}
+	
 	private class PausedEdge {
 		private N retSiteC;
 		private AbstractionWithSourceStmt targetVal;
 		private EdgeFunction<V> edgeFunction;
 		private N relatedCallSite;
+		private final long pausedAt = System.nanoTime();
+		//the edge paused before this one for the same leak
+		private PausedEdge next;
 		
 		public PausedEdge(N retSiteC, AbstractionWithSourceStmt targetVal, EdgeFunction<V> edgeFunction, N relatedCallSite) {
 			this.retSiteC = retSiteC;
@@ -106,6 +257,11 @@ public class BiDiIDESolver<N, D, M, V, I extends InterproceduralCFG<N, M>> {
 			this.edgeFunction = edgeFunction;
 			this.relatedCallSite = relatedCallSite;
 		}
+		
+		@Override
+		public String toString() {
+			return "<" + relatedCallSite + "," + retSiteC + "," + targetVal + ">";
+		}
 	}
 
 	/**
@@ -165,8 +321,14 @@ public class BiDiIDESolver<N, D, M, V, I extends InterproceduralCFG<N, M>> {
 		private final String debugName;
 		private SingleDirectionSolver otherSolver;
 		private Set<LeakKey<N>> leakedSources = Collections.newSetFromMap(Maps.<LeakKey<N>, Boolean>newConcurrentMap());
-		private ConcurrentMap<LeakKey<N>,Set<PausedEdge>> pausedPathEdges =
+		//the paused edges of each leak as a lock-free stack, which is emptied at once when unpausing
+		private ConcurrentMap<LeakKey<N>,AtomicReference<PausedEdge>> pausedPathEdges =
 				Maps.newConcurrentMap();
+		//source statements of the edges that are still paused, counted once per edge, see priorityOf(..)
+		private final ConcurrentHashMultiset<N> pausedSources = ConcurrentHashMultiset.create();
+		private final StripedCounter scheduledEdges = new StripedCounter();
+		private final StripedCounter pausedEdges = new StripedCounter();
+		private final NanoHistogram pauseDurations = new NanoHistogram();
 
 		public SingleDirectionSolver(IDETabulationProblem<N, AbstractionWithSourceStmt, M,V, I> ifdsProblem, String debugName) {
 			super(ifdsProblem);
@@ -187,24 +349,43 @@ public class BiDiIDESolver<N, D, M, V, I extends InterproceduralCFG<N, M>> {
 				super.propagateUnbalancedReturnFlow(retSiteC, targetVal, edgeFunction, relatedCallSite);
 			} else {
 				//otherwise we pause this solver's edge and don't continue
-				Set<PausedEdge> newPausedEdges = 
-						Collections.newSetFromMap(Maps.<PausedEdge, Boolean>newConcurrentMap()); 
-				Set<PausedEdge> existingPausedEdges = pausedPathEdges.putIfAbsent(leakKey, newPausedEdges);
+				AtomicReference<PausedEdge> newPausedEdges = new AtomicReference<PausedEdge>();
+				AtomicReference<PausedEdge> existingPausedEdges = pausedPathEdges.putIfAbsent(leakKey, newPausedEdges);
 				if(existingPausedEdges==null)
 					existingPausedEdges=newPausedEdges;
 				
 				PausedEdge edge = new PausedEdge(retSiteC, targetVal, edgeFunction, relatedCallSite);
-				existingPausedEdges.add(edge);
+				//counted before the edge is pushed, as it may be unpaused right after
+				pausedSources.add(sourceStmt);
+				do {
+					edge.next = existingPausedEdges.get();
+				} while(!existingPausedEdges.compareAndSet(edge.next, edge));
+				pausedEdges.increment();
 				
-				//if the other solver has leaked in the meantime, we have to make sure that the paused edge is unpaused
-				if(otherSolver.hasLeaked(leakKey) && existingPausedEdges.remove(edge)) {
-					super.propagateUnbalancedReturnFlow(retSiteC, targetVal, edgeFunction, relatedCallSite);
-				}
-						
                 logger.debug(" ++ PAUSE {}: {}", debugName, edge);
+				
+				//if the other solver has leaked in the meantime, we have to make sure that the paused edge is unpaused
+				if(otherSolver.hasLeaked(leakKey))
+					unpause(existingPausedEdges);
 			}
 		}
 		
+		@Override
+		protected void scheduleEdgeProcessing(PathEdge<N,AbstractionWithSourceStmt> edge) {
+			scheduledEdges.increment();
+			super.scheduleEdgeProcessing(edge);
+		}
+		
+		/**
+		 * Favors edges whose facts originate from a statement at which the other solver still has paused edges,
+		 * as they may be about to leak as well, which unpauses the other solver's edges.
+		 */
+		@Override
+		protected int priorityOf(PathEdge<N,AbstractionWithSourceStmt> edge) {
+			N sourceStmt = edge.factAtTarget().getSourceStmt();
+			return sourceStmt!=null && otherSolver.pausedSources.contains(sourceStmt) ? 1 : 0;
+		}
+		
 		@Override
 		protected void propagate(AbstractionWithSourceStmt sourceVal, N target, AbstractionWithSourceStmt targetVal, EdgeFunction<V> f, N relatedCallSite, boolean isUnbalancedReturn) {
 			//the follwing branch will be taken only on an unbalanced return
@@ -237,22 +418,29 @@ public class BiDiIDESolver<N, D, M, V, I extends InterproceduralCFG<N, M>> {
 		 * Unpauses all edges associated with the given source statement.
 		 */
 		private void unpausePathEdgesForSource(LeakKey<N> leakKey) {
-			Set<PausedEdge> pausedEdges = pausedPathEdges.get(leakKey);
-			if(pausedEdges!=null) {
-				for(PausedEdge edge: pausedEdges) {
-					if(pausedEdges.remove(edge)) {
-						if(DEBUG)
-							logger.debug("-- UNPAUSE {}: {}",debugName, edge);
-						super.propagateUnbalancedReturnFlow(edge.retSiteC, edge.targetVal, edge.edgeFunction, edge.relatedCallSite);
-					}
-				}
+			AtomicReference<PausedEdge> pausedEdges = pausedPathEdges.get(leakKey);
+			if(pausedEdges!=null)
+				unpause(pausedEdges);
+		}
+		
+		/**
+		 * Unpauses all edges on the given stack. Each edge is unpaused exactly once, by the thread that empties the stack.
+		 */
+		private void unpause(AtomicReference<PausedEdge> pausedEdges) {
+			long now = System.nanoTime();
+			for(PausedEdge edge = pausedEdges.getAndSet(null); edge!=null; edge = edge.next) {
+				pauseDurations.record(now - edge.pausedAt);
+				pausedSources.remove(edge.targetVal.getSourceStmt());
+				if(DEBUG)
+					logger.debug("-- UNPAUSE {}: {}",debugName, edge);
+				super.propagateUnbalancedReturnFlow(edge.retSiteC, edge.targetVal, edge.edgeFunction, edge.relatedCallSite);
 			}
 		}
 		
 		/* we share the same executor; this will cause the call to solve() above to block
 		 * until both solvers have finished
 		 */ 
-		protected CountingThreadPoolExecutor getExecutor() {
+		protected AwaitableExecutor getExecutor() {
 			return sharedExecutor;
 		}
 		
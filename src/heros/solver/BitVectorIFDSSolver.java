@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import heros.FlowFunction;
+import heros.IFDSTabulationProblem;
+import heros.InterproceduralCFG;
+import heros.SynchronizedBy;
+import heros.flowfunc.BitVectorFlowFunction;
+
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An {@link IFDSSolver} that interns all facts and represents sets of facts as {@link BitSet}s. The jump functions
+ * are stored in {@link BitVectorJumpFunctions}, which record the reachable target facts of each target statement
+ * and source fact as a bit set instead of one edge function object per fact. Flow functions that implement
+ * {@link BitVectorFlowFunction}, which includes all functions in {@link heros.flowfunc}, are applied with bit-set
+ * operations on the interned facts. Otherwise the solver behaves exactly like the {@link IFDSSolver} and supports
+ * all of its options. Selecting another jump function store, e.g. through {@link #setConcurrentJumpFunctions(boolean)},
+ * replaces the bit-set store.
+ *
+ * @param <N> The type of nodes in the interprocedural control-flow graph.
+ * @param <D> The type of data-flow facts to be computed by the tabulation problem.
+ * @param <M> The type of objects used to represent methods.
+ * @param <I> The type of inter-procedural control-flow graph being used.
+ */
+public class BitVectorIFDSSolver<N,D,M,I extends InterproceduralCFG<N, M>> extends IFDSSolver<N,D,M,I> {
+
+	@SynchronizedBy("thread safe data structure")
+	protected final Interner<D> facts = new Interner<D>();
+
+	/**
+	 * Creates a solver for the given problem. The solver must then be started by calling
+	 * {@link #solve()}.
+	 */
+	public BitVectorIFDSSolver(IFDSTabulationProblem<N,D,M,I> tabulationProblem) {
+		super(tabulationProblem);
+		setJumpFunctions(new BitVectorJumpFunctions<N,D>(allTop, facts));
+	}
+
+	@Override
+	protected Set<D> computeNormalFlowFunction(FlowFunction<D> flowFunction, D d1, D d2) {
+		return computeTargets(flowFunction, d2);
+	}
+
+	@Override
+	protected Set<D> computeCallFlowFunction(FlowFunction<D> callFlowFunction, D d1, D d2) {
+		return computeTargets(callFlowFunction, d2);
+	}
+
+	@Override
+	protected Set<D> computeCallToReturnFlowFunction(FlowFunction<D> callToReturnFlowFunction, D d1, D d2) {
+		return computeTargets(callToReturnFlowFunction, d2);
+	}
+
+	@Override
+	protected Set<D> computeReturnFlowFunction(FlowFunction<D> retFunction, D d1, D d2, N callSite, Set<D> callerSideDs) {
+		return computeTargets(retFunction, d2);
+	}
+
+	/**
+	 * Applies the given flow function to the given fact. A {@link BitVectorFlowFunction} is applied to the interned
+	 * fact, and the returned set is a view of the resulting bit set.
+	 */
+	protected Set<D> computeTargets(FlowFunction<D> function, D source) {
+		if(!(function instanceof BitVectorFlowFunction))
+			return function.computeTargets(source);
+		BitSet sources = new BitSet();
+		sources.set(facts.intern(source));
+		BitSet targets = new BitSet();
+		((BitVectorFlowFunction<D>) function).computeTargets(sources, targets, facts);
+		return new FactSet(targets);
+	}
+
+	/**
+	 * An unmodifiable set of the facts whose ids are set in a bit set.
+	 */
+	private class FactSet extends AbstractSet<D> {
+
+		private final BitSet ids;
+
+		FactSet(BitSet ids) {
+			this.ids = ids;
+		}
+
+		@Override
+		public Iterator<D> iterator() {
+			return new Iterator<D>() {
+				int next = ids.nextSetBit(0);
+
+				@Override
+				public boolean hasNext() {
+					return next >= 0;
+				}
+
+				@Override
+				public D next() {
+					if(next < 0)
+						throw new NoSuchElementException();
+					D fact = facts.get(next);
+					next = ids.nextSetBit(next+1);
+					return fact;
+				}
+
+				@Override
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return ids.cardinality();
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public boolean contains(Object o) {
+			int id = facts.idOf((D) o);
+			return id >= 0 && ids.get(id);
+		}
+	}
+
+}
@@ -0,0 +1,233 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import heros.DontSynchronize;
+import heros.EdgeFunction;
+import heros.SynchronizedBy;
+import heros.ThreadSafe;
+import heros.edgefunc.EdgeIdentity;
+import heros.solver.IFDSSolver.BinaryDomain;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Table.Cell;
+import com.google.common.collect.Tables;
+
+/**
+ * A {@link JumpFunctionStore} for IFDS problems encoded by the {@link IFDSSolver}, whose edge functions are
+ * either the identity or all-bottom. Statements and facts are interned, and for each target statement and
+ * source fact, the store records the reachable target facts as a {@link BitSet}. A second bit set records
+ * the target facts whose edge function is all-bottom, i.e., which were derived via the zero value and hence
+ * hold whenever the statement is reachable. Storing any other edge function fails.
+ *
+ * Reverse lookups scan all source facts of the target statement. This is cheap, as the number of source
+ * facts is the number of calling contexts of the statement's method.
+ *
+ * The maps and sets returned by the lookup methods are copies.
+ *
+ * @see BitVectorIFDSSolver
+ */
+@ThreadSafe
+public class BitVectorJumpFunctions<N,D> implements JumpFunctionStore<N,D,BinaryDomain> {
+
+	@SynchronizedBy("thread safe data structure")
+	private final Interner<N> nodes = new Interner<N>();
+
+	@SynchronizedBy("thread safe data structure")
+	private final Interner<D> facts;
+
+	//maps target node to source value to the target values
+	@SynchronizedBy("consistent lock on this")
+	private final LongObjectMap<LongObjectMap<TargetFacts>> byTarget = new LongObjectMap<LongObjectMap<TargetFacts>>();
+
+	@DontSynchronize("immutable")
+	private final EdgeFunction<BinaryDomain> allTop;
+
+	/**
+	 * @param facts The interner of facts, which may be shared with the solver's flow function application.
+	 */
+	public BitVectorJumpFunctions(EdgeFunction<BinaryDomain> allTop, Interner<D> facts) {
+		this.allTop = allTop;
+		this.facts = facts;
+	}
+
+	@Override
+	public synchronized void addFunction(D sourceVal, N target, D targetVal, EdgeFunction<BinaryDomain> function) {
+		assert sourceVal!=null;
+		assert target!=null;
+		assert targetVal!=null;
+		assert function!=null;
+
+		//we do not store the default function (all-top)
+		if(function.equalTo(allTop)) return;
+
+		boolean allBottom = isAllBottom(function);
+		int targetId = nodes.intern(target);
+		int sourceValId = facts.intern(sourceVal);
+		LongObjectMap<TargetFacts> bySource = byTarget.get(targetId);
+		if(bySource==null) {
+			bySource = new LongObjectMap<TargetFacts>();
+			byTarget.put(targetId, bySource);
+		}
+		TargetFacts targetFacts = bySource.get(sourceValId);
+		if(targetFacts==null) {
+			targetFacts = new TargetFacts();
+			bySource.put(sourceValId, targetFacts);
+		}
+		int targetValId = facts.intern(targetVal);
+		targetFacts.reachable.set(targetValId);
+		targetFacts.allBottom.set(targetValId, allBottom);
+	}
+
+	@Override
+	public synchronized EdgeFunction<BinaryDomain> joinAndAddIfChanged(D sourceVal, N target, D targetVal, EdgeFunction<BinaryDomain> function) {
+		EdgeFunction<BinaryDomain> existing = getFunction(sourceVal, target, targetVal);
+		if(existing==null) existing = allTop; //JumpFn is initialized to all-top (see line [2] in SRH96 paper)
+		EdgeFunction<BinaryDomain> joined = existing.joinWith(function);
+		if(joined.equalTo(existing))
+			return null;
+		addFunction(sourceVal, target, targetVal, joined);
+		return joined;
+	}
+
+	@Override
+	public synchronized EdgeFunction<BinaryDomain> getFunction(D sourceVal, N target, D targetVal) {
+		int targetValId = facts.idOf(targetVal);
+		if(targetValId<0) return null;
+		TargetFacts targetFacts = targetFacts(sourceVal, target);
+		if(targetFacts==null) return null;
+		return targetFacts.function(targetValId);
+	}
+
+	@Override
+	public synchronized Map<D,EdgeFunction<BinaryDomain>> reverseLookup(N target, D targetVal) {
+		assert target!=null;
+		assert targetVal!=null;
+		int targetId = nodes.idOf(target);
+		int targetValId = facts.idOf(targetVal);
+		if(targetId<0 || targetValId<0) return Collections.emptyMap();
+		LongObjectMap<TargetFacts> bySource = byTarget.get(targetId);
+		if(bySource==null) return Collections.emptyMap();
+		Map<D,EdgeFunction<BinaryDomain>> res = new LinkedHashMap<D,EdgeFunction<BinaryDomain>>();
+		for(int slot = bySource.nextSlot(0); slot >= 0; slot = bySource.nextSlot(slot+1)) {
+			EdgeFunction<BinaryDomain> function = bySource.valueAt(slot).function(targetValId);
+			if(function!=null)
+				res.put(facts.get((int) bySource.keyAt(slot)), function);
+		}
+		return res;
+	}
+
+	@Override
+	public synchronized Map<D,EdgeFunction<BinaryDomain>> reverseLookupForIteration(N target, D targetVal) {
+		//reverseLookup(..) already returns a copy
+		return reverseLookup(target, targetVal);
+	}
+
+	@Override
+	public synchronized Map<D,EdgeFunction<BinaryDomain>> forwardLookup(D sourceVal, N target) {
+		assert sourceVal!=null;
+		assert target!=null;
+		TargetFacts targetFacts = targetFacts(sourceVal, target);
+		if(targetFacts==null) return Collections.emptyMap();
+		Map<D,EdgeFunction<BinaryDomain>> res = new LinkedHashMap<D,EdgeFunction<BinaryDomain>>();
+		BitSet reachable = targetFacts.reachable;
+		for(int targetVal = reachable.nextSetBit(0); targetVal >= 0; targetVal = reachable.nextSetBit(targetVal+1))
+			res.put(facts.get(targetVal), targetFacts.function(targetVal));
+		return res;
+	}
+
+	@Override
+	public synchronized Set<Cell<D,D,EdgeFunction<BinaryDomain>>> lookupByTarget(N target) {
+		assert target!=null;
+		int targetId = nodes.idOf(target);
+		if(targetId<0) return Collections.emptySet();
+		LongObjectMap<TargetFacts> bySource = byTarget.get(targetId);
+		if(bySource==null) return Collections.emptySet();
+		Set<Cell<D,D,EdgeFunction<BinaryDomain>>> res = new LinkedHashSet<Cell<D,D,EdgeFunction<BinaryDomain>>>();
+		for(int slot = bySource.nextSlot(0); slot >= 0; slot = bySource.nextSlot(slot+1)) {
+			D sourceVal = facts.get((int) bySource.keyAt(slot));
+			TargetFacts targetFacts = bySource.valueAt(slot);
+			BitSet reachable = targetFacts.reachable;
+			for(int targetVal = reachable.nextSetBit(0); targetVal >= 0; targetVal = reachable.nextSetBit(targetVal+1))
+				res.add(Tables.immutableCell(sourceVal, facts.get(targetVal), targetFacts.function(targetVal)));
+		}
+		return res;
+	}
+
+	@Override
+	public synchronized boolean removeFunction(D sourceVal, N target, D targetVal) {
+		assert sourceVal!=null;
+		assert target!=null;
+		assert targetVal!=null;
+		int targetValId = facts.idOf(targetVal);
+		TargetFacts targetFacts = targetFacts(sourceVal, target);
+		if(targetValId<0 || targetFacts==null || !targetFacts.reachable.get(targetValId))
+			return false;
+		targetFacts.reachable.clear(targetValId);
+		targetFacts.allBottom.clear(targetValId);
+		if(targetFacts.reachable.isEmpty()) {
+			int targetId = nodes.idOf(target);
+			LongObjectMap<TargetFacts> bySource = byTarget.get(targetId);
+			bySource.remove(facts.idOf(sourceVal));
+			if(bySource.isEmpty())
+				byTarget.remove(targetId);
+		}
+		return true;
+	}
+
+	/**
+	 * Removes all jump functions. Statements and facts stay interned.
+	 */
+	@Override
+	public synchronized void clear() {
+		byTarget.clear();
+	}
+
+	private TargetFacts targetFacts(D sourceVal, N target) {
+		int targetId = nodes.idOf(target);
+		int sourceValId = facts.idOf(sourceVal);
+		if(targetId<0 || sourceValId<0) return null;
+		LongObjectMap<TargetFacts> bySource = byTarget.get(targetId);
+		if(bySource==null) return null;
+		return bySource.get(sourceValId);
+	}
+
+	private boolean isAllBottom(EdgeFunction<BinaryDomain> function) {
+		if(function.equalTo(IFDSSolver.ALL_BOTTOM))
+			return true;
+		if(function.equalTo(EdgeIdentity.<BinaryDomain>v()))
+			return false;
+		throw new IllegalArgumentException("Only identity and all-bottom edge functions can be stored, but got "+function);
+	}
+
+	/**
+	 * The target facts of all jump functions from one source fact to one target statement.
+	 */
+	private static class TargetFacts {
+		//all reachable target facts
+		final BitSet reachable = new BitSet();
+		//the target facts whose edge function is all-bottom; a subset of reachable
+		final BitSet allBottom = new BitSet();
+
+		EdgeFunction<BinaryDomain> function(int targetVal) {
+			if(!reachable.get(targetVal))
+				return null;
+			return allBottom.get(targetVal) ? IFDSSolver.ALL_BOTTOM : EdgeIdentity.<BinaryDomain>v();
+		}
+	}
+
+}
@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import heros.DontSynchronize;
+import heros.EdgeFunction;
+import heros.SynchronizedBy;
+import heros.ThreadSafe;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.collect.Table.Cell;
+import com.google.common.collect.Tables;
+
+/**
+ * A {@link JumpFunctionStore} for solvers running with many threads. Instead of
+ * guarding all indices with a single monitor, all jump functions are partitioned by their
+ * target statement. Each partition holds its own concurrent maps, and writers only lock the
+ * partition of the target statement they update. Readers never lock: all returned maps are
+ * live, weakly consistent views that can be iterated while other threads add functions.
+ *
+ * @see IDESolver#setConcurrentJumpFunctions(boolean)
+ */
+@ThreadSafe
+public class ConcurrentJumpFunctions<N,D,L> implements JumpFunctionStore<N,D,L> {
+
+	@SynchronizedBy("use of ConcurrentHashMap")
+	private final ConcurrentMap<N,TargetNodeFunctions<D,L>> functionsByTarget;
+
+	@DontSynchronize("immutable")
+	private final EdgeFunction<L> allTop;
+
+	public ConcurrentJumpFunctions(EdgeFunction<L> allTop, int concurrencyLevel) {
+		this.allTop = allTop;
+		this.functionsByTarget = new ConcurrentHashMap<N,TargetNodeFunctions<D,L>>(16, 0.75f, Math.max(1, concurrencyLevel));
+	}
+
+	@Override
+	public void addFunction(D sourceVal, N target, D targetVal, EdgeFunction<L> function) {
+		assert sourceVal!=null;
+		assert target!=null;
+		assert targetVal!=null;
+		assert function!=null;
+
+		//we do not store the default function (all-top)
+		if(function.equalTo(allTop)) return;
+
+		TargetNodeFunctions<D,L> functions = getOrCreate(target);
+		synchronized (functions) {
+			functions.put(sourceVal, targetVal, function);
+		}
+	}
+
+	@Override
+	public EdgeFunction<L> joinAndAddIfChanged(D sourceVal, N target, D targetVal, EdgeFunction<L> function) {
+		TargetNodeFunctions<D,L> functions = getOrCreate(target);
+		synchronized (functions) {
+			EdgeFunction<L> existing = functions.get(sourceVal, targetVal);
+			if(existing==null) existing = allTop; //JumpFn is initialized to all-top (see line [2] in SRH96 paper)
+			EdgeFunction<L> joined = existing.joinWith(function);
+			if(joined.equalTo(existing))
+				return null;
+			functions.put(sourceVal, targetVal, joined);
+			return joined;
+		}
+	}
+
+	@Override
+	public EdgeFunction<L> getFunction(D sourceVal, N target, D targetVal) {
+		TargetNodeFunctions<D,L> functions = functionsByTarget.get(target);
+		if(functions==null) return null;
+		return functions.get(sourceVal, targetVal);
+	}
+
+	@Override
+	public Map<D,EdgeFunction<L>> reverseLookup(N target, D targetVal) {
+		assert target!=null;
+		assert targetVal!=null;
+		TargetNodeFunctions<D,L> functions = functionsByTarget.get(target);
+		if(functions==null) return Collections.emptyMap();
+		Map<D, EdgeFunction<L>> res = functions.sourceValToFunc.get(targetVal);
+		if(res==null) return Collections.emptyMap();
+		return res;
+	}
+
+	@Override
+	public Map<D,EdgeFunction<L>> reverseLookupForIteration(N target, D targetVal) {
+		//the concurrent maps are weakly consistent, no need to copy
+		return reverseLookup(target, targetVal);
+	}
+
+	@Override
+	public Map<D,EdgeFunction<L>> forwardLookup(D sourceVal, N target) {
+		assert sourceVal!=null;
+		assert target!=null;
+		TargetNodeFunctions<D,L> functions = functionsByTarget.get(target);
+		if(functions==null) return Collections.emptyMap();
+		Map<D, EdgeFunction<L>> res = functions.targetValToFunc.get(sourceVal);
+		if(res==null) return Collections.emptyMap();
+		return res;
+	}
+
+	@Override
+	public Set<Cell<D,D,EdgeFunction<L>>> lookupByTarget(N target) {
+		assert target!=null;
+		TargetNodeFunctions<D,L> functions = functionsByTarget.get(target);
+		if(functions==null) return Collections.emptySet();
+		Set<Cell<D,D,EdgeFunction<L>>> res = new LinkedHashSet<Cell<D,D,EdgeFunction<L>>>();
+		for(Entry<D, ConcurrentMap<D, EdgeFunction<L>>> sourceValAndFuncs: functions.targetValToFunc.entrySet()) {
+			for(Entry<D, EdgeFunction<L>> targetValAndFunc: sourceValAndFuncs.getValue().entrySet()) {
+				res.add(Tables.immutableCell(sourceValAndFuncs.getKey(), targetValAndFunc.getKey(), targetValAndFunc.getValue()));
+			}
+		}
+		return res;
+	}
+
+	@Override
+	public boolean removeFunction(D sourceVal, N target, D targetVal) {
+		assert sourceVal!=null;
+		assert target!=null;
+		assert targetVal!=null;
+
+		TargetNodeFunctions<D,L> functions = functionsByTarget.get(target);
+		if(functions==null) return false;
+		synchronized (functions) {
+			return functions.remove(sourceVal, targetVal);
+		}
+	}
+
+	@Override
+	public void clear() {
+		functionsByTarget.clear();
+	}
+
+	private TargetNodeFunctions<D,L> getOrCreate(N target) {
+		TargetNodeFunctions<D,L> functions = functionsByTarget.get(target);
+		if(functions==null) {
+			functions = new TargetNodeFunctions<D,L>();
+			TargetNodeFunctions<D,L> existing = functionsByTarget.putIfAbsent(target, functions);
+			if(existing!=null) functions = existing;
+		}
+		return functions;
+	}
+
+	/**
+	 * All jump functions with the same target statement. Writers must hold the monitor of
+	 * this object, readers may access the maps without locking.
+	 */
+	private static class TargetNodeFunctions<D,L> {
+
+		//mapping from target value to source values and associated functions
+		@SynchronizedBy("writes under lock on this, reads use ConcurrentHashMap")
+		private final ConcurrentMap<D,ConcurrentMap<D,EdgeFunction<L>>> sourceValToFunc = newMap();
+
+		//mapping from source value to target values and associated functions
+		@SynchronizedBy("writes under lock on this, reads use ConcurrentHashMap")
+		private final ConcurrentMap<D,ConcurrentMap<D,EdgeFunction<L>>> targetValToFunc = newMap();
+
+		EdgeFunction<L> get(D sourceVal, D targetVal) {
+			Map<D, EdgeFunction<L>> map = targetValToFunc.get(sourceVal);
+			if(map==null) return null;
+			return map.get(targetVal);
+		}
+
+		void put(D sourceVal, D targetVal, EdgeFunction<L> function) {
+			ConcurrentMap<D, EdgeFunction<L>> sourceVals = sourceValToFunc.get(targetVal);
+			if(sourceVals==null) {
+				sourceVals = newMap();
+				sourceValToFunc.put(targetVal, sourceVals);
+			}
+			sourceVals.put(sourceVal, function);
+
+			ConcurrentMap<D, EdgeFunction<L>> targetVals = targetValToFunc.get(sourceVal);
+			if(targetVals==null) {
+				targetVals = newMap();
+				targetValToFunc.put(sourceVal, targetVals);
+			}
+			targetVals.put(targetVal, function);
+		}
+
+		boolean remove(D sourceVal, D targetVal) {
+			Map<D, EdgeFunction<L>> sourceVals = sourceValToFunc.get(targetVal);
+			if(sourceVals==null || sourceVals.remove(sourceVal)==null)
+				return false;
+			if(sourceVals.isEmpty())
+				sourceValToFunc.remove(targetVal);
+
+			Map<D, EdgeFunction<L>> targetVals = targetValToFunc.get(sourceVal);
+			if(targetVals==null || targetVals.remove(targetVal)==null)
+				return false;
+			if(targetVals.isEmpty())
+				targetValToFunc.remove(sourceVal);
+			return true;
+		}
+
+		//all writes are serialized by the partition's monitor, hence a single segment suffices
+		private static <K,V> ConcurrentMap<K,V> newMap() {
+			return new ConcurrentHashMap<K,V>(4, 0.75f, 1);
+		}
+	}
+
+}
@@ -0,0 +1,274 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import heros.EdgeFunction;
+import heros.SynchronizedBy;
+import heros.ThreadSafe;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Table.Cell;
+
+/**
+ * Stores the end summaries and incoming call edges of the {@link IDESolver} for solvers
+ * running with many threads. Both are partitioned by the start point and fact they belong to.
+ * While the solver runs, end summaries and incoming edges are only ever added, and each addition
+ * receives a time stamp from the partition's clock. Only this step locks the partition.
+ *
+ * Adding an incoming edge returns the end summaries that were added before it, and adding an
+ * end summary returns the incoming edges that were added before it. Both are live views, filtered
+ * by time stamp, that can be iterated without copying while other threads add to the partition.
+ * As a consequence, each pair of an incoming edge and an end summary is returned exactly once,
+ * to whichever of the two was added later.
+ *
+ * End summaries for the same exit statement and fact are versioned: when the solver joins a new
+ * jump function into an end summary, the previous version is kept and an incoming edge is only
+ * paired with the latest version that was added before it.
+ *
+ * The exactly-once pairing only holds while nothing is removed. {@link #removeContext(Object, Object)},
+ * {@link #removeIncoming(Object, Object, Object, Object)} and {@link #clear()} are only meant for resetting
+ * and incrementally updating the solver, see {@link IDESolver#update(heros.InterproceduralCFGDelta)}. They
+ * must only be called while the solver is not running, i.e., while no other thread adds to or iterates over
+ * the store.
+ *
+ * @see IDESolver#setConcurrentSummaries(boolean)
+ */
+@ThreadSafe
+public class ConcurrentSummaries<N,D,V> {
+
+	@SynchronizedBy("use of ConcurrentHashMap")
+	private final ConcurrentMap<Pair<N,D>,Partition<N,D,V>> partitions;
+
+	public ConcurrentSummaries(int concurrencyLevel) {
+		this.partitions = new ConcurrentHashMap<Pair<N,D>,Partition<N,D,V>>(16, 0.75f, Math.max(1, concurrencyLevel));
+	}
+
+	/**
+	 * Registers that <code>&lt;sP,d3&gt;</code> has an incoming edge from <code>&lt;n,d2&gt;</code>.
+	 * @return the end summaries of <code>&lt;sP,d3&gt;</code> that were added before this edge
+	 */
+	public Iterable<Cell<N,D,EdgeFunction<V>>> addIncoming(N sP, D d3, N n, D d2) {
+		Partition<N,D,V> partition = getOrCreate(sP, d3);
+		final int stamp;
+		synchronized (partition) {
+			stamp = partition.clock++;
+			CallSite<D> callSite = partition.callSites.get(n);
+			if(callSite==null) {
+				callSite = new CallSite<D>(stamp);
+				partition.callSites.put(n, callSite);
+			}
+			callSite.facts.putIfAbsent(d2, stamp);
+		}
+		return endSummariesBefore(partition, stamp);
+	}
+
+	/**
+	 * Registers the end summary <code>f</code> from <code>&lt;sP,d1&gt;</code> to <code>&lt;eP,d2&gt;</code>,
+	 * replacing the previous one, if any.
+	 * @return the incoming edges into <code>&lt;sP,d1&gt;</code>, grouped by call site,
+	 * that were added before this end summary
+	 */
+	public Iterable<Entry<N,Set<D>>> addEndSummary(N sP, D d1, N eP, D d2, EdgeFunction<V> f) {
+		Partition<N,D,V> partition = getOrCreate(sP, d1);
+		final int stamp;
+		synchronized (partition) {
+			stamp = partition.clock++;
+			Pair<N,D> exit = new Pair<N,D>(eP, d2);
+			EndSummary<N,D,V> previous = partition.endSummaries.get(exit);
+			EndSummary<N,D,V> summary = new EndSummary<N,D,V>(eP, d2, f, stamp, previous);
+			partition.endSummaries.put(exit, summary);
+		}
+		return incomingBefore(partition, stamp);
+	}
+
+	/**
+	 * Returns the latest end summaries of <code>&lt;sP,d3&gt;</code>.
+	 */
+	public Set<Cell<N,D,EdgeFunction<V>>> endSummary(N sP, D d3) {
+		Partition<N,D,V> partition = partitions.get(new Pair<N,D>(sP, d3));
+		if(partition==null) return Collections.emptySet();
+		Set<Cell<N,D,EdgeFunction<V>>> res = new LinkedHashSet<Cell<N,D,EdgeFunction<V>>>();
+		for(EndSummary<N,D,V> summary: partition.endSummaries.values())
+			res.add(summary);
+		return res;
+	}
+
+	/**
+	 * Returns a live view of all incoming edges into <code>&lt;sP,d1&gt;</code>, grouped by call site.
+	 */
+	public Map<N,Set<D>> incoming(N sP, D d1) {
+		Partition<N,D,V> partition = partitions.get(new Pair<N,D>(sP, d1));
+		if(partition==null) return Collections.emptyMap();
+		return Maps.transformValues(partition.callSites, new Function<CallSite<D>,Set<D>>() {
+			public Set<D> apply(CallSite<D> callSite) {
+				return callSite.facts.keySet();
+			}
+		});
+	}
+
+	/**
+	 * Returns a live view of all <code>&lt;sP,d1&gt;</code> for which incoming edges or end summaries are known.
+	 */
+	public Set<Pair<N,D>> contexts() {
+		return Collections.unmodifiableSet(partitions.keySet());
+	}
+
+	/**
+	 * Removes all end summaries and incoming edges of <code>&lt;sP,d1&gt;</code>.
+	 * Must not be called while the solver is running, see the class comment.
+	 */
+	public void removeContext(N sP, D d1) {
+		partitions.remove(new Pair<N,D>(sP, d1));
+	}
+
+	/**
+	 * Removes the incoming edge from <code>&lt;n,d2&gt;</code> into <code>&lt;sP,d1&gt;</code>.
+	 * Must not be called while the solver is running, see the class comment.
+	 */
+	public void removeIncoming(N sP, D d1, N n, D d2) {
+		Partition<N,D,V> partition = partitions.get(new Pair<N,D>(sP, d1));
+		if(partition==null) return;
+		CallSite<D> callSite = partition.callSites.get(n);
+		if(callSite==null) return;
+		callSite.facts.remove(d2);
+		if(callSite.facts.isEmpty())
+			partition.callSites.remove(n);
+	}
+
+	public void clear() {
+		partitions.clear();
+	}
+
+	private Iterable<Cell<N,D,EdgeFunction<V>>> endSummariesBefore(Partition<N,D,V> partition, final int stamp) {
+		return FluentIterable.from(partition.endSummaries.values()).transform(new Function<EndSummary<N,D,V>,Cell<N,D,EdgeFunction<V>>>() {
+			public Cell<N,D,EdgeFunction<V>> apply(EndSummary<N,D,V> summary) {
+				//the version that was current at the given time, if any
+				while(summary!=null && summary.stamp > stamp)
+					summary = summary.previous;
+				return summary;
+			}
+		}).filter(new Predicate<Cell<N,D,EdgeFunction<V>>>() {
+			public boolean apply(Cell<N,D,EdgeFunction<V>> summary) {
+				return summary!=null;
+			}
+		});
+	}
+
+	private Iterable<Entry<N,Set<D>>> incomingBefore(Partition<N,D,V> partition, final int stamp) {
+		final Predicate<Integer> before = new Predicate<Integer>() {
+			public boolean apply(Integer factStamp) {
+				return factStamp < stamp;
+			}
+		};
+		return FluentIterable.from(partition.callSites.entrySet()).filter(new Predicate<Entry<N,CallSite<D>>>() {
+			public boolean apply(Entry<N,CallSite<D>> callSite) {
+				return callSite.getValue().stamp < stamp;
+			}
+		}).transform(new Function<Entry<N,CallSite<D>>,Entry<N,Set<D>>>() {
+			public Entry<N,Set<D>> apply(Entry<N,CallSite<D>> callSite) {
+				Set<D> facts = Maps.filterValues(callSite.getValue().facts, before).keySet();
+				return new SimpleImmutableEntry<N,Set<D>>(callSite.getKey(), facts);
+			}
+		});
+	}
+
+	private Partition<N,D,V> getOrCreate(N sP, D d) {
+		Pair<N,D> key = new Pair<N,D>(sP, d);
+		Partition<N,D,V> partition = partitions.get(key);
+		if(partition==null) {
+			partition = new Partition<N,D,V>();
+			Partition<N,D,V> existing = partitions.putIfAbsent(key, partition);
+			if(existing!=null)
+				partition = existing;
+		}
+		return partition;
+	}
+
+	/**
+	 * The end summaries and incoming edges of one start point and fact.
+	 */
+	private static class Partition<N,D,V> {
+
+		@SynchronizedBy("consistent lock on this partition")
+		int clock;
+
+		//maps exit statement and fact to the latest end summary
+		@SynchronizedBy("use of ConcurrentHashMap, written under the lock on this partition")
+		final ConcurrentMap<Pair<N,D>,EndSummary<N,D,V>> endSummaries = new ConcurrentHashMap<Pair<N,D>,EndSummary<N,D,V>>();
+
+		@SynchronizedBy("use of ConcurrentHashMap, written under the lock on this partition")
+		final ConcurrentMap<N,CallSite<D>> callSites = new ConcurrentHashMap<N,CallSite<D>>();
+	}
+
+	/**
+	 * The facts at one call site with an incoming edge, mapped to the time at which they were added.
+	 */
+	private static class CallSite<D> {
+
+		//the time at which the first fact was added
+		final int stamp;
+
+		@SynchronizedBy("use of ConcurrentHashMap, written under the lock on the partition")
+		final ConcurrentMap<D,Integer> facts = new ConcurrentHashMap<D,Integer>();
+
+		CallSite(int stamp) {
+			this.stamp = stamp;
+		}
+	}
+
+	private static class EndSummary<N,D,V> implements Cell<N,D,EdgeFunction<V>> {
+
+		final N exitStmt;
+		final D fact;
+		final EdgeFunction<V> function;
+		final int stamp;
+		//the version that this summary replaced
+		final EndSummary<N,D,V> previous;
+
+		EndSummary(N exitStmt, D fact, EdgeFunction<V> function, int stamp, EndSummary<N,D,V> previous) {
+			this.exitStmt = exitStmt;
+			this.fact = fact;
+			this.function = function;
+			this.stamp = stamp;
+			this.previous = previous;
+		}
+
+		public N getRowKey() {
+			return exitStmt;
+		}
+
+		public D getColumnKey() {
+			return fact;
+		}
+
+		public EdgeFunction<V> getValue() {
+			return function;
+		}
+
+		@Override
+		public String toString() {
+			return "(" + exitStmt + "," + fact + ")=" + function;
+		}
+	}
+
+}
@@ -0,0 +1,242 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import heros.EdgeFunction;
+import heros.SolverConfiguration;
+import heros.ThreadSafe;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.collect.Table.Cell;
+
+/**
+ * Computes the values of an {@link IDESolver} on demand, see {@link IDESolver#setComputeValuesOnDemand(boolean)}.
+ *
+ * The value at a node that is neither a start point nor a call site is computed from the values at the
+ * start points of its method, as in Phase II(ii). These values, and those at call sites, are computed
+ * as in Phase II(i), but only for the part of the exploded super graph they depend on: starting from the
+ * queried nodes, the jump functions are followed backwards to the start points, and the incoming
+ * call edges from the start points back to the call sites, until all nodes whose values are already
+ * known are reached. The values in this part are then computed by a fixed-point iteration and memoized.
+ *
+ * Queries may run concurrently. Each query computes the values it needs on its own thread; if two queries
+ * need the same values at the same time, both compute them, which yields the same values.
+ */
+@ThreadSafe
+class DemandDrivenValues<N,D,M,V> {
+
+	private final IDESolver<N,D,M,V,?> solver;
+
+	//the nodes treated as start points in Phase II(i), by method, and the facts seeded with bottom there
+	private final Map<M,Set<N>> startNodes = new HashMap<M,Set<N>>();
+	private final Map<N,Set<D>> seeds = new HashMap<N,Set<D>>();
+
+	//final values at start points, call sites, seeds and unbalanced return sites, see Phase II(i)
+	private final ConcurrentHashMap<Pair<N,D>,V> startAndCallValues = new ConcurrentHashMap<Pair<N,D>,V>();
+
+	//final results of queries
+	private final ConcurrentHashMap<Pair<N,D>,V> results = new ConcurrentHashMap<Pair<N,D>,V>();
+
+	DemandDrivenValues(IDESolver<N,D,M,V,?> solver) {
+		this.solver = solver;
+		for(Entry<N,Set<D>> seed : solver.initialSeeds.entrySet())
+			addSeeds(seed.getKey(), seed.getValue());
+		//as in Phase II(i), return sites of unbalanced returns are seeded with the zero value
+		for(N unbalancedRetSite : solver.unbalancedRetSites)
+			addSeeds(unbalancedRetSite, Collections.singleton(solver.zeroValue));
+	}
+
+	private void addSeeds(N n, Set<D> facts) {
+		Set<D> seedsAtN = seeds.get(n);
+		if(seedsAtN==null) {
+			seedsAtN = new HashSet<D>();
+			seeds.put(n, seedsAtN);
+			M m = solver.icfg.getMethodOf(n);
+			Set<N> startNodesOfM = startNodes.get(m);
+			if(startNodesOfM==null) {
+				startNodesOfM = new LinkedHashSet<N>(solver.icfg.getStartPointsOf(m));
+				startNodes.put(m, startNodesOfM);
+			}
+			startNodesOfM.add(n);
+		}
+		seedsAtN.addAll(facts);
+	}
+
+	/**
+	 * Returns the value for the given fact at the given node, or the top element if there is none.
+	 */
+	V resultAt(N n, D d) {
+		Pair<N,D> nAndD = new Pair<N,D>(n, d);
+		V result = results.get(nAndD);
+		if(result==null) {
+			result = computeResult(n, d);
+			results.putIfAbsent(nAndD, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the values of all facts at the given node, including the top element.
+	 */
+	Map<D,V> resultsAt(N n) {
+		Set<D> facts = new LinkedHashSet<D>();
+		for(Cell<D, D, EdgeFunction<V>> cell : solver.jumpFn.lookupByTarget(n))
+			facts.add(cell.getColumnKey());
+		Set<D> seedsAtN = seeds.get(n);
+		if(seedsAtN!=null)
+			facts.addAll(seedsAtN);
+		Map<D,V> result = new LinkedHashMap<D,V>();
+		for(D d : facts)
+			result.put(d, resultAt(n, d));
+		return result;
+	}
+
+	private V computeResult(N n, D d) {
+		if(solver.icfg.isCallStmt(n) || solver.icfg.isStartPoint(n))
+			return startOrCallValue(n, d);
+
+		//Phase II(ii)
+		V result = isSeed(n, d) ? solver.valueLattice.bottomElement() : solver.valueLattice.topElement();
+		Map<D,EdgeFunction<V>> jumpFunctions = solver.jumpFn.reverseLookup(n, d);
+		if(jumpFunctions.isEmpty())
+			return result;
+		for(N sP : solver.icfg.getStartPointsOf(solver.icfg.getMethodOf(n))) {
+			for(Entry<D,EdgeFunction<V>> dPrimeAndFPrime : jumpFunctions.entrySet()) {
+				V valAtStart = startOrCallValue(sP, dPrimeAndFPrime.getKey());
+				result = solver.valueLattice.join(result, dPrimeAndFPrime.getValue().computeTarget(valAtStart));
+				solver.flowFunctionApplicationCount++;
+			}
+		}
+		return result;
+	}
+
+	private V startOrCallValue(N n, D d) {
+		Pair<N,D> nAndD = new Pair<N,D>(n, d);
+		V value = startAndCallValues.get(nAndD);
+		if(value==null) {
+			computeStartAndCallValues(nAndD);
+			value = startAndCallValues.get(nAndD);
+		}
+		return value;
+	}
+
+	/**
+	 * Computes the values of the given node and all nodes it depends on whose values are not known yet.
+	 */
+	private void computeStartAndCallValues(Pair<N,D> query) {
+		//walk backwards to all nodes with unknown values
+		Map<Pair<N,D>,List<Entry<Pair<N,D>,EdgeFunction<V>>>> dependencies = new LinkedHashMap<Pair<N,D>,List<Entry<Pair<N,D>,EdgeFunction<V>>>>();
+		Map<Pair<N,D>,List<Pair<N,D>>> dependents = new HashMap<Pair<N,D>,List<Pair<N,D>>>();
+		Deque<Pair<N,D>> worklist = new ArrayDeque<Pair<N,D>>();
+		dependencies.put(query, dependenciesOf(query));
+		worklist.add(query);
+		while(!worklist.isEmpty()) {
+			Pair<N,D> nAndD = worklist.poll();
+			for(Entry<Pair<N,D>,EdgeFunction<V>> dependency : dependencies.get(nAndD)) {
+				Pair<N,D> source = dependency.getKey();
+				if(startAndCallValues.containsKey(source))
+					continue;
+				List<Pair<N,D>> dependentsOfSource = dependents.get(source);
+				if(dependentsOfSource==null) {
+					dependentsOfSource = new ArrayList<Pair<N,D>>();
+					dependents.put(source, dependentsOfSource);
+				}
+				dependentsOfSource.add(nAndD);
+				if(!dependencies.containsKey(source)) {
+					dependencies.put(source, dependenciesOf(source));
+					worklist.add(source);
+				}
+			}
+		}
+
+		//fixed-point iteration as in Phase II(i), where nodes are only propagated once they have a value
+		V top = solver.valueLattice.topElement();
+		Map<Pair<N,D>,V> values = new HashMap<Pair<N,D>,V>();
+		Set<Pair<N,D>> queued = new HashSet<Pair<N,D>>(dependencies.keySet());
+		worklist.addAll(dependencies.keySet());
+		while(!worklist.isEmpty()) {
+			Pair<N,D> nAndD = worklist.poll();
+			queued.remove(nAndD);
+			V value = isSeed(nAndD.getO1(), nAndD.getO2()) ? solver.valueLattice.bottomElement() : top;
+			for(Entry<Pair<N,D>,EdgeFunction<V>> dependency : dependencies.get(nAndD)) {
+				V valueAtSource = startAndCallValues.get(dependency.getKey());
+				if(valueAtSource==null)
+					valueAtSource = values.get(dependency.getKey());
+				if(valueAtSource==null || valueAtSource.equals(top))
+					continue;
+				value = solver.valueLattice.join(value, dependency.getValue().computeTarget(valueAtSource));
+				solver.flowFunctionApplicationCount++;
+			}
+			V previous = values.put(nAndD, value);
+			if(!value.equals(previous == null ? top : previous)) {
+				List<Pair<N,D>> dependentsOfN = dependents.get(nAndD);
+				if(dependentsOfN!=null) {
+					for(Pair<N,D> dependent : dependentsOfN)
+						if(queued.add(dependent))
+							worklist.add(dependent);
+				}
+			}
+		}
+		for(Entry<Pair<N,D>,V> nAndDAndValue : values.entrySet())
+			startAndCallValues.putIfAbsent(nAndDAndValue.getKey(), nAndDAndValue.getValue());
+	}
+
+	/**
+	 * Returns the nodes whose values flow into the given start point or call site, along with the
+	 * functions that are applied to these values.
+	 */
+	private List<Entry<Pair<N,D>,EdgeFunction<V>>> dependenciesOf(Pair<N,D> nAndD) {
+		N n = nAndD.getO1();
+		D d = nAndD.getO2();
+		List<Entry<Pair<N,D>,EdgeFunction<V>>> result = new ArrayList<Entry<Pair<N,D>,EdgeFunction<V>>>();
+		if(solver.icfg.isCallStmt(n)) {
+			//jump functions from the start points of the method, see IDESolver#propagateValueAtStart(..)
+			M m = solver.icfg.getMethodOf(n);
+			Set<N> startNodesOfM = startNodes.get(m);
+			Iterable<N> sPs = startNodesOfM==null ? solver.icfg.getStartPointsOf(m) : startNodesOfM;
+			for(Entry<D,EdgeFunction<V>> dPrimeAndFPrime : solver.jumpFn.reverseLookup(n, d).entrySet()) {
+				for(N sP : sPs)
+					result.add(new SimpleImmutableEntry<Pair<N,D>,EdgeFunction<V>>(new Pair<N,D>(sP, dPrimeAndFPrime.getKey()), dPrimeAndFPrime.getValue()));
+			}
+		}
+		if(solver.icfg.isStartPoint(n)) {
+			//incoming call edges, see IDESolver#propagateValueAtCall(..)
+			M q = solver.icfg.getMethodOf(n);
+			for(Entry<N,Set<D>> callSiteAndFacts : solver.incoming(d, n).entrySet()) {
+				N c = callSiteAndFacts.getKey();
+				for(D dAtCall : callSiteAndFacts.getValue()) {
+					EdgeFunction<V> edgeFn = solver.edgeFunctions.getCallEdgeFunction(c, dAtCall, q, d);
+					result.add(new SimpleImmutableEntry<Pair<N,D>,EdgeFunction<V>>(new Pair<N,D>(c, dAtCall), edgeFn));
+				}
+			}
+		}
+		return result;
+	}
+
+	private boolean isSeed(N n, D d) {
+		Set<D> seedsAtN = seeds.get(n);
+		return seedsAtN!=null && seedsAtN.contains(d);
+	}
+}
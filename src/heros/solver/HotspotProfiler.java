@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import heros.InterproceduralCFG;
+import heros.ThreadSafe;
+import heros.utilities.HotspotProfile;
+
+/**
+ * Aggregates the number of path edges processed by an {@link IDESolver} and the time spent processing
+ * them per method, per call site and per source fact, to find the hotspots of an analysis.
+ *
+ * @see IDESolver#addPathEdgeListener(PathEdgeListener)
+ * @see HotspotProfile#writeJson(String, int)
+ */
+@ThreadSafe
+public class HotspotProfiler<N,D,M> implements PathEdgeListener<N,D> {
+
+	private final InterproceduralCFG<N,M> icfg;
+	private final HotspotProfile profile = new HotspotProfile();
+
+	public HotspotProfiler(InterproceduralCFG<N,M> icfg) {
+		this.icfg = icfg;
+	}
+
+	@Override
+	public void pathEdgeProcessed(D sourceVal, N target, D targetVal, long nanos) {
+		profile.record(HotspotProfile.METHODS, icfg.getMethodOf(target), nanos);
+		profile.record(HotspotProfile.SOURCE_FACTS, sourceVal, nanos);
+		if(icfg.isCallStmt(target))
+			profile.record(HotspotProfile.CALL_SITES, target, nanos);
+	}
+
+	public HotspotProfile getProfile() {
+		return profile;
+	}
+}
@@ -13,28 +13,48 @@
 package heros.solver;
 
 
+import heros.BatchEdgeFunction;
 import heros.DontSynchronize;
 import heros.EdgeFunction;
 import heros.EdgeFunctionCache;
+import heros.EdgeFunctionMemoCache;
 import heros.EdgeFunctions;
+import heros.FactRelevance;
 import heros.FlowFunction;
 import heros.FlowFunctionCache;
 import heros.FlowFunctions;
+import heros.ProfiledFlowFunctions;
+import heros.SinkListener;
+import heros.SolverBudget;
 import heros.IDETabulationProblem;
 import heros.InterproceduralCFG;
+import heros.InterproceduralCFGDelta;
 import heros.JoinLattice;
+import heros.SolverConfiguration;
 import heros.SynchronizedBy;
 import heros.ZeroedFlowFunctions;
 import heros.edgefunc.EdgeIdentity;
+import heros.metrics.PeriodicReporter;
+import heros.metrics.SolverMetrics;
+import heros.metrics.SolverMetrics.FlowFunctionKind;
 
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
@@ -42,8 +62,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Predicate;
+import com.google.common.base.Supplier;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Table;
 import com.google.common.collect.Table.Cell;
@@ -67,20 +90,29 @@ import com.google.common.collect.Table.Cell;
  */
 public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 	
-	public static CacheBuilder<Object, Object> DEFAULT_CACHE_BUILDER = CacheBuilder.newBuilder().concurrencyLevel(Runtime.getRuntime().availableProcessors()).initialCapacity(10000).softValues();
+	/**
+	 * @deprecated Changing this builder does not affect solvers created by {@link #IDESolver(IDETabulationProblem)}, which
+	 * construct their caches with builders of their own that have the same settings and also record statistics.
+	 * Pass a builder to {@link #IDESolver(IDETabulationProblem, CacheBuilder, CacheBuilder)} to customise the caches.
+	 */
+	@Deprecated
+	public static CacheBuilder<Object, Object> DEFAULT_CACHE_BUILDER = defaultCacheBuilder();
 	
     protected static final Logger logger = LoggerFactory.getLogger(IDESolver.class);
 
     //enable with -Dorg.slf4j.simpleLogger.defaultLogLevel=trace
     public static final boolean DEBUG = logger.isDebugEnabled();
 
-	protected CountingThreadPoolExecutor executor;
+	protected AwaitableExecutor executor;
 	
 	@DontSynchronize("only used by single thread")
 	protected int numThreads;
 	
-	@SynchronizedBy("thread safe data structure, consistent locking when used")
-	protected final JumpFunctions<N,D,V> jumpFn;
+	@DontSynchronize("only written before the solver is started")
+	protected boolean workStealing;
+	
+	@SynchronizedBy("thread safe data structure, atomic join in propagate(..)")
+	protected JumpFunctionStore<N,D,V> jumpFn;
 	
 	@SynchronizedBy("thread safe data structure, only modified internally")
 	protected final I icfg;
@@ -95,13 +127,25 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 	@SynchronizedBy("consistent lock on field")
 	protected final Table<N,D,Map<N,Set<D>>> incoming = HashBasedTable.create();
 
+	//replaces endSummary and incoming if enabled, see #setConcurrentSummaries(boolean)
+	@SynchronizedBy("thread safe data structure, only replaced before the solver is started")
+	protected ConcurrentSummaries<N,D,V> concurrentSummaries;
+
+	//persisted summaries of fixed methods, see #setMethodSummaries(MethodSummaries)
+	@DontSynchronize("only written before the solver runs")
+	protected MethodSummaries<N,D,M,V> methodSummaries;
+
+	//set by update(..) to remove contexts that are no longer reached once the exploded super graph is complete again
+	@DontSynchronize("only used by single thread")
+	private boolean removeUnreachableContexts;
+
 	//stores the return sites (inside callers) to which we have unbalanced returns
 	//if followReturnPastSeeds is enabled
 	@SynchronizedBy("use of ConcurrentHashMap")
 	protected final Set<N> unbalancedRetSites;
 
-	@DontSynchronize("stateless")
-	protected final FlowFunctions<N, D, M> flowFunctions;
+	@DontSynchronize("stateless, only replaced before solving")
+	protected FlowFunctions<N, D, M> flowFunctions;
 
 	@DontSynchronize("stateless")
 	protected final EdgeFunctions<N,D,M,V> edgeFunctions;
@@ -118,6 +162,7 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 	@SynchronizedBy("consistent lock on field")
 	protected final Table<N,D,V> val = HashBasedTable.create();	
 	
+	//approximate counts, see #setMetrics(SolverMetrics) for exact counts and durations
 	@DontSynchronize("benign races")
 	public long flowFunctionApplicationCount;
 
@@ -142,18 +187,63 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 	@DontSynchronize("readOnly")
 	protected final EdgeFunctionCache<N,D,M,V> efCache;
 
+	@DontSynchronize("readOnly")
+	protected final EdgeFunctionMemoCache<V> efMemoCache;
+
 	@DontSynchronize("readOnly")
 	protected final boolean followReturnsPastSeeds;
 
 	@DontSynchronize("readOnly")
 	protected final boolean computeValues;
 
+	@DontSynchronize("only written before the solver is started")
+	protected boolean computeValuesOnDemand;
+
+	@SynchronizedBy("thread safe data structure")
+	private final List<JumpFunctionListener<N,D,V>> jumpFunctionListeners = new CopyOnWriteArrayList<JumpFunctionListener<N,D,V>>();
+
+	@SynchronizedBy("thread safe data structure")
+	private final List<PathEdgeListener<N,D>> pathEdgeListeners = new CopyOnWriteArrayList<PathEdgeListener<N,D>>();
+
+	@SynchronizedBy("thread safe data structure")
+	private final Map<N,List<SinkListener<N,D>>> sinkListeners = new ConcurrentHashMap<N,List<SinkListener<N,D>>>();
+
+	//facts that were reported to the sink listeners
+	@SynchronizedBy("thread safe data structure")
+	private final Set<Pair<N,D>> reachedSinks = Collections.newSetFromMap(new ConcurrentHashMap<Pair<N,D>, Boolean>());
+
+	//set by terminate()
+	@DontSynchronize("volatile")
+	private volatile boolean terminated;
+
+	@DontSynchronize("only written before solving")
+	private SolverBudget budget;
+
+	//tracks the budget of the current run; shared by the solvers of a BiDiIDESolver
+	@DontSynchronize("only written before solving")
+	protected SolverBudget.Meter budgetMeter;
+
+	@DontSynchronize("only written before solving")
+	protected SolverMetrics metrics;
+
+	//records witness paths if set, see #setPathRecorder(PathRecorder)
+	@DontSynchronize("only written before solving")
+	protected PathRecorder<N,D> pathRecorder;
+
+	//skips statements irrelevant to a fact if set, see #setFactRelevance(FactRelevance)
+	@DontSynchronize("only written before solving")
+	protected SparseCFG<N,D,M> sparseCFG;
+
+	//replaces val if values are computed on demand, see #setComputeValuesOnDemand(boolean)
+	@DontSynchronize("only written by single thread before results are queried")
+	private DemandDrivenValues<N,D,M,V> demandDrivenValues;
+
 	/**
 	 * Creates a solver for the given problem, which caches flow functions and edge functions.
 	 * The solver must then be started by calling {@link #solve()}.
 	 */
 	public IDESolver(IDETabulationProblem<N,D,M,V,I> tabulationProblem) {
-		this(tabulationProblem, DEFAULT_CACHE_BUILDER, DEFAULT_CACHE_BUILDER);
+		this(tabulationProblem, defaultCacheBuilder().recordStats(), defaultCacheBuilder().recordStats());
 	}
 
 	/**
@@ -163,6 +253,19 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 	 * @param edgeFunctionCacheBuilder A valid {@link CacheBuilder} or <code>null</code> if no caching is to be used for edge functions.
 	 */
 	public IDESolver(IDETabulationProblem<N,D,M,V,I> tabulationProblem, @SuppressWarnings("rawtypes") CacheBuilder flowFunctionCacheBuilder, @SuppressWarnings("rawtypes") CacheBuilder edgeFunctionCacheBuilder) {
+		this(tabulationProblem, flowFunctionCacheBuilder, edgeFunctionCacheBuilder, null);
+	}
+
+	/**
+	 * Creates a solver for the given problem, constructing caches with the given {@link CacheBuilder}. The solver must then be started by calling
+	 * {@link #solve()}.
+	 * @param flowFunctionCacheBuilder A valid {@link CacheBuilder} or <code>null</code> if no caching is to be used for flow functions.
+	 * @param edgeFunctionCacheBuilder A valid {@link CacheBuilder} or <code>null</code> if no caching is to be used for edge functions.
+	 * @param edgeFunctionMemoCacheBuilder A valid {@link CacheBuilder} or <code>null</code> if compositions and joins of edge functions
+	 * are not to be memoized, see {@link EdgeFunctionMemoCache}.
+	 */
+	public IDESolver(IDETabulationProblem<N,D,M,V,I> tabulationProblem, @SuppressWarnings("rawtypes") CacheBuilder flowFunctionCacheBuilder, @SuppressWarnings("rawtypes") CacheBuilder edgeFunctionCacheBuilder,
+			@SuppressWarnings("rawtypes") CacheBuilder edgeFunctionMemoCacheBuilder) {
 		if(logger.isDebugEnabled()) {
 			if(flowFunctionCacheBuilder != null)
 				flowFunctionCacheBuilder = flowFunctionCacheBuilder.recordStats();
@@ -180,11 +283,14 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 		} else {
 			ffCache = null;
 		}
+		efMemoCache = edgeFunctionMemoCacheBuilder==null ? null : new EdgeFunctionMemoCache<V>(edgeFunctionMemoCacheBuilder);
 		if(edgeFunctionCacheBuilder!=null) {
-			efCache = new EdgeFunctionCache<N,D,M,V>(edgeFunctions, edgeFunctionCacheBuilder);
+			efCache = new EdgeFunctionCache<N,D,M,V>(edgeFunctions, edgeFunctionCacheBuilder, efMemoCache);
 			edgeFunctions = efCache;
 		} else {
 			efCache = null;
+			if(efMemoCache!=null)
+				edgeFunctions = efMemoCache.memoize(edgeFunctions);
 		}
 		this.flowFunctions = flowFunctions;
 		this.edgeFunctions = edgeFunctions;
@@ -192,21 +298,288 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 		this.unbalancedRetSites = Collections.newSetFromMap(new ConcurrentHashMap<N, Boolean>());
 		this.valueLattice = tabulationProblem.joinLattice();
 		this.allTop = tabulationProblem.allTopFunction();
-		this.jumpFn = new JumpFunctions<N,D,V>(allTop);
 		this.followReturnsPastSeeds = tabulationProblem.followReturnsPastSeeds();
 		this.numThreads = Math.max(1,tabulationProblem.numThreads());
+		this.jumpFn = new JumpFunctions<N,D,V>(allTop);
 		this.computeValues = tabulationProblem.computeValues();
 		this.executor = getExecutor();
 	}
 
+	/**
+	 * Returns a new builder with the default cache settings. The default constructor makes its builders record
+	 * statistics, which {@link SolverMetrics} reports as hit rates. As each solver owns its builders, this does not
+	 * affect other users of {@link #DEFAULT_CACHE_BUILDER}.
+	 */
+	private static CacheBuilder<Object, Object> defaultCacheBuilder() {
+		return CacheBuilder.newBuilder().concurrencyLevel(Runtime.getRuntime().availableProcessors()).initialCapacity(10000).softValues();
+	}
+
+	/**
+	 * If true, the solver processes its tasks on a {@link WorkStealingExecutor}, which keeps one task deque per worker
+	 * thread instead of a single shared work queue. This reduces contention when processing huge numbers of small tasks
+	 * on many threads. Must be called before the solver is started.
+	 */
+	public void setWorkStealingExecutor(boolean workStealing) {
+		this.workStealing = workStealing;
+		executor.shutdown();
+		executor = getExecutor();
+	}
+
+	/**
+	 * If true, stores the jump functions in a {@link ConcurrentJumpFunctions} store, which is partitioned by target
+	 * statement and does not require a global lock. This pays off when solving with many threads, but uses more memory.
+	 * Must be called before the solver is started.
+	 */
+	public void setConcurrentJumpFunctions(boolean concurrent) {
+		setJumpFunctions(concurrent ? new ConcurrentJumpFunctions<N,D,V>(allTop, numThreads) : new JumpFunctions<N,D,V>(allTop));
+	}
+
+	/**
+	 * If true, stores end summaries and incoming call edges in a {@link ConcurrentSummaries} store, which is partitioned
+	 * by start point and fact. Processing calls and exits then neither takes a global lock nor copies summaries. This pays
+	 * off for methods that are called from many places when solving with many threads. Must be called before the solver is started.
+	 */
+	public void setConcurrentSummaries(boolean concurrent) {
+		this.concurrentSummaries = concurrent ? new ConcurrentSummaries<N,D,V>(numThreads) : null;
+	}
+
+	/**
+	 * If positive, stores the jump functions in a {@link SpillingJumpFunctions} store, which keeps approximately at most
+	 * the given number of bytes of jump functions on the heap. The jump functions of the least recently used methods are
+	 * spilled to a memory-mapped file. This allows solving problems whose jump functions do not fit into memory, at the
+	 * cost of speed. If zero or negative, all jump functions are kept on the heap. Must be called before the solver is started.
+	 */
+	public void setJumpFunctionSpillBudget(long budget) {
+		setJumpFunctions(budget > 0 ? new SpillingJumpFunctions<N,D,M,V>(allTop, icfg, budget) : new JumpFunctions<N,D,V>(allTop));
+	}
+
+	/**
+	 * If true, and if {@link SolverConfiguration#computeValues()} is true, the solver does not compute the values of all nodes
+	 * once the exploded super graph is complete. Instead, {@link #resultAt(Object, Object)} and {@link #resultsAt(Object)}
+	 * compute the values of the queried nodes on demand, from the values at only those start points and call sites they
+	 * depend on, which are memoized. This pays off if only the values at a few nodes are queried. Queries may be issued by
+	 * multiple threads at once. Must be called before the solver is started.
+	 */
+	public void setComputeValuesOnDemand(boolean onDemand) {
+		this.computeValuesOnDemand = onDemand;
+	}
+
+	/**
+	 * Replaces the store of this solver's jump functions by the given empty store. Must be called before the solver is started.
+	 */
+	protected void setJumpFunctions(JumpFunctionStore<N,D,V> jumpFn) {
+		this.jumpFn = jumpFn;
+	}
+
+	/**
+	 * Sets the summaries of fixed methods to use and complete. Calls into a fixed method are not explored
+	 * if the summaries contain the method's end summary for the respective context. Once the exploded super graph
+	 * is complete, the end summaries of all explored summarizable methods are added to the given summaries.
+	 * Must be called before the solver is started.
+	 */
+	public void setMethodSummaries(MethodSummaries<N,D,M,V> methodSummaries) {
+		this.methodSummaries = methodSummaries;
+	}
+
+	/**
+	 * Registers a listener that is notified whenever a jump function is created or updated.
+	 * Must be called before the solver is started.
+	 */
+	public void addJumpFunctionListener(JumpFunctionListener<N,D,V> listener) {
+		jumpFunctionListeners.add(listener);
+	}
+
+	/**
+	 * Registers a listener that is notified whenever a path edge was processed, e.g. a {@link HotspotProfiler}.
+	 * Processing is only timed if there is such a listener. Must be called before the solver is started.
+	 */
+	public void addPathEdgeListener(PathEdgeListener<N,D> listener) {
+		pathEdgeListeners.add(listener);
+	}
+
+	/**
+	 * Registers a listener that is notified as soon as a fact reaches one of the given sinks.
+	 * Must be called before the solver is started.
+	 */
+	public void addSinkListener(Collection<N> sinks, SinkListener<N,D> listener) {
+		for(N sink : sinks) {
+			List<SinkListener<N,D>> listeners = sinkListeners.get(sink);
+			if(listeners==null) {
+				listeners = new CopyOnWriteArrayList<SinkListener<N,D>>();
+				sinkListeners.put(sink, listeners);
+			}
+			listeners.add(listener);
+		}
+	}
+
+	/**
+	 * Stops the solver as soon as possible, e.g. once a listener has obtained all results it needs.
+	 * May be called by any thread, including listeners. The pending tasks are discarded, so the exploded super
+	 * graph is incomplete. Therefore no values are computed and no method summaries are recorded.
+	 */
+	public void terminate() {
+		terminated = true;
+	}
+
+	/**
+	 * Limits the resources spent by each subsequent call to {@link #solve()} or {@link #update(InterproceduralCFGDelta)}.
+	 * Once the budget is exhausted, the solver stops propagating path edges and returns. Unless the heap budget
+	 * was exceeded, values are then computed over the part of the exploded super graph found so far, so the
+	 * results are incomplete. No method summaries are recorded in this case.
+	 * @param budget the budget, or <code>null</code> if the solver may spend unlimited resources
+	 * @see #isComplete()
+	 */
+	public void setBudget(SolverBudget budget) {
+		this.budget = budget;
+	}
+
+	/**
+	 * Records metrics of this solver in the given {@link SolverMetrics}: the number and duration of flow-function
+	 * constructions and applications, the number of scheduled and processed path edges, the time spent waiting
+	 * for the lock on incoming edges and end summaries, and the hit rates of the caches. Hit rates of caches constructed
+	 * with given {@link CacheBuilder}s are only recorded if these builders record statistics. Must be called before
+	 * the solver is started. The metrics can then be reported while solving, see {@link PeriodicReporter}.
+	 */
+	public void setMetrics(final SolverMetrics metrics) {
+		this.metrics = metrics;
+		this.flowFunctions = new ProfiledFlowFunctions<N,D,M>(flowFunctions, metrics);
+		if(ffCache!=null) {
+			metrics.addCache("flowFunctionCache", new Supplier<CacheStats>() {
+				@Override
+				public CacheStats get() {
+					return ffCache.stats();
+				}
+			});
+		}
+		if(efCache!=null) {
+			metrics.addCache("edgeFunctionCache", new Supplier<CacheStats>() {
+				@Override
+				public CacheStats get() {
+					return efCache.stats();
+				}
+			});
+		}
+		if(efMemoCache!=null) {
+			metrics.addCache("edgeFunctionMemoCache.compositions", new Supplier<CacheStats>() {
+				@Override
+				public CacheStats get() {
+					return efMemoCache.compositionStats();
+				}
+			});
+			metrics.addCache("edgeFunctionMemoCache.joins", new Supplier<CacheStats>() {
+				@Override
+				public CacheStats get() {
+					return efMemoCache.joinStats();
+				}
+			});
+		}
+	}
+
+	public SolverMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Records the predecessors of all nodes of the exploded super graph in the given {@link PathRecorder}, from which
+	 * witness paths can be reconstructed after solving. Must be called before the solver is started.
+	 * Calling {@link #update(InterproceduralCFGDelta)} discards the recorded paths, and then only records the paths
+	 * within the contexts that are explored again.
+	 */
+	public void setPathRecorder(PathRecorder<N,D> pathRecorder) {
+		this.pathRecorder = pathRecorder;
+	}
+
+	public PathRecorder<N,D> getPathRecorder() {
+		return pathRecorder;
+	}
+
+	/**
+	 * Makes the solver propagate sparsely: a fact leaving a statement by its normal flow is propagated directly to the
+	 * next statements that are relevant to it according to the given {@link FactRelevance}, or that are calls, exit
+	 * statements or join points, see {@link SparseCFG}. The statements in between are not visited with the fact,
+	 * so the solver neither computes their flow and edge functions for it nor records results at them. Queries at
+	 * such a statement are instead answered from the preceding stop, by applying the normal flow and edge functions
+	 * of the skipped statements at query time. Pass <code>null</code> to visit all statements. Must be called before
+	 * the solver is started.
+	 */
+	public void setFactRelevance(FactRelevance<N,D> relevance) {
+		this.sparseCFG = relevance == null ? null : new SparseCFG<N,D,M>(icfg, relevance);
+	}
+
+	public SparseCFG<N,D,M> getSparseCFG() {
+		return sparseCFG;
+	}
+
+	/**
+	 * Returns the resource whose budget was exhausted by the last run of this solver, or <code>null</code> if none was.
+	 */
+	public SolverBudget.Resource getExhaustedBudget() {
+		return budgetMeter == null ? null : budgetMeter.getExhausted();
+	}
+
+	/**
+	 * Returns <code>true</code> if the last run of this solver computed the complete exploded super graph, i.e.,
+	 * if it was neither terminated nor ran out of its budget.
+	 */
+	public boolean isComplete() {
+		return !isTerminated();
+	}
+
+	private boolean isTerminated() {
+		return terminated || (budgetMeter!=null && budgetMeter.isExhausted());
+	}
+
 	/**
 	 * Runs the solver on the configured problem. This can take some time.
 	 */
 	public void solve() {		
+		if(budget!=null)
+			budgetMeter = budget.startMeter();
 		submitInitialSeeds();
 		awaitCompletionComputeValuesAndShutdown();
 	}
 
+	/**
+	 * Updates the results after the given change to the interprocedural CFG, which the
+	 * {@link InterproceduralCFG} of this solver must already reflect. Can only be called after
+	 * {@link #solve()}, and takes some time as well.
+	 * 
+	 * All contexts of changed methods are invalidated, as well as, transitively, the contexts of
+	 * their callers that applied their end summaries. Their jump functions, end summaries and incoming
+	 * edges are removed, and the exploded super graph is then completed again starting from the initial
+	 * seeds, which only explores the invalidated contexts and reuses the end summaries of all others.
+	 * Contexts that are no longer reached are removed afterwards. Result values are computed again as a whole.
+	 * 
+	 * If the problem follows returns past seeds, this solves the whole problem again, since unbalanced
+	 * returns connect contexts without any incoming edges.
+	 */
+	public void update(InterproceduralCFGDelta<N,M> delta) {
+		if(ffCache!=null)
+			ffCache.invalidateAll();
+		if(efCache!=null)
+			efCache.invalidateAll();
+		val.clear();
+		demandDrivenValues = null;
+		terminated = false;
+		if(pathRecorder!=null)
+			pathRecorder.clear();
+		if(sparseCFG!=null)
+			sparseCFG.clear();
+		executor = getExecutor();
+		if(followReturnsPastSeeds) {
+			jumpFn.clear();
+			endSummary.clear();
+			incoming.clear();
+			if(concurrentSummaries!=null)
+				concurrentSummaries.clear();
+			unbalancedRetSites.clear();
+		} else {
+			invalidateContexts(delta);
+			removeUnreachableContexts = true;
+		}
+		solve();
+	}
+
 	/**
 	 * Schedules the processing of initial seeds, initiating the analysis.
 	 * Clients should only call this methods if performing synchronization on
@@ -216,6 +589,8 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 		for(Entry<N, Set<D>> seed: initialSeeds.entrySet()) {
 			N startPoint = seed.getKey();
 			for(D val: seed.getValue()) {
+				if(pathRecorder!=null)
+					pathRecorder.seed(startPoint, val);
 				propagate(zeroValue, startPoint, val, EdgeIdentity.<V>v(), null, false);
 			}
 			jumpFn.addFunction(zeroValue, startPoint, zeroValue, EdgeIdentity.<V>v());
@@ -233,7 +608,22 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 			runExecutorAndAwaitCompletion();
 			durationFlowFunctionConstruction = System.currentTimeMillis() - before;
 		}
-		if(computeValues) {
+		SolverBudget.Resource exhaustedBudget = getExhaustedBudget();
+		if(exhaustedBudget!=null) {
+			logger.warn("{} budget exhausted after {} path edges, results are incomplete", exhaustedBudget, budgetMeter.getPathEdges());
+		} else if(terminated) {
+			logger.debug("Solver was terminated before the exploded super graph was complete");
+		} else if(removeUnreachableContexts) {
+			removeUnreachableContexts = false;
+			removeUnreachableContexts();
+		}
+		if(methodSummaries!=null && !isTerminated())
+			recordMethodSummaries();
+		if(terminated || exhaustedBudget==SolverBudget.Resource.HEAP) {
+			//values would be incomplete, or would take even more memory
+		} else if(computeValues && computeValuesOnDemand) {
+			demandDrivenValues = new DemandDrivenValues<N,D,M,V>(this);
+		} else if(computeValues) {
 			final long before = System.currentTimeMillis();
 			computeValues();
 			durationFlowFunctionApplication = System.currentTimeMillis() - before;
@@ -255,6 +645,12 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 	 */
 	private void runExecutorAndAwaitCompletion() {
 		try {
+			SolverBudget.Meter meter = budgetMeter;
+			if(meter!=null && meter.remainingMillis()!=Long.MAX_VALUE) {
+				//wake up when the time budget is exceeded, so that long-running tasks do not need to check it
+				executor.awaitCompletion(meter.remainingMillis(), TimeUnit.MILLISECONDS);
+				meter.checkTime();
+			}
 			executor.awaitCompletion();
 		} catch (InterruptedException e) {
 			e.printStackTrace();
@@ -272,8 +668,15 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
     protected void scheduleEdgeProcessing(PathEdge<N,D> edge){
     	// If the executor has been killed, there is little point
     	// in submitting new tasks
-    	if (executor.isTerminating())
+    	if (executor.isTerminating() || isTerminated())
     		return;
+    	if (budgetMeter!=null && !budgetMeter.chargePathEdge())
+    		return;
+    	if (metrics!=null) {
+    		metrics.pathEdgeScheduled();
+    		if (metrics.countsPerMethod())
+    			metrics.propagatedIn(icfg.getMethodOf(edge.getTarget()));
+    	}
     	executor.execute(new PathEdgeProcessingTask(edge));
     	propagationCount++;
     }
@@ -327,23 +730,38 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 			//compute the call-flow function
 			FlowFunction<D> function = flowFunctions.getCallFlowFunction(n, sCalledProcN);
 			flowFunctionConstructionCount++;
+			long before = startTimer();
 			Set<D> res = computeCallFlowFunction(function, d1, d2);
+			stopTimer(FlowFunctionKind.CALL, before);
 			
 			//for each callee's start point(s)
 			Collection<N> startPointsOf = icfg.getStartPointsOf(sCalledProcN);
 			for(N sP: startPointsOf) {
 				//for each result node of the call-flow function
 				for(D d3: res) {
-					//create initial self-loop
-					propagate(d3, sP, d3, EdgeIdentity.<V>v(), n, false); //line 15
-	
-					//register the fact that <sp,d3> has an incoming edge from <n,d2>
-					Set<Cell<N, D, EdgeFunction<V>>> endSumm;
-					synchronized (incoming) {
-						//line 15.1 of Naeem/Lhotak/Rodriguez
-						addIncoming(sP,d3,n,d2);
-						//line 15.2, copy to avoid concurrent modification exceptions by other threads
-						endSumm = new HashSet<Table.Cell<N,D,EdgeFunction<V>>>(endSummary(sP, d3));
+					//if the callee's summary is already known from a previous run, there is no need to explore the callee
+					Iterable<Cell<N, D, EdgeFunction<V>>> endSumm = methodSummaries==null ? null : methodSummaries.endSummary(sCalledProcN, sP, d3);
+					boolean explored = endSumm==null;
+					if(explored) {
+						if(pathRecorder!=null)
+							pathRecorder.callEdge(n, d2, sP, d3);
+						//create initial self-loop
+						propagate(d3, sP, d3, EdgeIdentity.<V>v(), n, false); //line 15
+		
+						//register the fact that <sp,d3> has an incoming edge from <n,d2>
+						if(concurrentSummaries!=null) {
+							//lines 15.1 and 15.2 of Naeem/Lhotak/Rodriguez, without global lock or copying
+							endSumm = concurrentSummaries.addIncoming(sP,d3,n,d2);
+						} else {
+							long beforeLock = startTimer();
+							synchronized (incoming) {
+								lockAcquired(beforeLock);
+								//line 15.1 of Naeem/Lhotak/Rodriguez
+								addIncoming(sP,d3,n,d2);
+								//line 15.2, copy to avoid concurrent modification exceptions by other threads
+								endSumm = new HashSet<Table.Cell<N,D,EdgeFunction<V>>>(endSummary(sP, d3));
+							}
+						}
 					}
 					
 					//still line 15.2 of Naeem/Lhotak/Rodriguez
@@ -354,18 +772,26 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 						N eP = entry.getRowKey();
 						D d4 = entry.getColumnKey();
 						EdgeFunction<V> fCalleeSummary = entry.getValue();
+						//persisted summaries are not memoized yet
+						if(efMemoCache!=null)
+							fCalleeSummary = efMemoCache.memoize(fCalleeSummary);
 						//for each return site
 						for(N retSiteN: returnSiteNs) {
 							//compute return-flow function
 							FlowFunction<D> retFunction = flowFunctions.getReturnFlowFunction(n, sCalledProcN, eP, retSiteN);
 							flowFunctionConstructionCount++;
+							long beforeReturn = startTimer();
+							Set<D> retTargets = computeReturnFlowFunction(retFunction, d3, d4, n, Collections.singleton(d2));
+							stopTimer(FlowFunctionKind.RETURN, beforeReturn);
 							//for each target value of the function
-							for(D d5: computeReturnFlowFunction(retFunction, d3, d4, n, Collections.singleton(d2))) {
+							for(D d5: retTargets) {
 								//update the caller-side summary function
 								EdgeFunction<V> f4 = edgeFunctions.getCallEdgeFunction(n, d2, sCalledProcN, d3);
 								EdgeFunction<V> f5 = edgeFunctions.getReturnEdgeFunction(n, sCalledProcN, eP, d4, retSiteN, d5);
 								EdgeFunction<V> fPrime = f4.composeWith(fCalleeSummary).composeWith(f5);					
 								D d5_restoredCtx = restoreContextOnReturnedFact(d2, d5);
+								if(pathRecorder!=null)
+									recordReturnEdge(explored, n, d2, eP, d4, retSiteN, d5_restoredCtx);
 								propagate(d1, retSiteN, d5_restoredCtx, f.composeWith(fPrime), n, false);
 							}
 						}
@@ -378,13 +804,29 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 		for (N returnSiteN : returnSiteNs) {
 			FlowFunction<D> callToReturnFlowFunction = flowFunctions.getCallToReturnFlowFunction(n, returnSiteN);
 			flowFunctionConstructionCount++;
-			for(D d3: computeCallToReturnFlowFunction(callToReturnFlowFunction, d1, d2)) {
+			long before = startTimer();
+			Set<D> res = computeCallToReturnFlowFunction(callToReturnFlowFunction, d1, d2);
+			stopTimer(FlowFunctionKind.CALL_TO_RETURN, before);
+			for(D d3: res) {
 				EdgeFunction<V> edgeFnE = edgeFunctions.getCallToReturnEdgeFunction(n, d2, returnSiteN, d3);
+				if(pathRecorder!=null)
+					pathRecorder.intraEdge(n, d2, returnSiteN, d3);
 				propagate(d1, returnSiteN, d3, f.composeWith(edgeFnE), n, false);
 			}
 		}
 	}
 
+	/**
+	 * Records the edge from the exit of a callee to a return site, where the callee's summary was applied at the call.
+	 * If the callee was not explored because its summary was persisted, records an edge past the call instead.
+	 */
+	private void recordReturnEdge(boolean calleeExplored, N n, D d2, N eP, D d4, N retSiteN, D d5) {
+		if(calleeExplored)
+			pathRecorder.returnEdge(n, d2, eP, d4, retSiteN, d5);
+		else
+			pathRecorder.intraEdge(n, d2, retSiteN, d5);
+	}
+
 	/**
 	 * Computes the call flow function for the given call-site abstraction
 	 * @param callFlowFunction The call flow function to compute
@@ -430,22 +872,34 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 		
 		//for each of the method's start points, determine incoming calls
 		Collection<N> startPointsOf = icfg.getStartPointsOf(methodThatNeedsSummary);
-		Map<N,Set<D>> inc = new HashMap<N,Set<D>>();
-		for(N sP: startPointsOf) {
-			//line 21.1 of Naeem/Lhotak/Rodriguez
-			
-			//register end-summary
-			synchronized (incoming) {
-				addEndSummary(sP, d1, n, d2, f);
-				//copy to avoid concurrent modification exceptions by other threads
-				for (Entry<N, Set<D>> entry : incoming(d1, sP).entrySet())
-					inc.put(entry.getKey(), new HashSet<D>(entry.getValue()));
+		Iterable<Entry<N,Set<D>>> inc;
+		if(concurrentSummaries!=null) {
+			//line 21.1 of Naeem/Lhotak/Rodriguez, without global lock or copying
+			List<Iterable<Entry<N,Set<D>>>> incPerStartPoint = new ArrayList<Iterable<Entry<N,Set<D>>>>(startPointsOf.size());
+			for(N sP: startPointsOf)
+				incPerStartPoint.add(concurrentSummaries.addEndSummary(sP, d1, n, d2, f));
+			inc = Iterables.concat(incPerStartPoint);
+		} else {
+			Map<N,Set<D>> incCopy = new HashMap<N,Set<D>>();
+			for(N sP: startPointsOf) {
+				//line 21.1 of Naeem/Lhotak/Rodriguez
+				
+				//register end-summary
+				long beforeLock = startTimer();
+				synchronized (incoming) {
+					lockAcquired(beforeLock);
+					addEndSummary(sP, d1, n, d2, f);
+					//copy to avoid concurrent modification exceptions by other threads
+					for (Entry<N, Set<D>> entry : incoming(d1, sP).entrySet())
+						incCopy.put(entry.getKey(), new HashSet<D>(entry.getValue()));
+				}
 			}
+			inc = incCopy.entrySet();
 		}
 		
 		//for each incoming call edge already processed
 		//(see processCall(..))
-		for (Entry<N,Set<D>> entry: inc.entrySet()) {
+		for (Entry<N,Set<D>> entry: inc) {
 			//line 22
 			N c = entry.getKey();
 			//for each return site
@@ -455,7 +909,9 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 				flowFunctionConstructionCount++;
 				//for each incoming-call value
 				for(D d4: entry.getValue()) {
+					long before = startTimer();
 					Set<D> targets = computeReturnFlowFunction(retFunction, d1, d2, c, entry.getValue());
+					stopTimer(FlowFunctionKind.RETURN, before);
 					//for each target value at the return site
 					//line 23
 					for(D d5: targets) {
@@ -464,14 +920,15 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 						EdgeFunction<V> f5 = edgeFunctions.getReturnEdgeFunction(c, icfg.getMethodOf(n), n, d2, retSiteC, d5);
 						EdgeFunction<V> fPrime = f4.composeWith(f).composeWith(f5);
 						//for each jump function coming into the call, propagate to return site using the composed function
-						synchronized (jumpFn) { // some other thread might change jumpFn on the way
-							for(Map.Entry<D,EdgeFunction<V>> valAndFunc: jumpFn.reverseLookup(c,d4).entrySet()) {
-								EdgeFunction<V> f3 = valAndFunc.getValue();
-								if(!f3.equalTo(allTop)) {
-									D d3 = valAndFunc.getKey();
-									D d5_restoredCtx = restoreContextOnReturnedFact(d4, d5);
-									propagate(d3, retSiteC, d5_restoredCtx, f3.composeWith(fPrime), c, false);
-								}
+						//(some other thread might change jumpFn on the way, but functions added later will see our end summary)
+						for(Map.Entry<D,EdgeFunction<V>> valAndFunc: jumpFn.reverseLookupForIteration(c,d4).entrySet()) {
+							EdgeFunction<V> f3 = valAndFunc.getValue();
+							if(!f3.equalTo(allTop)) {
+								D d3 = valAndFunc.getKey();
+								D d5_restoredCtx = restoreContextOnReturnedFact(d4, d5);
+								if(pathRecorder!=null)
+									pathRecorder.returnEdge(c, d4, n, d2, retSiteC, d5_restoredCtx);
+								propagate(d3, retSiteC, d5_restoredCtx, f3.composeWith(fPrime), c, false);
 							}
 						}
 					}
@@ -482,16 +939,20 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 		//handling for unbalanced problems where we return out of a method with a fact for which we have no incoming flow
 		//note: we propagate that way only values that originate from ZERO, as conditionally generated values should only
 		//be propagated into callers that have an incoming edge for this condition
-		if(followReturnsPastSeeds && inc.isEmpty() && d1.equals(zeroValue)) {
+		if(followReturnsPastSeeds && Iterables.isEmpty(inc) && d1.equals(zeroValue)) {
 			// only propagate up if we 
 				Collection<N> callers = icfg.getCallersOf(methodThatNeedsSummary);
 				for(N c: callers) {
 					for(N retSiteC: icfg.getReturnSitesOfCallAt(c)) {
 						FlowFunction<D> retFunction = flowFunctions.getReturnFlowFunction(c, methodThatNeedsSummary,n,retSiteC);
 						flowFunctionConstructionCount++;
+						long before = startTimer();
 						Set<D> targets = computeReturnFlowFunction(retFunction, d1, d2, c, Collections.singleton(zeroValue));
+						stopTimer(FlowFunctionKind.RETURN, before);
 						for(D d5: targets) {
 							EdgeFunction<V> f5 = edgeFunctions.getReturnEdgeFunction(c, icfg.getMethodOf(n), n, d2, retSiteC, d5);
+							if(pathRecorder!=null)
+								pathRecorder.intraEdge(n, d2, retSiteC, d5);
 							propagateUnbalancedReturnFlow(retSiteC, d5, f.composeWith(f5), c);
 							//register for value processing (2nd IDE phase)
 							unbalancedRetSites.add(retSiteC);
@@ -565,14 +1026,45 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 		for (N m : icfg.getSuccsOf(n)) {
 			FlowFunction<D> flowFunction = flowFunctions.getNormalFlowFunction(n,m);
 			flowFunctionConstructionCount++;
+			long before = startTimer();
 			Set<D> res = computeNormalFlowFunction(flowFunction, d1, d2);
+			stopTimer(FlowFunctionKind.NORMAL, before);
 			for (D d3 : res) {
 				EdgeFunction<V> fprime = f.composeWith(edgeFunctions.getNormalEdgeFunction(n, d2, m, d3));
-				propagate(d1, m, d3, fprime, null, false); 
+				if(sparseCFG==null) {
+					propagateNormalFlow(d1, n, d2, m, d3, fprime);
+				} else {
+					//statements skipped in sparse mode have identity edge functions, so fprime also holds at the next stops
+					for (N stop : sparseCFG.getStops(m, d3))
+						propagateNormalFlow(d1, n, d2, stop, d3, fprime);
+				}
 			}
 		}
 	}
 	
+	private void propagateNormalFlow(D d1, N n, D d2, N m, D d3, EdgeFunction<V> fprime) {
+		if(pathRecorder!=null)
+			pathRecorder.intraEdge(n, d2, m, d3);
+		propagate(d1, m, d3, fprime, null, false);
+	}
+
+	/**
+	 * Returns the current time in nanoseconds if metrics are recorded, zero otherwise.
+	 */
+	private long startTimer() {
+		return metrics==null ? 0 : System.nanoTime();
+	}
+
+	private void stopTimer(FlowFunctionKind kind, long before) {
+		if(metrics!=null)
+			metrics.flowFunctionApplied(kind, System.nanoTime() - before);
+	}
+
+	private void lockAcquired(long before) {
+		if(metrics!=null)
+			metrics.lockAcquired(System.nanoTime() - before);
+	}
+
 	/**
 	 * Computes the normal flow function for the given set of start and end
 	 * abstractions-
@@ -601,21 +1093,13 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 	protected void propagate(D sourceVal, N target, D targetVal, EdgeFunction<V> f,
 		/* deliberately exposed to clients */ N relatedCallSite,
 		/* deliberately exposed to clients */ boolean isUnbalancedReturn) {
-		EdgeFunction<V> jumpFnE;
-		EdgeFunction<V> fPrime;
-		boolean newFunction;
-		synchronized (jumpFn) {
-			jumpFnE = jumpFn.reverseLookup(target, targetVal).get(sourceVal);
-			if(jumpFnE==null) jumpFnE = allTop; //JumpFn is initialized to all-top (see line [2] in SRH96 paper)
-			fPrime = jumpFnE.joinWith(f);
-			newFunction = !fPrime.equalTo(jumpFnE);
-			if(newFunction) {
-				jumpFn.addFunction(sourceVal, target, targetVal, fPrime);
-			}
-		}
+		//atomically joins f with the current jump function, which is initially all-top (see line [2] in SRH96 paper)
+		EdgeFunction<V> fPrime = jumpFn.joinAndAddIfChanged(sourceVal, target, targetVal, f);
 
-		if(newFunction) {
+		if(fPrime!=null) {
 			PathEdge<N,D> edge = new PathEdge<N,D>(sourceVal, target, targetVal);
+			//listeners are notified first, so that they can terminate the solver before the edge is processed
+			notifyListeners(sourceVal, target, targetVal, fPrime);
 			scheduleEdgeProcessing(edge);
 
             if(targetVal!=zeroValue) {
@@ -624,6 +1108,21 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 		}
 	}
 	
+	/**
+	 * Notifies the listeners of a created or updated jump function.
+	 */
+	protected void notifyListeners(D sourceVal, N target, D targetVal, EdgeFunction<V> function) {
+		for(JumpFunctionListener<N,D,V> listener : jumpFunctionListeners)
+			listener.jumpFunctionChanged(sourceVal, target, targetVal, function);
+		if(targetVal!=zeroValue) {
+			List<SinkListener<N,D>> listeners = sinkListeners.get(target);
+			if(listeners!=null && reachedSinks.add(new Pair<N,D>(target, targetVal))) {
+				for(SinkListener<N,D> listener : listeners)
+					listener.reachedSink(target, targetVal);
+			}
+		}
+	}
+
 	/**
 	 * Computes the final values for edge functions.
 	 */
@@ -658,14 +1157,28 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 		}
 		
 		//Phase II(ii)
-		//we create an array of all nodes and then dispatch fractions of this array to multiple threads
+		//we create an array of all nodes and then dispatch fractions of this array to multiple threads;
+		//the nodes are grouped by method, such that each thread visits the jump functions of one method
+		//after the other, which matters if they are spilled (see SpillingJumpFunctions)
 		Set<N> allNonCallStartNodes = icfg.allNonCallStartNodes();
+		Map<M,List<N>> nodesByMethod = new LinkedHashMap<M,List<N>>();
+		for (N n : allNonCallStartNodes) {
+			M method = icfg.getMethodOf(n);
+			List<N> nodes = nodesByMethod.get(method);
+			if(nodes==null) {
+				nodes = new ArrayList<N>();
+				nodesByMethod.put(method, nodes);
+			}
+			nodes.add(n);
+		}
 		@SuppressWarnings("unchecked")
 		N[] nonCallStartNodesArray = (N[]) new Object[allNonCallStartNodes.size()];
 		int i=0;
-		for (N n : allNonCallStartNodes) {
-			nonCallStartNodesArray[i] = n;
-			i++;
+		for (List<N> nodes : nodesByMethod.values()) {
+			for (N n : nodes) {
+				nonCallStartNodesArray[i] = n;
+				i++;
+			}
 		}
 		//No need to keep track of the number of tasks scheduled here, since we call shutdown
 		for(int t=0;t<numThreads; t++) {
@@ -684,16 +1197,13 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 		D d = nAndD.getO2();		
 		M p = icfg.getMethodOf(n);
 		for(N c: icfg.getCallsFromWithin(p)) {					
-			Set<Entry<D, EdgeFunction<V>>> entries; 
-			synchronized (jumpFn) {
-				entries = jumpFn.forwardLookup(d,c).entrySet();
-				for(Map.Entry<D,EdgeFunction<V>> dPAndFP: entries) {
-					D dPrime = dPAndFP.getKey();
-					EdgeFunction<V> fPrime = dPAndFP.getValue();
-					N sP = n;
-					propagateValue(c,dPrime,fPrime.computeTarget(val(sP,d)));
-					flowFunctionApplicationCount++;
-				}
+			//no need to synchronize on jumpFn, it is not modified any more during Phase II
+			for(Map.Entry<D,EdgeFunction<V>> dPAndFP: jumpFn.forwardLookup(d,c).entrySet()) {
+				D dPrime = dPAndFP.getKey();
+				EdgeFunction<V> fPrime = dPAndFP.getValue();
+				N sP = n;
+				propagateValue(c,dPrime,fPrime.computeTarget(val(sP,d)));
+				flowFunctionApplicationCount++;
 			}
 		}
 	}
@@ -744,15 +1254,26 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
         logger.debug("VALUE: {} {} {} {}", icfg.getMethodOf(nHashN), nHashN, nHashD, l);
 	}
 
-	private EdgeFunction<V> jumpFunction(PathEdge<N,D> edge) {
-		synchronized (jumpFn) {
-			EdgeFunction<V> function = jumpFn.forwardLookup(edge.factAtSource(), edge.getTarget()).get(edge.factAtTarget());
-			if(function==null) return allTop; //JumpFn initialized to all-top, see line [2] in SRH96 paper
-			return function;
+	/**
+	 * Joins the given values at a node into the values computed so far, taking the lock on {@link #val} only once.
+	 */
+	private void setVals(N n, Map<D,V> vals) {
+		if(vals.isEmpty())
+			return;
+		synchronized (val) {
+			for(Entry<D,V> dAndV : vals.entrySet())
+				setVal(n, dAndV.getKey(), valueLattice.join(val(n, dAndV.getKey()), dAndV.getValue()));
 		}
 	}
 
+	private EdgeFunction<V> jumpFunction(PathEdge<N,D> edge) {
+		EdgeFunction<V> function = jumpFn.getFunction(edge.factAtSource(), edge.getTarget(), edge.factAtTarget());
+		if(function==null) return allTop; //JumpFn initialized to all-top, see line [2] in SRH96 paper
+		return function;
+	}
+
 	protected Set<Cell<N, D, EdgeFunction<V>>> endSummary(N sP, D d3) {
+		if(concurrentSummaries!=null) return concurrentSummaries.endSummary(sP, d3);
 		Table<N, D, EdgeFunction<V>> map = endSummary.get(sP, d3);
 		if(map==null) return Collections.emptySet();
 		return map.cellSet();
@@ -771,6 +1292,7 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 	}	
 	
 	protected Map<N, Set<D>> incoming(D d1, N sP) {
+		if(concurrentSummaries!=null) return concurrentSummaries.incoming(sP, d1);
 		synchronized (incoming) {
 			Map<N, Set<D>> map = incoming.get(sP, d1);
 			if(map==null) return Collections.emptyMap();
@@ -779,6 +1301,10 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 	}
 	
 	protected void addIncoming(N sP, D d3, N n, D d2) {
+		if(concurrentSummaries!=null) {
+			concurrentSummaries.addIncoming(sP, d3, n, d2);
+			return;
+		}
 		synchronized (incoming) {
 			Map<N, Set<D>> summaries = incoming.get(sP, d3);
 			if(summaries==null) {
@@ -794,11 +1320,245 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 		}
 	}	
 	
+	/**
+	 * Adds the end summaries of all contexts of summarizable methods that were entered through
+	 * calls to {@link #methodSummaries}. Contexts of initial seeds and of methods with unbalanced
+	 * returns are skipped, since their summaries depend on the seeds.
+	 */
+	protected void recordMethodSummaries() {
+		Set<Pair<N,D>> contexts = new HashSet<Pair<N,D>>();
+		if(concurrentSummaries!=null) {
+			contexts.addAll(concurrentSummaries.contexts());
+		} else {
+			for(Cell<N, D, Map<N, Set<D>>> cell: incoming.cellSet())
+				contexts.add(new Pair<N,D>(cell.getRowKey(), cell.getColumnKey()));
+		}
+		Set<M> unbalancedMethods = new HashSet<M>();
+		for(N retSite: unbalancedRetSites)
+			unbalancedMethods.add(icfg.getMethodOf(retSite));
+		for(Pair<N,D> context: contexts) {
+			N sP = context.getO1();
+			D d1 = context.getO2();
+			if(initialSeeds.containsKey(sP) || incoming(d1, sP).isEmpty())
+				continue;
+			M method = icfg.getMethodOf(sP);
+			if(!unbalancedMethods.contains(method) && methodSummaries.isSummarizable(method, icfg))
+				methodSummaries.put(sP, d1, endSummary(sP, d1));
+		}
+	}
+
+	/**
+	 * Removes the jump functions, end summaries and incoming edges of all contexts that may be affected
+	 * by the given change. A context is a method and the fact at its start points.
+	 */
+	private void invalidateContexts(InterproceduralCFGDelta<N,M> delta) {
+		//the changed methods' nodes are no longer known to the ICFG
+		Map<N,M> previousMethods = new HashMap<N,M>();
+		for(M m: delta.getChangedMethods())
+			for(N n: delta.getPreviousNodesOf(m))
+				previousMethods.put(n, m);
+
+		//all contexts of changed methods are invalid...
+		Set<Pair<M,D>> invalid = new LinkedHashSet<Pair<M,D>>();
+		Deque<Pair<M,D>> worklist = new ArrayDeque<Pair<M,D>>();
+		for(Entry<N,M> node: previousMethods.entrySet()) {
+			for(Cell<D,D,EdgeFunction<V>> cell: jumpFn.lookupByTarget(node.getKey())) {
+				Pair<M,D> context = new Pair<M,D>(node.getValue(), cell.getRowKey());
+				if(invalid.add(context))
+					worklist.add(context);
+			}
+		}
+		//...and so are the contexts of all callers that applied their end summaries
+		while(!worklist.isEmpty()) {
+			Pair<M,D> context = worklist.removeFirst();
+			for(N sP: entryPointsOf(context.getO1(), delta)) {
+				for(Entry<N,Set<D>> inc: incoming(context.getO2(), sP).entrySet()) {
+					N c = inc.getKey();
+					M caller = methodOf(c, previousMethods);
+					for(D d2: inc.getValue()) {
+						for(D d1: jumpFn.reverseLookup(c, d2).keySet()) {
+							Pair<M,D> callerContext = new Pair<M,D>(caller, d1);
+							if(invalid.add(callerContext))
+								worklist.add(callerContext);
+						}
+					}
+				}
+			}
+		}
+
+		//remove the incoming edges from call sites that are only reached within invalid contexts;
+		//they are registered again if the call sites are reached again
+		for(Pair<N,D> context: contexts()) {
+			N sP = context.getO1();
+			D d3 = context.getO2();
+			for(Entry<N,Set<D>> inc: copyOf(incoming(d3, sP))) {
+				N c = inc.getKey();
+				M caller = methodOf(c, previousMethods);
+				for(D d2: inc.getValue()) {
+					boolean reachedInValidContext = false;
+					for(D d1: jumpFn.reverseLookup(c, d2).keySet())
+						reachedInValidContext |= !invalid.contains(new Pair<M,D>(caller, d1));
+					if(!reachedInValidContext)
+						removeIncoming(sP, d3, c, d2);
+				}
+			}
+		}
+
+		for(Pair<M,D> context: invalid) {
+			M m = context.getO1();
+			removeContext(m, context.getO2(), nodesOf(m, delta), entryPointsOf(m, delta));
+		}
+	}
+
+	/**
+	 * Removes the contexts that were not reached again after {@link #update(InterproceduralCFGDelta)},
+	 * i.e., those that have no incoming edges left and are not initial seeds.
+	 */
+	private void removeUnreachableContexts() {
+		boolean changed = true;
+		while(changed) {
+			changed = false;
+			Set<Pair<M,D>> unreachable = new LinkedHashSet<Pair<M,D>>();
+			Set<Pair<M,D>> reachable = new HashSet<Pair<M,D>>();
+			for(N seed: initialSeeds.keySet())
+				reachable.add(new Pair<M,D>(icfg.getMethodOf(seed), zeroValue));
+			for(Pair<N,D> context: contexts()) {
+				N sP = context.getO1();
+				D d1 = context.getO2();
+				Pair<M,D> methodContext = new Pair<M,D>(icfg.getMethodOf(sP), d1);
+				//remove incoming edges from call sites that are no longer reached with the respective fact
+				for(Entry<N,Set<D>> inc: copyOf(incoming(d1, sP))) {
+					for(D d2: inc.getValue())
+						if(jumpFn.reverseLookup(inc.getKey(), d2).isEmpty())
+							removeIncoming(sP, d1, inc.getKey(), d2);
+				}
+				if(incoming(d1, sP).isEmpty())
+					unreachable.add(methodContext);
+				else
+					reachable.add(methodContext);
+			}
+			//a context may be reached through any of the method's start points
+			unreachable.removeAll(reachable);
+			for(Pair<M,D> context: unreachable) {
+				M m = context.getO1();
+				removeContext(m, context.getO2(), nodesOf(m, null), icfg.getStartPointsOf(m));
+				changed = true;
+			}
+		}
+	}
+
+	/**
+	 * Removes all jump functions, end summaries and incoming edges of the given method and fact at its start points.
+	 */
+	private void removeContext(M m, D d1, Collection<N> nodes, Collection<N> entryPoints) {
+		for(N n: nodes)
+			for(D d2: new ArrayList<D>(jumpFn.forwardLookup(d1, n).keySet()))
+				jumpFn.removeFunction(d1, n, d2);
+		for(N sP: entryPoints) {
+			if(concurrentSummaries!=null) {
+				concurrentSummaries.removeContext(sP, d1);
+			} else {
+				synchronized (incoming) {
+					endSummary.remove(sP, d1);
+					incoming.remove(sP, d1);
+				}
+			}
+		}
+	}
+
+	private void removeIncoming(N sP, D d1, N n, D d2) {
+		if(concurrentSummaries!=null) {
+			concurrentSummaries.removeIncoming(sP, d1, n, d2);
+			return;
+		}
+		synchronized (incoming) {
+			Map<N, Set<D>> summaries = incoming.get(sP, d1);
+			if(summaries==null) return;
+			Set<D> set = summaries.get(n);
+			if(set==null) return;
+			set.remove(d2);
+			if(set.isEmpty())
+				summaries.remove(n);
+		}
+	}
+
+	/**
+	 * Returns all start points and facts for which incoming edges or end summaries are known.
+	 */
+	private Set<Pair<N,D>> contexts() {
+		Set<Pair<N,D>> contexts = new LinkedHashSet<Pair<N,D>>();
+		if(concurrentSummaries!=null) {
+			contexts.addAll(concurrentSummaries.contexts());
+			return contexts;
+		}
+		synchronized (incoming) {
+			for(Cell<N, D, Map<N, Set<D>>> cell: incoming.cellSet())
+				contexts.add(new Pair<N,D>(cell.getRowKey(), cell.getColumnKey()));
+			for(Cell<N, D, Table<N, D, EdgeFunction<V>>> cell: endSummary.cellSet())
+				contexts.add(new Pair<N,D>(cell.getRowKey(), cell.getColumnKey()));
+		}
+		return contexts;
+	}
+
+	private List<Entry<N,Set<D>>> copyOf(Map<N,Set<D>> incoming) {
+		List<Entry<N,Set<D>>> copy = new ArrayList<Entry<N,Set<D>>>();
+		for(Entry<N,Set<D>> entry: incoming.entrySet())
+			copy.add(new SimpleImmutableEntry<N,Set<D>>(entry.getKey(), new HashSet<D>(entry.getValue())));
+		return copy;
+	}
+
+	private M methodOf(N n, Map<N,M> previousMethods) {
+		M m = previousMethods.get(n);
+		return m!=null ? m : icfg.getMethodOf(n);
+	}
+
+	/**
+	 * Returns the nodes of the given method, as they were before the change if the method has changed.
+	 */
+	private Collection<N> nodesOf(M m, InterproceduralCFGDelta<N,M> delta) {
+		if(delta!=null && delta.getChangedMethods().contains(m))
+			return delta.getPreviousNodesOf(m);
+		Set<N> nodes = new LinkedHashSet<N>(icfg.getStartPointsOf(m));
+		Deque<N> worklist = new ArrayDeque<N>(nodes);
+		while(!worklist.isEmpty()) {
+			N n = worklist.removeFirst();
+			List<N> succs = new ArrayList<N>(icfg.getSuccsOf(n));
+			if(icfg.isCallStmt(n))
+				succs.addAll(icfg.getReturnSitesOfCallAt(n));
+			for(N succ: succs)
+				if(nodes.add(succ))
+					worklist.add(succ);
+		}
+		return nodes;
+	}
+
+	/**
+	 * Returns the nodes of the given method that may have been used as start points.
+	 */
+	private Collection<N> entryPointsOf(M m, InterproceduralCFGDelta<N,M> delta) {
+		if(!delta.getChangedMethods().contains(m))
+			return icfg.getStartPointsOf(m);
+		Set<N> entryPoints = new LinkedHashSet<N>(icfg.getStartPointsOf(m));
+		entryPoints.addAll(delta.getPreviousNodesOf(m));
+		return entryPoints;
+	}
+
 	/**
 	 * Returns the V-type result for the given value at the given statement.
-	 * TOP values are never returned.
+	 * TOP values are never returned. If values are computed on demand, this computes
+	 * the value if it was not queried before; see {@link #setComputeValuesOnDemand(boolean)}.
+	 * In sparse mode, results at statements skipped by the value are derived from the preceding stop;
+	 * see {@link #setFactRelevance(FactRelevance)}.
 	 */
 	public V resultAt(N stmt, D value) {
+		if(sparseCFG!=null && !sparseCFG.isStop(stmt, value)) {
+			V result = sparseResultsAt(stmt).get(value);
+			return result == valueLattice.topElement() ? null : result;
+		}
+		if(demandDrivenValues!=null) {
+			V result = demandDrivenValues.resultAt(stmt, value);
+			return result == valueLattice.topElement() ? null : result;
+		}
 		//no need to synchronize here as all threads are known to have terminated
 		return val.get(stmt, value);
 	}
@@ -806,9 +1566,21 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 	/**
 	 * Returns the resulting environment for the given statement.
 	 * The artificial zero value is automatically stripped. TOP values are
-	 * never returned.
+	 * never returned. If values are computed on demand, this computes the values
+	 * that were not queried before; see {@link #setComputeValuesOnDemand(boolean)}.
+	 * In sparse mode, this includes the values skipping the statement, derived from the preceding stop;
+	 * see {@link #setFactRelevance(FactRelevance)}.
 	 */
 	public Map<D,V> resultsAt(N stmt) {
+		if(demandDrivenValues!=null || sparseCFG!=null) {
+			Map<D,V> results = sparseCFG!=null ? sparseResultsAt(stmt) : demandDrivenValues.resultsAt(stmt);
+			for(Iterator<Entry<D,V>> iter = results.entrySet().iterator(); iter.hasNext(); ) {
+				Entry<D,V> dAndV = iter.next();
+				if(dAndV.getKey()==zeroValue || dAndV.getValue()==valueLattice.topElement())
+					iter.remove();
+			}
+			return results;
+		}
 		//filter out the artificial zero-value
 		//no need to synchronize here as all threads are known to have terminated
 		return Maps.filterKeys(val.row(stmt), new Predicate<D>() {
@@ -819,10 +1591,67 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 		});
 	}
 	
+	/**
+	 * Returns the values of all facts at the given statement in sparse mode, including the zero value and possibly top.
+	 * The values of facts skipping the statement are not recorded. As skipped statements are no join points, they are
+	 * derived by walking back along the unique predecessors to the closest statement at which all facts stop, or to
+	 * a start point or return site, whose facts are all propagated to it directly, and applying the normal flow and edge functions from there.
+	 * Facts stopping at a statement on the way are recorded at it and hence not derived.
+	 */
+	private Map<D,V> sparseResultsAt(N stmt) {
+		Deque<N> path = new ArrayDeque<N>();
+		Set<N> visited = new HashSet<N>();
+		N curr = stmt;
+		visited.add(curr);
+		while(!sparseCFG.isStopForAllFacts(curr)) {
+			//facts at start points come from calls or seeds and are propagated there directly
+			Collection<N> preds = icfg.getPredsOf(curr);
+			if(preds.isEmpty())
+				break;
+			N pred = preds.iterator().next();
+			//a loop of skipped statements without entry is unreachable
+			if(icfg.isCallStmt(pred) || !visited.add(pred))
+				break;
+			path.push(curr);
+			curr = pred;
+		}
+		Map<D,V> results = recordedResultsAt(curr);
+		while(!path.isEmpty()) {
+			N succ = path.pop();
+			Map<D,V> succResults = recordedResultsAt(succ);
+			FlowFunction<D> flowFunction = flowFunctions.getNormalFlowFunction(curr, succ);
+			for(Entry<D,V> dAndV : results.entrySet()) {
+				D d = dAndV.getKey();
+				if(dAndV.getValue()==valueLattice.topElement())
+					continue;
+				for(D d3 : flowFunction.computeTargets(d)) {
+					if(sparseCFG.isStop(succ, d3))
+						continue;
+					V v = edgeFunctions.getNormalEdgeFunction(curr, d, succ, d3).computeTarget(dAndV.getValue());
+					V existing = succResults.get(d3);
+					succResults.put(d3, existing==null ? v : valueLattice.join(existing, v));
+				}
+			}
+			results = succResults;
+			curr = succ;
+		}
+		return results;
+	}
+
+	private Map<D,V> recordedResultsAt(N stmt) {
+		if(demandDrivenValues!=null)
+			return demandDrivenValues.resultsAt(stmt);
+		//no need to synchronize here as all threads are known to have terminated
+		return new LinkedHashMap<D,V>(val.row(stmt));
+	}
+
 	/**
 	 * Factory method for this solver's thread-pool executor.
+	 * @see #setWorkStealingExecutor(boolean)
 	 */
-	protected CountingThreadPoolExecutor getExecutor() {
+	protected AwaitableExecutor getExecutor() {
+		if(workStealing)
+			return new WorkStealingExecutor(this.numThreads);
 		return new CountingThreadPoolExecutor(1, this.numThreads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
 	}
 	
@@ -840,19 +1669,50 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 				ffCache.printStats();
 			if(efCache!=null)
 				efCache.printStats();
+			if(efMemoCache!=null)
+				efMemoCache.printStats();
 		} else {
 			logger.info("No statistics were collected, as DEBUG is disabled.");
 		}
 	}
 	
-	private class PathEdgeProcessingTask implements Runnable {
+	/**
+	 * Returns the priority of processing the given edge, where higher values are processed first. Only executors
+	 * with a priority queue take priorities into account, see {@link PrioritizedTask}. This implementation returns 0.
+	 */
+	protected int priorityOf(PathEdge<N,D> edge) {
+		return 0;
+	}
+
+	private class PathEdgeProcessingTask implements PrioritizedTask {
 		private final PathEdge<N,D> edge;
 
 		public PathEdgeProcessingTask(PathEdge<N,D> edge) {
 			this.edge = edge;
 		}
 
+		public int priority() {
+			return priorityOf(edge);
+		}
+
 		public void run() {
+			try {
+				if(isTerminated())
+					return;
+				long before = pathEdgeListeners.isEmpty() ? 0 : System.nanoTime();
+				process();
+				if(!pathEdgeListeners.isEmpty()) {
+					long nanos = System.nanoTime() - before;
+					for(PathEdgeListener<N,D> listener : pathEdgeListeners)
+						listener.pathEdgeProcessed(edge.factAtSource(), edge.getTarget(), edge.factAtTarget(), nanos);
+				}
+			} finally {
+				if(metrics!=null)
+					metrics.pathEdgeProcessed();
+			}
+		}
+
+		private void process() {
 			if(icfg.isCallStmt(edge.getTarget())) {
 				processCall(edge);
 			} else {
@@ -888,6 +1748,12 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 		}
 	}
 	
+	/**
+	 * Computes the final values of a section of the nodes of Phase II(ii). The values at the start points
+	 * are fixed in this phase, so they are copied once per method. The jump functions to a node are grouped
+	 * by function, such that each function is applied to all its source values at once (see {@link BatchEdgeFunction}),
+	 * and the values of each node are joined locally and published at once.
+	 */
 	private class ValueComputationTask implements Runnable {
 		private final N[] values;
 		final int num;
@@ -899,23 +1765,73 @@ public class IDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> {
 
 		public void run() {
 			int sectionSize = (int) Math.floor(values.length / numThreads) + numThreads;
+			M method = null;
+			List<Map<D,V>> valsAtStartPoints = null;
+			Map<D,V> valsAtNode = new HashMap<D,V>();
 			for(int i = sectionSize * num; i < Math.min(sectionSize * (num+1),values.length); i++) {
 				N n = values[i];
-				for(N sP: icfg.getStartPointsOf(icfg.getMethodOf(n))) {					
-					Set<Cell<D, D, EdgeFunction<V>>> lookupByTarget;
-					lookupByTarget = jumpFn.lookupByTarget(n);
-					for(Cell<D, D, EdgeFunction<V>> sourceValTargetValAndFunction : lookupByTarget) {
-						D dPrime = sourceValTargetValAndFunction.getRowKey();
-						D d = sourceValTargetValAndFunction.getColumnKey();
-						EdgeFunction<V> fPrime = sourceValTargetValAndFunction.getValue();
-						synchronized (val) {
-							setVal(n,d,valueLattice.join(val(n,d),fPrime.computeTarget(val(sP,dPrime))));
-						}
-						flowFunctionApplicationCount++;
+				//nodes are grouped by method
+				M m = icfg.getMethodOf(n);
+				if(m != method) {
+					method = m;
+					valsAtStartPoints = valsAtStartPoints(m);
+				}
+				computeValues(n, valsAtStartPoints, valsAtNode);
+				setVals(n, valsAtNode);
+				valsAtNode.clear();
+			}
+		}
+
+		private List<Map<D,V>> valsAtStartPoints(M m) {
+			List<Map<D,V>> result = new ArrayList<Map<D,V>>();
+			synchronized (val) {
+				for(N sP: icfg.getStartPointsOf(m))
+					result.add(new HashMap<D,V>(val.row(sP)));
+			}
+			return result;
+		}
+
+		private void computeValues(N n, List<Map<D,V>> valsAtStartPoints, Map<D,V> valsAtNode) {
+			//no need to synchronize on jumpFn, it is not modified any more during Phase II
+			Map<EdgeFunction<V>,List<Cell<D,D,EdgeFunction<V>>>> cellsByFunction = new LinkedHashMap<EdgeFunction<V>,List<Cell<D,D,EdgeFunction<V>>>>();
+			for(Cell<D, D, EdgeFunction<V>> sourceValTargetValAndFunction : jumpFn.lookupByTarget(n)) {
+				List<Cell<D,D,EdgeFunction<V>>> cells = cellsByFunction.get(sourceValTargetValAndFunction.getValue());
+				if(cells==null) {
+					cells = new ArrayList<Cell<D,D,EdgeFunction<V>>>();
+					cellsByFunction.put(sourceValTargetValAndFunction.getValue(), cells);
+				}
+				cells.add(sourceValTargetValAndFunction);
+			}
+			List<V> sources = new ArrayList<V>();
+			for(Map<D,V> valsAtStartPoint : valsAtStartPoints) {
+				for(Entry<EdgeFunction<V>,List<Cell<D,D,EdgeFunction<V>>>> functionAndCells : cellsByFunction.entrySet()) {
+					List<Cell<D,D,EdgeFunction<V>>> cells = functionAndCells.getValue();
+					for(Cell<D,D,EdgeFunction<V>> cell : cells) {
+						V source = valsAtStartPoint.get(cell.getRowKey());
+						sources.add(source==null ? valueLattice.topElement() : source);
 					}
+					List<V> targets = computeTargets(functionAndCells.getKey(), sources);
+					for(int j=0; j<cells.size(); j++) {
+						D d = cells.get(j).getColumnKey();
+						V valAtNode = valsAtNode.get(d);
+						valsAtNode.put(d, valueLattice.join(valAtNode==null ? valueLattice.topElement() : valAtNode, targets.get(j)));
+					}
+					flowFunctionApplicationCount += cells.size();
+					sources.clear();
 				}
 			}
 		}
 	}
 
+	@SuppressWarnings("unchecked")
+	private List<V> computeTargets(EdgeFunction<V> function, List<V> sources) {
+		EdgeFunction<V> unwrapped = EdgeFunctionMemoCache.unwrap(function);
+		if(unwrapped instanceof BatchEdgeFunction)
+			return ((BatchEdgeFunction<V>) unwrapped).computeTargets(sources);
+		List<V> targets = new ArrayList<V>(sources.size());
+		for(V source : sources)
+			targets.add(function.computeTarget(source));
+		return targets;
+	}
+
 }
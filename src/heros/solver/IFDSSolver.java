@@ -26,6 +26,8 @@ import heros.edgefunc.EdgeIdentity;
 import java.util.Map;
 import java.util.Set;
 
+import com.google.common.cache.CacheBuilder;
+
 /**
  * A solver for an {@link IFDSTabulationProblem}. This solver in effect uses the {@link IDESolver}
  * to solve the problem, as any IFDS problem can be intepreted as a special case of an IDE problem.
@@ -40,9 +42,9 @@ import java.util.Set;
  */
 public class IFDSSolver<N,D,M,I extends InterproceduralCFG<N, M>> extends IDESolver<N,D,M,IFDSSolver.BinaryDomain,I> {
 
-	protected static enum BinaryDomain { TOP,BOTTOM } 
+	public static enum BinaryDomain { TOP,BOTTOM } 
 	
-	private final static EdgeFunction<BinaryDomain> ALL_BOTTOM = new AllBottom<BinaryDomain>(BOTTOM);
+	final static EdgeFunction<BinaryDomain> ALL_BOTTOM = new AllBottom<BinaryDomain>(BOTTOM);
 	
 	/**
 	 * Creates a solver for the given problem. The solver must then be started by calling
@@ -52,6 +54,19 @@ public class IFDSSolver<N,D,M,I extends InterproceduralCFG<N, M>> extends IDESol
 		super(createIDETabulationProblem(ifdsProblem));
 	}
 
+	/**
+	 * Creates a solver for the given problem, constructing caches with the given {@link CacheBuilder}. The solver must then be started by calling
+	 * {@link #solve()}.
+	 * @param flowFunctionCacheBuilder A valid {@link CacheBuilder} or <code>null</code> if no caching is to be used for flow functions.
+	 * @param edgeFunctionCacheBuilder A valid {@link CacheBuilder} or <code>null</code> if no caching is to be used for edge functions.
+	 * @param edgeFunctionMemoCacheBuilder A valid {@link CacheBuilder} or <code>null</code> if compositions and joins of edge functions
+	 * are not to be memoized, see {@link heros.EdgeFunctionMemoCache}.
+	 */
+	public IFDSSolver(final IFDSTabulationProblem<N,D,M,I> ifdsProblem, @SuppressWarnings("rawtypes") CacheBuilder flowFunctionCacheBuilder,
+			@SuppressWarnings("rawtypes") CacheBuilder edgeFunctionCacheBuilder, @SuppressWarnings("rawtypes") CacheBuilder edgeFunctionMemoCacheBuilder) {
+		super(createIDETabulationProblem(ifdsProblem), flowFunctionCacheBuilder, edgeFunctionCacheBuilder, edgeFunctionMemoCacheBuilder);
+	}
+
 	static <N, D, M, I extends InterproceduralCFG<N, M>> IDETabulationProblem<N, D, M, BinaryDomain, I> createIDETabulationProblem(
 			final IFDSTabulationProblem<N, D, M, I> ifdsProblem) {
 		return new IDETabulationProblem<N,D,M,BinaryDomain,I>() {
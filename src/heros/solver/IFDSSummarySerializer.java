@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import heros.EdgeFunction;
+import heros.edgefunc.EdgeIdentity;
+import heros.solver.IFDSSolver.BinaryDomain;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A {@link SummarySerializer} for the {@link IFDSSolver}, whose only edge functions are the
+ * identity and all-bottom. Clients only need to serialize statements and facts.
+ *
+ * @param <N> The type of nodes in the interprocedural control-flow graph.
+ * @param <D> The type of data-flow facts to be computed by the tabulation problem.
+ */
+public abstract class IFDSSummarySerializer<N,D> implements SummarySerializer<N,D,BinaryDomain> {
+
+	public void writeEdgeFunction(EdgeFunction<BinaryDomain> function, DataOutput out) throws IOException {
+		if(function instanceof EdgeIdentity)
+			out.writeBoolean(false);
+		else if(function.equalTo(IFDSSolver.ALL_BOTTOM))
+			out.writeBoolean(true);
+		else
+			throw new IllegalArgumentException("unexpected edge function: "+function);
+	}
+
+	public EdgeFunction<BinaryDomain> readEdgeFunction(DataInput in) throws IOException {
+		return in.readBoolean() ? IFDSSolver.ALL_BOTTOM : EdgeIdentity.<BinaryDomain>v();
+	}
+
+}
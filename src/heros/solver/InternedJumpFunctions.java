@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import static heros.solver.LongObjectMap.pack;
+import heros.DontSynchronize;
+import heros.EdgeFunction;
+import heros.SynchronizedBy;
+import heros.ThreadSafe;
+
+/**
+ * The jump functions of {@link InterningJumpFunctions} and {@link SpillingJumpFunctions}. Like {@link JumpFunctions},
+ * this class keeps three indices in sync, but statements and facts are given by their interned ids and all indices
+ * are {@link LongObjectMap}s keyed by pairs of ids packed into one <code>long</code>.
+ *
+ * The maps returned by the lookup methods are the internal ones. They must not be modified and may
+ * only be iterated while no other thread adds functions.
+ */
+@ThreadSafe
+public class InternedJumpFunctions<L> {
+
+	//mapping from (target node, target value) to source value to function
+	@SynchronizedBy("consistent lock on this")
+	protected final LongObjectMap<LongObjectMap<EdgeFunction<L>>> nonEmptyReverseLookup = new LongObjectMap<LongObjectMap<EdgeFunction<L>>>();
+
+	//mapping from (source value, target node) to target value to function
+	@SynchronizedBy("consistent lock on this")
+	protected final LongObjectMap<LongObjectMap<EdgeFunction<L>>> nonEmptyForwardLookup = new LongObjectMap<LongObjectMap<EdgeFunction<L>>>();
+
+	//mapping from target node to (source value, target value) to function
+	@SynchronizedBy("consistent lock on this")
+	protected final LongObjectMap<LongObjectMap<EdgeFunction<L>>> nonEmptyLookupByTargetNode = new LongObjectMap<LongObjectMap<EdgeFunction<L>>>();
+
+	@DontSynchronize("immutable")
+	protected final EdgeFunction<L> allTop;
+
+	public InternedJumpFunctions(EdgeFunction<L> allTop) {
+		this.allTop = allTop;
+	}
+
+	/**
+	 * Records a jump function. The source statement is implicit.
+	 * @see JumpFunctions#addFunction(Object, Object, Object, EdgeFunction)
+	 */
+	public synchronized void addFunction(int sourceVal, int target, int targetVal, EdgeFunction<L> function) {
+		assert function!=null;
+
+		//we do not store the default function (all-top)
+		if(function.equalTo(allTop)) return;
+
+		lookupOrCreate(nonEmptyReverseLookup, pack(target, targetVal)).put(sourceVal, function);
+		lookupOrCreate(nonEmptyForwardLookup, pack(sourceVal, target)).put(targetVal, function);
+		lookupOrCreate(nonEmptyLookupByTargetNode, target).put(pack(sourceVal, targetVal), function);
+	}
+
+	/**
+	 * Joins the given function with the jump function currently recorded for
+	 * (sourceVal, target, targetVal) and records the result, all in one atomic step.
+	 * Missing jump functions are treated as all-top.
+	 * @return The joined function if it differs from the previously recorded one,
+	 * or <code>null</code> if the join did not change anything.
+	 */
+	public synchronized EdgeFunction<L> joinAndAddIfChanged(int sourceVal, int target, int targetVal, EdgeFunction<L> function) {
+		EdgeFunction<L> existing = getFunction(sourceVal, target, targetVal);
+		if(existing==null) existing = allTop; //JumpFn is initialized to all-top (see line [2] in SRH96 paper)
+		EdgeFunction<L> joined = existing.joinWith(function);
+		if(joined.equalTo(existing))
+			return null;
+		addFunction(sourceVal, target, targetVal, joined);
+		return joined;
+	}
+
+	/**
+	 * Returns the jump function recorded for (sourceVal, target, targetVal), or
+	 * <code>null</code> if there is none, i.e., if the function is all-top.
+	 */
+	public synchronized EdgeFunction<L> getFunction(int sourceVal, int target, int targetVal) {
+		LongObjectMap<EdgeFunction<L>> targetValToFunc = nonEmptyForwardLookup.get(pack(sourceVal, target));
+		if(targetValToFunc==null) return null;
+		return targetValToFunc.get(targetVal);
+	}
+
+	/**
+	 * Returns a copy of the mapping from source value to function for all jump functions
+	 * to the given target statement and value. The copy can be iterated while other
+	 * threads keep adding functions.
+	 */
+	public synchronized LongObjectMap<EdgeFunction<L>> reverseLookupForIteration(int target, int targetVal) {
+		LongObjectMap<EdgeFunction<L>> res = nonEmptyReverseLookup.get(pack(target, targetVal));
+		if(res==null) return new LongObjectMap<EdgeFunction<L>>(0);
+		return new LongObjectMap<EdgeFunction<L>>(res);
+	}
+
+	/**
+	 * Returns, for a given source value and target statement, the mapping from
+	 * target value to function, or <code>null</code> if there is none.
+	 */
+	public synchronized LongObjectMap<EdgeFunction<L>> forwardLookup(int sourceVal, int target) {
+		return nonEmptyForwardLookup.get(pack(sourceVal, target));
+	}
+
+	/**
+	 * Returns, for a given target statement, the mapping from (source value, target value)
+	 * to function, or <code>null</code> if there is none. The keys are packed with
+	 * {@link LongObjectMap#pack(int, int)}.
+	 */
+	public synchronized LongObjectMap<EdgeFunction<L>> lookupByTarget(int target) {
+		return nonEmptyLookupByTargetNode.get(target);
+	}
+
+	/**
+	 * Removes a jump function. The source statement is implicit.
+	 * @return True if the function has actually been removed. False if it was not
+	 * there anyway.
+	 */
+	public synchronized boolean removeFunction(int sourceVal, int target, int targetVal) {
+		if(!removeAndPrune(nonEmptyReverseLookup, pack(target, targetVal), sourceVal))
+			return false;
+		removeAndPrune(nonEmptyForwardLookup, pack(sourceVal, target), targetVal);
+		removeAndPrune(nonEmptyLookupByTargetNode, target, pack(sourceVal, targetVal));
+		return true;
+	}
+
+	/**
+	 * Removes all jump functions
+	 */
+	public synchronized void clear() {
+		nonEmptyReverseLookup.clear();
+		nonEmptyForwardLookup.clear();
+		nonEmptyLookupByTargetNode.clear();
+	}
+
+	private LongObjectMap<EdgeFunction<L>> lookupOrCreate(LongObjectMap<LongObjectMap<EdgeFunction<L>>> index, long key) {
+		LongObjectMap<EdgeFunction<L>> map = index.get(key);
+		if(map==null) {
+			map = new LongObjectMap<EdgeFunction<L>>();
+			index.put(key, map);
+		}
+		return map;
+	}
+
+	private boolean removeAndPrune(LongObjectMap<LongObjectMap<EdgeFunction<L>>> index, long key, long innerKey) {
+		LongObjectMap<EdgeFunction<L>> map = index.get(key);
+		if(map==null || map.remove(innerKey)==null)
+			return false;
+		if(map.isEmpty())
+			index.remove(key);
+		return true;
+	}
+}
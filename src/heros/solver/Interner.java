@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import heros.SynchronizedBy;
+import heros.ThreadSafe;
+import heros.flowfunc.FactInterner;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns dense <code>int</code> ids to objects, starting at 0 in the order in which the objects are
+ * first interned. Objects are compared by {@link Object#equals(Object)}. Looking up the object of an id
+ * is an array access.
+ *
+ * @param <T> The type of interned objects.
+ */
+@ThreadSafe
+public class Interner<T> implements FactInterner<T> {
+
+	@SynchronizedBy("thread safe data structure, new ids are assigned under lock on this")
+	private final ConcurrentHashMap<T, Integer> ids = new ConcurrentHashMap<T, Integer>();
+
+	//an object is stored here before its id is published through the ids map
+	@SynchronizedBy("written under lock on this, volatile for readers")
+	private volatile Object[] objects = new Object[64];
+
+	@SynchronizedBy("consistent lock on this")
+	private int size;
+
+	/**
+	 * Returns the id of the given object, assigning a new id if the object has not been interned before.
+	 */
+	@Override
+	public int intern(T object) {
+		assert object != null;
+		Integer id = ids.get(object);
+		if(id != null)
+			return id;
+		synchronized (this) {
+			id = ids.get(object);
+			if(id != null)
+				return id;
+			int newId = size;
+			if(newId == objects.length)
+				objects = Arrays.copyOf(objects, newId << 1);
+			objects[newId] = object;
+			size++;
+			ids.put(object, newId);
+			return newId;
+		}
+	}
+
+	/**
+	 * Returns the id of the given object, or -1 if it has not been interned.
+	 */
+	public int idOf(T object) {
+		Integer id = ids.get(object);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * Returns the object with the given id.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public T get(int id) {
+		return (T) objects[id];
+	}
+
+	/**
+	 * Returns the number of interned objects.
+	 */
+	public synchronized int size() {
+		return size;
+	}
+}
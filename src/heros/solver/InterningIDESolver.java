@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import heros.IDETabulationProblem;
+import heros.InterproceduralCFG;
+
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * An {@link IDESolver} that trades a little time for a lot of memory. It stores its jump functions, which make up
+ * most of the solver's memory, in {@link InterningJumpFunctions}. Statements and facts are thereby interned, i.e.,
+ * mapped to dense <code>int</code> ids, and the jump functions are keyed by these ids packed into primitive
+ * <code>long</code> keys instead of being stored in nested hash tables of objects. Otherwise the solver behaves
+ * exactly like the {@link IDESolver} and supports all of its options. Selecting another jump function store, e.g.
+ * through {@link #setConcurrentJumpFunctions(boolean)}, replaces the interned one.
+ *
+ * @param <N> The type of nodes in the interprocedural control-flow graph.
+ * @param <D> The type of data-flow facts to be computed by the tabulation problem.
+ * @param <M> The type of objects used to represent methods.
+ * @param <V> The type of values to be computed along flow edges.
+ * @param <I> The type of inter-procedural control-flow graph being used.
+ */
+public class InterningIDESolver<N,D,M,V,I extends InterproceduralCFG<N, M>> extends IDESolver<N,D,M,V,I> {
+
+	/**
+	 * Creates a solver for the given problem, which caches flow functions and edge functions.
+	 * The solver must then be started by calling {@link #solve()}.
+	 */
+	public InterningIDESolver(IDETabulationProblem<N,D,M,V,I> tabulationProblem) {
+		super(tabulationProblem);
+		setJumpFunctions(new InterningJumpFunctions<N,D,V>(allTop));
+	}
+
+	/**
+	 * Creates a solver for the given problem, constructing caches with the given {@link CacheBuilder}. The solver must then be started by calling
+	 * {@link #solve()}.
+	 * @param flowFunctionCacheBuilder A valid {@link CacheBuilder} or <code>null</code> if no caching is to be used for flow functions.
+	 * @param edgeFunctionCacheBuilder A valid {@link CacheBuilder} or <code>null</code> if no caching is to be used for edge functions.
+	 */
+	public InterningIDESolver(IDETabulationProblem<N,D,M,V,I> tabulationProblem, @SuppressWarnings("rawtypes") CacheBuilder flowFunctionCacheBuilder, @SuppressWarnings("rawtypes") CacheBuilder edgeFunctionCacheBuilder) {
+		super(tabulationProblem, flowFunctionCacheBuilder, edgeFunctionCacheBuilder);
+		setJumpFunctions(new InterningJumpFunctions<N,D,V>(allTop));
+	}
+
+}
@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import heros.IFDSTabulationProblem;
+import heros.InterproceduralCFG;
+
+/**
+ * An {@link IFDSSolver} that stores its jump functions in {@link InterningJumpFunctions}, like the
+ * {@link InterningIDESolver}. Otherwise it behaves exactly like the {@link IFDSSolver}.
+ *
+ * @param <N> The type of nodes in the interprocedural control-flow graph. Typically {@link Unit}.
+ * @param <D> The type of data-flow facts to be computed by the tabulation problem.
+ * @param <M> The type of objects used to represent methods. Typically {@link SootMethod}.
+ * @param <I> The type of inter-procedural control-flow graph being used.
+ * @see IFDSSolver
+ */
+public class InterningIFDSSolver<N,D,M,I extends InterproceduralCFG<N, M>> extends IFDSSolver<N,D,M,I> {
+
+	/**
+	 * Creates a solver for the given problem. The solver must then be started by calling
+	 * {@link #solve()}.
+	 */
+	public InterningIFDSSolver(final IFDSTabulationProblem<N,D,M,I> ifdsProblem) {
+		super(ifdsProblem);
+		setJumpFunctions(new InterningJumpFunctions<N,D,BinaryDomain>(allTop));
+	}
+
+}
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import static heros.solver.LongObjectMap.high;
+import static heros.solver.LongObjectMap.low;
+import heros.DontSynchronize;
+import heros.EdgeFunction;
+import heros.SynchronizedBy;
+import heros.ThreadSafe;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Table.Cell;
+import com.google.common.collect.Tables;
+
+/**
+ * A {@link JumpFunctionStore} that interns statements and facts, i.e., maps them to dense <code>int</code> ids
+ * when they are first stored. The jump functions are then kept in {@link InternedJumpFunctions}, whose indices
+ * are {@link LongObjectMap}s keyed by pairs of ids packed into one <code>long</code> instead of nested hash
+ * tables of objects. This takes considerably less memory than {@link JumpFunctions}, at the cost of one
+ * interner lookup per statement and fact on each access.
+ *
+ * The maps and sets returned by the lookup methods are copies.
+ *
+ * @see InterningIDESolver
+ */
+@ThreadSafe
+public class InterningJumpFunctions<N,D,L> implements JumpFunctionStore<N,D,L> {
+
+	@SynchronizedBy("thread safe data structure")
+	private final Interner<N> nodes = new Interner<N>();
+
+	@SynchronizedBy("thread safe data structure")
+	private final Interner<D> facts = new Interner<D>();
+
+	@SynchronizedBy("consistent lock on this")
+	private final InternedJumpFunctions<L> functions;
+
+	@DontSynchronize("immutable")
+	private final EdgeFunction<L> allTop;
+
+	public InterningJumpFunctions(EdgeFunction<L> allTop) {
+		this.allTop = allTop;
+		this.functions = new InternedJumpFunctions<L>(allTop);
+	}
+
+	@Override
+	public synchronized void addFunction(D sourceVal, N target, D targetVal, EdgeFunction<L> function) {
+		assert sourceVal!=null;
+		assert target!=null;
+		assert targetVal!=null;
+		assert function!=null;
+
+		//we do not store the default function (all-top), and need not intern its statement and facts
+		if(function.equalTo(allTop)) return;
+
+		functions.addFunction(facts.intern(sourceVal), nodes.intern(target), facts.intern(targetVal), function);
+	}
+
+	@Override
+	public synchronized EdgeFunction<L> joinAndAddIfChanged(D sourceVal, N target, D targetVal, EdgeFunction<L> function) {
+		return functions.joinAndAddIfChanged(facts.intern(sourceVal), nodes.intern(target), facts.intern(targetVal), function);
+	}
+
+	@Override
+	public synchronized EdgeFunction<L> getFunction(D sourceVal, N target, D targetVal) {
+		int targetId = nodes.idOf(target);
+		int sourceValId = facts.idOf(sourceVal);
+		int targetValId = facts.idOf(targetVal);
+		if(targetId<0 || sourceValId<0 || targetValId<0) return null;
+		return functions.getFunction(sourceValId, targetId, targetValId);
+	}
+
+	@Override
+	public synchronized Map<D,EdgeFunction<L>> reverseLookup(N target, D targetVal) {
+		assert target!=null;
+		assert targetVal!=null;
+		int targetId = nodes.idOf(target);
+		int targetValId = facts.idOf(targetVal);
+		if(targetId<0 || targetValId<0) return Collections.emptyMap();
+		return toFactMap(functions.reverseLookupForIteration(targetId, targetValId));
+	}
+
+	@Override
+	public synchronized Map<D,EdgeFunction<L>> reverseLookupForIteration(N target, D targetVal) {
+		//reverseLookup(..) already returns a copy
+		return reverseLookup(target, targetVal);
+	}
+
+	@Override
+	public synchronized Map<D,EdgeFunction<L>> forwardLookup(D sourceVal, N target) {
+		assert sourceVal!=null;
+		assert target!=null;
+		int targetId = nodes.idOf(target);
+		int sourceValId = facts.idOf(sourceVal);
+		if(targetId<0 || sourceValId<0) return Collections.emptyMap();
+		return toFactMap(functions.forwardLookup(sourceValId, targetId));
+	}
+
+	@Override
+	public synchronized Set<Cell<D,D,EdgeFunction<L>>> lookupByTarget(N target) {
+		assert target!=null;
+		int targetId = nodes.idOf(target);
+		if(targetId<0) return Collections.emptySet();
+		LongObjectMap<EdgeFunction<L>> map = functions.lookupByTarget(targetId);
+		if(map==null) return Collections.emptySet();
+		Set<Cell<D,D,EdgeFunction<L>>> res = new LinkedHashSet<Cell<D,D,EdgeFunction<L>>>();
+		for(int slot = map.nextSlot(0); slot >= 0; slot = map.nextSlot(slot+1)) {
+			long key = map.keyAt(slot);
+			res.add(Tables.immutableCell(facts.get(high(key)), facts.get(low(key)), map.valueAt(slot)));
+		}
+		return res;
+	}
+
+	@Override
+	public synchronized boolean removeFunction(D sourceVal, N target, D targetVal) {
+		assert sourceVal!=null;
+		assert target!=null;
+		assert targetVal!=null;
+		int targetId = nodes.idOf(target);
+		int sourceValId = facts.idOf(sourceVal);
+		int targetValId = facts.idOf(targetVal);
+		if(targetId<0 || sourceValId<0 || targetValId<0) return false;
+		return functions.removeFunction(sourceValId, targetId, targetValId);
+	}
+
+	/**
+	 * Removes all jump functions. Statements and facts stay interned.
+	 */
+	@Override
+	public synchronized void clear() {
+		functions.clear();
+	}
+
+	private Map<D,EdgeFunction<L>> toFactMap(LongObjectMap<EdgeFunction<L>> map) {
+		if(map==null || map.isEmpty()) return Collections.emptyMap();
+		Map<D,EdgeFunction<L>> res = new LinkedHashMap<D,EdgeFunction<L>>();
+		for(int slot = map.nextSlot(0); slot >= 0; slot = map.nextSlot(slot+1))
+			res.put(facts.get((int) map.keyAt(slot)), map.valueAt(slot));
+		return res;
+	}
+
+}
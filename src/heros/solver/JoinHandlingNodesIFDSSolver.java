@@ -13,17 +13,21 @@ package heros.solver;
 import heros.EdgeFunction;
 import heros.IFDSTabulationProblem;
 import heros.InterproceduralCFG;
+import heros.SynchronizedBy;
+import heros.metrics.StripedCounter;
 import heros.solver.JoinHandlingNode.JoinKey;
 
-import java.util.Map;
-
-import com.google.common.collect.Maps;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * An {@link IFDSSolver} that tracks paths for reporting. To do so, it requires that data-flow abstractions implement the LinkedNode interface.
  * The solver implements a cache of data-flow facts for each statement and source value. If for the same statement and source value the same
  * target value is seen again (as determined through a cache hit), then the solver propagates the cached value but at the same time links
  * both target values with one another.
+ * 
+ * The cache is a concurrent map, so that threads propagating different facts do not contend for a lock.
+ * Joins into the same cached node are serialized by locking that node.
  *  
  * @author Johannes Lerch
  */
@@ -33,29 +37,51 @@ public class JoinHandlingNodesIFDSSolver<N, D extends JoinHandlingNode<D>, M, I
 		super(ifdsProblem);
 	}
 
-	protected final Map<CacheEntry, JoinHandlingNode<D>> cache = Maps.newHashMap();
-	
+	@SynchronizedBy("thread safe data structure, joins into a cached node under lock on that node")
+	protected final ConcurrentMap<CacheEntry, JoinHandlingNode<D>> cache = new ConcurrentHashMap<CacheEntry, JoinHandlingNode<D>>(16, 0.75f, numThreads);
+
+	//number of facts propagated to a node already cached for their join keys
+	@SynchronizedBy("thread safe data structure")
+	private final StripedCounter joins = new StripedCounter();
+
+	//number of joins handled by the cached node, such that the joining fact was not propagated
+	@SynchronizedBy("thread safe data structure")
+	private final StripedCounter merges = new StripedCounter();
+
 	@Override
 	protected void propagate(D sourceVal, N target, D targetVal, EdgeFunction<IFDSSolver.BinaryDomain> f, N relatedCallSite, boolean isUnbalancedReturn) {
 		CacheEntry currentCacheEntry = new CacheEntry(target, sourceVal.createJoinKey(), targetVal.createJoinKey());
 
-		boolean propagate = false;
-		synchronized (this) {
-			if (cache.containsKey(currentCacheEntry)) {
-				JoinHandlingNode<D> existingTargetVal = cache.get(currentCacheEntry);
-				if(!existingTargetVal.handleJoin(targetVal)) {
-					propagate = true;
-				}
-			} else {
-				cache.put(currentCacheEntry, targetVal);
-				propagate = true;
+		boolean propagate = true;
+		JoinHandlingNode<D> existingTargetVal = cache.putIfAbsent(currentCacheEntry, targetVal);
+		if (existingTargetVal != null) {
+			joins.increment();
+			synchronized (existingTargetVal) {
+				if(existingTargetVal.handleJoin(targetVal))
+					propagate = false;
 			}
+			if (!propagate)
+				merges.increment();
 		}
 
 		if (propagate)
 			super.propagate(sourceVal, target, targetVal, f, relatedCallSite, isUnbalancedReturn);
 		
 	};
+
+	/**
+	 * Returns the number of facts that were propagated to a node for which a fact with the same join keys was cached.
+	 */
+	public long getJoinCount() {
+		return joins.sum();
+	}
+
+	/**
+	 * Returns the number of joins that the cached node handled, such that the joining fact was not propagated.
+	 */
+	public long getMergeCount() {
+		return merges.sum();
+	}
 	
 	
 	private class CacheEntry {
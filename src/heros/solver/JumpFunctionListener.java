@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import heros.EdgeFunction;
+
+/**
+ * Is notified by an {@link IDESolver} whenever it creates or updates a jump function, while the
+ * solver is still running. This allows clients to process the exploded super graph as it is
+ * computed, without storing it.
+ *
+ * <b>NOTE:</b> The listener may be called simultaneously by different threads.
+ *
+ * @param <N> The type of nodes in the interprocedural control-flow graph.
+ * @param <D> The type of data-flow facts to be computed by the tabulation problem.
+ * @param <V> The type of values to be computed along flow edges.
+ * @see IDESolver#addJumpFunctionListener(JumpFunctionListener)
+ */
+public interface JumpFunctionListener<N,D,V> {
+
+	/**
+	 * Called when the jump function from sourceVal at the start point of the method of target
+	 * to targetVal at target was created or joined with another function.
+	 * @param function The jump function after the change.
+	 */
+	void jumpFunctionChanged(D sourceVal, N target, D targetVal, EdgeFunction<V> function);
+
+}
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import heros.EdgeFunction;
+
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Table.Cell;
+
+/**
+ * Stores the jump functions of an {@link IDESolver}, indexed by source value, target statement and target value.
+ * The source statement is implicit. Stores do not record the default function (all-top); looking up a missing
+ * function returns <code>null</code> or an empty map. Implementations must be thread-safe.
+ *
+ * @see JumpFunctions
+ * @see ConcurrentJumpFunctions
+ * @see SpillingJumpFunctions
+ * @see IDESolver#setJumpFunctions(JumpFunctionStore)
+ */
+public interface JumpFunctionStore<N,D,L> {
+
+	/**
+	 * Records a jump function. The source statement is implicit.
+	 * @see PathEdge
+	 */
+	void addFunction(D sourceVal, N target, D targetVal, EdgeFunction<L> function);
+
+	/**
+	 * Joins the given function with the jump function currently recorded for
+	 * (sourceVal, target, targetVal) and records the result, all in one atomic step.
+	 * Missing jump functions are treated as all-top.
+	 * @return The joined function if it differs from the previously recorded one,
+	 * or <code>null</code> if the join did not change anything.
+	 */
+	EdgeFunction<L> joinAndAddIfChanged(D sourceVal, N target, D targetVal, EdgeFunction<L> function);
+
+	/**
+	 * Returns the jump function recorded for (sourceVal, target, targetVal), or
+	 * <code>null</code> if there is none, i.e., if the function is all-top.
+	 */
+	EdgeFunction<L> getFunction(D sourceVal, N target, D targetVal);
+
+	/**
+	 * Returns, for a given target statement and value all associated
+	 * source values, and for each the associated edge function.
+	 * The return value is a mapping from source value to function.
+	 */
+	Map<D,EdgeFunction<L>> reverseLookup(N target, D targetVal);
+
+	/**
+	 * Like {@link #reverseLookup(Object, Object)}, but the returned map can be iterated
+	 * while other threads keep adding functions.
+	 */
+	Map<D,EdgeFunction<L>> reverseLookupForIteration(N target, D targetVal);
+
+	/**
+	 * Returns, for a given source value and target statement all
+	 * associated target values, and for each the associated edge function.
+	 * The return value is a mapping from target value to function.
+	 */
+	Map<D,EdgeFunction<L>> forwardLookup(D sourceVal, N target);
+
+	/**
+	 * Returns for a given target statement all jump function records with this target.
+	 * The return value is a set of records of the form (sourceVal,targetVal,edgeFunction).
+	 */
+	Set<Cell<D,D,EdgeFunction<L>>> lookupByTarget(N target);
+
+	/**
+	 * Removes a jump function. The source statement is implicit.
+	 * @see PathEdge
+	 * @return True if the function has actually been removed. False if it was not
+	 * there anyway.
+	 */
+	boolean removeFunction(D sourceVal, N target, D targetVal);
+
+	/**
+	 * Removes all jump functions
+	 */
+	void clear();
+
+}
@@ -33,7 +33,7 @@ import com.google.common.collect.Table.Cell;
  * elements from the list through three different indices.
  */
 @ThreadSafe
-public class JumpFunctions<N,D,L> {
+public class JumpFunctions<N,D,L> implements JumpFunctionStore<N,D,L> {
 	
 	//mapping from target node and value to a list of all source values and associated functions
 	//where the list is implemented as a mapping from the source value to the function
@@ -54,7 +54,7 @@ public class JumpFunctions<N,D,L> {
 	protected Map<N,Table<D,D,EdgeFunction<L>>> nonEmptyLookupByTargetNode = new HashMap<N,Table<D,D,EdgeFunction<L>>>();
 
 	@DontSynchronize("immutable")	
-	private final EdgeFunction<L> allTop;
+	protected final EdgeFunction<L> allTop;
 	
 	public JumpFunctions(EdgeFunction<L> allTop) {
 		this.allTop = allTop;
@@ -95,6 +95,31 @@ public class JumpFunctions<N,D,L> {
 		table.put(sourceVal, targetVal, function);
 	}
 	
+	/**
+	 * Joins the given function with the jump function currently recorded for
+	 * (sourceVal, target, targetVal) and records the result, all in one atomic step.
+	 * Missing jump functions are treated as all-top.
+	 * @return The joined function if it differs from the previously recorded one,
+	 * or <code>null</code> if the join did not change anything.
+	 */
+	public synchronized EdgeFunction<L> joinAndAddIfChanged(D sourceVal, N target, D targetVal, EdgeFunction<L> function) {
+		EdgeFunction<L> existing = reverseLookup(target, targetVal).get(sourceVal);
+		if(existing==null) existing = allTop; //JumpFn is initialized to all-top (see line [2] in SRH96 paper)
+		EdgeFunction<L> joined = existing.joinWith(function);
+		if(joined.equalTo(existing))
+			return null;
+		addFunction(sourceVal, target, targetVal, joined);
+		return joined;
+	}
+	
+	/**
+	 * Returns the jump function recorded for (sourceVal, target, targetVal), or
+	 * <code>null</code> if there is none, i.e., if the function is all-top.
+	 */
+	public synchronized EdgeFunction<L> getFunction(D sourceVal, N target, D targetVal) {
+		return forwardLookup(sourceVal, target).get(targetVal);
+	}
+	
 	/**
      * Returns, for a given target statement and value all associated
      * source values, and for each the associated edge function.
@@ -108,6 +133,15 @@ public class JumpFunctions<N,D,L> {
 		return res;
 	}
 	
+	/**
+	 * Like {@link #reverseLookup(Object, Object)}, but the returned map can be iterated
+	 * without holding a lock on this object while other threads keep adding functions.
+	 * This implementation returns a copy.
+	 */
+	public synchronized Map<D,EdgeFunction<L>> reverseLookupForIteration(N target, D targetVal) {
+		return new LinkedHashMap<D,EdgeFunction<L>>(reverseLookup(target, targetVal));
+	}
+	
 	/**
 	 * Returns, for a given source value and target statement all
 	 * associated target values, and for each the associated edge function. 
@@ -151,7 +185,7 @@ public class JumpFunctions<N,D,L> {
 		if (sourceValToFunc.remove(sourceVal) == null)
 			return false;
 		if (sourceValToFunc.isEmpty())
-			nonEmptyReverseLookup.remove(targetVal, targetVal);
+			nonEmptyReverseLookup.remove(target, targetVal);
 		
 		Map<D, EdgeFunction<L>> targetValToFunc = nonEmptyForwardLookup.get(sourceVal, target);
 		if (targetValToFunc == null)
@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from primitive <code>long</code> keys to objects. The map uses open addressing with
+ * linear probing, so unlike a {@link java.util.HashMap} it neither boxes its keys nor allocates an
+ * entry object per mapping. Two <code>int</code> ids can be packed into one key with {@link #pack(int, int)}.
+ *
+ * Keys must not be {@link Long#MIN_VALUE} and values must not be <code>null</code>.
+ * The entries of a map can be iterated through its slots:
+ * <pre>
+ * for(int slot = map.nextSlot(0); slot >= 0; slot = map.nextSlot(slot+1)) {
+ *     long key = map.keyAt(slot);
+ *     V value = map.valueAt(slot);
+ * }
+ * </pre>
+ * This class is not thread safe.
+ *
+ * @param <V> The type of values.
+ */
+public class LongObjectMap<V> {
+
+	private static final long FREE = Long.MIN_VALUE;
+
+	private long[] keys;
+	private Object[] values;
+	private int size;
+
+	public LongObjectMap() {
+		this(4);
+	}
+
+	/**
+	 * Creates a map that can hold the given number of entries without being resized.
+	 */
+	public LongObjectMap(int expectedSize) {
+		int capacity = 4;
+		while(capacity * 3 < expectedSize * 4)
+			capacity <<= 1;
+		allocate(capacity);
+	}
+
+	/**
+	 * Creates a copy of the given map.
+	 */
+	public LongObjectMap(LongObjectMap<V> original) {
+		keys = original.keys.clone();
+		values = original.values.clone();
+		size = original.size;
+	}
+
+	/**
+	 * Packs the two given ids into one key.
+	 */
+	public static long pack(int high, int low) {
+		return ((long) high << 32) | (low & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Returns the first id of a key created with {@link #pack(int, int)}.
+	 */
+	public static int high(long key) {
+		return (int) (key >>> 32);
+	}
+
+	/**
+	 * Returns the second id of a key created with {@link #pack(int, int)}.
+	 */
+	public static int low(long key) {
+		return (int) key;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the value associated with the given key, or <code>null</code> if there is none.
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(long key) {
+		int slot = slotOf(key);
+		return slot < 0 ? null : (V) values[slot];
+	}
+
+	public boolean containsKey(long key) {
+		return slotOf(key) >= 0;
+	}
+
+	/**
+	 * Associates the given value with the given key.
+	 * @return The value previously associated with the key, or <code>null</code> if there was none.
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(long key, V value) {
+		assert key != FREE;
+		assert value != null;
+		int mask = keys.length - 1;
+		int i = hash(key) & mask;
+		while(keys[i] != FREE) {
+			if(keys[i] == key) {
+				V previous = (V) values[i];
+				values[i] = value;
+				return previous;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		values[i] = value;
+		size++;
+		if(size * 4 > keys.length * 3)
+			rehash(keys.length << 1);
+		return null;
+	}
+
+	/**
+	 * Removes the mapping for the given key.
+	 * @return The value that was associated with the key, or <code>null</code> if there was none.
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(long key) {
+		int slot = slotOf(key);
+		if(slot < 0)
+			return null;
+		V previous = (V) values[slot];
+		//shift back the following entries of the same probe sequence, so that no tombstones are needed
+		int mask = keys.length - 1;
+		int hole = slot;
+		int i = (slot + 1) & mask;
+		while(keys[i] != FREE) {
+			int home = hash(keys[i]) & mask;
+			if(((i - home) & mask) >= ((i - hole) & mask)) {
+				keys[hole] = keys[i];
+				values[hole] = values[i];
+				hole = i;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[hole] = FREE;
+		values[hole] = null;
+		size--;
+		return previous;
+	}
+
+	public void clear() {
+		Arrays.fill(keys, FREE);
+		Arrays.fill(values, null);
+		size = 0;
+	}
+
+	/**
+	 * Returns the first occupied slot at or after the given one, or -1 if there is none.
+	 */
+	public int nextSlot(int slot) {
+		for(int i = slot; i < keys.length; i++) {
+			if(keys[i] != FREE)
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the key stored in the given occupied slot.
+	 * @see #nextSlot(int)
+	 */
+	public long keyAt(int slot) {
+		return keys[slot];
+	}
+
+	/**
+	 * Returns the value stored in the given occupied slot.
+	 * @see #nextSlot(int)
+	 */
+	@SuppressWarnings("unchecked")
+	public V valueAt(int slot) {
+		return (V) values[slot];
+	}
+
+	private int slotOf(long key) {
+		int mask = keys.length - 1;
+		int i = hash(key) & mask;
+		while(keys[i] != FREE) {
+			if(keys[i] == key)
+				return i;
+			i = (i + 1) & mask;
+		}
+		return -1;
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		Object[] oldValues = values;
+		allocate(capacity);
+		int mask = capacity - 1;
+		for(int j = 0; j < oldKeys.length; j++) {
+			if(oldKeys[j] != FREE) {
+				int i = hash(oldKeys[j]) & mask;
+				while(keys[i] != FREE)
+					i = (i + 1) & mask;
+				keys[i] = oldKeys[j];
+				values[i] = oldValues[j];
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		Arrays.fill(keys, FREE);
+		values = new Object[capacity];
+	}
+
+	private static int hash(long key) {
+		//finalizer of MurmurHash3, spreads packed ids over the low bits
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		return (int) key;
+	}
+}
@@ -0,0 +1,219 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import heros.DontSynchronize;
+import heros.EdgeFunction;
+import heros.EdgeFunctionMemoCache;
+import heros.InterproceduralCFG;
+import heros.SynchronizedBy;
+import heros.ThreadSafe;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Table;
+import com.google.common.collect.Table.Cell;
+
+/**
+ * End summaries of methods that do not change between runs of an analysis, e.g., library methods.
+ * An {@link IDESolver} that is given these summaries through {@link IDESolver#setMethodSummaries(MethodSummaries)}
+ * records the summaries of all summarizable methods it explored, and on calls into a method whose summary
+ * for the respective context is known it applies the summary instead of exploring the callee.
+ * The summaries can be stored to a file with {@link #save(File)} and be loaded for the next run with {@link #load(File)}.
+ *
+ * A method is summarizable if it is fixed and all methods transitively called from it are fixed as well. This
+ * also covers recursion, since all methods of a strongly connected component reach each other.
+ * Summaries are only valid for the same analysis; clients must discard the file when the analysis changes.
+ *
+ * @param <N> The type of nodes in the interprocedural control-flow graph.
+ * @param <D> The type of data-flow facts to be computed by the tabulation problem.
+ * @param <M> The type of objects used to represent methods.
+ * @param <V> The type of values to be computed along flow edges.
+ */
+@ThreadSafe
+public class MethodSummaries<N,D,M,V> {
+
+	//"HERS"
+	private static final int MAGIC = 0x48455253;
+
+	/**
+	 * The version of the file format. Files of other versions are rejected by {@link #load(File)}.
+	 */
+	public static final int FORMAT_VERSION = 1;
+
+	//mapping from (start point, fact at start point) to exit statement to fact at exit to function
+	@SynchronizedBy("thread-safe map; tables are not modified after they have been put")
+	protected final Map<Pair<N,D>,Table<N,D,EdgeFunction<V>>> summaries = new ConcurrentHashMap<Pair<N,D>,Table<N,D,EdgeFunction<V>>>();
+
+	@SynchronizedBy("consistent lock on this")
+	protected final Map<M,Boolean> summarizable = new ConcurrentHashMap<M,Boolean>();
+
+	@DontSynchronize("immutable")
+	protected final SummarySerializer<N,D,V> serializer;
+
+	@DontSynchronize("immutable")
+	protected final Predicate<M> fixedMethods;
+
+	/**
+	 * @param serializer Writes and reads statements, facts and edge functions to and from disk.
+	 * @param fixedMethods Holds for methods that are guaranteed not to change between runs.
+	 */
+	public MethodSummaries(SummarySerializer<N,D,V> serializer, Predicate<M> fixedMethods) {
+		this.serializer = serializer;
+		this.fixedMethods = fixedMethods;
+	}
+
+	/**
+	 * Returns the end summary of the given start point and fact within the given method, or
+	 * <code>null</code> if the method is not fixed or no summary is known. An empty summary
+	 * means that no exit statement is reachable.
+	 */
+	public Set<Cell<N,D,EdgeFunction<V>>> endSummary(M method, N sP, D d1) {
+		Table<N,D,EdgeFunction<V>> table = summaries.get(new Pair<N,D>(sP, d1));
+		if(table==null || !fixedMethods.apply(method)) return null;
+		return Collections.unmodifiableSet(table.cellSet());
+	}
+
+	/**
+	 * Records the complete end summary of the given start point and fact, replacing any previous one.
+	 */
+	public void put(N sP, D d1, Iterable<Cell<N,D,EdgeFunction<V>>> endSummary) {
+		Table<N,D,EdgeFunction<V>> table = HashBasedTable.create();
+		for(Cell<N,D,EdgeFunction<V>> cell: endSummary)
+			table.put(cell.getRowKey(), cell.getColumnKey(), EdgeFunctionMemoCache.unwrap(cell.getValue()));
+		summaries.put(new Pair<N,D>(sP, d1), table);
+	}
+
+	/**
+	 * Returns whether a summary is known for the given start point and fact.
+	 */
+	public boolean contains(N sP, D d1) {
+		return summaries.containsKey(new Pair<N,D>(sP, d1));
+	}
+
+	/**
+	 * Returns the number of known end summaries.
+	 */
+	public int size() {
+		return summaries.size();
+	}
+
+	/**
+	 * Returns whether the given method is fixed and only (transitively) calls fixed methods.
+	 */
+	public synchronized boolean isSummarizable(M method, InterproceduralCFG<N,M> icfg) {
+		Boolean known = summarizable.get(method);
+		if(known!=null) return known;
+
+		//compute the methods reachable from the given one, stopping at the first non-fixed method
+		Set<M> reachable = new HashSet<M>();
+		Deque<M> worklist = new ArrayDeque<M>();
+		reachable.add(method);
+		worklist.add(method);
+		while(!worklist.isEmpty()) {
+			M m = worklist.removeFirst();
+			if(Boolean.FALSE.equals(summarizable.get(m)) || !fixedMethods.apply(m)) {
+				summarizable.put(method, false);
+				return false;
+			}
+			for(N callSite: icfg.getCallsFromWithin(m))
+				for(M callee: icfg.getCalleesOfCallAt(callSite))
+					if(reachable.add(callee))
+						worklist.add(callee);
+		}
+		//every reachable method can only reach methods within the same set
+		for(M m: reachable)
+			summarizable.put(m, true);
+		return true;
+	}
+
+	/**
+	 * Writes all known summaries to the given file.
+	 */
+	public void save(File file) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			Map<Pair<N,D>,Table<N,D,EdgeFunction<V>>> snapshot = new HashMap<Pair<N,D>,Table<N,D,EdgeFunction<V>>>(summaries);
+			out.writeInt(snapshot.size());
+			for(Entry<Pair<N,D>,Table<N,D,EdgeFunction<V>>> entry: snapshot.entrySet()) {
+				serializer.writeStatement(entry.getKey().getO1(), out);
+				serializer.writeFact(entry.getKey().getO2(), out);
+				Table<N,D,EdgeFunction<V>> table = entry.getValue();
+				out.writeInt(table.size());
+				for(Cell<N,D,EdgeFunction<V>> cell: table.cellSet()) {
+					serializer.writeStatement(cell.getRowKey(), out);
+					serializer.writeFact(cell.getColumnKey(), out);
+					serializer.writeEdgeFunction(cell.getValue(), out);
+				}
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Adds all summaries stored in the given file, replacing known summaries of the same start points and facts.
+	 * @throws IOException If the file cannot be read or was written in another format version.
+	 */
+	public void load(File file) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			if(in.readInt()!=MAGIC)
+				throw new IOException(file+" does not contain method summaries");
+			int version = in.readInt();
+			if(version!=FORMAT_VERSION)
+				throw new IOException("unsupported summary format version "+version+" in "+file+", expected "+FORMAT_VERSION);
+			int count = in.readInt();
+			for(int i = 0; i < count; i++) {
+				N sP = serializer.readStatement(in);
+				D d1 = serializer.readFact(in);
+				Table<N,D,EdgeFunction<V>> table = HashBasedTable.create();
+				int cells = in.readInt();
+				for(int j = 0; j < cells; j++) {
+					N eP = serializer.readStatement(in);
+					D d2 = serializer.readFact(in);
+					table.put(eP, d2, serializer.readEdgeFunction(in));
+				}
+				summaries.put(new Pair<N,D>(sP, d1), table);
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Removes all known summaries.
+	 */
+	public synchronized void clear() {
+		summaries.clear();
+		summarizable.clear();
+	}
+}
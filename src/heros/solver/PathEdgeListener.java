@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+/**
+ * Is notified by an {@link IDESolver} whenever it has processed a path edge, along with the time it took.
+ *
+ * <b>NOTE:</b> The listener may be called simultaneously by different threads.
+ *
+ * @param <N> The type of nodes in the interprocedural control-flow graph.
+ * @param <D> The type of data-flow facts to be computed by the tabulation problem.
+ * @see IDESolver#addPathEdgeListener(PathEdgeListener)
+ */
+public interface PathEdgeListener<N,D> {
+
+	/**
+	 * Called when the path edge from sourceVal at the start point of the method of target
+	 * to targetVal at target was processed, which took the given number of nanoseconds.
+	 */
+	void pathEdgeProcessed(D sourceVal, N target, D targetVal, long nanos);
+
+}
@@ -0,0 +1,343 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import heros.DontSynchronize;
+import heros.SynchronizedBy;
+import heros.ThreadSafe;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Records the predecessors of the nodes of the exploded super graph while an {@link IDESolver} runs, and
+ * reconstructs witness paths from the initial seeds to a node on demand, see {@link IDESolver#setPathRecorder(PathRecorder)}.
+ * Replaces the {@link PathTrackingIFDSSolver}: facts do not need to link themselves, and recording takes no locks.
+ *
+ * Nodes are interned to <code>int</code> ids. Each predecessor is stored as a triple of ids (target, predecessor,
+ * call site) in append-only chunked arrays, linked into a list per target node that is extended by compare-and-set.
+ * For a return edge, the call site is the node of the caller from which the callee was entered, so that
+ * reconstructed paths are realizable, i.e., return to the call site they came from.
+ *
+ * By default, all distinct predecessors are recorded. Limiting the number of predecessors per node bounds the memory
+ * needed, but also the number of alternative paths that can be found. All call edges into a callee are recorded
+ * regardless of the limit. Still, if a callee is called in several contexts that reach the same node, the path
+ * recorded within the callee may only be realizable from some of them, so that no path may be found at all.
+ *
+ * @param <N> The type of nodes in the interprocedural control-flow graph.
+ * @param <D> The type of data-flow facts to be computed by the tabulation problem.
+ */
+@ThreadSafe
+public class PathRecorder<N,D> {
+
+	//markers stored instead of the predecessor or call site
+	private static final int SEED = -1;
+	private static final int INTRA = -1;
+	private static final int CALL = -2;
+
+	//a record consists of the predecessor, the call site or marker, and the next record of the same target plus one
+	private static final int RECORD_SIZE = 3;
+
+	@DontSynchronize("readOnly")
+	private final int maxPredecessorsPerNode;
+
+	@SynchronizedBy("thread safe data structure, ids are allocated atomically")
+	private final ConcurrentHashMap<Pair<N,D>, Integer> ids = new ConcurrentHashMap<Pair<N,D>, Integer>();
+
+	@SynchronizedBy("atomic")
+	private final AtomicInteger nextId = new AtomicInteger();
+
+	//an interned node is stored here before its id is published through the ids map
+	@SynchronizedBy("thread safe data structure")
+	private final ChunkedArray<Pair<N,D>> nodes = new ChunkedArray<Pair<N,D>>();
+
+	//first record of each node plus one, or zero if there is none
+	@SynchronizedBy("compare-and-set")
+	private final ChunkedIntArray heads = new ChunkedIntArray();
+
+	@SynchronizedBy("thread safe data structure, records are allocated atomically")
+	private final ChunkedIntArray records = new ChunkedIntArray();
+
+	@SynchronizedBy("atomic")
+	private final AtomicInteger nextRecord = new AtomicInteger();
+
+	/**
+	 * Creates a recorder that records all distinct predecessors of each node.
+	 */
+	public PathRecorder() {
+		this(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @param maxPredecessorsPerNode The maximal number of distinct predecessors recorded per node, not counting
+	 * call edges. With 1, only the first predecessor of each node is recorded.
+	 */
+	public PathRecorder(int maxPredecessorsPerNode) {
+		if(maxPredecessorsPerNode < 1)
+			throw new IllegalArgumentException("At least one predecessor must be recorded per node");
+		this.maxPredecessorsPerNode = maxPredecessorsPerNode;
+	}
+
+	/**
+	 * Records that the given node is an initial seed.
+	 */
+	void seed(N target, D targetVal) {
+		record(id(target, targetVal), SEED, INTRA);
+	}
+
+	/**
+	 * Records an intra-procedural edge, an edge past a call that was summarized without exploring the callee,
+	 * or an unbalanced return.
+	 */
+	void intraEdge(N pred, D predVal, N target, D targetVal) {
+		record(id(target, targetVal), id(pred, predVal), INTRA);
+	}
+
+	/**
+	 * Records an edge from a call site to the start point of a callee.
+	 */
+	void callEdge(N callSite, D callVal, N startPoint, D startVal) {
+		record(id(startPoint, startVal), id(callSite, callVal), CALL);
+	}
+
+	/**
+	 * Records an edge from an exit of a callee to a return site, where the callee was called at the given call site.
+	 */
+	void returnEdge(N callSite, D callVal, N exit, D exitVal, N returnSite, D returnVal) {
+		record(id(returnSite, returnVal), id(exit, exitVal), id(callSite, callVal));
+	}
+
+	private void record(int target, int pred, int callSite) {
+		int count = 0;
+		for(int r = heads.get(target) - 1; r >= 0; r = records.get(r * RECORD_SIZE + 2) - 1) {
+			if(records.get(r * RECORD_SIZE) == pred && records.get(r * RECORD_SIZE + 1) == callSite)
+				return;
+			if(records.get(r * RECORD_SIZE + 1) != CALL)
+				count++;
+		}
+		//all call edges are kept, as a path through a callee must return to the call site it came from
+		if(callSite != CALL && count >= maxPredecessorsPerNode)
+			return;
+		int r = nextRecord.getAndIncrement();
+		records.set(r * RECORD_SIZE, pred);
+		records.set(r * RECORD_SIZE + 1, callSite);
+		int head;
+		do {
+			head = heads.get(target);
+			records.set(r * RECORD_SIZE + 2, head);
+		} while(!heads.compareAndSet(target, head, r + 1));
+	}
+
+	private int id(N n, D d) {
+		Pair<N,D> node = new Pair<N,D>(n, d);
+		Integer id = ids.get(node);
+		if(id != null)
+			return id;
+		int newId = nextId.getAndIncrement();
+		nodes.set(newId, node);
+		id = ids.putIfAbsent(node, newId);
+		if(id != null) {
+			//another thread interned the node first, newId remains unused
+			nodes.set(newId, null);
+			return id;
+		}
+		return newId;
+	}
+
+	/**
+	 * Returns the number of recorded predecessors.
+	 */
+	public int size() {
+		return nextRecord.get();
+	}
+
+	/**
+	 * Discards all recorded paths.
+	 */
+	public void clear() {
+		ids.clear();
+		nodes.clear();
+		heads.clear();
+		records.clear();
+		nextId.set(0);
+		nextRecord.set(0);
+	}
+
+	/**
+	 * Returns a shortest recorded path from an initial seed to the given fact at the given node, including both ends,
+	 * or <code>null</code> if the fact was not reached at the node.
+	 */
+	public List<Pair<N,D>> shortestPath(N n, D d) {
+		List<List<Pair<N,D>>> paths = paths(n, d, 1);
+		return paths.isEmpty() ? null : paths.get(0);
+	}
+
+	/**
+	 * Returns up to <code>k</code> recorded paths from an initial seed to the given fact at the given node, shortest first.
+	 * A path does not visit a node twice within the same calling context. Each path includes both ends.
+	 */
+	public List<List<Pair<N,D>>> paths(N n, D d, int k) {
+		Integer target = ids.get(new Pair<N,D>(n, d));
+		if(target == null)
+			return Collections.emptyList();
+		List<List<Pair<N,D>>> result = new ArrayList<List<Pair<N,D>>>(k);
+		//breadth-first search backwards from the target over partial paths, expanding each node in each calling context at most k times
+		Map<Long, Integer> expansions = new HashMap<Long, Integer>();
+		Deque<Step> worklist = new ArrayDeque<Step>();
+		worklist.add(new Step(target, null, null));
+		while(!worklist.isEmpty() && result.size() < k) {
+			Step step = worklist.poll();
+			Long key = ((long) step.node << 32) | ((step.stack == null ? -1 : step.stack.callSite) & 0xffffffffL);
+			Integer count = expansions.get(key);
+			if(count != null && count >= k)
+				continue;
+			expansions.put(key, count == null ? 1 : count + 1);
+			for(int r = heads.get(step.node) - 1; r >= 0 && result.size() < k; r = records.get(r * RECORD_SIZE + 2) - 1) {
+				int pred = records.get(r * RECORD_SIZE);
+				int callSite = records.get(r * RECORD_SIZE + 1);
+				if(pred == SEED) {
+					if(step.stack == null)
+						result.add(toPath(step));
+				} else if(callSite == INTRA) {
+					extend(worklist, step, pred, step.stack);
+				} else if(callSite == CALL) {
+					//return to the caller the callee was entered from, or to any caller if it was entered from a seed
+					if(step.stack == null)
+						extend(worklist, step, pred, null);
+					else if(step.stack.callSite == pred)
+						extend(worklist, step, pred, step.stack.next);
+				} else {
+					extend(worklist, step, pred, new Frame(callSite, step.stack));
+				}
+			}
+		}
+		return result;
+	}
+
+	private void extend(Deque<Step> worklist, Step step, int pred, Frame stack) {
+		for(Step s = step; s != null; s = s.next)
+			if(s.node == pred && sameStack(s.stack, stack))
+				return;
+		worklist.add(new Step(pred, stack, step));
+	}
+
+	private static boolean sameStack(Frame f1, Frame f2) {
+		for(; f1 != null && f2 != null; f1 = f1.next, f2 = f2.next) {
+			if(f1 == f2)
+				return true;
+			if(f1.callSite != f2.callSite)
+				return false;
+		}
+		return f1 == f2;
+	}
+
+	private List<Pair<N,D>> toPath(Step first) {
+		List<Pair<N,D>> path = new ArrayList<Pair<N,D>>();
+		for(Step s = first; s != null; s = s.next)
+			path.add(nodes.get(s.node));
+		return path;
+	}
+
+	//a node on a partial path, linked towards the target
+	private static class Step {
+		final int node;
+		final Frame stack;
+		final Step next;
+
+		Step(int node, Frame stack, Step next) {
+			this.node = node;
+			this.stack = stack;
+			this.next = next;
+		}
+	}
+
+	//the call sites of the callees a partial path returned from, innermost first
+	private static class Frame {
+		final int callSite;
+		final Frame next;
+
+		Frame(int callSite, Frame next) {
+			this.callSite = callSite;
+			this.next = next;
+		}
+	}
+
+	private static final int CHUNK_BITS = 14;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	private static final int MAX_CHUNKS = 1 << 16;
+
+	//an append-only array of ints, initially zero, whose chunks are allocated on first write
+	private static class ChunkedIntArray {
+		private final AtomicReferenceArray<AtomicIntegerArray> chunks = new AtomicReferenceArray<AtomicIntegerArray>(MAX_CHUNKS);
+
+		int get(int i) {
+			AtomicIntegerArray chunk = chunks.get(i >>> CHUNK_BITS);
+			return chunk == null ? 0 : chunk.get(i & (CHUNK_SIZE - 1));
+		}
+
+		void set(int i, int value) {
+			chunk(i).set(i & (CHUNK_SIZE - 1), value);
+		}
+
+		boolean compareAndSet(int i, int expect, int update) {
+			return chunk(i).compareAndSet(i & (CHUNK_SIZE - 1), expect, update);
+		}
+
+		private AtomicIntegerArray chunk(int i) {
+			int c = i >>> CHUNK_BITS;
+			AtomicIntegerArray chunk = chunks.get(c);
+			if(chunk == null) {
+				chunks.compareAndSet(c, null, new AtomicIntegerArray(CHUNK_SIZE));
+				chunk = chunks.get(c);
+			}
+			return chunk;
+		}
+
+		void clear() {
+			for(int c = 0; c < MAX_CHUNKS; c++)
+				chunks.set(c, null);
+		}
+	}
+
+	//an append-only array of objects, whose chunks are allocated on first write
+	private static class ChunkedArray<T> {
+		private final AtomicReferenceArray<AtomicReferenceArray<T>> chunks = new AtomicReferenceArray<AtomicReferenceArray<T>>(MAX_CHUNKS);
+
+		T get(int i) {
+			AtomicReferenceArray<T> chunk = chunks.get(i >>> CHUNK_BITS);
+			return chunk == null ? null : chunk.get(i & (CHUNK_SIZE - 1));
+		}
+
+		void set(int i, T value) {
+			int c = i >>> CHUNK_BITS;
+			AtomicReferenceArray<T> chunk = chunks.get(c);
+			if(chunk == null) {
+				chunks.compareAndSet(c, null, new AtomicReferenceArray<T>(CHUNK_SIZE));
+				chunk = chunks.get(c);
+			}
+			chunk.set(i & (CHUNK_SIZE - 1), value);
+		}
+
+		void clear() {
+			for(int c = 0; c < MAX_CHUNKS; c++)
+				chunks.set(c, null);
+		}
+	}
+}
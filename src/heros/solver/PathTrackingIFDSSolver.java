@@ -25,7 +25,8 @@ import com.google.common.collect.Maps;
  * both target values with one another.
  *  
  * @author Eric Bodden
- * @deprecated Use {@link JoinHandlingNodesIFDSSolver} instead.
+ * @deprecated Use {@link JoinHandlingNodesIFDSSolver} instead, or record witness paths with a {@link PathRecorder},
+ * see {@link IDESolver#setPathRecorder(PathRecorder)}.
  */
 @Deprecated
 public class PathTrackingIFDSSolver<N, D extends LinkedNode<D>, M, I extends InterproceduralCFG<N, M>> extends IFDSSolver<N, D, M, I> {
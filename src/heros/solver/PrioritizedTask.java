@@ -0,0 +1,24 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+/**
+ * A task that executors with a priority queue, such as those of {@link BiDiExecutors}, run before queued
+ * tasks of lower priority. Other executors ignore the priority.
+ */
+interface PrioritizedTask extends Runnable {
+
+	/**
+	 * Returns the priority of this task, where higher values are run first. Tasks that are not prioritized have priority 0.
+	 */
+	int priority();
+
+}
@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import heros.FactRelevance;
+import heros.InterproceduralCFG;
+import heros.SynchronizedBy;
+import heros.ThreadSafe;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Indexes, per data-flow fact, the statements a sparsely propagating {@link IDESolver} visits, see
+ * {@link IDESolver#setFactRelevance(FactRelevance)}. A fact stops at the statements that are relevant to it,
+ * as well as at all calls, exit statements, statements without successors and join points, i.e., statements
+ * with multiple predecessors.
+ * Stopping at join points keeps the jump functions of different branches merged where they meet.
+ * All other statements are skipped.
+ *
+ * The stops following a skipped statement are computed on first use and cached.
+ *
+ * @param <N> The type of nodes in the interprocedural control-flow graph.
+ * @param <D> The type of data-flow facts to be computed by the tabulation problem.
+ * @param <M> The type of objects used to represent methods.
+ */
+@ThreadSafe
+public class SparseCFG<N,D,M> {
+
+	private final InterproceduralCFG<N,M> icfg;
+
+	private final FactRelevance<N,D> relevance;
+
+	@SynchronizedBy("thread safe data structure")
+	private final ConcurrentMap<Pair<N,D>, Collection<N>> nextStops = new ConcurrentHashMap<Pair<N,D>, Collection<N>>();
+
+	public SparseCFG(InterproceduralCFG<N,M> icfg, FactRelevance<N,D> relevance) {
+		this.icfg = icfg;
+		this.relevance = relevance;
+	}
+
+	/**
+	 * Returns the statements the given fact is to be propagated to when it reaches the given statement: the statement
+	 * itself if the fact stops there, otherwise the closest stops reachable from it through skipped statements only.
+	 * The result is empty if no stop is reachable, e.g., in a loop of skipped statements.
+	 */
+	public Collection<N> getStops(N stmt, D fact) {
+		if(isStop(stmt, fact))
+			return Collections.singleton(stmt);
+		Pair<N,D> key = new Pair<N,D>(stmt, fact);
+		Collection<N> stops = nextStops.get(key);
+		if(stops == null) {
+			stops = computeNextStops(stmt, fact);
+			Collection<N> existing = nextStops.putIfAbsent(key, stops);
+			if(existing != null)
+				stops = existing;
+		}
+		return stops;
+	}
+
+	/**
+	 * Returns <code>true</code> if the given fact is not propagated past the given statement without visiting it.
+	 */
+	public boolean isStop(N stmt, D fact) {
+		return isStopForAllFacts(stmt) || relevance.isRelevant(stmt, fact);
+	}
+
+	/**
+	 * Returns <code>true</code> if every fact stops at the given statement, i.e., if it is a call, an exit statement,
+	 * a statement without successors or a join point.
+	 */
+	public boolean isStopForAllFacts(N stmt) {
+		return icfg.isCallStmt(stmt) || icfg.isExitStmt(stmt) || icfg.getSuccsOf(stmt).isEmpty() || icfg.getPredsOf(stmt).size() > 1;
+	}
+
+	private Collection<N> computeNextStops(N stmt, D fact) {
+		Set<N> stops = new LinkedHashSet<N>();
+		Set<N> visited = new HashSet<N>();
+		LinkedList<N> worklist = new LinkedList<N>();
+		visited.add(stmt);
+		worklist.add(stmt);
+		while(!worklist.isEmpty()) {
+			N curr = worklist.removeLast();
+			for(N succ : icfg.getSuccsOf(curr)) {
+				if(!visited.add(succ))
+					continue;
+				if(isStop(succ, fact))
+					stops.add(succ);
+				else
+					worklist.add(succ);
+			}
+		}
+		return stops.isEmpty() ? Collections.<N>emptySet() : Collections.unmodifiableSet(stops);
+	}
+
+	/**
+	 * Returns the number of cached (statement, fact) pairs.
+	 */
+	public int size() {
+		return nextStops.size();
+	}
+
+	/**
+	 * Discards all cached stops, e.g., after the control-flow graph changed.
+	 */
+	public void clear() {
+		nextStops.clear();
+	}
+}
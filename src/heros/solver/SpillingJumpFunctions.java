@@ -0,0 +1,458 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import static heros.solver.LongObjectMap.high;
+import static heros.solver.LongObjectMap.low;
+import heros.DontSynchronize;
+import heros.EdgeFunction;
+import heros.InterproceduralCFG;
+import heros.SynchronizedBy;
+import heros.ThreadSafe;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Table.Cell;
+import com.google.common.collect.Tables;
+
+/**
+ * A {@link JumpFunctionStore} that keeps only a bounded number of jump functions on
+ * the heap. All jump functions are partitioned by the method of their target statement. Each
+ * partition is either resident, in which case it is stored as {@link InternedJumpFunctions}, or
+ * spilled to a memory-mapped file. A spilled partition takes four <code>int</code>s per jump
+ * function: the interned ids of the target statement, source fact, target fact and edge function.
+ * Accessing a spilled partition pages it back in. When the estimated size of all resident
+ * partitions exceeds the heap budget, the least recently used partitions are spilled.
+ *
+ * Edge functions are interned by {@link Object#equals(Object)}, so all distinct edge functions
+ * remain on the heap. This is a good fit for IFDS problems, which only use two edge functions,
+ * and for IDE problems whose edge functions implement equality.
+ *
+ * The maps and sets returned by the lookup methods are copies.
+ *
+ * @see IDESolver#setJumpFunctionSpillBudget(long)
+ */
+@ThreadSafe
+public class SpillingJumpFunctions<N,D,M,L> implements JumpFunctionStore<N,D,L> {
+
+	protected static final Logger logger = LoggerFactory.getLogger(SpillingJumpFunctions.class);
+
+	//a rough estimate of the heap consumed by one resident jump function, which is stored in three indices
+	public static final long ESTIMATED_BYTES_PER_FUNCTION = 96;
+
+	private static final int INTS_PER_FUNCTION = 4;
+
+	@DontSynchronize("immutable")
+	private final EdgeFunction<L> allTop;
+
+	@DontSynchronize("readOnly")
+	private final InterproceduralCFG<N,M> icfg;
+
+	@DontSynchronize("readOnly")
+	private final long budget;
+
+	@SynchronizedBy("thread safe data structure")
+	private final Interner<N> nodes = new Interner<N>();
+
+	@SynchronizedBy("thread safe data structure")
+	private final Interner<D> facts = new Interner<D>();
+
+	@SynchronizedBy("thread safe data structure")
+	private final Interner<EdgeFunction<L>> functions = new Interner<EdgeFunction<L>>();
+
+	@SynchronizedBy("consistent lock on this")
+	private final Map<M,Partition<L>> partitionsByMethod = new HashMap<M,Partition<L>>();
+
+	//caches the partition of each target statement, keyed by its id
+	@SynchronizedBy("consistent lock on this")
+	private final LongObjectMap<Partition<L>> partitionsByNode = new LongObjectMap<Partition<L>>();
+
+	//the resident partitions, in access order
+	@SynchronizedBy("consistent lock on this")
+	private final LinkedHashMap<Partition<L>,Partition<L>> resident = new LinkedHashMap<Partition<L>,Partition<L>>(16, 0.75f, true);
+
+	@SynchronizedBy("consistent lock on this")
+	private long residentFunctions;
+
+	@SynchronizedBy("consistent lock on this")
+	private SpillFile spillFile;
+
+	@DontSynchronize("benign races")
+	public long spillCount;
+
+	@DontSynchronize("benign races")
+	public long pageInCount;
+
+	/**
+	 * @param icfg The control-flow graph used to partition jump functions by method.
+	 * @param budget The number of bytes that resident jump functions may approximately take on the heap,
+	 * estimated with {@link #ESTIMATED_BYTES_PER_FUNCTION}. The most recently used partition always stays resident.
+	 */
+	public SpillingJumpFunctions(EdgeFunction<L> allTop, InterproceduralCFG<N,M> icfg, long budget) {
+		this.allTop = allTop;
+		this.icfg = icfg;
+		this.budget = budget;
+	}
+
+	@Override
+	public synchronized void addFunction(D sourceVal, N target, D targetVal, EdgeFunction<L> function) {
+		assert sourceVal!=null;
+		assert target!=null;
+		assert targetVal!=null;
+		assert function!=null;
+
+		//we do not store the default function (all-top)
+		if(function.equalTo(allTop)) return;
+
+		int targetId = nodes.intern(target);
+		put(residentPartition(targetId), facts.intern(sourceVal), targetId, facts.intern(targetVal), function);
+	}
+
+	@Override
+	public synchronized EdgeFunction<L> joinAndAddIfChanged(D sourceVal, N target, D targetVal, EdgeFunction<L> function) {
+		int targetId = nodes.intern(target);
+		int sourceValId = facts.intern(sourceVal);
+		int targetValId = facts.intern(targetVal);
+		Partition<L> partition = residentPartition(targetId);
+		EdgeFunction<L> existing = partition.functions.getFunction(sourceValId, targetId, targetValId);
+		if(existing==null) existing = allTop; //JumpFn is initialized to all-top (see line [2] in SRH96 paper)
+		EdgeFunction<L> joined = existing.joinWith(function);
+		if(joined.equalTo(existing))
+			return null;
+		if(!joined.equalTo(allTop))
+			put(partition, sourceValId, targetId, targetValId, joined);
+		return joined;
+	}
+
+	@Override
+	public synchronized EdgeFunction<L> getFunction(D sourceVal, N target, D targetVal) {
+		int targetId = nodes.idOf(target);
+		int sourceValId = facts.idOf(sourceVal);
+		int targetValId = facts.idOf(targetVal);
+		if(targetId<0 || sourceValId<0 || targetValId<0) return null;
+		return residentPartition(targetId).functions.getFunction(sourceValId, targetId, targetValId);
+	}
+
+	@Override
+	public synchronized Map<D,EdgeFunction<L>> reverseLookup(N target, D targetVal) {
+		assert target!=null;
+		assert targetVal!=null;
+		int targetId = nodes.idOf(target);
+		int targetValId = facts.idOf(targetVal);
+		if(targetId<0 || targetValId<0) return Collections.emptyMap();
+		return toFactMap(residentPartition(targetId).functions.reverseLookupForIteration(targetId, targetValId));
+	}
+
+	@Override
+	public synchronized Map<D,EdgeFunction<L>> reverseLookupForIteration(N target, D targetVal) {
+		//reverseLookup(..) already returns a copy
+		return reverseLookup(target, targetVal);
+	}
+
+	@Override
+	public synchronized Map<D,EdgeFunction<L>> forwardLookup(D sourceVal, N target) {
+		assert sourceVal!=null;
+		assert target!=null;
+		int targetId = nodes.idOf(target);
+		int sourceValId = facts.idOf(sourceVal);
+		if(targetId<0 || sourceValId<0) return Collections.emptyMap();
+		return toFactMap(residentPartition(targetId).functions.forwardLookup(sourceValId, targetId));
+	}
+
+	@Override
+	public synchronized Set<Cell<D,D,EdgeFunction<L>>> lookupByTarget(N target) {
+		assert target!=null;
+		int targetId = nodes.idOf(target);
+		if(targetId<0) return Collections.emptySet();
+		LongObjectMap<EdgeFunction<L>> map = residentPartition(targetId).functions.lookupByTarget(targetId);
+		if(map==null) return Collections.emptySet();
+		Set<Cell<D,D,EdgeFunction<L>>> res = new LinkedHashSet<Cell<D,D,EdgeFunction<L>>>();
+		for(int slot = map.nextSlot(0); slot >= 0; slot = map.nextSlot(slot+1)) {
+			long key = map.keyAt(slot);
+			res.add(Tables.immutableCell(facts.get(high(key)), facts.get(low(key)), map.valueAt(slot)));
+		}
+		return res;
+	}
+
+	@Override
+	public synchronized boolean removeFunction(D sourceVal, N target, D targetVal) {
+		assert sourceVal!=null;
+		assert target!=null;
+		assert targetVal!=null;
+		int targetId = nodes.idOf(target);
+		int sourceValId = facts.idOf(sourceVal);
+		int targetValId = facts.idOf(targetVal);
+		if(targetId<0 || sourceValId<0 || targetValId<0) return false;
+		Partition<L> partition = residentPartition(targetId);
+		if(!partition.functions.removeFunction(sourceValId, targetId, targetValId))
+			return false;
+		partition.size--;
+		residentFunctions--;
+		return true;
+	}
+
+	@Override
+	public synchronized void clear() {
+		partitionsByMethod.clear();
+		partitionsByNode.clear();
+		resident.clear();
+		residentFunctions = 0;
+		if(spillFile!=null) {
+			spillFile.delete();
+			spillFile = null;
+		}
+	}
+
+	/**
+	 * Returns the number of jump functions currently stored on the heap.
+	 */
+	public synchronized long residentFunctions() {
+		return residentFunctions;
+	}
+
+	private void put(Partition<L> partition, int sourceVal, int target, int targetVal, EdgeFunction<L> function) {
+		//use the interned instance, such that equal functions are only kept once
+		function = functions.get(functions.intern(function));
+		if(partition.functions.getFunction(sourceVal, target, targetVal)==null) {
+			partition.size++;
+			residentFunctions++;
+		}
+		partition.functions.addFunction(sourceVal, target, targetVal, function);
+		spillIfOverBudget(partition);
+	}
+
+	/**
+	 * Returns the partition of the given target statement, paging it in if necessary.
+	 */
+	private Partition<L> residentPartition(int target) {
+		Partition<L> partition = partitionsByNode.get(target);
+		if(partition==null) {
+			M method = icfg.getMethodOf(nodes.get(target));
+			partition = partitionsByMethod.get(method);
+			if(partition==null) {
+				partition = new Partition<L>(new InternedJumpFunctions<L>(allTop));
+				partitionsByMethod.put(method, partition);
+				resident.put(partition, partition);
+			}
+			partitionsByNode.put(target, partition);
+		}
+		if(partition.functions==null) {
+			pageIn(partition);
+			spillIfOverBudget(partition);
+		} else {
+			//mark as most recently used
+			resident.get(partition);
+		}
+		return partition;
+	}
+
+	private void spillIfOverBudget(Partition<L> current) {
+		if(residentFunctions * ESTIMATED_BYTES_PER_FUNCTION <= budget)
+			return;
+		Iterator<Partition<L>> leastRecentlyUsed = resident.keySet().iterator();
+		while(residentFunctions * ESTIMATED_BYTES_PER_FUNCTION > budget && leastRecentlyUsed.hasNext()) {
+			Partition<L> partition = leastRecentlyUsed.next();
+			if(partition==current)
+				continue;
+			leastRecentlyUsed.remove();
+			spill(partition);
+		}
+	}
+
+	private void spill(Partition<L> partition) {
+		if(spillFile==null)
+			spillFile = new SpillFile();
+		int length = partition.size * INTS_PER_FUNCTION;
+		IntBuffer buffer = spillFile.allocate(partition, length);
+		int pos = partition.offset;
+		LongObjectMap<LongObjectMap<EdgeFunction<L>>> byTarget = partition.functions.nonEmptyLookupByTargetNode;
+		for(int slot = byTarget.nextSlot(0); slot >= 0; slot = byTarget.nextSlot(slot+1)) {
+			int target = (int) byTarget.keyAt(slot);
+			LongObjectMap<EdgeFunction<L>> map = byTarget.valueAt(slot);
+			for(int inner = map.nextSlot(0); inner >= 0; inner = map.nextSlot(inner+1)) {
+				long key = map.keyAt(inner);
+				buffer.put(pos++, target);
+				buffer.put(pos++, high(key));
+				buffer.put(pos++, low(key));
+				buffer.put(pos++, functions.idOf(map.valueAt(inner)));
+			}
+		}
+		assert pos == partition.offset + length;
+		partition.functions = null;
+		residentFunctions -= partition.size;
+		spillCount++;
+	}
+
+	private void pageIn(Partition<L> partition) {
+		InternedJumpFunctions<L> functions = new InternedJumpFunctions<L>(allTop);
+		IntBuffer buffer = spillFile.buffer;
+		int end = partition.offset + partition.size * INTS_PER_FUNCTION;
+		for(int pos = partition.offset; pos < end; pos += INTS_PER_FUNCTION)
+			functions.addFunction(buffer.get(pos+1), buffer.get(pos), buffer.get(pos+2), this.functions.get(buffer.get(pos+3)));
+		partition.functions = functions;
+		resident.put(partition, partition);
+		residentFunctions += partition.size;
+		pageInCount++;
+	}
+
+	private Map<D,EdgeFunction<L>> toFactMap(LongObjectMap<EdgeFunction<L>> map) {
+		if(map==null || map.isEmpty()) return Collections.emptyMap();
+		Map<D,EdgeFunction<L>> res = new LinkedHashMap<D,EdgeFunction<L>>();
+		for(int slot = map.nextSlot(0); slot >= 0; slot = map.nextSlot(slot+1))
+			res.put(facts.get((int) map.keyAt(slot)), map.valueAt(slot));
+		return res;
+	}
+
+	/**
+	 * The jump functions to the statements of one method.
+	 */
+	private static class Partition<L> {
+		//the resident jump functions, or null if spilled
+		InternedJumpFunctions<L> functions;
+		//the number of jump functions
+		int size;
+		//the region of the spill file last written for this partition, in ints
+		int offset, capacity;
+
+		Partition(InternedJumpFunctions<L> functions) {
+			this.functions = functions;
+		}
+	}
+
+	/**
+	 * A temporary file of spilled partitions, which is mapped into memory. A partition is
+	 * rewritten in place if it still fits its previous region, and appended otherwise.
+	 * The file is compacted when more than half of it is unused. The file is deleted as soon
+	 * as it is mapped, or when it is closed on platforms that cannot delete open files.
+	 */
+	private class SpillFile {
+
+		private static final int INITIAL_CAPACITY = 1 << 16;
+
+		//the capacity in ints of the largest region FileChannel#map(MapMode, long, long) can map
+		private static final int MAX_CAPACITY = Integer.MAX_VALUE / 4;
+
+		File file;
+		FileChannel channel;
+		IntBuffer buffer;
+		int end, garbage;
+		//true if the file is already deleted
+		boolean deleted;
+
+		SpillFile() {
+			open(INITIAL_CAPACITY);
+		}
+
+		private void open(int capacity) {
+			try {
+				file = File.createTempFile("heros-jumpfunctions", ".bin");
+				channel = new RandomAccessFile(file, "rw").getChannel();
+				map(capacity);
+				//the mapping remains valid, and the file is removed even if the JVM does not exit normally
+				deleted = file.delete();
+				logger.debug("Spilling jump functions to {}", file);
+			} catch (IOException e) {
+				throw new RuntimeException("Cannot create file for spilling jump functions", e);
+			}
+		}
+
+		private void map(int capacity) throws IOException {
+			buffer = channel.map(MapMode.READ_WRITE, 0, (long) capacity * 4).asIntBuffer();
+		}
+
+		/**
+		 * Assigns a region of the given length to the partition and returns the buffer to write it to.
+		 */
+		IntBuffer allocate(Partition<L> partition, int length) {
+			if(length <= partition.capacity) {
+				garbage += partition.capacity - length;
+				partition.capacity = length;
+				return buffer;
+			}
+			garbage += partition.capacity;
+			if(garbage > end / 2 && garbage > INITIAL_CAPACITY)
+				compact();
+			try {
+				if((long) end + length > buffer.capacity()) {
+					long capacity = (long) end + length;
+					if(capacity * 4 > Integer.MAX_VALUE)
+						throw new IllegalStateException("Spilled jump functions exceed the maximal file size");
+					map((int) Math.min(Math.max(capacity, 2L * buffer.capacity()), MAX_CAPACITY));
+				}
+			} catch (IOException e) {
+				throw new RuntimeException("Cannot grow file for spilling jump functions", e);
+			}
+			partition.offset = end;
+			partition.capacity = length;
+			end += length;
+			return buffer;
+		}
+
+		/**
+		 * Copies the regions of all spilled partitions to a new file.
+		 */
+		private void compact() {
+			IntBuffer oldBuffer = buffer;
+			File oldFile = file;
+			FileChannel oldChannel = channel;
+			boolean oldDeleted = deleted;
+			open(Math.max(INITIAL_CAPACITY, end - garbage));
+			end = 0;
+			garbage = 0;
+			for(Partition<L> partition: partitionsByMethod.values()) {
+				if(partition.functions!=null || partition.capacity==0) {
+					//the region of resident partitions is stale
+					partition.capacity = 0;
+					continue;
+				}
+				int length = partition.size * INTS_PER_FUNCTION;
+				for(int i = 0; i < length; i++)
+					buffer.put(end + i, oldBuffer.get(partition.offset + i));
+				partition.offset = end;
+				partition.capacity = length;
+				end += length;
+			}
+			close(oldChannel, oldFile, oldDeleted);
+		}
+
+		void delete() {
+			close(channel, file, deleted);
+		}
+
+		private void close(FileChannel channel, File file, boolean deleted) {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				logger.warn("Cannot close file of spilled jump functions", e);
+			}
+			if(!deleted && !file.delete()) {
+				logger.debug("Cannot delete {} before exit", file);
+				file.deleteOnExit();
+			}
+		}
+	}
+
+}
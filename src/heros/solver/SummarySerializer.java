@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import heros.EdgeFunction;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Writes and reads the statements, facts and edge functions of {@link MethodSummaries}.
+ * Objects that are read back must be equal to those used by the analysis on the next run,
+ * so the written representation has to be stable across runs, e.g., a method signature
+ * plus the index of a statement within the method's body.
+ *
+ * @param <N> The type of nodes in the interprocedural control-flow graph.
+ * @param <D> The type of data-flow facts to be computed by the tabulation problem.
+ * @param <V> The type of values to be computed along flow edges.
+ * @see IFDSSummarySerializer
+ */
+public interface SummarySerializer<N,D,V> {
+
+	void writeStatement(N stmt, DataOutput out) throws IOException;
+
+	N readStatement(DataInput in) throws IOException;
+
+	void writeFact(D fact, DataOutput out) throws IOException;
+
+	D readFact(DataInput in) throws IOException;
+
+	void writeEdgeFunction(EdgeFunction<V> function, DataOutput out) throws IOException;
+
+	EdgeFunction<V> readEdgeFunction(DataInput in) throws IOException;
+
+}
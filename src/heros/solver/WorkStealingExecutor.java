@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An {@link AwaitableExecutor} based on a {@link ForkJoinPool}. Tasks spawned from within a worker
+ * thread are pushed onto that worker's own deque, idle workers steal from the others. This avoids
+ * the single shared work queue of {@link CountingThreadPoolExecutor} when processing huge numbers
+ * of tiny tasks.
+ *
+ * Completion is detected without a global counter: every thread counts the tasks it spawned and
+ * completed in its own counters. All tasks have completed once the sum of completed tasks, read
+ * before the sum of spawned tasks, equals the latter.
+ */
+public class WorkStealingExecutor implements AwaitableExecutor {
+
+    protected static final Logger logger = LoggerFactory.getLogger(WorkStealingExecutor.class);
+
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+	private final ForkJoinPool pool;
+
+	//counters of all worker threads ever started; only ever grows
+	private final List<TaskCounter> counters = new CopyOnWriteArrayList<TaskCounter>();
+
+	//shared by all threads that are not workers of this pool, e.g. the thread submitting the initial seeds
+	private final TaskCounter externalCounter = new TaskCounter();
+
+	protected volatile Throwable exception = null;
+
+	public WorkStealingExecutor(int parallelism) {
+		counters.add(externalCounter);
+		this.pool = new ForkJoinPool(Math.max(1, parallelism), new ForkJoinWorkerThreadFactory() {
+			@Override
+			public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+				return new CountingWorkerThread(pool);
+			}
+		}, null, false);
+	}
+
+	@Override
+	public void execute(Runnable command) {
+		TaskCounter counter = currentCounter();
+		counter.spawned.incrementAndGet();
+		try {
+			if(isOwnWorker(Thread.currentThread()))
+				new Task(command).fork();
+			else
+				pool.execute(new Task(command));
+		} catch(RejectedExecutionException ex) {
+			// If we were unable to submit the task, it will never complete
+			counter.completed.incrementAndGet();
+			throw ex;
+		}
+	}
+
+	@Override
+	public void awaitCompletion() throws InterruptedException {
+		long parkNanos = 1000;
+		while(!isQuiescent()) {
+			LockSupport.parkNanos(parkNanos);
+			if(Thread.interrupted())
+				throw new InterruptedException();
+			parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+		}
+	}
+
+	@Override
+	public void awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		long parkNanos = 1000;
+		while(!isQuiescent()) {
+			long remaining = deadline - System.nanoTime();
+			if(remaining <= 0)
+				return;
+			LockSupport.parkNanos(Math.min(parkNanos, remaining));
+			if(Thread.interrupted())
+				throw new InterruptedException();
+			parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if all spawned tasks have completed, or if task execution failed.
+	 */
+	private boolean isQuiescent() {
+		if(exception!=null || pool.isTerminated())
+			return true;
+		//the order matters: each task counted as completed has been counted as spawned before,
+		//so equal sums imply that no task was running in between the two loops
+		long completed = 0;
+		for(TaskCounter counter : counters)
+			completed += counter.completed.get();
+		long spawned = 0;
+		for(TaskCounter counter : counters)
+			spawned += counter.spawned.get();
+		return completed == spawned;
+	}
+
+	@Override
+	public Throwable getException() {
+		return exception;
+	}
+
+	@Override
+	public boolean isTerminating() {
+		return pool.isShutdown();
+	}
+
+	@Override
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	private boolean isOwnWorker(Thread thread) {
+		return thread instanceof CountingWorkerThread && ((CountingWorkerThread) thread).getPool() == pool;
+	}
+
+	private TaskCounter currentCounter() {
+		Thread thread = Thread.currentThread();
+		if(isOwnWorker(thread))
+			return ((CountingWorkerThread) thread).counter;
+		return externalCounter;
+	}
+
+	private static class TaskCounter {
+		private final AtomicLong spawned = new AtomicLong();
+		private final AtomicLong completed = new AtomicLong();
+	}
+
+	private class CountingWorkerThread extends ForkJoinWorkerThread {
+
+		private final TaskCounter counter = new TaskCounter();
+
+		protected CountingWorkerThread(ForkJoinPool pool) {
+			super(pool);
+			counters.add(counter);
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private class Task extends RecursiveAction {
+
+		private final Runnable runnable;
+
+		public Task(Runnable runnable) {
+			this.runnable = runnable;
+		}
+
+		@Override
+		protected void compute() {
+			try {
+				runnable.run();
+			} catch(Throwable t) {
+				exception = t;
+				logger.error("Worker thread execution failed: " + t.getMessage(), t);
+				pool.shutdownNow();
+			} finally {
+				currentCounter().completed.incrementAndGet();
+			}
+		}
+	}
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Johannes Lerch.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ * 
+ * Contributors:
+ *     Johannes Lerch - initial API and implementation
+ ******************************************************************************/
+package heros.utilities;
+
+import heros.ThreadSafe;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aggregates the number of processed edges and the time spent processing them by key, e.g. by method,
+ * call site or source fact, to find the hotspots of an analysis.
+ */
+@ThreadSafe
+public class HotspotProfile {
+
+	public static final String METHODS = "methods";
+	public static final String CALL_SITES = "callSites";
+	public static final String SOURCE_FACTS = "sourceFacts";
+
+	private final ConcurrentMap<String, ConcurrentMap<Object, Counts>> categories = new ConcurrentHashMap<String, ConcurrentMap<Object, Counts>>();
+
+	private static class Counts {
+		final AtomicLong edges = new AtomicLong();
+		final AtomicLong nanos = new AtomicLong();
+	}
+
+	/**
+	 * The aggregated counts of one key.
+	 */
+	public static class Hotspot {
+		public final Object key;
+		public final long edges;
+		public final long nanos;
+
+		Hotspot(Object key, long edges, long nanos) {
+			this.key = key;
+			this.edges = edges;
+			this.nanos = nanos;
+		}
+
+		@Override
+		public String toString() {
+			return key + ": " + edges + " edges, " + nanos / 1000000 + " ms";
+		}
+	}
+
+	/**
+	 * Records an edge of the given key in the given category, which took the given time to process.
+	 */
+	public void record(String category, Object key, long nanos) {
+		ConcurrentMap<Object, Counts> counts = categories.get(category);
+		if(counts == null) {
+			ConcurrentMap<Object, Counts> newCounts = new ConcurrentHashMap<Object, Counts>();
+			counts = categories.putIfAbsent(category, newCounts);
+			if(counts == null)
+				counts = newCounts;
+		}
+		Counts countsOfKey = counts.get(key);
+		if(countsOfKey == null) {
+			Counts newCountsOfKey = new Counts();
+			countsOfKey = counts.putIfAbsent(key, newCountsOfKey);
+			if(countsOfKey == null)
+				countsOfKey = newCountsOfKey;
+		}
+		countsOfKey.edges.incrementAndGet();
+		countsOfKey.nanos.addAndGet(nanos);
+	}
+
+	/**
+	 * Returns the given number of keys of the given category that took most time, in descending order.
+	 */
+	public List<Hotspot> top(String category, int limit) {
+		ConcurrentMap<Object, Counts> counts = categories.get(category);
+		if(counts == null)
+			return Collections.emptyList();
+		List<Hotspot> hotspots = new ArrayList<Hotspot>(counts.size());
+		for(Entry<Object, Counts> entry : counts.entrySet())
+			hotspots.add(new Hotspot(entry.getKey(), entry.getValue().edges.get(), entry.getValue().nanos.get()));
+		Collections.sort(hotspots, new Comparator<Hotspot>() {
+			@Override
+			public int compare(Hotspot o1, Hotspot o2) {
+				if(o1.nanos != o2.nanos)
+					return o1.nanos > o2.nanos ? -1 : 1;
+				return o1.edges > o2.edges ? -1 : (o1.edges == o2.edges ? 0 : 1);
+			}
+		});
+		return hotspots.subList(0, Math.min(limit, hotspots.size()));
+	}
+
+	/**
+	 * Returns a document with the given number of top keys per category. Each category maps the rank of a
+	 * key, starting at 1, to its counts.
+	 */
+	public JsonDocument toJson(int limit) {
+		JsonDocument root = new JsonDocument();
+		for(String category : categories.keySet()) {
+			JsonDocument categoryDoc = root.doc(category);
+			int rank = 1;
+			for(Hotspot hotspot : top(category, limit)) {
+				JsonDocument doc = categoryDoc.doc(String.valueOf(rank++));
+				doc.keyValue("key", String.valueOf(hotspot.key));
+				doc.keyValue("edges", String.valueOf(hotspot.edges));
+				doc.keyValue("nanos", String.valueOf(hotspot.nanos));
+			}
+		}
+		return root;
+	}
+
+	/**
+	 * Writes the report of {@link #toJson(int)} to the given file, streaming it to disk.
+	 */
+	public void writeJson(String filename, int limit) throws IOException {
+		Writer writer = new BufferedWriter(new FileWriter(filename));
+		try {
+			toJson(limit).write(writer, 0);
+		} finally {
+			writer.close();
+		}
+	}
+}
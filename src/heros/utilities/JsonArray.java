@@ -10,6 +10,7 @@
  ******************************************************************************/
 package heros.utilities;
 
+import java.io.IOException;
 import java.util.List;
 
 import com.google.common.collect.Lists;
@@ -23,14 +24,23 @@ public class JsonArray {
 	}
 
 	public void write(StringBuilder builder, int tabs) {
-		builder.append("[\n");
+		try {
+			write((Appendable) builder, tabs);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	void write(Appendable out, int tabs) throws IOException {
+		out.append("[\n");
+		boolean first = true;
 		for(String item: items) {
-			JsonDocument.tabs(tabs+1, builder); builder.append("\""+item+"\",\n");
+			first = JsonDocument.separate(out, first);
+			JsonDocument.tabs(tabs+1, out); out.append("\"").append(JsonDocument.escape(item)).append("\"");
 		}
 		
-		if(!items.isEmpty())
-			builder.delete(builder.length()-2, builder.length()-1); 
-		
-		JsonDocument.tabs(tabs, builder); builder.append("]");
+		if(!first)
+			out.append("\n");
+		JsonDocument.tabs(tabs, out); out.append("]");
 	}
 }
\ No newline at end of file
@@ -10,6 +10,8 @@
  ******************************************************************************/
 package heros.utilities;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -58,32 +60,79 @@ public class JsonDocument {
 	}
 	
 	public void write(StringBuilder builder, int tabs) {
-		builder.append("{\n");
+		try {
+			write((Appendable) builder, tabs);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Writes this document to the given writer as it goes, without building the whole string in memory.
+	 */
+	public void write(Writer writer, int tabs) throws IOException {
+		write((Appendable) writer, tabs);
+	}
+	
+	void write(Appendable out, int tabs) throws IOException {
+		out.append("{\n");
+		boolean first = true;
 		
 		for(Entry<String, String> entry : keyValuePairs.entrySet()) {
-			tabs(tabs+1, builder); builder.append("\""+entry.getKey()+"\": \""+entry.getValue()+"\",\n");
+			first = separate(out, first);
+			tabs(tabs+1, out); out.append("\"").append(escape(entry.getKey())).append("\": \"").append(escape(entry.getValue())).append("\"");
 		}
 		
 		for(Entry<String, JsonArray> entry : arrays.entrySet()) {
-			tabs(tabs+1, builder); builder.append("\""+entry.getKey()+"\": ");
-			entry.getValue().write(builder, tabs+1);
-			builder.append(",\n");
+			first = separate(out, first);
+			tabs(tabs+1, out); out.append("\"").append(escape(entry.getKey())).append("\": ");
+			entry.getValue().write(out, tabs+1);
 		}
 		
 		for(Entry<String, JsonDocument> entry : documents.entrySet()) {
-			tabs(tabs+1, builder); builder.append("\""+entry.getKey()+"\": ");
-			entry.getValue().write(builder, tabs+1);
-			builder.append(",\n");
+			first = separate(out, first);
+			tabs(tabs+1, out); out.append("\"").append(escape(entry.getKey())).append("\": ");
+			entry.getValue().write(out, tabs+1);
 		}
 		
-		if(!keyValuePairs.isEmpty() || !arrays.isEmpty() || !documents.isEmpty())
-			builder.delete(builder.length()-2, builder.length()-1); 
-		
-		tabs(tabs, builder); builder.append("}");
+		if(!first)
+			out.append("\n");
+		tabs(tabs, out); out.append("}");
+	}
+
+	static boolean separate(Appendable out, boolean first) throws IOException {
+		if(!first)
+			out.append(",\n");
+		return false;
+	}
+
+	static String escape(String value) {
+		StringBuilder result = null;
+		for(int i=0; i<value.length(); i++) {
+			char c = value.charAt(i);
+			String escaped;
+			switch(c) {
+			case '"': escaped = "\\\""; break;
+			case '\\': escaped = "\\\\"; break;
+			case '\n': escaped = "\\n"; break;
+			case '\r': escaped = "\\r"; break;
+			case '\t': escaped = "\\t"; break;
+			default:
+				//other control characters are not allowed in JSON strings
+				escaped = c < 0x20 ? String.format("\\u%04x", (int) c) : null;
+			}
+			if(escaped != null) {
+				if(result == null)
+					result = new StringBuilder(value.length() + 16).append(value, 0, i);
+				result.append(escaped);
+			} else if(result != null)
+				result.append(c);
+		}
+		return result == null ? value : result.toString();
 	}
 
-	static void tabs(int tabs, StringBuilder builder) {
+	static void tabs(int tabs, Appendable out) throws IOException {
 		for(int i=0; i<tabs; i++)
-			builder.append("\t");
+			out.append("\t");
 	}
 }
\ No newline at end of file
@@ -21,7 +21,14 @@ import org.junit.runners.Parameterized.Parameters;
 import com.google.common.collect.Lists;
 
 import static heros.utilities.TestHelper.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import heros.solver.BiDiIDESolver.Direction;
+import heros.solver.BiDiIFDSSolver;
+import heros.utilities.JoinableFact;
+import heros.utilities.Statement;
 import heros.utilities.TestHelper;
+import heros.utilities.TestMethod;
 import heros.utilities.TestHelper.TabulationProblemExchange;
 
 @RunWith(Parameterized.class)
@@ -30,18 +37,22 @@ public class BiDiIFDSSolverTest {
 	private TestHelper forwardHelper;
 	private TestHelper backwardHelper;
 	private TabulationProblemExchange exchange;
+	private boolean pipelined;
 	
-	public BiDiIFDSSolverTest(TabulationProblemExchange exchange) {
+	public BiDiIFDSSolverTest(TabulationProblemExchange exchange, boolean pipelined) {
 		this.exchange = exchange;
+		this.pipelined = pipelined;
 		forwardHelper = new TestHelper();
 		backwardHelper = new TestHelper();
 	}
 
-	@Parameters(name="{0}")
+	@Parameters(name="{0}, pipelined={1}")
 	public static Collection<Object[]> parameters() {
 		LinkedList<Object[]> result = Lists.newLinkedList();
-		result.add(new Object[] {TabulationProblemExchange.AsSpecified});
-		result.add(new Object[] {TabulationProblemExchange.ExchangeForwardAndBackward});
+		for(boolean pipelined : new boolean[] {false, true}) {
+			result.add(new Object[] {TabulationProblemExchange.AsSpecified, pipelined});
+			result.add(new Object[] {TabulationProblemExchange.ExchangeForwardAndBackward, pipelined});
+		}
 		return result;
 	}
 	
@@ -59,7 +70,7 @@ public class BiDiIFDSSolverTest {
 				normalStmt("b", flow("0", "2")).succ("a"),
 				exitStmt("a").expectArtificalFlow(flow("2")));
 		
-		forwardHelper.runBiDiSolver(backwardHelper, exchange, "b");
+		forwardHelper.runBiDiSolver(backwardHelper, exchange, pipelined, "b");
 	}
 	
 	@Test
@@ -84,7 +95,11 @@ public class BiDiIFDSSolverTest {
 				startPoints(),
 				exitStmt("x").expectArtificalFlow(kill("3")));
 		
-		forwardHelper.runBiDiSolver(backwardHelper, exchange, "b");
+		BiDiIFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> solver =
+				forwardHelper.runBiDiSolver(backwardHelper, exchange, pipelined, "b");
+		//the direction that leaks first pauses, unless both leak at the same time
+		assertTrue(pausedEdges(solver) <= 1);
+		assertEquals(0, stillPausedEdges(solver));
 	}
 	
 	@Test
@@ -109,7 +124,10 @@ public class BiDiIFDSSolverTest {
 				startPoints(),
 				exitStmt("x").expectArtificalFlow(/*none*/));
 		
-		forwardHelper.runBiDiSolver(backwardHelper, exchange, "b");
+		BiDiIFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> solver =
+				forwardHelper.runBiDiSolver(backwardHelper, exchange, pipelined, "b");
+		assertEquals(2, pausedEdges(solver));
+		assertEquals(2, stillPausedEdges(solver));
 	}
 	
 	@Test
@@ -134,7 +152,7 @@ public class BiDiIFDSSolverTest {
 				startPoints(),
 				exitStmt("x").expectArtificalFlow(/*none*/));
 		
-		forwardHelper.runBiDiSolver(backwardHelper, exchange, "b");
+		forwardHelper.runBiDiSolver(backwardHelper, exchange, pipelined, "b");
 	}
 	
 	@Test
@@ -156,7 +174,7 @@ public class BiDiIFDSSolverTest {
 				startPoints(),
 				exitStmt("a").expectArtificalFlow(kill("0")));
 					
-		forwardHelper.runBiDiSolver(backwardHelper, exchange, "a");
+		forwardHelper.runBiDiSolver(backwardHelper, exchange, pipelined, "a");
 	}
 	
 	@Test
@@ -180,7 +198,7 @@ public class BiDiIFDSSolverTest {
 				exitStmt("a1").expectArtificalFlow(kill("0")),
 				exitStmt("a2").expectArtificalFlow(kill("0")));
 					
-		forwardHelper.runBiDiSolver(backwardHelper, exchange, "a1", "a2");
+		forwardHelper.runBiDiSolver(backwardHelper, exchange, pipelined, "a1", "a2");
 	}
 
 	@Test
@@ -203,6 +221,14 @@ public class BiDiIFDSSolverTest {
 				startPoints(),
 				normalStmt("x").succ("z" /*none*/));
 		
-		forwardHelper.runBiDiSolver(backwardHelper, exchange, "a");
+		forwardHelper.runBiDiSolver(backwardHelper, exchange, pipelined, "a");
+	}
+
+	private static long pausedEdges(BiDiIFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> solver) {
+		return solver.getStatistics(Direction.FORWARD).getPausedEdges() + solver.getStatistics(Direction.BACKWARD).getPausedEdges();
+	}
+	
+	private static long stillPausedEdges(BiDiIFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> solver) {
+		return solver.getStatistics(Direction.FORWARD).getStillPausedEdges() + solver.getStatistics(Direction.BACKWARD).getStillPausedEdges();
 	}
 }
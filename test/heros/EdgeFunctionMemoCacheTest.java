@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import heros.edgefunc.EdgeIdentity;
+
+import org.junit.Test;
+
+import com.google.common.cache.CacheBuilder;
+
+public class EdgeFunctionMemoCacheTest {
+
+	private final EdgeFunctionMemoCache<Integer> memoCache = new EdgeFunctionMemoCache<Integer>(CacheBuilder.newBuilder().maximumSize(10));
+
+	@Test
+	public void composesOnlyOnce() {
+		Add add1 = new Add(1);
+		EdgeFunction<Integer> first = memoCache.memoize(add1);
+		EdgeFunction<Integer> second = memoCache.memoize(new Add(2));
+		EdgeFunction<Integer> composition = first.composeWith(second);
+		assertEquals(3, composition.computeTarget(0).intValue());
+		assertSame(composition, memoCache.memoize(new Add(1)).composeWith(new Add(2)));
+		assertEquals(1, add1.compositions);
+		assertEquals(1, memoCache.compositionStats().hitCount());
+		assertEquals(1, memoCache.compositionStats().missCount());
+	}
+
+	@Test
+	public void joinsOnlyOnce() {
+		Add add1 = new Add(1);
+		EdgeFunction<Integer> join = memoCache.memoize(add1).joinWith(memoCache.memoize(new Add(2)));
+		assertEquals(2, join.computeTarget(0).intValue());
+		assertSame(join, memoCache.memoize(add1).joinWith(new Add(2)));
+		assertEquals(1, add1.joins);
+		assertEquals(0.5, memoCache.joinStats().hitRate(), 0);
+	}
+
+	@Test
+	public void resultsAreMemoized() {
+		EdgeFunction<Integer> composition = memoCache.memoize(new Add(1)).composeWith(new Add(2));
+		assertTrue(composition.equalTo(new Add(3)));
+		assertEquals(new Add(3), EdgeFunctionMemoCache.unwrap(composition));
+		assertEquals(6, composition.composeWith(new Add(3)).computeTarget(0).intValue());
+		assertEquals(2, memoCache.compositionStats().missCount());
+	}
+
+	@Test
+	public void doesNotWrapTrivialFunctions() {
+		EdgeFunction<Integer> id = EdgeIdentity.v();
+		assertSame(id, memoCache.memoize(id));
+		EdgeFunction<Integer> add1 = memoCache.memoize(new Add(1));
+		assertSame(add1, memoCache.memoize(add1));
+		assertFalse(add1.equalTo(id));
+	}
+
+	private static class Add implements EdgeFunction<Integer> {
+
+		private final int value;
+		private int compositions;
+		private int joins;
+
+		public Add(int value) {
+			this.value = value;
+		}
+
+		public Integer computeTarget(Integer source) {
+			return source + value;
+		}
+
+		public EdgeFunction<Integer> composeWith(EdgeFunction<Integer> secondFunction) {
+			compositions++;
+			//fails if the argument is still wrapped
+			return new Add(value + ((Add) secondFunction).value);
+		}
+
+		public EdgeFunction<Integer> joinWith(EdgeFunction<Integer> otherFunction) {
+			joins++;
+			return new Add(Math.max(value, ((Add) otherFunction).value));
+		}
+
+		public boolean equalTo(EdgeFunction<Integer> other) {
+			return equals(other);
+		}
+
+		@Override
+		public int hashCode() {
+			return value;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Add && ((Add) obj).value == value;
+		}
+	}
+}
@@ -11,19 +11,42 @@
 package heros;
 
 import heros.utilities.TestHelper;
+import heros.utilities.TestHelper.SolverVariant;
+
+import java.util.Collection;
+import java.util.LinkedList;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.google.common.collect.Lists;
 
 import static heros.utilities.TestHelper.*;
 
+@RunWith(Parameterized.class)
 public class IFDSSolverTest {
 
 	private TestHelper helper;
+	private SolverVariant variant;
+	
+	public IFDSSolverTest(SolverVariant variant) {
+		this.variant = variant;
+	}
+	
+	@Parameters(name="{0}")
+	public static Collection<Object[]> parameters() {
+		LinkedList<Object[]> result = Lists.newLinkedList();
+		for(SolverVariant variant : SolverVariant.values())
+			result.add(new Object[] {variant});
+		return result;
+	}
 
 	@Before
 	public void before() {
-		helper = new TestHelper();
+		helper = new TestHelper(variant);
 	}
 	
 	@Test
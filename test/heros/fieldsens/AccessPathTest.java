@@ -14,6 +14,7 @@ import static heros.fieldsens.AccessPath.PrefixTestResult.*;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.regex.Matcher;
@@ -168,6 +169,28 @@ public class AccessPathTest {
 		assertEquals(GUARANTEED_PREFIX,ap("^f").isPrefixOf(ap("g.h")));
 	}
 	
+	@Test
+	public void canonicalInstances() {
+		assertSame(ap("a.b^f,g"), ap("a.b^g,f"));
+		assertSame(ap("a.b"), ap("b").prepend("a"));
+		assertSame(ap("b"), ap("a.b").removeFirst());
+	}
+	
+	@Test
+	public void deltaAppliedToPrefixIsCanonical() {
+		AccessPath<String> prefix = ap("a");
+		AccessPath<String> accPath = ap("a.b.c^f");
+		assertSame(accPath, prefix.getDeltaTo(accPath).applyTo(prefix));
+		assertSame(ap("b.c^f"), prefix.getDeltaToAsAccessPath(accPath));
+	}
+	
+	@Test
+	public void truncate() {
+		assertSame(ap("a.b"), ap("a.b.c^f").truncate(2));
+		assertSame(AccessPath.<String>empty(), ap("a.b^f").truncate(0));
+		assertEquals(ap("a.b^f"), ap("a.b^f").truncate(2));
+	}
+	
 	@Test
 	public void testExclusionRequiresFieldAccess() {
 		assertEquals(GUARANTEED_PREFIX,ap("").isPrefixOf(ap("^f")));
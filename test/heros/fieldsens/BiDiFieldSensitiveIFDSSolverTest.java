@@ -42,20 +42,24 @@ public class BiDiFieldSensitiveIFDSSolverTest {
 	private FieldSensitiveTestHelper forwardHelper;
 	private FieldSensitiveTestHelper backwardHelper;
 	private TabulationProblemExchange exchange;
+	private boolean concurrent;
 	private TestDebugger<String, TestFact, Statement, TestMethod> debugger;
 	
-	public BiDiFieldSensitiveIFDSSolverTest(TabulationProblemExchange exchange) {
+	public BiDiFieldSensitiveIFDSSolverTest(TabulationProblemExchange exchange, boolean concurrent) {
 		this.exchange = exchange;
+		this.concurrent = concurrent;
 		debugger = new TestDebugger<String, TestFact, Statement, TestMethod>();
 		forwardHelper = new FieldSensitiveTestHelper(debugger);
 		backwardHelper = new FieldSensitiveTestHelper(debugger);
 	}
 
-	@Parameters(name="{0}")
+	@Parameters(name="{0}, concurrent={1}")
 	public static Collection<Object[]> parameters() {
 		LinkedList<Object[]> result = Lists.newLinkedList();
-		result.add(new Object[] {TabulationProblemExchange.AsSpecified});
-		result.add(new Object[] {TabulationProblemExchange.ExchangeForwardAndBackward});
+		for(boolean concurrent : new boolean[] {false, true}) {
+			result.add(new Object[] {TabulationProblemExchange.AsSpecified, concurrent});
+			result.add(new Object[] {TabulationProblemExchange.ExchangeForwardAndBackward, concurrent});
+		}
 		return result;
 	}
 	
@@ -73,7 +77,7 @@ public class BiDiFieldSensitiveIFDSSolverTest {
 				normalStmt("b", flow("0", "2")).succ("a"),
 				exitStmt("a").expectArtificalFlow(flow("2")));
 		
-		forwardHelper.runBiDiSolver(backwardHelper, exchange, "b");
+		forwardHelper.runBiDiSolver(backwardHelper, exchange, concurrent, "b");
 	}
 	
 	@Test
@@ -100,7 +104,7 @@ public class BiDiFieldSensitiveIFDSSolverTest {
 				normalStmt("y").succ("x"),
 				exitStmt("x").expectArtificalFlow(kill("3")));
 		
-		forwardHelper.runBiDiSolver(backwardHelper, exchange, "b");
+		forwardHelper.runBiDiSolver(backwardHelper, exchange, concurrent, "b");
 	}
 	
 	@Test
@@ -127,7 +131,7 @@ public class BiDiFieldSensitiveIFDSSolverTest {
 				normalStmt("y2").succ("x"),
 				exitStmt("x").expectArtificalFlow(/*none*/));
 		
-		forwardHelper.runBiDiSolver(backwardHelper, exchange, "b");
+		forwardHelper.runBiDiSolver(backwardHelper, exchange, concurrent, "b");
 	}
 	
 	@Test
@@ -154,7 +158,7 @@ public class BiDiFieldSensitiveIFDSSolverTest {
 				normalStmt("y").succ("x"),
 				exitStmt("x").expectArtificalFlow(/*none*/));
 		
-		forwardHelper.runBiDiSolver(backwardHelper, exchange, "b");
+		forwardHelper.runBiDiSolver(backwardHelper, exchange, concurrent, "b");
 	}
 	
 	@Test
@@ -176,7 +180,7 @@ public class BiDiFieldSensitiveIFDSSolverTest {
 				startPoints(),
 				exitStmt("a").expectArtificalFlow(kill("0")));
 					
-		forwardHelper.runBiDiSolver(backwardHelper, exchange, "a");
+		forwardHelper.runBiDiSolver(backwardHelper, exchange, concurrent, "a");
 	}
 	
 	@Test
@@ -200,7 +204,7 @@ public class BiDiFieldSensitiveIFDSSolverTest {
 				exitStmt("a1").expectArtificalFlow(kill("0")),
 				exitStmt("a2").expectArtificalFlow(kill("0")));
 					
-		forwardHelper.runBiDiSolver(backwardHelper, exchange, "a1", "a2");
+		forwardHelper.runBiDiSolver(backwardHelper, exchange, concurrent, "a1", "a2");
 	}
 
 	@Test
@@ -224,6 +228,6 @@ public class BiDiFieldSensitiveIFDSSolverTest {
 				normalStmt("cs").succ("x"),
 				normalStmt("x").succ("z" /*none*/));
 		
-		forwardHelper.runBiDiSolver(backwardHelper, exchange, "a");
+		forwardHelper.runBiDiSolver(backwardHelper, exchange, concurrent, "a");
 	}
 }
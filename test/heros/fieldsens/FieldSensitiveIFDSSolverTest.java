@@ -13,28 +13,55 @@ package heros.fieldsens;
 
 
 import heros.InterproceduralCFG;
+import heros.SinkListener;
 import heros.utilities.Statement;
 import heros.utilities.TestFact;
 import heros.utilities.TestMethod;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TestWatcher;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.google.common.collect.Lists;
 
 import static heros.fieldsens.FieldSensitiveTestHelper.*;
+import static org.junit.Assert.assertEquals;
 
+@RunWith(Parameterized.class)
 public class FieldSensitiveIFDSSolverTest {
 
 	private FieldSensitiveTestHelper helper;
 	private TestDebugger<String, TestFact, Statement, TestMethod> debugger;
+	private int numThreads;
+
+	public FieldSensitiveIFDSSolverTest(int numThreads) {
+		this.numThreads = numThreads;
+	}
+
+	@Parameters(name="threads={0}")
+	public static Collection<Object[]> parameters() {
+		List<Object[]> result = Lists.newLinkedList();
+		//zero runs on the single-threaded Scheduler
+		result.add(new Object[] {0});
+		result.add(new Object[] {1});
+		result.add(new Object[] {4});
+		return result;
+	}
 
 	@Before
 	public void before() {
 		System.err.println("-----");
 		debugger = new TestDebugger<String, TestFact, Statement, TestMethod>();
 		helper = new FieldSensitiveTestHelper(debugger);
+		helper.runOnThreads(numThreads);
 	}
 	
 	@Rule
@@ -58,6 +85,45 @@ public class FieldSensitiveIFDSSolverTest {
 		helper.runSolver(false, "a");
 	}
 	
+	@Test
+	public void readBeyondAccessPathLimit() {
+		helper.limitAccessPaths(1);
+		helper.method("foo",
+				startPoints("a"),
+				normalStmt("a", flow("0", "1")).succ("b"),
+				callSite("b").calls("bar", flow("1", "2")));
+		
+		helper.method("bar",
+				startPoints("c"),
+				normalStmt("c", flow("2", prependField("f"), "3")).succ("d"),
+				normalStmt("d", flow("3", prependField("g"), "4")).succ("e"),
+				normalStmt("e", flow("4", readField("g"), "5")).succ("f"),
+				normalStmt("f", flow("5", readField("x"), "6")).succ("h"),
+				normalStmt("h", kill("6")).succ("i"));
+		helper.runSolver(false, "a");
+	}
+	
+	@Test
+	public void reportFactsAtSink() {
+		final List<TestFact> reached = Lists.newLinkedList();
+		helper.listenAtSinks(new SinkListener<Statement, TestFact>() {
+			@Override
+			public void reachedSink(Statement sink, TestFact fact) {
+				reached.add(fact);
+			}
+		}, "d");
+		helper.method("foo",
+				startPoints("a"),
+				normalStmt("a", flow("0", "1")).succ("b"),
+				callSite("b").calls("bar", flow("1", prependField("f"), "2")).retSite("d", kill("1")));
+		
+		helper.method("bar",
+				startPoints("c"),
+				exitStmt("c").returns(over("b"), to("d"), flow("2", readField("f"), "3")));
+		helper.runSolver(false, "a");
+		assertEquals(Lists.newArrayList(new TestFact("3")), reached);
+	}
+	
 	@Test
 	public void createSummaryForBaseValue() {
 		helper.method("bar", 
@@ -12,6 +12,7 @@ package heros.fieldsens;
 
 import static org.junit.Assert.assertTrue;
 import heros.InterproceduralCFG;
+import heros.SinkListener;
 import heros.utilities.Edge;
 import heros.utilities.Edge.Call2ReturnEdge;
 import heros.utilities.Edge.CallEdge;
@@ -48,7 +49,7 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.collect.HashMultimap;
-import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ConcurrentHashMultiset;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -58,20 +59,49 @@ import com.google.common.collect.Sets;
 
 public class FieldSensitiveTestHelper {
 
+	//threads of each direction's scheduler when running a bidirectional solver concurrently
+	private static final int CONCURRENT_THREADS_PER_DIRECTION = 4;
+
 	private Multimap<TestMethod, Statement> method2startPoint = HashMultimap.create();
 	private List<NormalEdge> normalEdges = Lists.newLinkedList();
 	private List<CallEdge> callEdges = Lists.newLinkedList();
 	private List<Call2ReturnEdge> call2retEdges = Lists.newLinkedList();
 	private List<ReturnEdge> returnEdges = Lists.newLinkedList();
 	private Map<Statement, TestMethod> stmt2method = Maps.newHashMap();
-	private Multiset<ExpectedFlowFunction> remainingFlowFunctions = HashMultiset.create();
+	private Multiset<ExpectedFlowFunction> remainingFlowFunctions = ConcurrentHashMultiset.create();
 	private TestDebugger<String, TestFact, Statement, TestMethod> debugger;
-	private Multiset<String> unexpectedUsages = HashMultiset.create();
+	private Multiset<String> unexpectedUsages = ConcurrentHashMultiset.create();
+	private int accessPathLengthLimit;
+	private Collection<Statement> sinks;
+	private SinkListener<Statement, TestFact> sinkListener;
+	private int numThreads;
 
 	public FieldSensitiveTestHelper(TestDebugger<String, TestFact, Statement, TestMethod> debugger) {
 		this.debugger = debugger;
 	}
 
+	/**
+	 * Runs the solver on a {@link ParallelScheduler} with the given number of threads, or on a {@link Scheduler} if zero.
+	 */
+	public void runOnThreads(int numThreads) {
+		this.numThreads = numThreads;
+	}
+
+	private Scheduler createScheduler() {
+		return numThreads > 0 ? new ParallelScheduler(numThreads) : new Scheduler();
+	}
+
+	public void limitAccessPaths(int accessPathLengthLimit) {
+		this.accessPathLengthLimit = accessPathLengthLimit;
+	}
+
+	public void listenAtSinks(SinkListener<Statement, TestFact> sinkListener, String... sinks) {
+		this.sinkListener = sinkListener;
+		this.sinks = Lists.newArrayList();
+		for(String sink : sinks)
+			this.sinks.add(new Statement(sink));
+	}
+
 	public MethodHelper method(String methodName, Statement[] startingPoints, EdgeBuilder... edgeBuilders) {
 		MethodHelper methodHelper = new MethodHelper(new TestMethod(methodName));
 		methodHelper.startPoints(startingPoints);
@@ -509,7 +539,7 @@ public class FieldSensitiveTestHelper {
 	}
 
 	public void runSolver(final boolean followReturnsPastSeeds, final String...initialSeeds) {
-		Scheduler scheduler = new Scheduler();
+		Scheduler scheduler = createScheduler();
 		FieldSensitiveIFDSSolver<String, TestFact, Statement, TestMethod, InterproceduralCFG<Statement,TestMethod>> solver = new FieldSensitiveIFDSSolver<String ,TestFact, Statement, TestMethod, InterproceduralCFG<Statement,TestMethod>>(
 				createTabulationProblem(followReturnsPastSeeds, initialSeeds), new FactMergeHandler<TestFact>() {
 					@Override
@@ -520,7 +550,9 @@ public class FieldSensitiveTestHelper {
 					public void restoreCallingContext(TestFact factAtReturnSite, TestFact factAtCallSite) {
 					}
 					
-				}, debugger, scheduler);
+				}, debugger, scheduler, accessPathLengthLimit);
+		if(sinkListener != null)
+			solver.addSinkListener(sinks, sinkListener);
 		addExpectationsToDebugger();
 		scheduler.runAndAwaitCompletion();
 		
@@ -591,7 +623,7 @@ public class FieldSensitiveTestHelper {
 			public TestFact zeroValue() {
 				return new TestFact("0");
 			}
-			
+
 			@Override
 			public ZeroHandler<String> zeroHandler() {
 				return new ZeroHandler<String>() {
@@ -606,6 +638,15 @@ public class FieldSensitiveTestHelper {
 	
 	public static enum TabulationProblemExchange {AsSpecified, ExchangeForwardAndBackward};
 	public void runBiDiSolver(FieldSensitiveTestHelper backwardHelper, TabulationProblemExchange direction, final String...initialSeeds) {
+		runBiDiSolver(backwardHelper, direction, false, initialSeeds);
+	}
+
+	/**
+	 * @param concurrent If <code>true</code>, both directions run concurrently on separate {@link ParallelScheduler}s
+	 * 			with {@link #CONCURRENT_THREADS_PER_DIRECTION} threads each.
+	 * 			The debugger is not used then, as it is not thread-safe.
+	 */
+	public void runBiDiSolver(FieldSensitiveTestHelper backwardHelper, TabulationProblemExchange direction, boolean concurrent, final String...initialSeeds) {
 		FactMergeHandler<TestFact> factMergeHandler = new FactMergeHandler<TestFact>() {
 			@Override
 			public void merge(TestFact previousFact, TestFact currentFact) {
@@ -616,19 +657,22 @@ public class FieldSensitiveTestHelper {
 			}
 			
 		};
-		Scheduler scheduler = new Scheduler();
+		Debugger<String, TestFact, Statement, TestMethod> debugger = concurrent ? 
+				new Debugger.NullDebugger<String, TestFact, Statement, TestMethod>() : this.debugger;
+		Scheduler forwardScheduler = concurrent ? new ParallelScheduler(CONCURRENT_THREADS_PER_DIRECTION) : new Scheduler();
+		Scheduler backwardScheduler = concurrent ? new ParallelScheduler(CONCURRENT_THREADS_PER_DIRECTION) : forwardScheduler;
 		BiDiFieldSensitiveIFDSSolver<String, TestFact, Statement, TestMethod, InterproceduralCFG<Statement, TestMethod>> solver =
 				direction == TabulationProblemExchange.AsSpecified ? 
 				new BiDiFieldSensitiveIFDSSolver<String, TestFact, Statement, TestMethod, InterproceduralCFG<Statement, TestMethod>>(
 						createTabulationProblem(true, initialSeeds), 
 						backwardHelper.createTabulationProblem(true, initialSeeds),
-						factMergeHandler, debugger, scheduler) :
+						factMergeHandler, debugger, forwardScheduler, backwardScheduler) :
 				new BiDiFieldSensitiveIFDSSolver<String, TestFact, Statement, TestMethod, InterproceduralCFG<Statement, TestMethod>>(
 						backwardHelper.createTabulationProblem(true, initialSeeds), 
 						createTabulationProblem(true, initialSeeds),
-						factMergeHandler, debugger, scheduler);
+						factMergeHandler, debugger, forwardScheduler, backwardScheduler);
 		
-		scheduler.runAndAwaitCompletion();
+		solver.runAndAwaitCompletion();
 		assertAllFlowFunctionsUsed();
 		backwardHelper.assertAllFlowFunctionsUsed();
 	}
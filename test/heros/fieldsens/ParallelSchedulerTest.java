@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Johannes Lerch.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Johannes Lerch - initial API and implementation
+ ******************************************************************************/
+package heros.fieldsens;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class ParallelSchedulerTest {
+
+	private ParallelScheduler scheduler = new ParallelScheduler(4);
+
+	@Test
+	public void runsAllScheduledJobs() {
+		final AtomicInteger counter = new AtomicInteger();
+		for(int i=0; i<10; i++) {
+			final int partition = i;
+			scheduler.schedule(partition, new Runnable() {
+				@Override
+				public void run() {
+					for(int j=0; j<100; j++) {
+						scheduler.schedule(partition, new Runnable() {
+							@Override
+							public void run() {
+								counter.incrementAndGet();
+							}
+						});
+					}
+				}
+			});
+		}
+		scheduler.runAndAwaitCompletion();
+		assertEquals(1000, counter.get());
+	}
+
+	@Test
+	public void jobsOfSamePartitionDoNotRunConcurrently() {
+		final AtomicBoolean running = new AtomicBoolean();
+		final AtomicBoolean overlapped = new AtomicBoolean();
+		for(int i=0; i<500; i++) {
+			scheduler.schedule("a", new Runnable() {
+				@Override
+				public void run() {
+					if(!running.compareAndSet(false, true))
+						overlapped.set(true);
+					Thread.yield();
+					running.set(false);
+				}
+			});
+		}
+		scheduler.runAndAwaitCompletion();
+		assertFalse(overlapped.get());
+	}
+
+	@Test
+	public void sendToLocalPartitionRunsInline() {
+		final AtomicBoolean inline = new AtomicBoolean();
+		scheduler.schedule("a", new Runnable() {
+			@Override
+			public void run() {
+				final AtomicBoolean delivered = new AtomicBoolean();
+				scheduler.send("a", new Runnable() {
+					@Override
+					public void run() {
+						delivered.set(true);
+					}
+				});
+				inline.set(delivered.get());
+			}
+		});
+		scheduler.runAndAwaitCompletion();
+		assertTrue(inline.get());
+	}
+
+	@Test
+	public void sendToOtherPartitionIsScheduled() {
+		final AtomicBoolean inline = new AtomicBoolean();
+		final AtomicBoolean delivered = new AtomicBoolean();
+		final AtomicBoolean deliveredToTarget = new AtomicBoolean();
+		//the thread currently sending, the job may run concurrently on another thread
+		final AtomicReference<Thread> sender = new AtomicReference<Thread>();
+		scheduler.schedule("a", new Runnable() {
+			@Override
+			public void run() {
+				sender.set(Thread.currentThread());
+				scheduler.send("b", new Runnable() {
+					@Override
+					public void run() {
+						inline.set(sender.get() == Thread.currentThread());
+						delivered.set(true);
+						deliveredToTarget.set("b".equals(scheduler.currentPartition()));
+					}
+				});
+				sender.set(null);
+			}
+		});
+		scheduler.runAndAwaitCompletion();
+		assertFalse(inline.get());
+		assertTrue(delivered.get());
+		assertTrue(deliveredToTarget.get());
+	}
+
+	@Test
+	public void everyPartitionIsLocalOutsideOfRun() {
+		assertTrue(scheduler.isLocal("a"));
+		assertNull(scheduler.currentPartition());
+	}
+
+	@Test
+	public void rethrowsExceptionOfJob() {
+		scheduler.schedule("a", new Runnable() {
+			@Override
+			public void run() {
+				throw new IllegalStateException();
+			}
+		});
+		try {
+			scheduler.runAndAwaitCompletion();
+			fail();
+		} catch(RuntimeException e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+	}
+}
@@ -15,8 +15,10 @@ import heros.fieldsens.FlowFunction.Constraint;
 import heros.fieldsens.structs.WrappedFactAtStatement;
 import heros.utilities.JsonDocument;
 
+import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.Map;
 import java.util.Set;
 
@@ -30,11 +32,9 @@ public class TestDebugger<Field, Fact, Stmt, Method> implements Debugger<Field,
 	
 	public void writeJsonDebugFile(String filename) {
 		try {
-			FileWriter writer = new FileWriter(filename);
-			StringBuilder builder = new StringBuilder();
-			builder.append("var root=");
-			root.write(builder, 0);
-			writer.write(builder.toString());
+			Writer writer = new BufferedWriter(new FileWriter(filename));
+			writer.write("var root=");
+			root.write(writer, 0);
 			writer.close();
 		} catch (IOException e) {
 			e.printStackTrace();
@@ -53,7 +53,7 @@ public class TestDebugger<Field, Fact, Stmt, Method> implements Debugger<Field,
 	 * @see heros.alias.Debugger#initialSeed(Stmt)
 	 */
 	@Override
-	public void initialSeed(Stmt stmt) {
+	public synchronized void initialSeed(Stmt stmt) {
 		stmt(stmt).keyValue("seed", "true");
 		
 		includeSuccessors(stmt, Sets.<Stmt> newHashSet());
@@ -147,7 +147,7 @@ public class TestDebugger<Field, Fact, Stmt, Method> implements Debugger<Field,
 	private final Map<HashedTuple, Resolver<Field, Fact, Stmt, Method>> resolverInstances = Maps.newHashMap();
 
 	@Override
-	public void assertNewInstance(HashedTuple tuple, Resolver<Field, Fact, Stmt, Method> resolver) {
+	public synchronized void assertNewInstance(HashedTuple tuple, Resolver<Field, Fact, Stmt, Method> resolver) {
 		if (resolverInstances.containsKey(tuple)) {
 			Resolver<Field, Fact, Stmt, Method> existingResolver = resolverInstances.get(tuple);
 			throw new IllegalStateException("collision with: " + existingResolver);
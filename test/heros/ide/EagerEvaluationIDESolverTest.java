@@ -17,24 +17,49 @@ import heros.utilities.Statement;
 import heros.utilities.TestFact;
 import heros.utilities.TestMethod;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TestWatcher;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.google.common.collect.Lists;
 
 import static heros.ide.EagerEvaluationTestHelper.*;
 
+@RunWith(Parameterized.class)
 public class EagerEvaluationIDESolverTest {
 
 	private EagerEvaluationTestHelper helper;
 	private TestDebugger<TestFact, Statement, TestMethod, AccessPathBundle<String>> debugger;
+	private int numThreads;
+
+	public EagerEvaluationIDESolverTest(int numThreads) {
+		this.numThreads = numThreads;
+	}
+
+	@Parameters(name="threads={0}")
+	public static Collection<Object[]> parameters() {
+		List<Object[]> result = Lists.newLinkedList();
+		//zero runs on the single-threaded Scheduler
+		result.add(new Object[] {0});
+		result.add(new Object[] {1});
+		result.add(new Object[] {4});
+		return result;
+	}
 
 	@Before
 	public void before() {
 		System.err.println("-----");
 		debugger = new TestDebugger<TestFact, Statement, TestMethod, AccessPathBundle<String>>();
 		helper = new EagerEvaluationTestHelper(debugger);
+		helper.runOnThreads(numThreads);
 	}
 	
 	@Rule
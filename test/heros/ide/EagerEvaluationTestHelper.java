@@ -16,6 +16,7 @@ import heros.JoinLattice;
 import heros.fieldsens.AccessPathHandler;
 import heros.fieldsens.FactMergeHandler;
 import heros.fieldsens.FlowFunction.ConstrainedFact;
+import heros.fieldsens.ParallelScheduler;
 import heros.fieldsens.Scheduler;
 import heros.ide.edgefunc.EdgeFunction;
 import heros.ide.edgefunc.fieldsens.AccessPathBundle;
@@ -44,8 +45,8 @@ import java.util.Set;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Predicate;
+import com.google.common.collect.ConcurrentHashMultiset;
 import com.google.common.collect.HashMultimap;
-import com.google.common.collect.HashMultiset;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -61,9 +62,10 @@ public class EagerEvaluationTestHelper {
 	private List<Call2ReturnEdge> call2retEdges = Lists.newLinkedList();
 	private List<ReturnEdge> returnEdges = Lists.newLinkedList();
 	private Map<Statement, TestMethod> stmt2method = Maps.newHashMap();
-	private Multiset<ExpectedFlowFunction> remainingFlowFunctions = HashMultiset.create();
+	private Multiset<ExpectedFlowFunction> remainingFlowFunctions = ConcurrentHashMultiset.create();
 	private TestDebugger<TestFact, Statement, TestMethod, AccessPathBundle<String>> debugger;
-	private Multiset<String> unexpectedUsages = HashMultiset.create();
+	private Multiset<String> unexpectedUsages = ConcurrentHashMultiset.create();
+	private int numThreads;
 	private static JoinLattice<AccessPathBundle<String>> joinLattice = new JoinLattice<AccessPathBundle<String>>() {
 		@Override
 		public AccessPathBundle<String> topElement() {
@@ -86,6 +88,17 @@ public class EagerEvaluationTestHelper {
 		this.debugger = debugger;
 	}
 
+	/**
+	 * Runs the solver on a {@link ParallelScheduler} with the given number of threads, or on a {@link Scheduler} if zero.
+	 */
+	public void runOnThreads(int numThreads) {
+		this.numThreads = numThreads;
+	}
+
+	private Scheduler createScheduler() {
+		return numThreads > 0 ? new ParallelScheduler(numThreads) : new Scheduler();
+	}
+
 	public MethodHelper method(String methodName, Statement[] startingPoints, EdgeBuilder... edgeBuilders) {
 		MethodHelper methodHelper = new MethodHelper(new TestMethod(methodName));
 		methodHelper.startPoints(startingPoints);
@@ -482,7 +495,7 @@ public class EagerEvaluationTestHelper {
 	}
 
 	public void runSolver(final boolean followReturnsPastSeeds, final String...initialSeeds) {
-		Scheduler scheduler = new Scheduler();
+		Scheduler scheduler = createScheduler();
 		EagerEvaluationIDESolver<TestFact, Statement, TestMethod, AccessPathBundle<String>, InterproceduralCFG<Statement,TestMethod>> solver = new EagerEvaluationIDESolver<TestFact, Statement, TestMethod, AccessPathBundle<String>, InterproceduralCFG<Statement,TestMethod>>(
 				createTabulationProblem(followReturnsPastSeeds, initialSeeds), new FactMergeHandler<TestFact>() {
 					@Override
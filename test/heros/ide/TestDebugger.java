@@ -10,8 +10,10 @@
  ******************************************************************************/
 package heros.ide;
 
+import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.Set;
 
 import com.google.common.collect.Sets;
@@ -28,11 +30,9 @@ public class TestDebugger<Fact, Stmt, Method, Value> implements Debugger<Fact, S
 	
 	public void writeJsonDebugFile(String filename) {
 		try {
-			FileWriter writer = new FileWriter(filename);
-			StringBuilder builder = new StringBuilder();
-			builder.append("var root=");
-			root.write(builder, 0);
-			writer.write(builder.toString());
+			Writer writer = new BufferedWriter(new FileWriter(filename));
+			writer.write("var root=");
+			root.write(writer, 0);
 			writer.close();
 		} catch (IOException e) {
 			e.printStackTrace();
@@ -51,7 +51,7 @@ public class TestDebugger<Fact, Stmt, Method, Value> implements Debugger<Fact, S
 	 * @see heros.alias.Debugger#initialSeed(Stmt)
 	 */
 	@Override
-	public void initialSeed(Stmt stmt) {
+	public synchronized void initialSeed(Stmt stmt) {
 		stmt(stmt).keyValue("seed", "true");
 		
 		includeSuccessors(stmt, Sets.<Stmt> newHashSet());
@@ -0,0 +1,64 @@
+package heros.ide.edgefunc.fieldsens;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import heros.JoinLattice;
+import heros.ide.edgefunc.ChainableEdgeFunction;
+import heros.ide.edgefunc.CompositeFunction;
+import heros.ide.edgefunc.EdgeFunction;
+
+import org.junit.Test;
+
+@SuppressWarnings("unchecked")
+public class HashConsingTest {
+
+	private String f = "f";
+	private String g = "g";
+	private Factory<String> factory = new Factory<String>(mock(JoinLattice.class));
+
+	@Test
+	public void factoryReturnsCanonicalFunctions() {
+		assertSame(factory.prepend(f), factory.prepend(f));
+		assertSame(factory.read(f), factory.read(f));
+		assertSame(factory.ensureEmpty(), factory.ensureEmpty());
+	}
+
+	@Test
+	public void compositionIsCanonical() {
+		EdgeFunction<AccessPathBundle<String>> actual = factory.prepend(f).composeWith(factory.prepend(g));
+		assertSame(actual, factory.prepend(f).composeWith(factory.prepend(g)));
+		assertSame(actual, factory.canonicalize(factory.prepend(f).composeWith(factory.prepend(g))));
+	}
+
+	@Test
+	public void joinIsCanonical() {
+		EdgeFunction<AccessPathBundle<String>> actual = factory.prepend(f).joinWith(factory.prepend(g));
+		assertSame(actual, factory.prepend(f).joinWith(factory.prepend(g)));
+		assertSame(actual, factory.canonicalize(new CompositeFunction<AccessPathBundle<String>>(factory, factory.prepend(g), factory.prepend(f))));
+	}
+
+	@Test
+	public void nonCanonicalOperandsYieldCanonicalResults() {
+		EdgeFunction<AccessPathBundle<String>> composite = new CompositeFunction<AccessPathBundle<String>>(factory, factory.read(f), factory.read(g));
+		EdgeFunction<AccessPathBundle<String>> actual = new PrependFunction<String>(factory, f).composeWith(composite);
+		assertSame(factory.id(), actual);
+		assertSame(factory.prepend(f), new PrependFunction<String>(factory, f).joinWith(factory.prepend(f)));
+	}
+
+	@Test
+	public void chainedFunctionsAreCanonical() {
+		ChainableEdgeFunction<AccessPathBundle<String>> actual = (ChainableEdgeFunction<AccessPathBundle<String>>)
+				new PrependFunction<String>(factory, f).composeWith(factory.prepend(g));
+		assertSame(factory.prepend(f), actual.chainedFunction());
+	}
+
+	@Test
+	public void compositeMembersAreCanonical() {
+		EdgeFunction<AccessPathBundle<String>> composite = new CompositeFunction<AccessPathBundle<String>>(factory,
+				new PrependFunction<String>(factory, f), new ReadFunction<String>(factory, g));
+		EdgeFunction<AccessPathBundle<String>> expected = new CompositeFunction<AccessPathBundle<String>>(factory, factory.read(g), factory.prepend(f));
+		assertEquals(expected, composite);
+		assertEquals(expected.hashCode(), composite.hashCode());
+	}
+}
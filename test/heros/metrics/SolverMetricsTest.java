@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.metrics;
+
+import static heros.utilities.TestHelper.callSite;
+import static heros.utilities.TestHelper.exitStmt;
+import static heros.utilities.TestHelper.flow;
+import static heros.utilities.TestHelper.kill;
+import static heros.utilities.TestHelper.normalStmt;
+import static heros.utilities.TestHelper.over;
+import static heros.utilities.TestHelper.startPoints;
+import static heros.utilities.TestHelper.to;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import heros.InterproceduralCFG;
+import heros.metrics.SolverMetrics.FlowFunctionKind;
+import heros.solver.IFDSSolver;
+import heros.utilities.JoinableFact;
+import heros.utilities.Statement;
+import heros.utilities.TestHelper;
+import heros.utilities.TestMethod;
+
+import java.io.StringWriter;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class SolverMetricsTest {
+
+	@Test
+	public void histogramPercentiles() {
+		NanoHistogram histogram = new NanoHistogram();
+		for(int i = 1; i <= 100; i++)
+			histogram.record(i * 10);
+		assertEquals(100, histogram.count());
+		assertEquals(50500, histogram.totalNanos());
+		assertEquals(1000, histogram.maxNanos());
+		long p50 = histogram.percentileNanos(50);
+		assertTrue(p50 >= 500 && p50 < 1000);
+		assertEquals(1000, histogram.percentileNanos(100));
+		assertEquals(0, new NanoHistogram().percentileNanos(99));
+	}
+
+	@Test
+	public void stripedCounterSumsAcrossThreads() throws InterruptedException {
+		final StripedCounter counter = new StripedCounter();
+		Thread[] threads = new Thread[4];
+		for(int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					for(int j = 0; j < 10000; j++)
+						counter.increment();
+				}
+			};
+			threads[i].start();
+		}
+		for(Thread thread : threads)
+			thread.join();
+		assertEquals(40000, counter.sum());
+	}
+
+	@Test
+	public void recordsSolverMetrics() {
+		TestHelper helper = new TestHelper();
+		helper.method("main",
+				startPoints("a"),
+				normalStmt("a", flow("0", "x")).succ("b"),
+				callSite("b").calls("foo", flow("x", "y")).retSite("c", kill("x")));
+		helper.method("foo",
+				startPoints("d"),
+				exitStmt("d").returns(over("b"), to("c"), kill("y")));
+		IFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> solver = helper.createSolver("a");
+		SolverMetrics metrics = new SolverMetrics(true);
+		solver.setMetrics(metrics);
+		solver.solve();
+		helper.assertAllFlowFunctionsUsed();
+
+		assertEquals(metrics.getScheduledPathEdges(), metrics.getProcessedPathEdges());
+		assertEquals(0, metrics.getQueueDepth());
+		assertTrue(metrics.getConstructions(FlowFunctionKind.NORMAL).count() > 0);
+		assertTrue(metrics.getApplications(FlowFunctionKind.CALL).count() > 0);
+		assertTrue(metrics.getApplications(FlowFunctionKind.RETURN).count() > 0);
+		assertTrue(metrics.getLockWaits().count() > 0);
+		assertEquals(2, metrics.getTopMethods(5).size());
+
+		Map<String, Number> snapshot = metrics.snapshot();
+		assertEquals(metrics.getScheduledPathEdges(), snapshot.get("pathEdges.scheduled"));
+		assertTrue(snapshot.containsKey("flowFunctionCache.hitRate"));
+	}
+
+	@Test
+	public void csvReporterWritesHeaderOnce() {
+		SolverMetrics metrics = new SolverMetrics();
+		metrics.pathEdgeScheduled();
+		StringWriter writer = new StringWriter();
+		CsvMetricsReporter reporter = new CsvMetricsReporter(writer);
+		reporter.report(metrics);
+		reporter.report(metrics);
+		String[] lines = writer.toString().split("\n");
+		assertEquals(3, lines.length);
+		assertTrue(lines[0].startsWith("timeMillis,pathEdges.scheduled,"));
+		assertEquals(lines[0].split(",").length, lines[2].split(",").length);
+	}
+}
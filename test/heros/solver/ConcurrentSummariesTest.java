@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import heros.EdgeFunction;
+import heros.edgefunc.AllBottom;
+import heros.edgefunc.EdgeIdentity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Table.Cell;
+
+public class ConcurrentSummariesTest {
+
+	private final EdgeFunction<String> identity = EdgeIdentity.v();
+	private final EdgeFunction<String> allBottom = new AllBottom<String>("bottom");
+
+	@Test
+	public void incomingEdgeSeesEarlierSummaries() {
+		ConcurrentSummaries<String,String,String> summaries = new ConcurrentSummaries<String,String,String>(1);
+		assertTrue(Iterables.isEmpty(summaries.addEndSummary("sP", "d1", "eP", "d2", identity)));
+		Cell<String,String,EdgeFunction<String>> summary = Iterables.getOnlyElement(summaries.addIncoming("sP", "d1", "c", "d0"));
+		assertEquals("eP", summary.getRowKey());
+		assertEquals("d2", summary.getColumnKey());
+		assertSame(identity, summary.getValue());
+	}
+
+	@Test
+	public void summarySeesEarlierIncomingEdges() {
+		ConcurrentSummaries<String,String,String> summaries = new ConcurrentSummaries<String,String,String>(1);
+		assertTrue(Iterables.isEmpty(summaries.addIncoming("sP", "d1", "c", "a")));
+		assertTrue(Iterables.isEmpty(summaries.addIncoming("sP", "d1", "c", "b")));
+		Iterable<Entry<String,Set<String>>> inc = summaries.addEndSummary("sP", "d1", "eP", "d2", identity);
+		summaries.addIncoming("sP", "d1", "c", "later");
+		Entry<String,Set<String>> callSite = Iterables.getOnlyElement(inc);
+		assertEquals("c", callSite.getKey());
+		assertEquals(new HashSet<String>(Arrays.asList("a", "b")), new HashSet<String>(callSite.getValue()));
+		assertFalse(callSite.getValue().contains("later"));
+		assertEquals(3, summaries.incoming("sP", "d1").get("c").size());
+	}
+
+	@Test
+	public void incomingEdgeSeesLatestEarlierVersion() {
+		ConcurrentSummaries<String,String,String> summaries = new ConcurrentSummaries<String,String,String>(1);
+		summaries.addEndSummary("sP", "d1", "eP", "d2", identity);
+		Iterable<Cell<String,String,EdgeFunction<String>>> endSumm = summaries.addIncoming("sP", "d1", "c", "d0");
+		summaries.addEndSummary("sP", "d1", "eP", "d2", allBottom);
+		assertSame(identity, Iterables.getOnlyElement(endSumm).getValue());
+		assertSame(allBottom, Iterables.getOnlyElement(summaries.addIncoming("sP", "d1", "c", "d3")).getValue());
+		assertSame(allBottom, Iterables.getOnlyElement(summaries.endSummary("sP", "d1")).getValue());
+	}
+
+	@Test
+	public void pairsEachIncomingEdgeAndSummaryExactlyOnceUnderConcurrency() throws InterruptedException {
+		final int threads = 8;
+		final int perThread = 500;
+		final ConcurrentSummaries<String,String,String> summaries = new ConcurrentSummaries<String,String,String>(threads);
+		final Set<String> pairs = Collections.newSetFromMap(new ConcurrentHashMap<String,Boolean>());
+		final List<String> duplicates = Collections.synchronizedList(new ArrayList<String>());
+		final CountDownLatch start = new CountDownLatch(1);
+		List<Thread> workers = new ArrayList<Thread>();
+		for(int t=0; t<threads; t++) {
+			final int thread = t;
+			Thread worker = new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					for(int i=0; i<perThread; i++) {
+						String id = thread + "_" + i;
+						if(thread % 2 == 0) {
+							for(Cell<String,String,EdgeFunction<String>> summary: summaries.addIncoming("sP", "d1", "c", id))
+								record(summary.getColumnKey() + "|" + id);
+						} else {
+							for(Entry<String,Set<String>> inc: summaries.addEndSummary("sP", "d1", "eP", id, identity))
+								for(String d2: inc.getValue())
+									record(id + "|" + d2);
+						}
+					}
+				}
+
+				private void record(String pair) {
+					if(!pairs.add(pair))
+						duplicates.add(pair);
+				}
+			};
+			worker.start();
+			workers.add(worker);
+		}
+		start.countDown();
+		for(Thread worker: workers)
+			worker.join();
+		assertTrue(duplicates.toString(), duplicates.isEmpty());
+		int summariesAdded = (threads / 2) * perThread;
+		int incomingAdded = (threads - threads / 2) * perThread;
+		assertEquals(summariesAdded * incomingAdded, pairs.size());
+	}
+}
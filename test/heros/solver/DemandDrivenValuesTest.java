@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import static heros.utilities.TestHelper.callSite;
+import static heros.utilities.TestHelper.exitStmt;
+import static heros.utilities.TestHelper.flow;
+import static heros.utilities.TestHelper.kill;
+import static heros.utilities.TestHelper.normalStmt;
+import static heros.utilities.TestHelper.over;
+import static heros.utilities.TestHelper.startPoints;
+import static heros.utilities.TestHelper.to;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import heros.InterproceduralCFG;
+import heros.solver.IFDSSolver.BinaryDomain;
+import heros.utilities.JoinableFact;
+import heros.utilities.Statement;
+import heros.utilities.TestHelper;
+import heros.utilities.TestHelper.SolverVariant;
+import heros.utilities.TestMethod;
+
+import java.util.Collection;
+import java.util.LinkedList;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.google.common.collect.Sets;
+
+@RunWith(Parameterized.class)
+public class DemandDrivenValuesTest {
+
+	private final SolverVariant variant;
+
+	public DemandDrivenValuesTest(SolverVariant variant) {
+		this.variant = variant;
+	}
+
+	@Parameters(name="{0}")
+	public static Collection<Object[]> parameters() {
+		LinkedList<Object[]> result = new LinkedList<Object[]>();
+		for(SolverVariant variant : SolverVariant.values())
+			result.add(new Object[] {variant});
+		return result;
+	}
+
+	@Test
+	public void valuesAcrossCalls() {
+		TestHelper helper = new TestHelper(variant);
+		helper.method("main",
+				startPoints("a"),
+				normalStmt("a", flow("0", "x")).succ("b"),
+				callSite("b").calls("foo", flow("x", "y")).retSite("c", flow("x", "x")),
+				normalStmt("c", flow("x", "x"), flow("w", "w")).succ("d"));
+		helper.method("foo",
+				startPoints("f"),
+				normalStmt("f", flow("y", "z")).succ("g"),
+				exitStmt("g").returns(over("b"), to("c"), flow("z", "w")));
+		IFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> solver = helper.runSolverComputingValuesOnDemand("a");
+		assertEquals(Sets.newHashSet(new JoinableFact("x"), new JoinableFact("w")), solver.ifdsResultsAt(new Statement("d")));
+		assertEquals(Sets.newHashSet(new JoinableFact("z")), solver.ifdsResultsAt(new Statement("g")));
+		assertEquals(BinaryDomain.BOTTOM, solver.resultAt(new Statement("f"), new JoinableFact("y")));
+		assertNull(solver.resultAt(new Statement("d"), new JoinableFact("y")));
+	}
+
+	@Test
+	public void valuesInRecursion() {
+		TestHelper helper = new TestHelper(variant);
+		helper.method("main",
+				startPoints("a"),
+				callSite("a").calls("foo", flow("0", "x")).retSite("b", kill("0")));
+		helper.method("foo",
+				startPoints("f"),
+				callSite("f").calls("foo", flow("x", "x")).retSite("g", flow("x", "y")),
+				normalStmt("g", flow("y", "y")).succ("h"),
+				exitStmt("h").returns(over("a"), to("b"), kill("y")).returns(over("f"), to("g"), kill("y")));
+		IFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> solver = helper.runSolverComputingValuesOnDemand("a");
+		assertEquals(Sets.newHashSet(new JoinableFact("y")), solver.ifdsResultsAt(new Statement("h")));
+		assertEquals(Sets.newHashSet(new JoinableFact("x")), solver.ifdsResultsAt(new Statement("f")));
+	}
+}
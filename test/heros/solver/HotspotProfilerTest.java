@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import static heros.utilities.TestHelper.callSite;
+import static heros.utilities.TestHelper.exitStmt;
+import static heros.utilities.TestHelper.flow;
+import static heros.utilities.TestHelper.kill;
+import static heros.utilities.TestHelper.normalStmt;
+import static heros.utilities.TestHelper.over;
+import static heros.utilities.TestHelper.startPoints;
+import static heros.utilities.TestHelper.to;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import heros.InterproceduralCFG;
+import heros.utilities.HotspotProfile;
+import heros.utilities.HotspotProfile.Hotspot;
+import heros.utilities.JoinableFact;
+import heros.utilities.Statement;
+import heros.utilities.TestHelper;
+import heros.utilities.TestMethod;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import org.junit.Test;
+
+public class HotspotProfilerTest {
+
+	@Test
+	public void aggregatesPerMethodAndCallSite() throws IOException {
+		TestHelper helper = new TestHelper();
+		helper.method("main",
+				startPoints("a"),
+				normalStmt("a", flow("0", "x")).succ("b"),
+				callSite("b").calls("foo", flow("x", "y")).retSite("c", kill("x")));
+		helper.method("foo",
+				startPoints("d"),
+				normalStmt("d", flow("y", "y")).succ("e"),
+				exitStmt("e").returns(over("b"), to("c"), kill("y")));
+		IFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> solver = helper.createSolver("a");
+		HotspotProfiler<Statement, JoinableFact, TestMethod> profiler = new HotspotProfiler<Statement, JoinableFact, TestMethod>(helper.buildIcfg());
+		solver.addPathEdgeListener(profiler);
+		solver.solve();
+		helper.assertAllFlowFunctionsUsed();
+
+		HotspotProfile profile = profiler.getProfile();
+		List<Hotspot> methods = profile.top(HotspotProfile.METHODS, 10);
+		assertEquals(2, methods.size());
+		long edges = 0;
+		for(Hotspot method : methods)
+			edges += method.edges;
+		List<Hotspot> callSites = profile.top(HotspotProfile.CALL_SITES, 10);
+		assertEquals(1, callSites.size());
+		assertEquals(new Statement("b"), callSites.get(0).key);
+		assertEquals(1, profile.top(HotspotProfile.METHODS, 1).size());
+		assertTrue(edges >= 4);
+
+		StringWriter writer = new StringWriter();
+		profile.toJson(10).write(writer, 0);
+		assertTrue(writer.toString().contains("\"callSites\": {\n\t\t\"1\": {"));
+		assertEquals(profile.toJson(10).toString(), writer.toString());
+	}
+}
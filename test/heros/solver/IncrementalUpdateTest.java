@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import static heros.utilities.TestHelper.callSite;
+import static heros.utilities.TestHelper.exitStmt;
+import static heros.utilities.TestHelper.flow;
+import static heros.utilities.TestHelper.normalStmt;
+import static heros.utilities.TestHelper.over;
+import static heros.utilities.TestHelper.startPoints;
+import static heros.utilities.TestHelper.to;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import heros.EdgeFunction;
+import heros.InterproceduralCFG;
+import heros.solver.IFDSSolver.BinaryDomain;
+import heros.utilities.JoinableFact;
+import heros.utilities.Statement;
+import heros.utilities.TestHelper;
+import heros.utilities.TestHelper.SolverVariant;
+import heros.utilities.TestMethod;
+
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.collect.Table.Cell;
+
+@RunWith(Parameterized.class)
+public class IncrementalUpdateTest {
+
+	private final SolverVariant variant;
+
+	public IncrementalUpdateTest(SolverVariant variant) {
+		this.variant = variant;
+	}
+
+	@Parameters(name="{0}")
+	public static Collection<Object[]> parameters() {
+		LinkedList<Object[]> result = new LinkedList<Object[]>();
+		for(SolverVariant variant : SolverVariant.values())
+			result.add(new Object[] {variant});
+		return result;
+	}
+
+	@Test
+	public void reusesSummariesOfUnaffectedCallees() {
+		TestHelper helper = new TestHelper(variant);
+		helper.method("main",
+				startPoints("a"),
+				normalStmt("a", flow("0", "x")).succ("b"),
+				callSite("b").calls("foo", flow("x", "y")).retSite("c", flow("x", "x")),
+				callSite("c").calls("lib", flow("x", "p")).retSite("d", flow("x", "x")));
+		helper.method("foo",
+				startPoints("f"),
+				normalStmt("f", flow("y", "z")).succ("g"),
+				exitStmt("g").returns(over("b"), to("c"), flow("z")));
+		helper.method("lib",
+				startPoints("l"),
+				normalStmt("l", flow("p", "q")).succ("m"),
+				exitStmt("m").returns(over("c"), to("d"), flow("q", "r")));
+		IFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> solver = helper.runIncrementalSolver("a");
+		assertEquals(Sets.newHashSet(new JoinableFact("x"), new JoinableFact("r")), factsAt(solver, "d"));
+
+		Map<TestMethod, Set<Statement>> changes = Maps.newHashMap();
+		changes.put(new TestMethod("foo"), helper.replaceMethod("foo",
+				startPoints("f"),
+				normalStmt("f", flow("y", "z")).succ("g"),
+				exitStmt("g").returns(over("b"), to("c"), flow("z", "v"))));
+		//main applied foo's summary, so it is explored again...
+		helper.replaceMethod("main",
+				startPoints("a"),
+				normalStmt("a", flow("0", "x")).succ("b"),
+				callSite("b").calls("foo", flow("x", "y")).retSite("c", flow("x", "x")),
+				callSite("c").calls("lib", flow("x", "p"), flow("v")).retSite("d", flow("x", "x"), flow("v", "v")));
+		//...but lib is not, only its summary is applied again
+		helper.replaceMethod("lib",
+				startPoints("l"),
+				normalStmt("l", flow(0, "p", "q")).succ("m"),
+				exitStmt("m").returns(over("c"), to("d"), flow("q", "r")));
+		helper.updateSolver(solver, changes);
+		assertEquals(Sets.newHashSet(new JoinableFact("x"), new JoinableFact("r"), new JoinableFact("v")), factsAt(solver, "d"));
+	}
+
+	@Test
+	public void removesContextsThatAreNoLongerReached() {
+		TestHelper helper = new TestHelper(variant);
+		helper.method("main",
+				startPoints("a"),
+				callSite("a").calls("foo", flow("0", "x")).retSite("b", flow("0")));
+		helper.method("foo",
+				startPoints("f"),
+				callSite("f").calls("lib", flow("x", "p")).retSite("g", flow("x", "x")),
+				exitStmt("g").returns(over("a"), to("b"), flow("x")));
+		helper.method("lib",
+				startPoints("l"),
+				normalStmt("l", flow("p", "q")).succ("m"),
+				exitStmt("m").returns(over("f"), to("g"), flow("q")));
+		IFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> solver = helper.runIncrementalSolver("a");
+		assertEquals(Sets.newHashSet(new JoinableFact("q")), factsAt(solver, "m"));
+
+		Map<TestMethod, Set<Statement>> changes = Maps.newHashMap();
+		changes.put(new TestMethod("foo"), helper.replaceMethod("foo",
+				startPoints("f"),
+				normalStmt("f", flow("x", "x")).succ("g"),
+				exitStmt("g").returns(over("a"), to("b"), flow("x"))));
+		helper.replaceMethod("main",
+				startPoints("a"),
+				callSite("a").calls("foo", flow("0", "x")).retSite("b", flow("0")));
+		helper.updateSolver(solver, changes);
+		assertTrue(factsAt(solver, "l").isEmpty());
+		assertTrue(factsAt(solver, "m").isEmpty());
+		assertEquals(Sets.newHashSet(new JoinableFact("x")), factsAt(solver, "g"));
+	}
+
+	private Set<JoinableFact> factsAt(IFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> solver, String stmt) {
+		Set<JoinableFact> facts = Sets.newHashSet();
+		for(Cell<JoinableFact, JoinableFact, EdgeFunction<BinaryDomain>> cell : solver.jumpFn.lookupByTarget(new Statement(stmt)))
+			facts.add(cell.getColumnKey());
+		return facts;
+	}
+}
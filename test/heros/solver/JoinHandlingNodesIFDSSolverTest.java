@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import static heros.utilities.TestHelper.flow;
+import static heros.utilities.TestHelper.normalStmt;
+import static heros.utilities.TestHelper.startPoints;
+import static org.junit.Assert.assertEquals;
+import heros.InterproceduralCFG;
+import heros.utilities.JoinableFact;
+import heros.utilities.Statement;
+import heros.utilities.TestHelper;
+import heros.utilities.TestMethod;
+
+import org.junit.Test;
+
+public class JoinHandlingNodesIFDSSolverTest {
+
+	@Test
+	public void mergesJoiningFacts() {
+		TestHelper helper = new TestHelper();
+		helper.method("main",
+				startPoints("a"),
+				normalStmt("a", flow("0", "x")).succ("b1").succ("b2"),
+				normalStmt("b1", flow("x", "x")).succ("c"),
+				normalStmt("b2", flow("x", "x")).succ("c"),
+				normalStmt("c", flow("x", "y")).succ("d"));
+		JoinHandlingNodesIFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> solver = helper.runJoinHandlingSolver("a");
+		assertEquals(1, solver.getJoinCount());
+		assertEquals(1, solver.getMergeCount());
+	}
+
+	@Test
+	public void countsNoJoinsWithoutConfluence() {
+		TestHelper helper = new TestHelper();
+		helper.method("main",
+				startPoints("a"),
+				normalStmt("a", flow("0", "x")).succ("b"),
+				normalStmt("b", flow("x", "y")).succ("c"));
+		JoinHandlingNodesIFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> solver = helper.runJoinHandlingSolver("a");
+		assertEquals(0, solver.getJoinCount());
+		assertEquals(0, solver.getMergeCount());
+	}
+}
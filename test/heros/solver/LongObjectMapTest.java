@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import static heros.solver.LongObjectMap.high;
+import static heros.solver.LongObjectMap.low;
+import static heros.solver.LongObjectMap.pack;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LongObjectMapTest {
+
+	@Test
+	public void packAndUnpack() {
+		long key = pack(7, Integer.MAX_VALUE);
+		assertEquals(7, high(key));
+		assertEquals(Integer.MAX_VALUE, low(key));
+		assertEquals(0, high(pack(0, 3)));
+		assertEquals(3, low(pack(0, 3)));
+	}
+
+	@Test
+	public void putGetAndReplace() {
+		LongObjectMap<String> map = new LongObjectMap<String>();
+		assertNull(map.put(1, "a"));
+		assertNull(map.put(pack(1, 2), "b"));
+		assertEquals("a", map.put(1, "c"));
+		assertEquals("c", map.get(1));
+		assertEquals("b", map.get(pack(1, 2)));
+		assertNull(map.get(2));
+		assertEquals(2, map.size());
+	}
+
+	@Test
+	public void growsBeyondInitialCapacity() {
+		LongObjectMap<Integer> map = new LongObjectMap<Integer>(0);
+		for(int i=0; i<1000; i++)
+			map.put(pack(i, i), i);
+		assertEquals(1000, map.size());
+		for(int i=0; i<1000; i++)
+			assertEquals(Integer.valueOf(i), map.get(pack(i, i)));
+	}
+
+	@Test
+	public void iteratesAllEntries() {
+		LongObjectMap<Integer> map = new LongObjectMap<Integer>();
+		for(int i=0; i<100; i++)
+			map.put(i, i);
+		int count = 0;
+		for(int slot = map.nextSlot(0); slot >= 0; slot = map.nextSlot(slot+1)) {
+			assertEquals((long) map.valueAt(slot), map.keyAt(slot));
+			count++;
+		}
+		assertEquals(100, count);
+	}
+
+	@Test
+	public void copyIsIndependent() {
+		LongObjectMap<String> map = new LongObjectMap<String>();
+		map.put(1, "a");
+		LongObjectMap<String> copy = new LongObjectMap<String>(map);
+		map.put(2, "b");
+		assertFalse(copy.containsKey(2));
+		assertEquals("a", copy.get(1));
+	}
+
+	@Test
+	public void behavesLikeHashMapUnderRandomUpdates() {
+		Random random = new Random(0);
+		LongObjectMap<Integer> map = new LongObjectMap<Integer>();
+		Map<Long, Integer> expected = new HashMap<Long, Integer>();
+		for(int i=0; i<100000; i++) {
+			long key = pack(random.nextInt(50), random.nextInt(50));
+			if(random.nextInt(3) == 0)
+				assertEquals(expected.remove(key), map.remove(key));
+			else
+				assertEquals(expected.put(key, i), map.put(key, i));
+			assertEquals(expected.size(), map.size());
+		}
+		for(Map.Entry<Long, Integer> entry : expected.entrySet())
+			assertEquals(entry.getValue(), map.get(entry.getKey()));
+		map.clear();
+		assertTrue(map.isEmpty());
+		assertNull(map.get(pack(1, 1)));
+	}
+}
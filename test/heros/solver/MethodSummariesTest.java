@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import static heros.utilities.TestHelper.callSite;
+import static heros.utilities.TestHelper.exitStmt;
+import static heros.utilities.TestHelper.flow;
+import static heros.utilities.TestHelper.normalStmt;
+import static heros.utilities.TestHelper.over;
+import static heros.utilities.TestHelper.startPoints;
+import static heros.utilities.TestHelper.to;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import heros.EdgeFunction;
+import heros.solver.IFDSSolver.BinaryDomain;
+import heros.utilities.JoinableFact;
+import heros.utilities.Statement;
+import heros.utilities.TestHelper;
+import heros.utilities.TestMethod;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.Table.Cell;
+
+public class MethodSummariesTest {
+
+	private File file;
+
+	@Before
+	public void before() throws IOException {
+		file = File.createTempFile("summaries", ".bin");
+	}
+
+	@After
+	public void after() {
+		file.delete();
+	}
+
+	@Test
+	public void reusesPersistedSummaryOnNextRun() throws IOException {
+		TestHelper helper = new TestHelper();
+		helper.method("bar",
+				startPoints("a"),
+				normalStmt("a", flow("0", "x")).succ("b"),
+				callSite("b").calls("foo", flow("x", "y")).retSite("c", flow("x", "x")));
+		helper.method("foo",
+				startPoints("d"),
+				normalStmt("d", flow("y", "y", "z")).succ("e"),
+				exitStmt("e").returns(over("b"), to("c"), flow("z", "u"), flow("y")));
+		MethodSummaries<Statement, JoinableFact, TestMethod, BinaryDomain> summaries = summaries("foo");
+		helper.runSolver(summaries, "a");
+		assertEquals(1, summaries.size());
+		summaries.save(file);
+
+		//foo is not explored again, so its normal flow must not be requested
+		helper = new TestHelper();
+		helper.method("bar",
+				startPoints("a"),
+				normalStmt("a", flow("0", "x")).succ("b"),
+				callSite("b").calls("foo", flow("x", "y")).retSite("c", flow("x", "x")));
+		helper.method("foo",
+				startPoints("d"),
+				exitStmt("e").returns(over("b"), to("c"), flow("z", "u"), flow("y")));
+		summaries = summaries("foo");
+		summaries.load(file);
+		helper.runSolver(summaries, "a");
+	}
+
+	@Test
+	public void doesNotSummarizeMethodsCallingNonFixedMethods() {
+		TestHelper helper = new TestHelper();
+		helper.method("bar",
+				startPoints("a"),
+				callSite("a").calls("foo", flow("0", "x")).retSite("b", flow("0")));
+		helper.method("foo",
+				startPoints("c"),
+				callSite("c").calls("baz", flow("x", "y")).retSite("d", flow("x", "x")),
+				exitStmt("d").returns(over("a"), to("b"), flow("x")));
+		helper.method("baz",
+				startPoints("e"),
+				exitStmt("e").returns(over("c"), to("d"), flow("y")));
+		MethodSummaries<Statement, JoinableFact, TestMethod, BinaryDomain> summaries = summaries("foo");
+		helper.runSolver(summaries, "a");
+		assertEquals(0, summaries.size());
+	}
+
+	@Test
+	public void ignoresSummariesOfMethodsThatAreNoLongerFixed() throws IOException {
+		MethodSummaries<Statement, JoinableFact, TestMethod, BinaryDomain> summaries = summaries("foo");
+		summaries.put(new Statement("d"), new JoinableFact("y"), Collections.<Cell<Statement, JoinableFact, EdgeFunction<BinaryDomain>>>emptySet());
+		summaries.save(file);
+		MethodSummaries<Statement, JoinableFact, TestMethod, BinaryDomain> loaded = summaries("bar");
+		loaded.load(file);
+		assertTrue(loaded.contains(new Statement("d"), new JoinableFact("y")));
+		assertNull(loaded.endSummary(new TestMethod("foo"), new Statement("d"), new JoinableFact("y")));
+		assertNotNull(summaries.endSummary(new TestMethod("foo"), new Statement("d"), new JoinableFact("y")));
+		assertFalse(summaries.endSummary(new TestMethod("foo"), new Statement("d"), new JoinableFact("y")).iterator().hasNext());
+	}
+
+	@Test
+	public void rejectsOtherFormatVersions() throws IOException {
+		summaries("foo").save(file);
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			raf.seek(4);
+			raf.writeInt(MethodSummaries.FORMAT_VERSION + 1);
+		} finally {
+			raf.close();
+		}
+		try {
+			summaries("foo").load(file);
+			fail();
+		} catch(IOException e) {
+			//expected
+		}
+	}
+
+	private MethodSummaries<Statement, JoinableFact, TestMethod, BinaryDomain> summaries(final String fixedMethod) {
+		return new MethodSummaries<Statement, JoinableFact, TestMethod, BinaryDomain>(new IFDSSummarySerializer<Statement, JoinableFact>() {
+			public void writeStatement(Statement stmt, DataOutput out) throws IOException {
+				out.writeUTF(stmt.identifier);
+			}
+
+			public Statement readStatement(DataInput in) throws IOException {
+				return new Statement(in.readUTF());
+			}
+
+			public void writeFact(JoinableFact fact, DataOutput out) throws IOException {
+				out.writeUTF(fact.name);
+			}
+
+			public JoinableFact readFact(DataInput in) throws IOException {
+				return new JoinableFact(in.readUTF());
+			}
+		}, new Predicate<TestMethod>() {
+			public boolean apply(TestMethod method) {
+				return method.name.equals(fixedMethod);
+			}
+		});
+	}
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import static heros.utilities.TestHelper.callSite;
+import static heros.utilities.TestHelper.exitStmt;
+import static heros.utilities.TestHelper.flow;
+import static heros.utilities.TestHelper.kill;
+import static heros.utilities.TestHelper.normalStmt;
+import static heros.utilities.TestHelper.over;
+import static heros.utilities.TestHelper.startPoints;
+import static heros.utilities.TestHelper.to;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import heros.InterproceduralCFG;
+import heros.utilities.JoinableFact;
+import heros.utilities.Statement;
+import heros.utilities.TestHelper;
+import heros.utilities.TestMethod;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class PathRecorderTest {
+
+	@Test
+	public void shortestPathAcrossCall() {
+		TestHelper helper = new TestHelper();
+		helper.method("main",
+				startPoints("a"),
+				normalStmt("a", flow("0", "x")).succ("b"),
+				callSite("b").calls("foo", flow("x", "y")).retSite("c", kill("x")));
+		helper.method("foo",
+				startPoints("f"),
+				normalStmt("f", flow("y", "y")).succ("g"),
+				exitStmt("g").returns(over("b"), to("c"), flow("y", "w")));
+		PathRecorder<Statement, JoinableFact> recorder = solve(helper, new PathRecorder<Statement, JoinableFact>());
+
+		assertEquals(path("a", "0", "b", "x", "f", "y", "g", "y", "c", "w"), recorder.shortestPath(new Statement("c"), new JoinableFact("w")));
+		assertEquals(path("a", "0"), recorder.shortestPath(new Statement("a"), new JoinableFact("0")));
+		assertNull(recorder.shortestPath(new Statement("c"), new JoinableFact("x")));
+	}
+
+	@Test
+	public void returnsToCallSiteOfContext() {
+		TestHelper helper = new TestHelper();
+		helper.method("main",
+				startPoints("a"),
+				normalStmt("a", flow("0", "x")).succ("b"),
+				callSite("b").calls("foo", flow("x", "y")).retSite("c", kill("x")),
+				callSite("c").calls("foo", flow("w", "y")).retSite("d", kill("w")));
+		helper.method("foo",
+				startPoints("f"),
+				normalStmt("f", flow("y", "y")).succ("g"),
+				exitStmt("g").returns(over("b"), to("c"), flow("y", "w")).returns(over("c"), to("d"), flow("y", "w")));
+		PathRecorder<Statement, JoinableFact> recorder = solve(helper, new PathRecorder<Statement, JoinableFact>(1));
+
+		assertEquals(path("a", "0", "b", "x", "f", "y", "g", "y", "c", "w", "f", "y", "g", "y", "d", "w"),
+				recorder.shortestPath(new Statement("d"), new JoinableFact("w")));
+	}
+
+	@Test
+	public void alternativePaths() {
+		PathRecorder<Statement, JoinableFact> recorder = solve(branches(), new PathRecorder<Statement, JoinableFact>());
+
+		List<List<Pair<Statement, JoinableFact>>> paths = recorder.paths(new Statement("c"), new JoinableFact("x"), 3);
+		assertEquals(2, paths.size());
+		assertTrue(paths.contains(path("a", "0", "b1", "x", "c", "x")));
+		assertTrue(paths.contains(path("a", "0", "b2", "x", "c", "x")));
+
+		PathRecorder<Statement, JoinableFact> limitedRecorder = solve(branches(), new PathRecorder<Statement, JoinableFact>(1));
+		assertEquals(1, limitedRecorder.paths(new Statement("c"), new JoinableFact("x"), 3).size());
+	}
+
+	private TestHelper branches() {
+		TestHelper helper = new TestHelper();
+		helper.method("main",
+				startPoints("a"),
+				normalStmt("a", flow("0", "x")).succ("b1").succ("b2"),
+				normalStmt("b1", flow("x", "x")).succ("c"),
+				normalStmt("b2", flow("x", "x")).succ("c"));
+		return helper;
+	}
+
+	private PathRecorder<Statement, JoinableFact> solve(TestHelper helper, PathRecorder<Statement, JoinableFact> recorder) {
+		IFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> solver = helper.createSolver("a");
+		solver.setPathRecorder(recorder);
+		solver.solve();
+		return recorder;
+	}
+
+	private static List<Pair<Statement, JoinableFact>> path(String... stmtsAndFacts) {
+		List<Pair<Statement, JoinableFact>> path = new ArrayList<Pair<Statement, JoinableFact>>();
+		for(int i = 0; i < stmtsAndFacts.length; i += 2)
+			path.add(new Pair<Statement, JoinableFact>(new Statement(stmtsAndFacts[i]), new JoinableFact(stmtsAndFacts[i + 1])));
+		return path;
+	}
+}
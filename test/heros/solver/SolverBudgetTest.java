@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import static heros.utilities.TestHelper.flow;
+import static heros.utilities.TestHelper.normalStmt;
+import static heros.utilities.TestHelper.startPoints;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import heros.InterproceduralCFG;
+import heros.SolverBudget;
+import heros.utilities.JoinableFact;
+import heros.utilities.Statement;
+import heros.utilities.TestHelper;
+import heros.utilities.TestMethod;
+
+import org.junit.Test;
+
+public class SolverBudgetTest {
+
+	private TestHelper chain() {
+		TestHelper helper = new TestHelper();
+		helper.method("main",
+				startPoints("a"),
+				normalStmt("a", flow("0", "x")).succ("b"),
+				normalStmt("b", flow("x", "x")).succ("c"),
+				normalStmt("c", flow("x", "x")).succ("d"),
+				normalStmt("d", flow("x", "x")).succ("e"));
+		helper.computeValuesOnDemand();
+		return helper;
+	}
+
+	@Test
+	public void completesWithinBudget() {
+		TestHelper helper = chain();
+		IFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> solver = helper.createSolver("a");
+		solver.setBudget(new SolverBudget(60000, 1000, 0));
+		solver.solve();
+		helper.assertAllFlowFunctionsUsed();
+		assertTrue(solver.isComplete());
+		assertNull(solver.getExhaustedBudget());
+		assertTrue(solver.ifdsResultsAt(new Statement("e")).contains(new JoinableFact("x")));
+	}
+
+	@Test
+	public void stopsWhenPathEdgesAreExhausted() {
+		IFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> solver = chain().createSolver("a");
+		solver.setBudget(new SolverBudget(0, 3, 0));
+		solver.solve();
+		assertFalse(solver.isComplete());
+		assertEquals(SolverBudget.Resource.PATH_EDGES, solver.getExhaustedBudget());
+		//values are computed for the part of the exploded super graph found within the budget
+		assertTrue(solver.ifdsResultsAt(new Statement("b")).contains(new JoinableFact("x")));
+		assertFalse(solver.ifdsResultsAt(new Statement("e")).contains(new JoinableFact("x")));
+	}
+
+	@Test
+	public void meterChecksTimeAndHeap() throws InterruptedException {
+		SolverBudget.Meter heapMeter = new SolverBudget(0, 0, 1).startMeter();
+		assertFalse(heapMeter.checkTimeAndHeap());
+		assertEquals(SolverBudget.Resource.HEAP, heapMeter.getExhausted());
+		
+		SolverBudget.Meter timeMeter = new SolverBudget(1, 0, 1).startMeter();
+		Thread.sleep(5);
+		assertFalse(timeMeter.chargePathEdge() && timeMeter.checkTimeAndHeap());
+		assertEquals(SolverBudget.Resource.TIME, timeMeter.getExhausted());
+		assertEquals(0, timeMeter.remainingMillis());
+	}
+}
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import static heros.utilities.TestHelper.callSite;
+import static heros.utilities.TestHelper.exitStmt;
+import static heros.utilities.TestHelper.flow;
+import static heros.utilities.TestHelper.kill;
+import static heros.utilities.TestHelper.normalStmt;
+import static heros.utilities.TestHelper.over;
+import static heros.utilities.TestHelper.startPoints;
+import static heros.utilities.TestHelper.to;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import heros.EdgeFunction;
+import heros.InterproceduralCFG;
+import heros.SinkListener;
+import heros.solver.IFDSSolver.BinaryDomain;
+import heros.utilities.JoinableFact;
+import heros.utilities.Statement;
+import heros.utilities.TestHelper;
+import heros.utilities.TestHelper.SolverVariant;
+import heros.utilities.TestMethod;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+@RunWith(Parameterized.class)
+public class SolverListenerTest {
+
+	private final SolverVariant variant;
+
+	public SolverListenerTest(SolverVariant variant) {
+		this.variant = variant;
+	}
+
+	@Parameters(name="{0}")
+	public static Collection<Object[]> parameters() {
+		LinkedList<Object[]> result = new LinkedList<Object[]>();
+		for(SolverVariant variant : SolverVariant.values())
+			result.add(new Object[] {variant});
+		return result;
+	}
+
+	@Test
+	public void reportsFactsAtSinks() {
+		TestHelper helper = new TestHelper(variant);
+		helper.method("main",
+				startPoints("a"),
+				normalStmt("a", flow("0", "x", "y")).succ("b"),
+				callSite("b").calls("foo", flow("x", "x"), kill("y")).retSite("c", flow("y", "y"), kill("x")),
+				normalStmt("c", flow("y", "y"), flow("z", "z")).succ("d"));
+		helper.method("foo",
+				startPoints("f"),
+				exitStmt("f").returns(over("b"), to("c"), flow("x", "z")));
+		IFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> solver = helper.createSolver("a");
+		final List<JoinableFact> reached = Collections.synchronizedList(Lists.<JoinableFact>newArrayList());
+		solver.addSinkListener(Collections.singleton(new Statement("d")), new SinkListener<Statement, JoinableFact>() {
+			@Override
+			public void reachedSink(Statement sink, JoinableFact fact) {
+				assertEquals(new Statement("d"), sink);
+				reached.add(fact);
+			}
+		});
+		final Set<Statement> targets = Collections.newSetFromMap(new ConcurrentHashMap<Statement, Boolean>());
+		solver.addJumpFunctionListener(new JumpFunctionListener<Statement, JoinableFact, BinaryDomain>() {
+			@Override
+			public void jumpFunctionChanged(JoinableFact sourceVal, Statement target, JoinableFact targetVal, EdgeFunction<BinaryDomain> function) {
+				targets.add(target);
+			}
+		});
+		solver.solve();
+		helper.assertAllFlowFunctionsUsed();
+		assertEquals(2, reached.size());
+		assertEquals(Sets.newHashSet(new JoinableFact("y"), new JoinableFact("z")), Sets.newHashSet(reached));
+		assertTrue(targets.containsAll(Sets.newHashSet(new Statement("b"), new Statement("c"), new Statement("d"), new Statement("f"))));
+	}
+
+	@Test
+	public void terminatesAtSink() {
+		TestHelper helper = new TestHelper(variant);
+		helper.method("main",
+				startPoints("a"),
+				normalStmt("a", flow("0", "x")).succ("b"),
+				normalStmt("b", flow("x", "x")).succ("c"),
+				normalStmt("c", flow("x", "x")).succ("d"));
+		final IFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> solver = helper.createSolver("a");
+		solver.addSinkListener(Collections.singleton(new Statement("b")), new SinkListener<Statement, JoinableFact>() {
+			@Override
+			public void reachedSink(Statement sink, JoinableFact fact) {
+				solver.terminate();
+			}
+		});
+		solver.solve();
+		assertFalse(solver.ifdsResultsAt(new Statement("d")).contains(new JoinableFact("x")));
+	}
+}
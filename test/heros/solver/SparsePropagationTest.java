@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import static heros.utilities.TestHelper.callSite;
+import static heros.utilities.TestHelper.exitStmt;
+import static heros.utilities.TestHelper.flow;
+import static heros.utilities.TestHelper.normalStmt;
+import static heros.utilities.TestHelper.over;
+import static heros.utilities.TestHelper.startPoints;
+import static heros.utilities.TestHelper.to;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import heros.FactRelevance;
+import heros.InterproceduralCFG;
+import heros.utilities.JoinableFact;
+import heros.utilities.Statement;
+import heros.utilities.TestHelper;
+import heros.utilities.TestMethod;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Test;
+
+public class SparsePropagationTest {
+
+	@Test
+	public void skipsIrrelevantStatements() {
+		TestHelper helper = new TestHelper();
+		helper.method("main",
+				startPoints("a"),
+				normalStmt("a", flow("0", "x")).succ("b"),
+				normalStmt("b").succ("c"),
+				normalStmt("c").succ("d"),
+				normalStmt("d", flow("x", "y")).succ("e"));
+		Set<String> pathEdges = solve(helper, "a", "d");
+
+		helper.assertAllFlowFunctionsUsed();
+		assertEquals(set("a:0", "d:x", "e:y"), pathEdges);
+	}
+
+	@Test
+	public void stopsAtJoinPointsAndCalls() {
+		TestHelper helper = new TestHelper();
+		helper.method("main",
+				startPoints("a"),
+				normalStmt("a", flow("0", "x")).succ("b1").succ("b2"),
+				normalStmt("b1").succ("c"),
+				normalStmt("b2").succ("c"),
+				normalStmt("c", flow("x", "x")).succ("d"),
+				normalStmt("d").succ("e"),
+				callSite("e").calls("foo", flow("x", "y")).retSite("f", flow("x", "x")));
+		helper.method("foo",
+				startPoints("g"),
+				normalStmt("g", flow("y", "y")).succ("h"),
+				exitStmt("h").returns(over("e"), to("f"), flow("y", "z")));
+		Set<String> pathEdges = solve(helper, "a");
+
+		helper.assertAllFlowFunctionsUsed();
+		assertEquals(set("a:0", "c:x", "e:x", "g:y", "h:y", "f:x", "f:z"), pathEdges);
+	}
+
+	@Test
+	public void cachesStopsOfSkippedStatements() {
+		TestHelper helper = new TestHelper();
+		helper.method("main",
+				startPoints("a"),
+				normalStmt("a", flow("0", "x", "y")).succ("b"),
+				normalStmt("b").succ("c"),
+				normalStmt("c", flow("x", "x"), flow("y", "y")).succ("d"));
+		IFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> solver = helper.createSolver("a");
+		solver.setFactRelevance(relevantAt("a", "c"));
+		solver.solve();
+
+		helper.assertAllFlowFunctionsUsed();
+		assertEquals(2, solver.getSparseCFG().size());
+		assertEquals(Collections.singleton(new Statement("c")), solver.getSparseCFG().getStops(new Statement("b"), new JoinableFact("x")));
+		assertTrue(solver.getSparseCFG().isStop(new Statement("c"), new JoinableFact("x")));
+	}
+
+	@Test
+	public void answersQueriesAtSkippedStatements() {
+		TestHelper helper = new TestHelper();
+		helper.method("main",
+				startPoints("a"),
+				normalStmt("a", flow(2, "0", "x")).succ("b"),
+				normalStmt("b", flow("x", "x")).succ("c"),
+				normalStmt("c").succ("d"),
+				normalStmt("d", flow("x", "y")).succ("e"));
+		helper.computeValuesOnDemand();
+		IFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> solver = helper.createSolver("a");
+		solver.setFactRelevance(relevantAt("a", "d"));
+		solver.solve();
+
+		assertEquals(Collections.singleton(new JoinableFact("x")), solver.ifdsResultsAt(new Statement("c")));
+		helper.assertAllFlowFunctionsUsed();
+	}
+
+	private Set<String> solve(TestHelper helper, String... relevantStmts) {
+		IFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> solver = helper.createSolver("a");
+		solver.setFactRelevance(relevantAt(relevantStmts));
+		final Set<String> pathEdges = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+		solver.addPathEdgeListener(new PathEdgeListener<Statement, JoinableFact>() {
+			@Override
+			public void pathEdgeProcessed(JoinableFact sourceVal, Statement target, JoinableFact targetVal, long nanos) {
+				pathEdges.add(target.identifier + ":" + targetVal.name);
+			}
+		});
+		solver.solve();
+		return pathEdges;
+	}
+
+	private static FactRelevance<Statement, JoinableFact> relevantAt(final String... stmts) {
+		return new FactRelevance<Statement, JoinableFact>() {
+			@Override
+			public boolean isRelevant(Statement stmt, JoinableFact fact) {
+				return Arrays.asList(stmts).contains(stmt.identifier);
+			}
+		};
+	}
+
+	private static Set<String> set(String... elements) {
+		return new HashSet<String>(Arrays.asList(elements));
+	}
+}
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Eric Bodden.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Contributors:
+ *     Eric Bodden - initial API and implementation
+ ******************************************************************************/
+package heros.solver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import heros.EdgeFunction;
+import heros.InterproceduralCFG;
+import heros.edgefunc.AllBottom;
+import heros.edgefunc.AllTop;
+import heros.edgefunc.EdgeIdentity;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class SpillingJumpFunctionsTest {
+
+	private final EdgeFunction<String> allTop = new AllTop<String>("top");
+	private final EdgeFunction<String> identity = EdgeIdentity.v();
+	private final EdgeFunction<String> allBottom = new AllBottom<String>("bottom");
+	private InterproceduralCFG<String, String> icfg;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void before() {
+		//statement "a.1" belongs to method "a"
+		icfg = mock(InterproceduralCFG.class);
+		when(icfg.getMethodOf(anyString())).thenAnswer(new Answer<String>() {
+			public String answer(InvocationOnMock invocation) {
+				return ((String) invocation.getArguments()[0]).substring(0, 1);
+			}
+		});
+	}
+
+	@Test
+	public void keepsOnlyMostRecentlyUsedMethodWithinBudget() {
+		SpillingJumpFunctions<String, String, String, String> jumpFn = new SpillingJumpFunctions<String, String, String, String>(allTop, icfg, 1);
+		jumpFn.addFunction("d1", "a.1", "d2", identity);
+		jumpFn.addFunction("d1", "a.2", "d3", allBottom);
+		jumpFn.addFunction("d1", "b.1", "d2", identity);
+		assertEquals(1, jumpFn.residentFunctions());
+		assertEquals(1, jumpFn.spillCount);
+
+		assertSame(allBottom, jumpFn.getFunction("d1", "a.2", "d3"));
+		assertEquals(2, jumpFn.residentFunctions());
+		assertEquals(1, jumpFn.pageInCount);
+		assertSame(identity, jumpFn.forwardLookup("d1", "a.1").get("d2"));
+		assertSame(identity, jumpFn.reverseLookup("b.1", "d2").get("d1"));
+		assertEquals(1, jumpFn.lookupByTarget("a.2").size());
+	}
+
+	@Test
+	public void joinsAndRemovesSpilledFunctions() {
+		SpillingJumpFunctions<String, String, String, String> jumpFn = new SpillingJumpFunctions<String, String, String, String>(allTop, icfg, 1);
+		assertSame(identity, jumpFn.joinAndAddIfChanged("d1", "a.1", "d2", identity));
+		jumpFn.addFunction("d1", "b.1", "d2", identity);
+		assertNull(jumpFn.joinAndAddIfChanged("d1", "a.1", "d2", identity));
+		jumpFn.addFunction("d1", "b.1", "d3", identity);
+		assertTrue(jumpFn.removeFunction("d1", "a.1", "d2"));
+		jumpFn.addFunction("d1", "b.1", "d4", identity);
+		assertNull(jumpFn.getFunction("d1", "a.1", "d2"));
+		assertTrue(jumpFn.forwardLookup("d1", "a.1").isEmpty());
+		assertEquals(3, jumpFn.forwardLookup("d1", "b.1").size());
+	}
+
+	@Test
+	public void survivesManySpills() {
+		SpillingJumpFunctions<String, String, String, String> jumpFn = new SpillingJumpFunctions<String, String, String, String>(allTop, icfg, 1000);
+		for(int i = 0; i < 20000; i++) {
+			String method = Character.toString((char) ('a' + i % 20));
+			jumpFn.addFunction("d" + i % 7, method + "." + i % 13, "d" + i, identity);
+		}
+		for(int i = 0; i < 20000; i++) {
+			String method = Character.toString((char) ('a' + i % 20));
+			assertSame(identity, jumpFn.getFunction("d" + i % 7, method + "." + i % 13, "d" + i));
+		}
+		jumpFn.clear();
+		assertEquals(0, jumpFn.residentFunctions());
+	}
+}
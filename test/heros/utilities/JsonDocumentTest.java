@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Johannes Lerch.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser Public License v2.1
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ * 
+ * Contributors:
+ *     Johannes Lerch - initial API and implementation
+ ******************************************************************************/
+package heros.utilities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class JsonDocumentTest {
+
+	@Test
+	public void plainStringIsNotCopied() {
+		String value = "[Statement a]";
+		assertSame(value, JsonDocument.escape(value));
+	}
+
+	@Test
+	public void escapeQuotesAndBackslashes() {
+		assertEquals("a\\\"b\\\\c", JsonDocument.escape("a\"b\\c"));
+	}
+
+	@Test
+	public void escapeControlCharacters() {
+		assertEquals("a\\nb\\rc\\td\\u0000e\\u001f", JsonDocument.escape("a\nb\rc\td\u0000e\u001f"));
+	}
+
+	@Test
+	public void escapeKeysAndValues() {
+		JsonDocument doc = new JsonDocument();
+		doc.keyValue("line\nbreak", "tab\there");
+		assertEquals("{\n\t\"line\\nbreak\": \"tab\\there\"\n}", doc.toString());
+	}
+}
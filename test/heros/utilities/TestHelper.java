@@ -15,10 +15,16 @@ import heros.FlowFunction;
 import heros.FlowFunctions;
 import heros.IFDSTabulationProblem;
 import heros.InterproceduralCFG;
+import heros.InterproceduralCFGDelta;
 import heros.fieldsens.AccessPathHandler;
 import heros.fieldsens.FlowFunction.ConstrainedFact;
 import heros.solver.BiDiIFDSSolver;
 import heros.solver.IFDSSolver;
+import heros.solver.IFDSSolver.BinaryDomain;
+import heros.solver.BitVectorIFDSSolver;
+import heros.solver.InterningIFDSSolver;
+import heros.solver.JoinHandlingNodesIFDSSolver;
+import heros.solver.MethodSummaries;
 import heros.utilities.Edge.Call2ReturnEdge;
 import heros.utilities.Edge.CallEdge;
 import heros.utilities.Edge.EdgeVisitor;
@@ -27,13 +33,16 @@ import heros.utilities.Edge.ReturnEdge;
 import heros.utilities.EdgeBuilder.NormalStmtBuilder;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Predicate;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.HashMultiset;
 import com.google.common.collect.Iterables;
@@ -52,6 +61,18 @@ public class TestHelper {
 	private List<ReturnEdge> returnEdges = Lists.newLinkedList();
 	private Map<Statement, TestMethod> stmt2method = Maps.newHashMap();
 	private Multiset<ExpectedFlowFunction<JoinableFact>> remainingFlowFunctions = HashMultiset.create();
+	private final SolverVariant variant;
+	private boolean computeValuesOnDemand;
+	
+	public static enum SolverVariant {Default, ConcurrentJumpFunctions, WorkStealing, ConcurrentSummaries, SpillingJumpFunctions, MemoizedEdgeFunctions, Interning, BitVector};
+	
+	public TestHelper() {
+		this(SolverVariant.Default);
+	}
+	
+	public TestHelper(SolverVariant variant) {
+		this.variant = variant;
+	}
 
 	public MethodHelper method(String methodName, Statement[] startingPoints, EdgeBuilder... edgeBuilders) {
 		MethodHelper methodHelper = new MethodHelper(new TestMethod(methodName));
@@ -62,6 +83,57 @@ public class TestHelper {
 		return methodHelper;
 	}
 
+	/**
+	 * Replaces all edges and start points of the given method.
+	 * @return The statements the method contained before.
+	 */
+	public Set<Statement> replaceMethod(String methodName, Statement[] startingPoints, EdgeBuilder... edgeBuilders) {
+		TestMethod method = new TestMethod(methodName);
+		Set<Statement> previousStmts = Sets.newHashSet(method2startPoint.removeAll(method));
+		for(Iterator<Entry<Statement, TestMethod>> it = stmt2method.entrySet().iterator(); it.hasNext(); ) {
+			Entry<Statement, TestMethod> entry = it.next();
+			if(entry.getValue().equals(method)) {
+				previousStmts.add(entry.getKey());
+				it.remove();
+			}
+		}
+		List<Edge> removedEdges = Lists.newLinkedList();
+		for(Iterator<NormalEdge> it = normalEdges.iterator(); it.hasNext(); ) {
+			NormalEdge edge = it.next();
+			if(previousStmts.contains(edge.unit)) {
+				removedEdges.add(edge);
+				it.remove();
+			}
+		}
+		for(Iterator<CallEdge> it = callEdges.iterator(); it.hasNext(); ) {
+			CallEdge edge = it.next();
+			if(previousStmts.contains(edge.callSite)) {
+				removedEdges.add(edge);
+				it.remove();
+			}
+		}
+		for(Iterator<Call2ReturnEdge> it = call2retEdges.iterator(); it.hasNext(); ) {
+			Call2ReturnEdge edge = it.next();
+			if(previousStmts.contains(edge.callSite)) {
+				removedEdges.add(edge);
+				it.remove();
+			}
+		}
+		for(Iterator<ReturnEdge> it = returnEdges.iterator(); it.hasNext(); ) {
+			ReturnEdge edge = it.next();
+			if(edge.calleeMethod.equals(method)) {
+				removedEdges.add(edge);
+				it.remove();
+			}
+		}
+		for(Edge edge : removedEdges) {
+			for(ExpectedFlowFunction<JoinableFact> ff : edge.flowFunctions)
+				remainingFlowFunctions.setCount(ff, 0);
+		}
+		method(methodName, startingPoints, edgeBuilders);
+		return previousStmts;
+	}
+
 	public static Statement[] startPoints(String... startingPoints) {
 		Statement[] result = new Statement[startingPoints.length];
 		for (int i = 0; i < result.length; i++) {
@@ -222,7 +294,13 @@ public class TestHelper {
 
 			@Override
 			public Set<Statement> getCallsFromWithin(TestMethod m) {
-				throw new IllegalStateException();
+				Set<Statement> result = Sets.newHashSet();
+				for (CallEdge edge : callEdges) {
+					if (edge.includeInCfg && m.equals(stmt2method.get(edge.callSite))) {
+						result.add(edge.callSite);
+					}
+				}
+				return result;
 			}
 
 			@Override
@@ -400,26 +478,119 @@ public class TestHelper {
 
 	public void runSolver(final boolean followReturnsPastSeeds, final String...initialSeeds) {
 		IFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> solver =
-				new IFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>>(
-				createTabulationProblem(followReturnsPastSeeds, initialSeeds));
-
+				newSolver(createTabulationProblem(followReturnsPastSeeds, initialSeeds));
+		solver.solve();
+		assertAllFlowFunctionsUsed();
+	}
+	
+	
+	public void runSolver(MethodSummaries<Statement, JoinableFact, TestMethod, BinaryDomain> methodSummaries, final String...initialSeeds) {
+		IFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> solver =
+				newSolver(createTabulationProblem(false, initialSeeds));
+		solver.setMethodSummaries(methodSummaries);
+		solver.solve();
+		assertAllFlowFunctionsUsed();
+	}
+	
+	public IFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> runIncrementalSolver(final String...initialSeeds) {
+		IFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> solver =
+				newSolver(createTabulationProblem(false, initialSeeds));
+		solver.solve();
+		assertAllFlowFunctionsUsed();
+		return solver;
+	}
+	
+	public IFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> createSolver(final String...initialSeeds) {
+		return newSolver(createTabulationProblem(false, initialSeeds));
+	}
+	
+	public JoinHandlingNodesIFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> runJoinHandlingSolver(final String...initialSeeds) {
+		JoinHandlingNodesIFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> solver =
+				configure(new JoinHandlingNodesIFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>>(
+				createTabulationProblem(false, initialSeeds)));
 		solver.solve();
 		assertAllFlowFunctionsUsed();
+		return solver;
 	}
 	
+	public IFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> runSolverComputingValuesOnDemand(final String...initialSeeds) {
+		computeValuesOnDemand();
+		return runIncrementalSolver(initialSeeds);
+	}
+	
+	public void computeValuesOnDemand() {
+		computeValuesOnDemand = true;
+	}
+	
+	public void updateSolver(IFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> solver, final Map<TestMethod, Set<Statement>> previousStmts) {
+		solver.update(new InterproceduralCFGDelta<Statement, TestMethod>() {
+			@Override
+			public Set<TestMethod> getChangedMethods() {
+				return previousStmts.keySet();
+			}
+
+			@Override
+			public Collection<Statement> getPreviousNodesOf(TestMethod m) {
+				return previousStmts.get(m);
+			}
+		});
+		assertAllFlowFunctionsUsed();
+	}
 	
 	public static enum TabulationProblemExchange {AsSpecified, ExchangeForwardAndBackward};
-	public void runBiDiSolver(TestHelper backwardHelper, TabulationProblemExchange direction, final String...initialSeeds) {
+	public BiDiIFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> runBiDiSolver(TestHelper backwardHelper, TabulationProblemExchange direction, final String...initialSeeds) {
+		return runBiDiSolver(backwardHelper, direction, false, initialSeeds);
+	}
+	
+	public BiDiIFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> runBiDiSolver(TestHelper backwardHelper, TabulationProblemExchange direction, boolean pipelined, final String...initialSeeds) {
 		BiDiIFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> solver =
 				direction == TabulationProblemExchange.AsSpecified ? 
 				new BiDiIFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>>(createTabulationProblem(true, initialSeeds), 
 									backwardHelper.createTabulationProblem(true, initialSeeds)) :
 				new BiDiIFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>>(backwardHelper.createTabulationProblem(true, initialSeeds), 
 									createTabulationProblem(true, initialSeeds));
+		if(variant == SolverVariant.WorkStealing)
+			solver.setWorkStealingExecutor(true);
+		if(pipelined)
+			solver.setPipelined(2, 2);
 		
 		solver.solve();
 		assertAllFlowFunctionsUsed();
 		backwardHelper.assertAllFlowFunctionsUsed();
+		return solver;
+	}
+	
+	/**
+	 * Creates a solver of the variant under test for the given problem.
+	 */
+	private IFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> newSolver(IFDSTabulationProblem<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> problem) {
+		IFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> solver;
+		if(variant == SolverVariant.Interning)
+			solver = new InterningIFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>>(problem);
+		else if(variant == SolverVariant.BitVector)
+			solver = new BitVectorIFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>>(problem);
+		else if(variant == SolverVariant.MemoizedEdgeFunctions)
+			solver = new IFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>>(problem,
+					CacheBuilder.newBuilder(), CacheBuilder.newBuilder(), CacheBuilder.newBuilder().maximumSize(100));
+		else
+			solver = new IFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>>(problem);
+		return configure(solver);
+	}
+
+	/**
+	 * Enables the options of the solver variant under test.
+	 */
+	private <S extends IFDSSolver<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>>> S configure(S solver) {
+		if(variant == SolverVariant.ConcurrentJumpFunctions)
+			solver.setConcurrentJumpFunctions(true);
+		if(variant == SolverVariant.WorkStealing)
+			solver.setWorkStealingExecutor(true);
+		if(variant == SolverVariant.ConcurrentSummaries)
+			solver.setConcurrentSummaries(true);
+		if(variant == SolverVariant.SpillingJumpFunctions)
+			solver.setJumpFunctionSpillBudget(1);
+		solver.setComputeValuesOnDemand(computeValuesOnDemand);
+		return solver;
 	}
 	
 	private IFDSTabulationProblem<Statement, JoinableFact, TestMethod, InterproceduralCFG<Statement, TestMethod>> createTabulationProblem(final boolean followReturnsPastSeeds, final String[] initialSeeds) {
@@ -445,7 +616,7 @@ public class TestHelper {
 
 			@Override
 			public boolean computeValues() {
-				return false;
+				return computeValuesOnDemand;
 			}
 
 			@Override